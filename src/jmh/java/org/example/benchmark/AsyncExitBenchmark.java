@@ -0,0 +1,91 @@
+package org.example.benchmark;
+
+import org.example.models.Exceptions;
+import org.example.models.ParkingBill;
+import org.example.models.ParkingTicket;
+import org.example.services.ParkingExitPipeline;
+import org.example.services.ParkingTicketService;
+import org.example.strategy.Payment.PaymentStrategy;
+import org.example.strategy.Payment.SimulatedLatencyPaymentStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Exit throughput against a slow payment provider, blocking createParkingBill versus the async pipeline.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncExitBenchmark {
+    @Param({"5", "50"})
+    public int paymentLatencyMillis;
+
+    @Param({"0.0", "0.1"})
+    public double paymentFailureRate;
+
+    private final ParkingTicketService parkingTicketService = ParkingTicketService.getInstance();
+
+    private PaymentStrategy paymentStrategy;
+    private ParkingExitPipeline parkingExitPipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        paymentStrategy = new SimulatedLatencyPaymentStrategy(Duration.ofMillis(paymentLatencyMillis), paymentFailureRate);
+        parkingExitPipeline = new ParkingExitPipeline(Duration.ZERO, 256, Duration.ofSeconds(5), 3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parkingExitPipeline.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ParkingBill blockingExit(ParkingLotState parkingLotState, GateState gateState) {
+        try {
+            ParkingTicket parkingTicket = parkingTicketService.createParkingTicket(
+                    parkingLotState.parkingLot, gateState.nextVehicle(), gateState.entryGate);
+
+            return parkingTicketService.createParkingBill(parkingTicket, gateState.exitGate, paymentStrategy);
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public CompletableFuture<ParkingBill> asyncExit(ParkingLotState parkingLotState, GateState gateState, ExitWindow exitWindow) {
+        try {
+            ParkingTicket parkingTicket = parkingTicketService.createParkingTicket(
+                    parkingLotState.parkingLot, gateState.nextVehicle(), gateState.entryGate);
+
+            return exitWindow.add(parkingExitPipeline.exit(parkingTicket, gateState.exitGate, paymentStrategy));
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    // caps how far a gate runs ahead of its payments, so the benchmark measures a steady state
+    @State(Scope.Thread)
+    public static class ExitWindow {
+        private final CompletableFuture<?>[] pendingExits = new CompletableFuture<?>[64];
+        private int nextExit;
+
+        public CompletableFuture<ParkingBill> add(CompletableFuture<ParkingBill> exit) {
+            CompletableFuture<?> oldestExit = pendingExits[nextExit];
+
+            if (oldestExit != null) {
+                oldestExit.exceptionally(throwable -> null).join();
+            }
+
+            pendingExits[nextExit] = exit;
+            nextExit = (nextExit + 1) % pendingExits.length;
+
+            return exit;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.benchmark;
+
+import org.example.models.*;
+import org.example.services.ParkingTicketService;
+import org.example.strategy.Payment.PaymentStrategy;
+import org.example.strategy.Payment.UpiPaymentStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Every thread is its own pair of entry and exit gates racing for the same lot.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentGatesBenchmark {
+    private static final PaymentStrategy paymentStrategy = new UpiPaymentStrategy("upi@ybl");
+
+    private static final ParkingTicketService parkingTicketService = ParkingTicketService.getInstance();
+
+    @Benchmark
+    @Threads(8)
+    public ParkingBill parkAndUnParkVehicle(ParkingLotState parkingLotState, GateState gateState) {
+        try {
+            ParkingTicket parkingTicket = parkingTicketService.createParkingTicket(
+                    parkingLotState.parkingLot, gateState.nextVehicle(), gateState.entryGate);
+
+            return parkingTicketService.createParkingBill(parkingTicket, gateState.exitGate, paymentStrategy);
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    // the batched single-gate park and unpark of ParkingLotBenchmark, with every gate in a batch at once
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20, batchSize = ParkBatchState.BATCH_SIZE)
+    @Measurement(iterations = 200, batchSize = ParkBatchState.BATCH_SIZE)
+    public ParkingTicket parkVehicle(ParkingLotState parkingLotState, GateState gateState, ParkBatchState parkBatchState) {
+        try {
+            return parkBatchState.add(parkingTicketService.createParkingTicket(
+                    parkingLotState.parkingLot, gateState.nextVehicle(), gateState.entryGate));
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20, batchSize = UnParkBatchState.BATCH_SIZE)
+    @Measurement(iterations = 200, batchSize = UnParkBatchState.BATCH_SIZE)
+    public ParkingBill unParkVehicle(GateState gateState, UnParkBatchState unParkBatchState) {
+        ParkingTicket parkingTicket = unParkBatchState.nextParkingTicket();
+        if (parkingTicket == null) {
+            return null;
+        }
+
+        try {
+            return parkingTicketService.createParkingBill(parkingTicket, gateState.exitGate, paymentStrategy);
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("parkWhileDisplaying")
+    @GroupThreads(7)
+    public ParkingBill parkWhileDisplaying(ParkingLotState parkingLotState, GateState gateState) {
+        return parkAndUnParkVehicle(parkingLotState, gateState);
+    }
+
+    @Benchmark
+    @Group("parkWhileDisplaying")
+    @GroupThreads(1)
+    public void displayWhileParking(ParkingLotState parkingLotState) {
+        parkingLotState.parkingLot.displayParkingLotStatus();
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.benchmark;
+
+import org.example.models.Gate;
+import org.example.models.Vehicle;
+import org.example.scripts.ParkingLotScripts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Thread)
+public class GateState {
+    private static final AtomicInteger gatesCount = new AtomicInteger();
+
+    public Gate entryGate;
+    public Gate exitGate;
+
+    private List<Vehicle> vehicles;
+    private int nextVehicle;
+
+    @Setup(Level.Trial)
+    public void setUp(ParkingLotState parkingLotState) {
+        int gateNumber = gatesCount.incrementAndGet();
+
+        entryGate = ParkingLotState.entryGate(gateNumber);
+        exitGate = ParkingLotState.exitGate(gateNumber);
+        vehicles = ParkingLotScripts.generateVehicles(1024, parkingLotState.getVehicleMix());
+    }
+
+    public Vehicle nextVehicle() {
+        Vehicle vehicle = vehicles.get(nextVehicle);
+        nextVehicle = (nextVehicle + 1) % vehicles.size();
+        return vehicle;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.benchmark;
+
+import org.example.models.Exceptions;
+import org.example.models.ParkingTicket;
+import org.example.services.ParkingTicketService;
+import org.example.strategy.Payment.PaymentStrategy;
+import org.example.strategy.Payment.UpiPaymentStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Tickets a gate parks during one batch; they are unparked once the batch is timed so the lot is back at
+// its configured occupancy before the next one.
+@State(Scope.Thread)
+public class ParkBatchState {
+    public static final int BATCH_SIZE = 32;
+
+    static final PaymentStrategy paymentStrategy = new UpiPaymentStrategy("upi@ybl");
+
+    private final List<ParkingTicket> parkingTickets = new ArrayList<>(BATCH_SIZE);
+
+    public ParkingTicket add(ParkingTicket parkingTicket) {
+        parkingTickets.add(parkingTicket);
+        return parkingTicket;
+    }
+
+    @TearDown(Level.Iteration)
+    public void unParkVehicles(GateState gateState) {
+        for (ParkingTicket parkingTicket : parkingTickets) {
+            try {
+                ParkingTicketService.getInstance().createParkingBill(parkingTicket, gateState.exitGate, paymentStrategy);
+            } catch (Exceptions.ParkingLotException ignored) {
+            }
+        }
+
+        parkingTickets.clear();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import org.example.models.*;
+import org.example.services.ParkingTicketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// ParkingLotService is pinned to the lot it generates on startup, so park and unpark are driven
+// through ParkingTicketService the same way parkVehicle and unParkVehicle do.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingLotBenchmark {
+    private static final ParkingTicketService parkingTicketService = ParkingTicketService.getInstance();
+
+    // park and unpark change the lot they run against, so each is timed as a batch of BATCH_SIZE single
+    // shots: the vehicles a park batch leaves behind are unparked after it, and those an unpark batch
+    // takes out are parked before it
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20, batchSize = ParkBatchState.BATCH_SIZE)
+    @Measurement(iterations = 200, batchSize = ParkBatchState.BATCH_SIZE)
+    public ParkingTicket parkVehicle(ParkingLotState parkingLotState, GateState gateState, ParkBatchState parkBatchState) {
+        try {
+            return parkBatchState.add(parkingTicketService.createParkingTicket(
+                    parkingLotState.parkingLot, gateState.nextVehicle(), gateState.entryGate));
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20, batchSize = UnParkBatchState.BATCH_SIZE)
+    @Measurement(iterations = 200, batchSize = UnParkBatchState.BATCH_SIZE)
+    public ParkingBill unParkVehicle(GateState gateState, UnParkBatchState unParkBatchState) {
+        ParkingTicket parkingTicket = unParkBatchState.nextParkingTicket();
+        if (parkingTicket == null) {
+            return null;
+        }
+
+        try {
+            return parkingTicketService.createParkingBill(parkingTicket, gateState.exitGate, ParkBatchState.paymentStrategy);
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    // a vehicle turned away at an exit gate, once as an exception and once as a shared rejection
+    @Benchmark
+    public ParkingTicket parkVehicleAtExitGate(ParkingLotState parkingLotState, GateState gateState) {
+        try {
+            return parkingTicketService.createParkingTicket(parkingLotState.parkingLot, gateState.nextVehicle(), gateState.exitGate);
+        } catch (Exceptions.ParkingLotException exception) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public ParkingResult<ParkingTicket> tryParkVehicleAtExitGate(ParkingLotState parkingLotState, GateState gateState) {
+        return parkingTicketService.tryCreateParkingTicket(parkingLotState.parkingLot, gateState.nextVehicle(), gateState.exitGate);
+    }
+
+    @Benchmark
+    public Optional<ParkingFloor> assignFloor(ParkingLotState parkingLotState, GateState gateState) {
+        return parkingLotState.parkingLot.findParkingFloor(gateState.nextVehicle().type(), gateState.entryGate);
+    }
+
+    @Benchmark
+    public Optional<ParkingSpot> findSpot(ParkingLotState parkingLotState, GateState gateState) {
+        ParkingFloor parkingFloor = parkingLotState.parkingLot.getFloors().getFirst();
+        return parkingFloor.findParkingSpot(gateState.nextVehicle().type());
+    }
+
+    @Benchmark
+    public void displayParkingLotStatus(ParkingLotState parkingLotState) {
+        parkingLotState.parkingLot.displayParkingLotStatus();
+    }
+}
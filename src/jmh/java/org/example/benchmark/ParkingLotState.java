@@ -0,0 +1,62 @@
+package org.example.benchmark;
+
+import org.example.models.Gate;
+import org.example.models.ParkingLot;
+import org.example.models.enums.GateType;
+import org.example.models.enums.VehicleType;
+import org.example.scripts.ParkingLotScripts;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class ParkingLotState {
+    @Param({"3", "20"})
+    public int floorsCount;
+
+    @Param({"50", "2000"})
+    public int parkingSpotsPerFloor;
+
+    @Param({"0.2", "0.85"})
+    public double occupiedRatio;
+
+    @Param({"DEFAULT", "TWO_WHEELER_HEAVY", "HMV_HEAVY"})
+    public String vehicleMix;
+
+    public ParkingLot parkingLot;
+
+    private PrintStream systemOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // services print on every park, keep console I/O out of the measurement
+        systemOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        parkingLot = ParkingLotScripts.generateParkingLot(
+                floorsCount, parkingSpotsPerFloor, occupiedRatio, getVehicleMix());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(systemOut);
+    }
+
+    public Map<VehicleType, Double> getVehicleMix() {
+        return switch (vehicleMix) {
+            case "TWO_WHEELER_HEAVY" -> ParkingLotScripts.vehicleMix(0.7, 0.25, 0.05);
+            case "HMV_HEAVY" -> ParkingLotScripts.vehicleMix(0.1, 0.3, 0.6);
+            default -> ParkingLotScripts.DEFAULT_VEHICLE_MIX;
+        };
+    }
+
+    public static Gate entryGate(int number) {
+        return new Gate("BenchmarkEntryGate-" + number, number, GateType.ENTRY);
+    }
+
+    public static Gate exitGate(int number) {
+        return new Gate("BenchmarkExitGate-" + number, number, GateType.EXIT);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.scripts.ParkingLotScripts;
+import org.example.services.ParkingLotService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Every thread drives its own lot through the ParkingLotService router; run with -DparkingLot.shards=1
+// against the default of one shard per core to see how throughput scales with shards. The console
+// subscriber is turned off so the runs measure the router rather than System.out.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DparkingLot.logging=false")
+public class ShardedParkingBenchmark {
+    private static final ParkingLotService parkingLotService = ParkingLotService.getInstance();
+
+    @State(Scope.Benchmark)
+    public static class ParkingLotsState {
+        @Param({"8"})
+        public int parkingLotsCount;
+
+        final List<ParkingLot> parkingLots = new ArrayList<>();
+        final AtomicInteger nextParkingLot = new AtomicInteger();
+
+        private PrintStream systemOut;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            systemOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+            for (int i = 0; i < parkingLotsCount; i++) {
+                ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(3, 200, 0.2, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+                parkingLot.addGates(List.of(
+                        new Gate("ShardedEntryGate-" + i, i, GateType.ENTRY), new Gate("ShardedExitGate-" + i, i, GateType.EXIT)));
+
+                ParkingLotService.getInstance().addParkingLot(parkingLot);
+                parkingLots.add(parkingLot);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            System.setOut(systemOut);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ParkingLotGatesState {
+        String entryGateId;
+        String exitGateId;
+        List<Vehicle> vehicles;
+        int nextVehicle;
+
+        @Setup(Level.Trial)
+        public void setUp(ParkingLotsState parkingLotsState) {
+            int parkingLotIndex = parkingLotsState.nextParkingLot.getAndIncrement() % parkingLotsState.parkingLots.size();
+
+            entryGateId = "ShardedEntryGate-" + parkingLotIndex;
+            exitGateId = "ShardedExitGate-" + parkingLotIndex;
+            vehicles = ParkingLotScripts.generateVehicles(1024, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        }
+
+        Vehicle nextVehicle() {
+            return vehicles.get(nextVehicle++ & (vehicles.size() - 1));
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<ParkingBill> parkAndUnParkVehicle(ParkingLotsState parkingLotsState, ParkingLotGatesState parkingLotGatesState) {
+        Optional<ParkingTicket> parkingTicket = parkingLotService.parkVehicle(
+                parkingLotGatesState.nextVehicle(), parkingLotGatesState.entryGateId);
+
+        return parkingTicket.flatMap(ticket -> parkingLotService.unParkVehicle(ticket, parkingLotGatesState.exitGateId));
+    }
+}
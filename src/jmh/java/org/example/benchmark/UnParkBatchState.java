@@ -0,0 +1,42 @@
+package org.example.benchmark;
+
+import org.example.models.Exceptions;
+import org.example.models.ParkingTicket;
+import org.example.services.ParkingTicketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+// Vehicles a gate parks before one batch is timed, so the batch measures nothing but their unparking.
+@State(Scope.Thread)
+public class UnParkBatchState {
+    public static final int BATCH_SIZE = ParkBatchState.BATCH_SIZE;
+
+    private final Queue<ParkingTicket> parkingTickets = new ArrayDeque<>(BATCH_SIZE);
+
+    public ParkingTicket nextParkingTicket() {
+        return parkingTickets.poll();
+    }
+
+    @Setup(Level.Iteration)
+    public void parkVehicles(ParkingLotState parkingLotState, GateState gateState) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            try {
+                parkingTickets.add(ParkingTicketService.getInstance().createParkingTicket(
+                        parkingLotState.parkingLot, gateState.nextVehicle(), gateState.entryGate));
+            } catch (Exceptions.ParkingLotException ignored) {
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void unParkLeftoverVehicles(GateState gateState) {
+        for (ParkingTicket parkingTicket; (parkingTicket = parkingTickets.poll()) != null; ) {
+            try {
+                ParkingTicketService.getInstance().createParkingBill(parkingTicket, gateState.exitGate, ParkBatchState.paymentStrategy);
+            } catch (Exceptions.ParkingLotException ignored) {
+            }
+        }
+    }
+}
@@ -7,16 +7,16 @@ import org.example.models.Vehicle;
 import org.example.models.enums.GateType;
 import org.example.scripts.ParkingLotScripts;
 import org.example.services.ParkingLotService;
-import org.example.services.ParkingTicketService;
 
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
         ParkingLotService parkingLotService = ParkingLotService.getInstance();
-        ParkingTicketService parkingTicketService = ParkingTicketService.getInstance();
 
         ParkingLot parkingLot = parkingLotService.getParkingLot();
+        System.out.println("Generated parkingLot:\n" + parkingLot);
+
         List<Vehicle> vehicles = ParkingLotScripts.generateVehicles();
 
         parkingLotService.displayParkingLotStatus();
@@ -30,7 +30,7 @@ public class Main {
         parkingLotService.displayParkingLotStatus();
 
         // unPark all vehicles
-        for (ParkingTicket parkingTicket : parkingTicketService.getParkingTickets()) {
+        for (ParkingTicket parkingTicket : parkingLotService.getParkingTickets()) {
             Gate gate = ParkingLotScripts.getRandomGate(parkingLot.getGates(), GateType.EXIT);
             parkingLotService.unParkVehicle(parkingTicket, gate.id());
         }
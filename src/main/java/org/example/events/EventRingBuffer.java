@@ -0,0 +1,92 @@
+package org.example.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded many producers, one consumer queue. Every slot carries a sequence that tells producers whether
+// it is free for their lap and tells the consumer whether it has been published.
+public class EventRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public EventRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+        }
+
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // false when the buffer is full, producers never wait for the consumer
+    public boolean offer(E element) {
+        return enqueue(element) >= 0;
+    }
+
+    // the position the element took, elements are polled in position order, or -1 when the buffer is full
+    public long enqueue(E element) {
+        long position = tail.get();
+
+        while (true) {
+            int slot = (int) position & mask;
+            long available = sequences.get(slot) - position;
+
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, element);
+                    sequences.lazySet(slot, position + 1);
+                    return position;
+                }
+
+                position = tail.get();
+            } else if (available < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // positions handed out so far, the next enqueue takes this one or a later one
+    public long getEnqueuedCount() {
+        return tail.get();
+    }
+
+    // only ever called from the consumer thread
+    public E poll() {
+        long position = head;
+        int slot = (int) position & mask;
+
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+
+        E element = slots.get(slot);
+        slots.lazySet(slot, null);
+        sequences.lazySet(slot, position + mask + 1);
+        head = position + 1;
+
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return head == tail.get();
+    }
+
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
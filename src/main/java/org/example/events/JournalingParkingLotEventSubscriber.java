@@ -0,0 +1,84 @@
+package org.example.events;
+
+import org.example.models.ParkingBill;
+import org.example.models.ParkingTicket;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends every event as one tab separated line to a journal file. The file is flushed whenever the subscription
+// has drained its queue, so it trails the lot by at most one delivery batch and no gate ever waits on the disk.
+public class JournalingParkingLotEventSubscriber implements ParkingLotEventSubscriber, AutoCloseable {
+    private final BufferedWriter writer;
+
+    public JournalingParkingLotEventSubscriber(Path path) throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void onEvent(ParkingLotEvent parkingLotEvent) {
+        try {
+            writer.write(format(parkingLotEvent));
+            writer.newLine();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public void onEventsDelivered() {
+        try {
+            writer.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static String format(ParkingLotEvent parkingLotEvent) {
+        return switch (parkingLotEvent) {
+            case ParkingLotEvent.VehicleParked vehicleParked -> {
+                ParkingTicket parkingTicket = vehicleParked.parkingTicket();
+
+                yield String.join("\t", "PARKED", vehicleParked.gateId(), Long.toString(parkingTicket.id()),
+                        parkingTicket.vehicle().regNumber(), parkingTicket.vehicle().type().name(),
+                        parkingTicket.parkingSpot().getParkingFloor().getParkingLotId(), parkingTicket.parkingSpot().getParkingFloor().getId(),
+                        parkingTicket.parkingSpot().getId(), Long.toString(parkingTicket.inTime().getTime()));
+            }
+            case ParkingLotEvent.VehicleExited vehicleExited -> {
+                ParkingBill parkingBill = vehicleExited.parkingBill();
+
+                yield String.join("\t", "EXITED", vehicleExited.gateId(), Long.toString(parkingBill.id()),
+                        Long.toString(parkingBill.parkingTicket().id()), Long.toString(parkingBill.outTime().getTime()),
+                        Long.toString(parkingBill.paymentDetails().amountCents()));
+            }
+            case ParkingLotEvent.VehicleExitedUnpaid vehicleExitedUnpaid -> String.join("\t", "EXITED_UNPAID", vehicleExitedUnpaid.gateId(),
+                    Long.toString(vehicleExitedUnpaid.parkingTicket().id()), Long.toString(vehicleExitedUnpaid.outTime().getTime()),
+                    Long.toString(vehicleExitedUnpaid.amountCents()));
+            case ParkingLotEvent.PaymentCompleted paymentCompleted -> String.join("\t", "PAID",
+                    Long.toString(paymentCompleted.paymentDetails().id()), Long.toString(paymentCompleted.paymentDetails().amountCents()));
+            case ParkingLotEvent.LotFull lotFull -> String.join("\t", "LOT_FULL", lotFull.parkingLotId(), lotFull.gateId(),
+                    lotFull.vehicle().regNumber(), lotFull.vehicle().type().name());
+            case ParkingLotEvent.ParkingRequestFailed parkingRequestFailed -> String.join("\t", "FAILED",
+                    parkingRequestFailed.gateId(), parkingRequestFailed.message());
+            case ParkingLotEvent.SnapshotLoaded snapshotLoaded -> String.join("\t", "SNAPSHOT_LOADED",
+                    snapshotLoaded.parkingLotId(), Long.toString(snapshotLoaded.lsn()), Long.toString(snapshotLoaded.durationNanos()));
+            case ParkingLotEvent.EventLogReplayed eventLogReplayed -> String.join("\t", "LOG_REPLAYED",
+                    eventLogReplayed.parkingLotId(), Long.toString(eventLogReplayed.eventsCount()),
+                    Long.toString(eventLogReplayed.lastLsn()), Long.toString(eventLogReplayed.durationNanos()));
+        };
+    }
+}
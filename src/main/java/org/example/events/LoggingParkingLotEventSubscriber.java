@@ -0,0 +1,53 @@
+package org.example.events;
+
+import org.example.models.Exceptions;
+import org.example.models.ParkingTicket;
+import org.example.strategy.Payment.UpiPaymentStrategy;
+
+import java.io.PrintStream;
+import java.math.BigDecimal;
+
+// Prints the same lines the services used to print inline, off the gate threads.
+public class LoggingParkingLotEventSubscriber implements ParkingLotEventSubscriber {
+    private final PrintStream printStream;
+
+    public LoggingParkingLotEventSubscriber(PrintStream printStream) {
+        this.printStream = printStream;
+    }
+
+    @Override
+    public void onEvent(ParkingLotEvent parkingLotEvent) {
+        switch (parkingLotEvent) {
+            case ParkingLotEvent.VehicleParked vehicleParked -> {
+                ParkingTicket parkingTicket = vehicleParked.parkingTicket();
+
+                printStream.println("Park " + parkingTicket.vehicle() + " at " + vehicleParked.gateId());
+                printStream.println(parkingTicket.vehicle().regNumber() + " is parked at floor "
+                        + parkingTicket.parkingSpot().getParkingFloor().getId() + ", and " + parkingTicket.parkingSpot());
+            }
+            case ParkingLotEvent.VehicleExited vehicleExited ->
+                    printStream.println("UnPark " + vehicleExited.parkingBill().parkingTicket() + " at " + vehicleExited.gateId());
+            case ParkingLotEvent.VehicleExitedUnpaid vehicleExitedUnpaid ->
+                    printStream.println("Exit of " + vehicleExitedUnpaid.parkingTicket() + " at " + vehicleExitedUnpaid.gateId()
+                            + " left " + BigDecimal.valueOf(vehicleExitedUnpaid.amountCents(), 2) + " unpaid");
+            case ParkingLotEvent.PaymentCompleted paymentCompleted -> {
+                if (paymentCompleted.paymentDetails().paymentStrategy() instanceof UpiPaymentStrategy upiPaymentStrategy) {
+                    printStream.println("Payment request sent to upiId: " + upiPaymentStrategy.getUpiId());
+                    printStream.println("Payment of amount " + paymentCompleted.paymentDetails().getAmount() + " done successfully");
+                }
+            }
+            case ParkingLotEvent.LotFull lotFull -> {
+                printStream.println("Park " + lotFull.vehicle() + " at " + lotFull.gateId());
+                printStream.println(new Exceptions.ParkingLotFullException().getMessage());
+            }
+            case ParkingLotEvent.ParkingRequestFailed parkingRequestFailed ->
+                    printStream.println(parkingRequestFailed.message());
+            case ParkingLotEvent.SnapshotLoaded snapshotLoaded ->
+                    printStream.println("Loaded snapshot of " + snapshotLoaded.parkingLotId() + " at lsn " + snapshotLoaded.lsn()
+                            + " in " + snapshotLoaded.durationNanos() / 1_000_000 + " ms");
+            case ParkingLotEvent.EventLogReplayed eventLogReplayed ->
+                    printStream.println("Recovered " + eventLogReplayed.eventsCount() + " events of " + eventLogReplayed.parkingLotId()
+                            + " up to lsn " + eventLogReplayed.lastLsn() + " in " + eventLogReplayed.durationNanos() / 1_000_000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.events;
+
+import org.example.models.ParkingBill;
+import org.example.models.ParkingTicket;
+import org.example.models.PaymentDetails;
+import org.example.models.Vehicle;
+
+import java.util.Date;
+
+public sealed interface ParkingLotEvent {
+    record VehicleParked(String gateId, ParkingTicket parkingTicket) implements ParkingLotEvent {
+    }
+
+    record VehicleExited(String gateId, ParkingBill parkingBill) implements ParkingLotEvent {
+    }
+
+    // the vehicle left through the exit but its payment never went through
+    record VehicleExitedUnpaid(String gateId, ParkingTicket parkingTicket, Date outTime, long amountCents) implements ParkingLotEvent {
+    }
+
+    record PaymentCompleted(PaymentDetails paymentDetails) implements ParkingLotEvent {
+    }
+
+    record LotFull(String parkingLotId, String gateId, Vehicle vehicle) implements ParkingLotEvent {
+    }
+
+    record ParkingRequestFailed(String gateId, String message) implements ParkingLotEvent {
+    }
+
+    record SnapshotLoaded(String parkingLotId, long lsn, long durationNanos) implements ParkingLotEvent {
+    }
+
+    record EventLogReplayed(String parkingLotId, long eventsCount, long lastLsn, long durationNanos) implements ParkingLotEvent {
+    }
+}
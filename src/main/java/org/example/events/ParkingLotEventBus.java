@@ -0,0 +1,73 @@
+package org.example.events;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Publishing hands the event to every subscription's ring buffer and returns, it never waits on a
+// subscriber. An event that finds a buffer full is dropped for that subscriber and counted. A subscriber
+// that throws is counted as well and reported to the error handler, which logs it unless one is set.
+public class ParkingLotEventBus {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final System.Logger LOGGER = System.getLogger(ParkingLotEventBus.class.getName());
+
+    private final List<ParkingLotEventSubscription> parkingLotEventSubscriptions = new CopyOnWriteArrayList<>();
+    private volatile ParkingLotEventErrorHandler parkingLotEventErrorHandler = ParkingLotEventBus::logError;
+
+    private ParkingLotEventBus() {
+    }
+
+    public static ParkingLotEventBus getInstance() {
+        return ParkingLotEventBusHelper.INSTANCE;
+    }
+
+    public ParkingLotEventSubscription subscribe(String name, ParkingLotEventSubscriber parkingLotEventSubscriber) {
+        return subscribe(name, parkingLotEventSubscriber, DEFAULT_CAPACITY);
+    }
+
+    public ParkingLotEventSubscription subscribe(String name, ParkingLotEventSubscriber parkingLotEventSubscriber, int capacity) {
+        ParkingLotEventSubscription parkingLotEventSubscription = new ParkingLotEventSubscription(this, name, parkingLotEventSubscriber, capacity);
+        parkingLotEventSubscriptions.add(parkingLotEventSubscription);
+
+        return parkingLotEventSubscription;
+    }
+
+    public void unsubscribe(ParkingLotEventSubscription parkingLotEventSubscription) {
+        parkingLotEventSubscriptions.remove(parkingLotEventSubscription);
+        parkingLotEventSubscription.close();
+    }
+
+    public void publish(ParkingLotEvent parkingLotEvent) {
+        for (ParkingLotEventSubscription parkingLotEventSubscription : parkingLotEventSubscriptions) {
+            parkingLotEventSubscription.publish(parkingLotEvent);
+        }
+    }
+
+    public void setErrorHandler(ParkingLotEventErrorHandler parkingLotEventErrorHandler) {
+        this.parkingLotEventErrorHandler = parkingLotEventErrorHandler;
+    }
+
+    // a failing handler must not take the delivery thread down with it
+    void onError(String subscriptionName, ParkingLotEvent parkingLotEvent, RuntimeException exception) {
+        try {
+            parkingLotEventErrorHandler.onError(subscriptionName, parkingLotEvent, exception);
+        } catch (RuntimeException handlerException) {
+            exception.addSuppressed(handlerException);
+            logError(subscriptionName, parkingLotEvent, exception);
+        }
+    }
+
+    public void flush() {
+        for (ParkingLotEventSubscription parkingLotEventSubscription : parkingLotEventSubscriptions) {
+            parkingLotEventSubscription.flush();
+        }
+    }
+
+    private static void logError(String subscriptionName, ParkingLotEvent parkingLotEvent, RuntimeException exception) {
+        LOGGER.log(System.Logger.Level.ERROR, "Subscriber " + subscriptionName + " failed on " + parkingLotEvent, exception);
+    }
+
+    private static class ParkingLotEventBusHelper {
+        private static final ParkingLotEventBus INSTANCE = new ParkingLotEventBus();
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.events;
+
+public interface ParkingLotEventErrorHandler {
+    // the event is null when the subscriber failed at the end of a delivery batch rather than on one event
+    void onError(String subscriptionName, ParkingLotEvent parkingLotEvent, RuntimeException exception);
+}
@@ -0,0 +1,9 @@
+package org.example.events;
+
+public interface ParkingLotEventSubscriber {
+    void onEvent(ParkingLotEvent parkingLotEvent);
+
+    // called on the delivery thread once the queue is drained, a subscriber that buffers flushes here
+    default void onEventsDelivered() {
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.events;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// One subscriber with its own ring buffer and delivery thread, so a slow subscriber only ever drops its own events.
+// An idle delivery thread parks until the next publish wakes it.
+public class ParkingLotEventSubscription implements AutoCloseable {
+    private final ParkingLotEventBus parkingLotEventBus;
+    private final String name;
+    private final ParkingLotEventSubscriber parkingLotEventSubscriber;
+    private final EventRingBuffer<ParkingLotEvent> parkingLotEvents;
+    private final LongAdder droppedEventsCount = new LongAdder();
+    private final LongAdder failedEventsCount = new LongAdder();
+    private final Object flushMonitor = new Object();
+    private final Thread deliveryThread;
+    // events handled and announced to the subscriber, guarded by flushMonitor
+    private long flushedEventsCount;
+    private boolean isDeliveryStopped;
+    private volatile boolean isIdle;
+    private volatile boolean isClosed;
+
+    ParkingLotEventSubscription(ParkingLotEventBus parkingLotEventBus, String name, ParkingLotEventSubscriber parkingLotEventSubscriber, int capacity) {
+        this.parkingLotEventBus = parkingLotEventBus;
+        this.name = name;
+        this.parkingLotEventSubscriber = parkingLotEventSubscriber;
+        this.parkingLotEvents = new EventRingBuffer<>(capacity);
+        this.deliveryThread = Thread.ofPlatform().name("parking-lot-events-" + name).daemon().start(this::deliver);
+    }
+
+    public long getDroppedEventsCount() {
+        return droppedEventsCount.sum();
+    }
+
+    public long getFailedEventsCount() {
+        return failedEventsCount.sum();
+    }
+
+    void publish(ParkingLotEvent parkingLotEvent) {
+        if (!parkingLotEvents.offer(parkingLotEvent)) {
+            droppedEventsCount.increment();
+        } else if (isIdle) {
+            LockSupport.unpark(deliveryThread);
+        }
+    }
+
+    // waits until every event published before the call has been handled
+    public void flush() {
+        long enqueuedEventsCount = parkingLotEvents.getEnqueuedCount();
+
+        synchronized (flushMonitor) {
+            while (flushedEventsCount < enqueuedEventsCount && !isDeliveryStopped) {
+                try {
+                    flushMonitor.wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        isClosed = true;
+        LockSupport.unpark(deliveryThread);
+    }
+
+    // a flush returns only after the subscriber was told the queue is drained
+    private void deliver() {
+        long deliveredEventsCount = 0;
+        boolean hasDelivered = false;
+
+        try {
+            while (!isClosed) {
+                ParkingLotEvent parkingLotEvent = parkingLotEvents.poll();
+
+                if (parkingLotEvent == null) {
+                    if (hasDelivered) {
+                        hasDelivered = false;
+
+                        try {
+                            parkingLotEventSubscriber.onEventsDelivered();
+                        } catch (RuntimeException exception) {
+                            parkingLotEventBus.onError(name, null, exception);
+                        }
+
+                        synchronized (flushMonitor) {
+                            flushedEventsCount = deliveredEventsCount;
+                            flushMonitor.notifyAll();
+                        }
+                    }
+
+                    // a publish that lands after isIdle is set sees it and unparks this thread
+                    isIdle = true;
+
+                    if (parkingLotEvents.isEmpty() && !isClosed) {
+                        LockSupport.park(this);
+                    }
+
+                    isIdle = false;
+                    continue;
+                }
+
+                try {
+                    parkingLotEventSubscriber.onEvent(parkingLotEvent);
+                } catch (RuntimeException exception) {
+                    failedEventsCount.increment();
+                    parkingLotEventBus.onError(name, parkingLotEvent, exception);
+                }
+
+                deliveredEventsCount++;
+                hasDelivered = true;
+            }
+        } finally {
+            synchronized (flushMonitor) {
+                isDeliveryStopped = true;
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear buckets in the style of HdrHistogram: values below 32 ns are exact, above that every power of
+// two is split into 16 buckets, which keeps any recorded value within about 6% of its bucket.
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public record Snapshot(long count, double meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos,
+                           long maxNanos) {
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+
+        buckets.getAndIncrement(bucket(value));
+        totalNanos.add(value);
+
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+
+        return new Snapshot(count, count == 0 ? 0 : (double) totalNanos.sum() / count,
+                            percentile(counts, count, 0.5), percentile(counts, count, 0.9),
+                            percentile(counts, count, 0.99), percentile(counts, count, 0.999), maxNanos.get());
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - 1 - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long lowestValue(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        return (long) (bucket - (shift << SUB_BUCKET_BITS)) << shift;
+    }
+
+    private static long percentile(long[] counts, long count, double percentile) {
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank && counts[i] > 0) {
+                return lowestValue(i);
+            }
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.metrics;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+// ENABLED is a static final read once from -DparkingLot.metrics, so with metrics off the JIT folds every
+// record call below into nothing.
+public class ParkingLotMetrics implements ParkingLotMetricsMXBean {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("parkingLot.metrics", "true"));
+
+    public enum Latency {
+        CREATE_PARKING_TICKET,
+        FIND_PARKING_FLOOR,
+        CLAIM_PARKING_SPOT,
+        PAYMENT
+    }
+
+    private enum Counter {
+        PARKED("parked"),
+        EXITED("exited"),
+        LOT_FULL("lotFull"),
+        WRONG_GATE("wrongGate");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<String, LongAdder[]> gateCounters = new ConcurrentHashMap<>();
+    private final Map<VehicleType, LongAdder[]> vehicleTypeCounters = new EnumMap<>(VehicleType.class);
+    private final LongAdder paymentsSucceeded = new LongAdder();
+    private final LongAdder paymentsFailed = new LongAdder();
+    private final Map<Latency, LatencyHistogram> latencies = new EnumMap<>(Latency.class);
+    private final List<ParkingLot> parkingLots = new CopyOnWriteArrayList<>();
+
+    private ParkingLotMetrics() {
+        for (VehicleType vehicleType : VehicleType.values()) {
+            vehicleTypeCounters.put(vehicleType, newCounters());
+        }
+
+        for (Latency latency : Latency.values()) {
+            latencies.put(latency, new LatencyHistogram());
+        }
+
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("org.example:type=ParkingLotMetrics"));
+            } catch (JMException exception) {
+                throw new IllegalStateException("Could not register parking lot metrics with JMX", exception);
+            }
+        }
+    }
+
+    public static ParkingLotMetrics getInstance() {
+        return ParkingLotMetricsHelper.INSTANCE;
+    }
+
+    public void addParkingLot(ParkingLot parkingLot) {
+        parkingLots.add(parkingLot);
+    }
+
+    public long startNanos() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public void recordLatency(Latency latency, long startNanos) {
+        if (ENABLED) {
+            latencies.get(latency).record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void recordParked(String gateId, VehicleType vehicleType) {
+        increment(gateId, vehicleType, Counter.PARKED);
+    }
+
+    public void recordExited(String gateId, VehicleType vehicleType) {
+        increment(gateId, vehicleType, Counter.EXITED);
+    }
+
+    public void recordLotFull(String gateId, VehicleType vehicleType) {
+        increment(gateId, vehicleType, Counter.LOT_FULL);
+    }
+
+    public void recordWrongGate(String gateId) {
+        if (ENABLED) {
+            getGateCounters(gateId)[Counter.WRONG_GATE.ordinal()].increment();
+        }
+    }
+
+    public void recordPayments(int count, boolean isSucceeded) {
+        if (ENABLED) {
+            (isSucceeded ? paymentsSucceeded : paymentsFailed).add(count);
+        }
+    }
+
+    public ParkingLotMetricsSnapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<>();
+
+        gateCounters.forEach((gateId, adders) -> putCounters(counters, "gate." + gateId, adders));
+        vehicleTypeCounters.forEach((vehicleType, adders) -> putCounters(counters, "vehicleType." + vehicleType, adders));
+        counters.put("payments.succeeded", paymentsSucceeded.sum());
+        counters.put("payments.failed", paymentsFailed.sum());
+
+        Map<String, LatencyHistogram.Snapshot> latencySnapshots = new LinkedHashMap<>();
+        latencies.forEach((latency, latencyHistogram) -> latencySnapshots.put(latency.name(), latencyHistogram.snapshot()));
+
+        return new ParkingLotMetricsSnapshot(counters, latencySnapshots, getFloorOccupancy());
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return snapshot().counters();
+    }
+
+    @Override
+    public Map<String, Double> getLatencyPercentilesMicros() {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+
+        latencies.forEach((latency, latencyHistogram) -> {
+            LatencyHistogram.Snapshot snapshot = latencyHistogram.snapshot();
+
+            percentiles.put(latency + ".p50", snapshot.p50Nanos() / 1000.0);
+            percentiles.put(latency + ".p99", snapshot.p99Nanos() / 1000.0);
+            percentiles.put(latency + ".p999", snapshot.p999Nanos() / 1000.0);
+            percentiles.put(latency + ".max", snapshot.maxNanos() / 1000.0);
+        });
+
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Double> getFloorOccupancy() {
+        Map<String, Double> floorOccupancy = new LinkedHashMap<>();
+
+        for (ParkingLot parkingLot : parkingLots) {
+            for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+                for (VehicleType vehicleType : VehicleType.values()) {
+                    int occupied = parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.OCCUPIED);
+                    int active = occupied + parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.AVAILABLE);
+
+                    floorOccupancy.put(parkingLot.getId() + "." + parkingFloor.getId() + "." + vehicleType,
+                                       active == 0 ? 0 : (double) occupied / active);
+                }
+            }
+        }
+
+        return floorOccupancy;
+    }
+
+    private void increment(String gateId, VehicleType vehicleType, Counter counter) {
+        if (ENABLED) {
+            getGateCounters(gateId)[counter.ordinal()].increment();
+            vehicleTypeCounters.get(vehicleType)[counter.ordinal()].increment();
+        }
+    }
+
+    private LongAdder[] getGateCounters(String gateId) {
+        LongAdder[] adders = gateCounters.get(gateId);
+        return adders != null ? adders : gateCounters.computeIfAbsent(gateId, id -> newCounters());
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] adders = new LongAdder[Counter.values().length];
+
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    private static void putCounters(Map<String, Long> counters, String prefix, LongAdder[] adders) {
+        for (Counter counter : Counter.values()) {
+            counters.put(prefix + "." + counter.key, adders[counter.ordinal()].sum());
+        }
+    }
+
+    private static class ParkingLotMetricsHelper {
+        private static final ParkingLotMetrics INSTANCE = new ParkingLotMetrics();
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.metrics;
+
+import java.util.Map;
+
+public interface ParkingLotMetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, Double> getLatencyPercentilesMicros();
+
+    Map<String, Double> getFloorOccupancy();
+}
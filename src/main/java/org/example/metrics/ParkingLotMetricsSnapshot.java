@@ -0,0 +1,9 @@
+package org.example.metrics;
+
+import java.util.Map;
+
+// Counters are keyed "gate.<gateId>.<counter>", "vehicleType.<type>.<counter>" and "payments.<outcome>",
+// floor occupancy "<parkingLotId>.<parkingFloorId>.<type>" as the occupied share of active spots.
+public record ParkingLotMetricsSnapshot(Map<String, Long> counters, Map<String, LatencyHistogram.Snapshot> latencies,
+                                        Map<String, Double> floorOccupancy) {
+}
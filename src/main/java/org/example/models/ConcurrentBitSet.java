@@ -0,0 +1,129 @@
+package org.example.models;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free bit set that only grows. Bits live in fixed-size pages that are never copied,
+// so a set or clear racing with growth can not be lost.
+final class ConcurrentBitSet {
+    private static final int WORDS_PER_PAGE = 64;
+    private static final int BITS_PER_PAGE = WORDS_PER_PAGE * Long.SIZE;
+
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[0];
+
+    void ensureCapacity(int bits) {
+        AtomicLongArray[] current = pages;
+        int required = (bits + BITS_PER_PAGE - 1) / BITS_PER_PAGE;
+
+        if (required <= current.length) {
+            return;
+        }
+
+        synchronized (this) {
+            current = pages;
+
+            if (required <= current.length) {
+                return;
+            }
+
+            AtomicLongArray[] grown = new AtomicLongArray[Math.max(required, current.length * 2)];
+            System.arraycopy(current, 0, grown, 0, current.length);
+
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new AtomicLongArray(WORDS_PER_PAGE);
+            }
+
+            pages = grown;
+        }
+    }
+
+    void set(int bit) {
+        AtomicLongArray page = pages[bit / BITS_PER_PAGE];
+        int word = (bit % BITS_PER_PAGE) >>> 6;
+        long mask = 1L << bit;
+
+        long value;
+        do {
+            value = page.get(word);
+        } while ((value & mask) == 0 && !page.compareAndSet(word, value, value | mask));
+    }
+
+    void clear(int bit) {
+        AtomicLongArray page = pages[bit / BITS_PER_PAGE];
+        int word = (bit % BITS_PER_PAGE) >>> 6;
+        long mask = 1L << bit;
+
+        long value;
+        do {
+            value = page.get(word);
+        } while ((value & mask) != 0 && !page.compareAndSet(word, value, value & ~mask));
+    }
+
+    // clears the masked bits of one 64 bit word and returns which of them were set
+    long clearBits(int word, long mask) {
+        AtomicLongArray[] current = pages;
+        int pageIndex = word / WORDS_PER_PAGE;
+
+        if (pageIndex >= current.length) {
+            return 0;
+        }
+
+        AtomicLongArray page = current[pageIndex];
+        int pageWord = word % WORDS_PER_PAGE;
+
+        long value;
+        do {
+            value = page.get(pageWord);
+        } while ((value & mask) != 0 && !page.compareAndSet(pageWord, value, value & ~mask));
+
+        return value & mask;
+    }
+
+    void setBits(int word, long mask) {
+        AtomicLongArray page = pages[word / WORDS_PER_PAGE];
+        int pageWord = word % WORDS_PER_PAGE;
+
+        long value;
+        do {
+            value = page.get(pageWord);
+        } while ((value & mask) != mask && !page.compareAndSet(pageWord, value, value | mask));
+    }
+
+    boolean get(int bit) {
+        AtomicLongArray[] current = pages;
+        int pageIndex = bit / BITS_PER_PAGE;
+
+        if (pageIndex >= current.length) {
+            return false;
+        }
+
+        return (current[pageIndex].get((bit % BITS_PER_PAGE) >>> 6) & (1L << bit)) != 0;
+    }
+
+    int nextSetBit(int fromBit) {
+        if (fromBit < 0) {
+            return -1;
+        }
+
+        AtomicLongArray[] current = pages;
+
+        for (int pageIndex = fromBit / BITS_PER_PAGE; pageIndex < current.length; pageIndex++) {
+            AtomicLongArray page = current[pageIndex];
+            int pageStart = pageIndex * BITS_PER_PAGE;
+            int from = Math.max(fromBit - pageStart, 0);
+
+            for (int word = from >>> 6; word < WORDS_PER_PAGE; word++) {
+                long value = page.get(word);
+
+                if (word == from >>> 6) {
+                    value &= -1L << from;
+                }
+
+                if (value != 0) {
+                    return pageStart + (word << 6) + Long.numberOfTrailingZeros(value);
+                }
+            }
+        }
+
+        return -1;
+    }
+}
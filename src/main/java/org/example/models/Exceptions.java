@@ -1,23 +1,74 @@
 package org.example.models;
 
 import org.example.models.enums.GateType;
+import org.example.models.enums.VehicleType;
+
+import java.util.Date;
 
 public class Exceptions {
-    public static class ParkingLotFullException extends Exception {
+    // ordinary outcomes like a full lot are signalled with these, capturing a stack trace for them is wasted work
+    public abstract static class ParkingLotException extends Exception {
+        protected ParkingLotException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    public static class ParkingLotFullException extends ParkingLotException {
         public ParkingLotFullException() {
             super("Very sorry, parking lot is full");
         }
+
+        protected ParkingLotFullException(String message) {
+            super(message);
+        }
     }
 
-    public static class WrongGateException extends Exception {
+    // every floor that could take the vehicle kept its command queue full for longer than the gate may wait
+    public static class ParkingFloorBusyException extends ParkingLotFullException {
+        public ParkingFloorBusyException() {
+            super("All parking floors are busy, please try again");
+        }
+    }
+
+    public static class WrongGateException extends ParkingLotException {
         public WrongGateException(GateType wrongGate, GateType rightGate) {
             super("Please, go to " + rightGate + ", you are on " + wrongGate);
         }
     }
 
-    public static class PaymentFailedException extends Exception {
+    public static class PaymentFailedException extends ParkingLotException {
         public PaymentFailedException() {
             super("Payment failed, please try again");
         }
     }
+
+    public static class GateNotFoundException extends ParkingLotException {
+        public GateNotFoundException(String gateId) {
+            super("No parking lot has gate " + gateId);
+        }
+    }
+
+    public static class ReservationUnavailableException extends ParkingLotException {
+        public ReservationUnavailableException(VehicleType vehicleType, Date fromTime, Date toTime) {
+            super("No " + vehicleType + " spot can be reserved from " + fromTime + " to " + toTime);
+        }
+    }
+
+    public static class ReservationNotFoundException extends ParkingLotException {
+        public ReservationNotFoundException(long reservationId) {
+            super("No reservation " + reservationId + " is waiting to check in");
+        }
+    }
+
+    public static class ParkingTicketNotFoundException extends ParkingLotException {
+        public ParkingTicketNotFoundException(String regNumber) {
+            super("No vehicle " + regNumber + " is parked");
+        }
+    }
+
+    public static class VehicleAlreadyParkedException extends ParkingLotException {
+        public VehicleAlreadyParkedException(String regNumber) {
+            super("Vehicle " + regNumber + " is already parked");
+        }
+    }
 }
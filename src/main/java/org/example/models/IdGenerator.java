@@ -0,0 +1,55 @@
+package org.example.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Time ordered 64-bit ids: 41 bits of milliseconds since 2024-01-01 | 10 bits of generator | 12 bits of
+// sequence. The timestamp and sequence advance together as one counter, so a burst of more than 4096 ids
+// in a millisecond, or a clock that steps back, borrows the next millisecond instead of repeating an id.
+public class IdGenerator {
+    public static final int MAX_GENERATOR_ID = (1 << 10) - 1;
+
+    // parking shards number their generators up from 0, every other id source takes its own from the top
+    public static final int RESERVATION_GENERATOR_ID = MAX_GENERATOR_ID;
+    public static final int UPI_PAYMENT_GENERATOR_ID = MAX_GENERATOR_ID - 1;
+    public static final int SIMULATED_PAYMENT_GENERATOR_ID = MAX_GENERATOR_ID - 2;
+    public static final int MAX_SHARD_GENERATOR_ID = MAX_GENERATOR_ID - 3;
+
+    private static final long EPOCH = 1704067200000L;
+    private static final int GENERATOR_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long generatorId;
+    private final AtomicLong lastTimestampSequence = new AtomicLong();
+
+    public IdGenerator(int generatorId) {
+        if (generatorId < 0 || generatorId > MAX_GENERATOR_ID) {
+            throw new IllegalArgumentException("Generator id must be between 0 and " + MAX_GENERATOR_ID + ", was " + generatorId);
+        }
+
+        this.generatorId = generatorId;
+    }
+
+    public long nextId() {
+        long timestampSequence = lastTimestampSequence.accumulateAndGet(
+                (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS, (last, now) -> Math.max(last + 1, now));
+
+        return (timestampSequence >>> SEQUENCE_BITS) << (GENERATOR_BITS + SEQUENCE_BITS)
+                | generatorId << SEQUENCE_BITS
+                | timestampSequence & SEQUENCE_MASK;
+    }
+
+    // keeps ids issued after a restart ahead of the ones recovered, whatever the clock says
+    public void advancePast(long id) {
+        long timestampSequence = (id >>> (GENERATOR_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS | id & SEQUENCE_MASK;
+        lastTimestampSequence.accumulateAndGet(timestampSequence, Math::max);
+    }
+
+    public static int getGeneratorId(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_GENERATOR_ID;
+    }
+
+    public static long getTimestamp(long id) {
+        return (id >>> (GENERATOR_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class ObjectParkingSpotStorage implements ParkingSpotStorage {
+    private final ParkingFloor parkingFloor;
+    private final Map<String, ParkingSpot> parkingSpots;
+    private volatile ParkingSpot[] parkingSpotsByPosition;
+    private volatile int size;
+
+    ObjectParkingSpotStorage(ParkingFloor parkingFloor) {
+        this.parkingFloor = parkingFloor;
+        this.parkingSpots = new ConcurrentHashMap<>();
+        this.parkingSpotsByPosition = new ParkingSpot[16];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ParkingSpot get(int position) {
+        return parkingSpotsByPosition[position];
+    }
+
+    @Override
+    public boolean contains(String parkingSpotId) {
+        return parkingSpots.containsKey(parkingSpotId);
+    }
+
+    @Override
+    public ParkingSpot add(ParkingSpot parkingSpot) {
+        int position = size;
+        ParkingSpot[] spots = parkingSpotsByPosition;
+
+        if (position == spots.length) {
+            spots = Arrays.copyOf(spots, spots.length * 2);
+        }
+
+        parkingSpot.attach(parkingFloor, position);
+
+        // publish the array before the size, a reader that sees the size also sees the spot
+        spots[position] = parkingSpot;
+        parkingSpotsByPosition = spots;
+        size = position + 1;
+
+        parkingSpots.put(parkingSpot.getId(), parkingSpot);
+
+        return parkingSpot;
+    }
+
+    @Override
+    public String toString() {
+        return parkingSpots.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.models;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+// View over one position of a PackedParkingSpotStorage, two views of the same position are equal.
+final class PackedParkingSpot extends ParkingSpot {
+    private final ParkingFloor parkingFloor;
+    private final PackedParkingSpotStorage storage;
+    private final int position;
+
+    PackedParkingSpot(ParkingFloor parkingFloor, PackedParkingSpotStorage storage, int position) {
+        super();
+        this.parkingFloor = parkingFloor;
+        this.storage = storage;
+        this.position = position;
+    }
+
+    @Override
+    public String getId() {
+        return storage.getId(position);
+    }
+
+    @Override
+    public VehicleType getVehicleType() {
+        return storage.getVehicleType(position);
+    }
+
+    @Override
+    public ParkingSpotStatus getParkingSpotStatus() {
+        return storage.getParkingSpotStatus(position);
+    }
+
+    @Override
+    public void setParkingSpotStatus(ParkingSpotStatus parkingSpotStatus) {
+        ParkingSpotStatus previousParkingSpotStatus = storage.getAndSetParkingSpotStatus(position, parkingSpotStatus);
+
+        if (previousParkingSpotStatus != parkingSpotStatus) {
+            parkingFloor.onParkingSpotStatusChanged(this, previousParkingSpotStatus, parkingSpotStatus);
+        }
+    }
+
+    @Override
+    public boolean compareAndSetParkingSpotStatus(ParkingSpotStatus expectedParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        if (!storage.compareAndSetParkingSpotStatus(position, expectedParkingSpotStatus, parkingSpotStatus)) {
+            return false;
+        }
+
+        if (expectedParkingSpotStatus != parkingSpotStatus) {
+            parkingFloor.onParkingSpotStatusChanged(this, expectedParkingSpotStatus, parkingSpotStatus);
+        }
+
+        return true;
+    }
+
+    @Override
+    boolean compareAndSetStoredParkingSpotStatus(ParkingSpotStatus expectedParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        return storage.compareAndSetParkingSpotStatus(position, expectedParkingSpotStatus, parkingSpotStatus);
+    }
+
+    @Override
+    public ParkingFloor getParkingFloor() {
+        return parkingFloor;
+    }
+
+    @Override
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof PackedParkingSpot other && other.storage == storage && other.position == position;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(storage) * 31 + position;
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.models;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// One byte of vehicle type and one byte of status per spot, no per-spot objects. Spot ids are
+// positional (prefix + number) and the spots are materialized as flyweight views on demand.
+final class PackedParkingSpotStorage implements ParkingSpotStorage {
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VehicleType[] vehicleTypes = VehicleType.values();
+    private static final ParkingSpotStatus[] parkingSpotStatuses = ParkingSpotStatus.values();
+
+    private final ParkingFloor parkingFloor;
+    private final String parkingSpotIdPrefix;
+    private final int firstParkingSpotNumber;
+    // sized once, so a status CAS can never race with the arrays being copied
+    private final byte[] parkingSpotVehicleTypes;
+    private final byte[] parkingSpotStatusesByPosition;
+    private volatile int size;
+
+    PackedParkingSpotStorage(ParkingFloor parkingFloor, String parkingSpotIdPrefix, int firstParkingSpotNumber, int capacity) {
+        this.parkingFloor = parkingFloor;
+        this.parkingSpotIdPrefix = parkingSpotIdPrefix;
+        this.firstParkingSpotNumber = firstParkingSpotNumber;
+        this.parkingSpotVehicleTypes = new byte[capacity];
+        this.parkingSpotStatusesByPosition = new byte[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ParkingSpot get(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+
+        return new PackedParkingSpot(parkingFloor, this, position);
+    }
+
+    @Override
+    public boolean contains(String parkingSpotId) {
+        if (!parkingSpotId.startsWith(parkingSpotIdPrefix)) {
+            return false;
+        }
+
+        try {
+            int position = Integer.parseInt(parkingSpotId, parkingSpotIdPrefix.length(), parkingSpotId.length(), 10) - firstParkingSpotNumber;
+            return position >= 0 && position < size;
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+
+    @Override
+    public ParkingSpot add(ParkingSpot parkingSpot) {
+        int position = size;
+
+        if (position == parkingSpotVehicleTypes.length) {
+            throw new IllegalStateException(parkingFloor.getId() + " is full, it was sized for " + position + " spots");
+        }
+
+        if (!getId(position).equals(parkingSpot.getId())) {
+            throw new IllegalArgumentException(
+                    parkingFloor.getId() + " stores spots by position, expected " + getId(position) + " but got " + parkingSpot.getId());
+        }
+
+        parkingSpotVehicleTypes[position] = (byte) parkingSpot.getVehicleType().ordinal();
+        BYTES.setVolatile(parkingSpotStatusesByPosition, position, (byte) parkingSpot.getParkingSpotStatus().ordinal());
+        size = position + 1;
+
+        return get(position);
+    }
+
+    // spots restored in bulk, one byte of type and one of status each; the size write publishes them
+    void load(byte[] vehicleTypeOrdinals, byte[] parkingSpotStatusOrdinals) {
+        int count = vehicleTypeOrdinals.length;
+
+        if (size != 0 || count > parkingSpotVehicleTypes.length) {
+            throw new IllegalStateException(parkingFloor.getId() + " cannot load " + count + " spots, it holds " + size
+                    + " and was sized for " + parkingSpotVehicleTypes.length);
+        }
+
+        System.arraycopy(vehicleTypeOrdinals, 0, parkingSpotVehicleTypes, 0, count);
+        System.arraycopy(parkingSpotStatusOrdinals, 0, parkingSpotStatusesByPosition, 0, count);
+        size = count;
+    }
+
+    String getParkingSpotIdPrefix() {
+        return parkingSpotIdPrefix;
+    }
+
+    int getFirstParkingSpotNumber() {
+        return firstParkingSpotNumber;
+    }
+
+    int getCapacity() {
+        return parkingSpotVehicleTypes.length;
+    }
+
+    String getId(int position) {
+        return parkingSpotIdPrefix + (firstParkingSpotNumber + position);
+    }
+
+    VehicleType getVehicleType(int position) {
+        return vehicleTypes[parkingSpotVehicleTypes[position]];
+    }
+
+    ParkingSpotStatus getParkingSpotStatus(int position) {
+        return parkingSpotStatuses[(byte) BYTES.getVolatile(parkingSpotStatusesByPosition, position)];
+    }
+
+    ParkingSpotStatus getAndSetParkingSpotStatus(int position, ParkingSpotStatus parkingSpotStatus) {
+        return parkingSpotStatuses[(byte) BYTES.getAndSet(parkingSpotStatusesByPosition, position, (byte) parkingSpotStatus.ordinal())];
+    }
+
+    boolean compareAndSetParkingSpotStatus(int position, ParkingSpotStatus expectedParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        return BYTES.compareAndSet(parkingSpotStatusesByPosition, position,
+                                   (byte) expectedParkingSpotStatus.ordinal(), (byte) parkingSpotStatus.ordinal());
+    }
+
+    @Override
+    public String toString() {
+        return "{" + parkingSpotIdPrefix + firstParkingSpotNumber + ".." + parkingSpotIdPrefix + (firstParkingSpotNumber + size - 1) + " packed, " + size + " spots}";
+    }
+}
@@ -2,6 +2,6 @@ package org.example.models;
 
 import java.util.Date;
 
-public record ParkingBill(String id, ParkingTicket parkingTicket, Date outTime,
+public record ParkingBill(long id, ParkingTicket parkingTicket, Date outTime,
                           PaymentDetails paymentDetails) {
 }
@@ -4,36 +4,247 @@ import org.example.models.enums.ParkingSpotStatus;
 import org.example.models.enums.VehicleType;
 import org.example.strategy.ParkingSpot.ParkingSpotStrategy;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class ParkingFloor {
+    private static final long WALK_IN_CLAIMS_VERSION = 1L << 32;
+
     private final String id;
-    private final Map<String, ParkingSpot> parkingSpots;
+    private final ParkingSpotStorage parkingSpots;
+    // per vehicle type, bit i is set while the spot at position i is AVAILABLE
+    private final Map<VehicleType, ConcurrentBitSet> availableParkingSpots;
+    // per vehicle type, spot counts indexed by ParkingSpotStatus ordinal
+    private final Map<VehicleType, AtomicIntegerArray> parkingSpotsCounts;
+    // bit i is set while the occupied or reserved spot at position i is to go INACTIVE on its release
+    private final ConcurrentBitSet drainingParkingSpots;
+    // per vehicle type ordinal, bookings about to be held on this floor that have no spot yet
+    private final AtomicIntegerArray pendingReservationsCounts;
+    // per spot type ordinal, walk-in claims that took room on the floor and have not placed their vehicle yet in
+    // the low 32 bits, and a version bumped on every change above them so a count that went back is not mistaken
+    private final AtomicLongArray walkInClaimsCounts;
     private final ParkingSpotStrategy parkingSpotStrategy;
+    private final List<ParkingSpotStatusListener> parkingSpotStatusListeners;
+    private volatile String parkingLotId;
+    private volatile ParkingFloorLayout parkingFloorLayout;
+    private volatile ParkingSpotOrders parkingSpotOrders;
 
     public ParkingFloor(String id, ParkingSpotStrategy parkingSpotStrategy) {
+        this(id, parkingSpotStrategy, null, 0, 0);
+    }
+
+    // Packed storage for very large floors: spot type and status live in primitive arrays sized for
+    // capacity spots, and spot ids must run parkingSpotIdPrefix + firstParkingSpotNumber, +1, +2, ...
+    public ParkingFloor(String id, ParkingSpotStrategy parkingSpotStrategy, String parkingSpotIdPrefix,
+                        int firstParkingSpotNumber, int capacity) {
         this.id = id;
-        this.parkingSpots = new HashMap<>();
+        this.parkingSpots = parkingSpotIdPrefix == null ? new ObjectParkingSpotStorage(this)
+                : new PackedParkingSpotStorage(this, parkingSpotIdPrefix, firstParkingSpotNumber, capacity);
+        this.availableParkingSpots = new EnumMap<>(VehicleType.class);
+        this.parkingSpotsCounts = new EnumMap<>(VehicleType.class);
+        this.drainingParkingSpots = new ConcurrentBitSet();
+        this.pendingReservationsCounts = new AtomicIntegerArray(VehicleType.values().length);
+        this.walkInClaimsCounts = new AtomicLongArray(VehicleType.values().length);
         this.parkingSpotStrategy = parkingSpotStrategy;
+        this.parkingSpotStatusListeners = new CopyOnWriteArrayList<>();
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            availableParkingSpots.put(vehicleType, new ConcurrentBitSet());
+            parkingSpotsCounts.put(vehicleType, new AtomicIntegerArray(ParkingSpotStatus.values().length));
+        }
     }
 
     public String getId() {
         return id;
     }
 
+    public String getParkingLotId() {
+        return parkingLotId;
+    }
+
+    void attach(String parkingLotId) {
+        this.parkingLotId = parkingLotId;
+    }
+
+    public ParkingFloorLayout getParkingFloorLayout() {
+        return parkingFloorLayout;
+    }
+
+    // the distance orders for every gate of the layout are built here, not on the parking path
+    public synchronized void setParkingFloorLayout(ParkingFloorLayout parkingFloorLayout) {
+        this.parkingFloorLayout = parkingFloorLayout;
+        this.parkingSpotOrders = parkingFloorLayout == null ? null : new ParkingSpotOrders(this, parkingFloorLayout);
+    }
+
+    // positions of the spots of a vehicle type nearest to the gate first, null when the layout does not know the gate
+    public int[] getParkingSpotOrder(String gateId, VehicleType vehicleType) {
+        ParkingSpotOrders orders = parkingSpotOrders;
+
+        if (orders == null) {
+            return null;
+        }
+
+        if (orders.getParkingSpotsSize() != parkingSpots.size()) {
+            orders = rebuildParkingSpotOrders();
+        }
+
+        return orders.get(gateId, vehicleType);
+    }
+
     public List<ParkingSpot> getParkingSpots() {
-        return parkingSpots.values().stream().toList();
+        int size = parkingSpots.size();
+
+        return new AbstractList<>() {
+            @Override
+            public ParkingSpot get(int position) {
+                Objects.checkIndex(position, size);
+                return parkingSpots.get(position);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // null unless the floor stores its spots packed, by position
+    public String getParkingSpotIdPrefix() {
+        return parkingSpots instanceof PackedParkingSpotStorage packedParkingSpots ? packedParkingSpots.getParkingSpotIdPrefix() : null;
+    }
+
+    public int getFirstParkingSpotNumber() {
+        return parkingSpots instanceof PackedParkingSpotStorage packedParkingSpots ? packedParkingSpots.getFirstParkingSpotNumber() : 0;
+    }
+
+    public int getParkingSpotsCapacity() {
+        return parkingSpots instanceof PackedParkingSpotStorage packedParkingSpots ? packedParkingSpots.getCapacity() : parkingSpots.size();
+    }
+
+    public ParkingSpot getParkingSpot(int position) {
+        return parkingSpots.get(position);
+    }
+
+    public int getParkingSpotsSize() {
+        return parkingSpots.size();
     }
 
     public int getParkingSpotsCount(VehicleType vehicleType, ParkingSpotStatus parkingSpotStatus) {
-        return getParkingSpots(vehicleType, parkingSpotStatus).size();
+        return parkingSpotsCounts.get(vehicleType).get(parkingSpotStatus.ordinal());
     }
 
-    public void addParkingSpot(ParkingSpot parkingSpot) {
-        parkingSpots.put(parkingSpot.getId(), parkingSpot);
+    // available spots a walk-in may take, the ones pending reservations are about to hold are left for them
+    public int getWalkInParkingSpotsCount(VehicleType vehicleType) {
+        return Math.max(0, getParkingSpotsCount(vehicleType, ParkingSpotStatus.AVAILABLE)
+                - pendingReservationsCounts.get(vehicleType.ordinal()));
+    }
+
+    public int getPendingReservationsCount(VehicleType vehicleType) {
+        return pendingReservationsCounts.get(vehicleType.ordinal());
+    }
+
+    public void addPendingReservations(VehicleType vehicleType, int delta) {
+        pendingReservationsCounts.addAndGet(vehicleType.ordinal(), delta);
+    }
+
+    // whether the spot strategy could place a walk-in of the vehicle type here, on its own or a fallback spot type
+    public boolean hasAvailableParkingSpot(VehicleType vehicleType) {
+        return getWalkInParkingSpotsCount(vehicleType, Integer.MAX_VALUE) > 0;
+    }
+
+    public boolean isParkingSpotAvailable(VehicleType vehicleType, int position) {
+        return availableParkingSpots.get(vehicleType).get(position);
+    }
+
+    public int nextAvailableParkingSpotPosition(VehicleType vehicleType, int fromPosition) {
+        return availableParkingSpots.get(vehicleType).nextSetBit(fromPosition);
+    }
+
+    public void addParkingSpotStatusListener(ParkingSpotStatusListener parkingSpotStatusListener) {
+        parkingSpotStatusListeners.add(parkingSpotStatusListener);
+    }
+
+    public void removeParkingSpotStatusListener(ParkingSpotStatusListener parkingSpotStatusListener) {
+        parkingSpotStatusListeners.remove(parkingSpotStatusListener);
+    }
+
+    public synchronized void addParkingSpot(ParkingSpot parkingSpot) {
+        if (parkingSpots.contains(parkingSpot.getId())) {
+            throw new IllegalArgumentException(parkingSpot.getId() + " already exists on " + id);
+        }
+
+        availableParkingSpots.get(parkingSpot.getVehicleType()).ensureCapacity(parkingSpots.size() + 1);
+        drainingParkingSpots.ensureCapacity(parkingSpots.size() + 1);
+
+        ParkingSpot storedParkingSpot = parkingSpots.add(parkingSpot);
+
+        ParkingSpotStatus parkingSpotStatus = storedParkingSpot.getParkingSpotStatus();
+        parkingSpotsCounts.get(storedParkingSpot.getVehicleType()).incrementAndGet(parkingSpotStatus.ordinal());
+        syncAvailability(storedParkingSpot, parkingSpotStatus);
+    }
+
+    // Restores the spots of an empty packed floor from their type and status ordinals, indexed by position,
+    // and the drain marks of the ones still in use. No spot objects are built, the counts and availability
+    // bits are rebuilt in one pass over the bytes.
+    public synchronized void loadParkingSpots(byte[] vehicleTypeOrdinals, byte[] parkingSpotStatusOrdinals, BitSet drainingPositions) {
+        if (!(parkingSpots instanceof PackedParkingSpotStorage packedParkingSpots)) {
+            throw new IllegalStateException(id + " does not store its spots packed");
+        }
+
+        int count = vehicleTypeOrdinals.length;
+        VehicleType[] vehicleTypes = VehicleType.values();
+        int[][] counts = new int[vehicleTypes.length][ParkingSpotStatus.values().length];
+        long[][] availableWords = new long[vehicleTypes.length][(count + 63) >>> 6];
+
+        for (int position = 0; position < count; position++) {
+            int vehicleTypeOrdinal = vehicleTypeOrdinals[position];
+            int parkingSpotStatusOrdinal = parkingSpotStatusOrdinals[position];
+
+            counts[vehicleTypeOrdinal][parkingSpotStatusOrdinal]++;
+
+            if (parkingSpotStatusOrdinal == ParkingSpotStatus.AVAILABLE.ordinal()) {
+                availableWords[vehicleTypeOrdinal][position >>> 6] |= 1L << position;
+            }
+        }
+
+        packedParkingSpots.load(vehicleTypeOrdinals, parkingSpotStatusOrdinals);
+        drainingParkingSpots.ensureCapacity(count);
+
+        for (VehicleType vehicleType : vehicleTypes) {
+            ConcurrentBitSet available = availableParkingSpots.get(vehicleType);
+            available.ensureCapacity(count);
+
+            long[] words = availableWords[vehicleType.ordinal()];
+
+            for (int word = 0; word < words.length; word++) {
+                if (words[word] != 0) {
+                    available.setBits(word, words[word]);
+                }
+            }
+
+            int[] vehicleTypeCounts = counts[vehicleType.ordinal()];
+
+            for (int parkingSpotStatusOrdinal = 0; parkingSpotStatusOrdinal < vehicleTypeCounts.length; parkingSpotStatusOrdinal++) {
+                parkingSpotsCounts.get(vehicleType).addAndGet(parkingSpotStatusOrdinal, vehicleTypeCounts[parkingSpotStatusOrdinal]);
+            }
+        }
+
+        loadDrainingParkingSpots(drainingPositions);
+    }
+
+    // a spot that went AVAILABLE or INACTIVE after its mark was read has nothing left to drain
+    public synchronized void loadDrainingParkingSpots(BitSet positions) {
+        drainingParkingSpots.ensureCapacity(parkingSpots.size());
+
+        for (int position = positions.nextSetBit(0); position >= 0 && position < parkingSpots.size(); position = positions.nextSetBit(position + 1)) {
+            ParkingSpotStatus parkingSpotStatus = parkingSpots.get(position).getParkingSpotStatus();
+
+            if (parkingSpotStatus != ParkingSpotStatus.AVAILABLE && parkingSpotStatus != ParkingSpotStatus.INACTIVE) {
+                drainingParkingSpots.set(position);
+            }
+        }
     }
 
     public void addParkingSpots(List<ParkingSpot> parkingSpots) {
@@ -43,7 +254,366 @@ public class ParkingFloor {
     }
 
     public Optional<ParkingSpot> findParkingSpot(VehicleType vehicleType) {
-        return parkingSpotStrategy.findSpot(vehicleType, getParkingSpots());
+        return parkingSpotStrategy.findSpot(vehicleType, this);
+    }
+
+    // Walk-in claims, refused once only spots pending reservations need are left. The room is taken before the
+    // spot is claimed, so two gates racing for the last walk-in spot can not both get it.
+    public Optional<ParkingSpot> claimParkingSpot(VehicleType vehicleType) {
+        return claimWalkInParkingSpot(vehicleType, null);
+    }
+
+    public Optional<ParkingSpot> claimParkingSpot(VehicleType vehicleType, Gate gate) {
+        return claimWalkInParkingSpot(vehicleType, gate);
+    }
+
+    public List<ParkingSpot> claimParkingSpots(VehicleType vehicleType, Gate gate, int count) {
+        return claimWalkInParkingSpots(vehicleType, gate, count);
+    }
+
+    public Optional<ParkingSpot> reserveParkingSpot(VehicleType vehicleType) {
+        return parkingSpotStrategy.reserveSpot(vehicleType, this);
+    }
+
+    public List<ParkingSpot> claimParkingSpots(VehicleType vehicleType, int count) {
+        return claimWalkInParkingSpots(vehicleType, null, count);
+    }
+
+    public boolean isParkingSpotDraining(int position) {
+        return drainingParkingSpots.get(position);
+    }
+
+    // positions of the spots the layout places inside the rectangle, empty without a layout
+    public BitSet getParkingSpotPositions(double fromX, double fromY, double toX, double toY) {
+        ParkingFloorLayout layout = parkingFloorLayout;
+        BitSet positions = new BitSet();
+
+        if (layout == null) {
+            return positions;
+        }
+
+        for (int position = 0, size = parkingSpots.size(); position < size; position++) {
+            if (layout.isParkingSpotWithin(parkingSpots.get(position).getId(), fromX, fromY, toX, toY)) {
+                positions.set(position);
+            }
+        }
+
+        return positions;
+    }
+
+    public ParkingMaintenance deactivateParkingSpots() {
+        return deactivateParkingSpots(0, parkingSpots.size());
+    }
+
+    public ParkingMaintenance deactivateParkingSpots(int fromPosition, int toPosition) {
+        BitSet positions = new BitSet();
+        positions.set(fromPosition, toPosition);
+
+        return deactivateParkingSpots(positions);
+    }
+
+    // Available spots go INACTIVE at once, occupied and reserved ones are marked to go INACTIVE when
+    // they are released and are never taken from their vehicle. The availability bits are cleared a
+    // word at a time before any status changes so no claim can pick a spot that is on its way out,
+    // and the counts and listeners see one change per vehicle type instead of one per spot.
+    public synchronized ParkingMaintenance deactivateParkingSpots(BitSet positions) {
+        BitSet parkingSpotPositions = positions.get(0, parkingSpots.size());
+        long[] words = parkingSpotPositions.toLongArray();
+        int[] deactivatedCounts = new int[VehicleType.values().length];
+        int deactivatedCount = 0;
+        int drainingCount = 0;
+
+        for (int word = 0; word < words.length; word++) {
+            if (words[word] == 0) {
+                continue;
+            }
+
+            for (ConcurrentBitSet available : availableParkingSpots.values()) {
+                available.clearBits(word, words[word]);
+            }
+
+            for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                ParkingSpot parkingSpot = parkingSpots.get((word << 6) + Long.numberOfTrailingZeros(bits));
+
+                if (deactivateParkingSpot(parkingSpot)) {
+                    deactivatedCounts[parkingSpot.getVehicleType().ordinal()]++;
+                    deactivatedCount++;
+                } else if (drainingParkingSpots.get(parkingSpot.getPosition())) {
+                    drainingCount++;
+                }
+            }
+
+            // a release that raced the loop may have set a bit again for a spot that is now INACTIVE
+            for (ConcurrentBitSet available : availableParkingSpots.values()) {
+                available.clearBits(word, words[word]);
+            }
+        }
+
+        onParkingSpotsStatusChanged(deactivatedCounts, ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.INACTIVE);
+        onParkingSpotsStatusChanged(parkingSpotPositions, ParkingSpotStatus.INACTIVE);
+
+        return new ParkingMaintenance(deactivatedCount, drainingCount);
+    }
+
+    public ParkingMaintenance reactivateParkingSpots() {
+        return reactivateParkingSpots(0, parkingSpots.size());
+    }
+
+    public ParkingMaintenance reactivateParkingSpots(int fromPosition, int toPosition) {
+        BitSet positions = new BitSet();
+        positions.set(fromPosition, toPosition);
+
+        return reactivateParkingSpots(positions);
+    }
+
+    // Inactive spots go AVAILABLE and pending drains are called off, so occupied spots stay in use
+    // after their release. The availability bits of a word are set together once its spots changed.
+    public synchronized ParkingMaintenance reactivateParkingSpots(BitSet positions) {
+        BitSet parkingSpotPositions = positions.get(0, parkingSpots.size());
+        long[] words = parkingSpotPositions.toLongArray();
+        VehicleType[] vehicleTypes = VehicleType.values();
+        long[] reactivatedWords = new long[vehicleTypes.length];
+        int[] reactivatedCounts = new int[vehicleTypes.length];
+        int reactivatedCount = 0;
+
+        for (int word = 0; word < words.length; word++) {
+            if (words[word] == 0) {
+                continue;
+            }
+
+            drainingParkingSpots.clearBits(word, words[word]);
+            Arrays.fill(reactivatedWords, 0);
+
+            for (long bits = words[word]; bits != 0; bits &= bits - 1) {
+                ParkingSpot parkingSpot = parkingSpots.get((word << 6) + Long.numberOfTrailingZeros(bits));
+
+                if (parkingSpot.compareAndSetStoredParkingSpotStatus(ParkingSpotStatus.INACTIVE, ParkingSpotStatus.AVAILABLE)) {
+                    reactivatedWords[parkingSpot.getVehicleType().ordinal()] |= bits & -bits;
+                    reactivatedCounts[parkingSpot.getVehicleType().ordinal()]++;
+                    reactivatedCount++;
+                }
+            }
+
+            for (VehicleType vehicleType : vehicleTypes) {
+                if (reactivatedWords[vehicleType.ordinal()] != 0) {
+                    availableParkingSpots.get(vehicleType).setBits(word, reactivatedWords[vehicleType.ordinal()]);
+                    resyncAvailability(word, reactivatedWords[vehicleType.ordinal()]);
+                }
+            }
+        }
+
+        onParkingSpotsStatusChanged(reactivatedCounts, ParkingSpotStatus.INACTIVE, ParkingSpotStatus.AVAILABLE);
+        onParkingSpotsStatusChanged(parkingSpotPositions, ParkingSpotStatus.AVAILABLE);
+
+        return new ParkingMaintenance(reactivatedCount, 0);
+    }
+
+    void onParkingSpotStatusChanged(ParkingSpot parkingSpot, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        // a released spot that is draining is taken out of use instead of offered again
+        if (parkingSpotStatus == ParkingSpotStatus.AVAILABLE && drainingParkingSpots.get(parkingSpot.getPosition())
+                && parkingSpot.compareAndSetStoredParkingSpotStatus(ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.INACTIVE)) {
+            drainingParkingSpots.clear(parkingSpot.getPosition());
+            parkingSpotStatus = ParkingSpotStatus.INACTIVE;
+        }
+
+        // counts are adjusted once per transition by the thread that won it
+        AtomicIntegerArray counts = parkingSpotsCounts.get(parkingSpot.getVehicleType());
+        counts.decrementAndGet(previousParkingSpotStatus.ordinal());
+        counts.incrementAndGet(parkingSpotStatus.ordinal());
+
+        syncAvailability(parkingSpot, parkingSpotStatus);
+
+        for (ParkingSpotStatusListener parkingSpotStatusListener : parkingSpotStatusListeners) {
+            parkingSpotStatusListener.onParkingSpotStatusChanged(parkingSpot, previousParkingSpotStatus, parkingSpotStatus);
+        }
+    }
+
+    // true when the spot went INACTIVE here, false when it already was or is left draining
+    private boolean deactivateParkingSpot(ParkingSpot parkingSpot) {
+        while (true) {
+            ParkingSpotStatus parkingSpotStatus = parkingSpot.getParkingSpotStatus();
+
+            if (parkingSpotStatus == ParkingSpotStatus.INACTIVE) {
+                return false;
+            }
+
+            if (parkingSpotStatus == ParkingSpotStatus.AVAILABLE) {
+                if (parkingSpot.compareAndSetStoredParkingSpotStatus(ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.INACTIVE)) {
+                    return true;
+                }
+
+                continue;
+            }
+
+            drainingParkingSpots.set(parkingSpot.getPosition());
+
+            // a release that landed before the mark did not see it, so the spot is taken here instead
+            if (parkingSpot.getParkingSpotStatus() != ParkingSpotStatus.AVAILABLE) {
+                return false;
+            }
+        }
+    }
+
+    // a reactivated spot may have been claimed before its bit was set
+    private void resyncAvailability(int word, long reactivatedWord) {
+        for (long bits = reactivatedWord; bits != 0; bits &= bits - 1) {
+            ParkingSpot parkingSpot = parkingSpots.get((word << 6) + Long.numberOfTrailingZeros(bits));
+            ParkingSpotStatus parkingSpotStatus = parkingSpot.getParkingSpotStatus();
+
+            if (parkingSpotStatus != ParkingSpotStatus.AVAILABLE) {
+                syncAvailability(parkingSpot, parkingSpotStatus);
+            }
+        }
+    }
+
+    private void onParkingSpotsStatusChanged(int[] changedCounts, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        for (VehicleType vehicleType : VehicleType.values()) {
+            int changedCount = changedCounts[vehicleType.ordinal()];
+
+            if (changedCount == 0) {
+                continue;
+            }
+
+            AtomicIntegerArray counts = parkingSpotsCounts.get(vehicleType);
+            counts.addAndGet(previousParkingSpotStatus.ordinal(), -changedCount);
+            counts.addAndGet(parkingSpotStatus.ordinal(), changedCount);
+
+            for (ParkingSpotStatusListener parkingSpotStatusListener : parkingSpotStatusListeners) {
+                parkingSpotStatusListener.onParkingSpotsStatusChanged(this, vehicleType, previousParkingSpotStatus, parkingSpotStatus, changedCount);
+            }
+        }
+    }
+
+    private void onParkingSpotsStatusChanged(BitSet parkingSpotPositions, ParkingSpotStatus parkingSpotStatus) {
+        if (parkingSpotPositions.isEmpty()) {
+            return;
+        }
+
+        for (ParkingSpotStatusListener parkingSpotStatusListener : parkingSpotStatusListeners) {
+            parkingSpotStatusListener.onParkingSpotsStatusChanged(this, parkingSpotPositions, parkingSpotStatus);
+        }
+    }
+
+    // walk-in spots over the spot types the strategy places the vehicle type on, at most limit
+    private int getWalkInParkingSpotsCount(VehicleType vehicleType, int limit) {
+        int walkInCount = 0;
+
+        for (VehicleType parkingSpotType : parkingSpotStrategy.getParkingSpotTypes(vehicleType)) {
+            walkInCount += getWalkInParkingSpotsCount(parkingSpotType);
+
+            if (walkInCount >= limit) {
+                return limit;
+            }
+        }
+
+        return walkInCount;
+    }
+
+    private Optional<ParkingSpot> claimWalkInParkingSpot(VehicleType vehicleType, Gate gate) {
+        int[] walkInClaims = acquireWalkInClaims(vehicleType, 1);
+
+        if (walkInClaims == null) {
+            return Optional.empty();
+        }
+
+        Optional<ParkingSpot> parkingSpot = gate == null
+                ? parkingSpotStrategy.claimSpot(vehicleType, this) : parkingSpotStrategy.claimSpot(vehicleType, this, gate);
+
+        if (parkingSpot.isPresent() && !settleWalkInClaim(walkInClaims, parkingSpot.get())) {
+            parkingSpot = Optional.empty();
+        }
+
+        releaseWalkInClaims(walkInClaims);
+        return parkingSpot;
+    }
+
+    private List<ParkingSpot> claimWalkInParkingSpots(VehicleType vehicleType, Gate gate, int count) {
+        int[] walkInClaims = acquireWalkInClaims(vehicleType, count);
+
+        if (walkInClaims == null) {
+            return List.of();
+        }
+
+        int walkInCount = Arrays.stream(walkInClaims).sum();
+        List<ParkingSpot> parkingSpots = gate == null
+                ? parkingSpotStrategy.claimSpots(vehicleType, this, walkInCount)
+                : parkingSpotStrategy.claimSpots(vehicleType, this, gate, walkInCount);
+
+        parkingSpots = new ArrayList<>(parkingSpots);
+        parkingSpots.removeIf(parkingSpot -> !settleWalkInClaim(walkInClaims, parkingSpot));
+
+        releaseWalkInClaims(walkInClaims);
+        return parkingSpots;
+    }
+
+    // Takes room for up to count walk-ins on the spot types the vehicle may use, best fit first, with a CAS on
+    // each type's in-flight claims against its walk-in spots. Null when there was no room at all.
+    private int[] acquireWalkInClaims(VehicleType vehicleType, int count) {
+        int[] walkInClaims = null;
+        int acquiredCount = 0;
+
+        for (VehicleType parkingSpotType : parkingSpotStrategy.getParkingSpotTypes(vehicleType)) {
+            int ordinal = parkingSpotType.ordinal();
+
+            while (acquiredCount < count) {
+                long walkInClaimsCount = walkInClaimsCounts.get(ordinal);
+                int room = getWalkInParkingSpotsCount(parkingSpotType) - (int) walkInClaimsCount;
+
+                if (room <= 0) {
+                    break;
+                }
+
+                int acquired = Math.min(room, count - acquiredCount);
+
+                if (walkInClaimsCounts.compareAndSet(ordinal, walkInClaimsCount, walkInClaimsCount + WALK_IN_CLAIMS_VERSION + acquired)) {
+                    if (walkInClaims == null) {
+                        walkInClaims = new int[VehicleType.values().length];
+                    }
+
+                    walkInClaims[ordinal] += acquired;
+                    acquiredCount += acquired;
+                }
+            }
+        }
+
+        return walkInClaims;
+    }
+
+    // A spot of a type the claim took room on uses that room up. A spot of another type, one whose free spots
+    // only pending reservations may take, is given back unless that type still has room with it taken.
+    private boolean settleWalkInClaim(int[] walkInClaims, ParkingSpot parkingSpot) {
+        int ordinal = parkingSpot.getVehicleType().ordinal();
+
+        if (walkInClaims[ordinal] > 0) {
+            walkInClaims[ordinal]--;
+            walkInClaimsCounts.addAndGet(ordinal, WALK_IN_CLAIMS_VERSION - 1);
+            return true;
+        }
+
+        if (getParkingSpotsCount(parkingSpot.getVehicleType(), ParkingSpotStatus.AVAILABLE)
+                - pendingReservationsCounts.get(ordinal) - (int) walkInClaimsCounts.get(ordinal) >= 0) {
+            return true;
+        }
+
+        parkingSpot.release();
+        return false;
+    }
+
+    private void releaseWalkInClaims(int[] walkInClaims) {
+        for (int ordinal = 0; ordinal < walkInClaims.length; ordinal++) {
+            if (walkInClaims[ordinal] != 0) {
+                walkInClaimsCounts.addAndGet(ordinal, WALK_IN_CLAIMS_VERSION - walkInClaims[ordinal]);
+            }
+        }
+    }
+
+    // spots were added after the layout was set
+    private synchronized ParkingSpotOrders rebuildParkingSpotOrders() {
+        if (parkingSpotOrders.getParkingSpotsSize() != parkingSpots.size()) {
+            parkingSpotOrders = new ParkingSpotOrders(this, parkingFloorLayout);
+        }
+
+        return parkingSpotOrders;
     }
 
     @Override
@@ -51,8 +621,25 @@ public class ParkingFloor {
         return "ParkingFloor{" + "\n" + "id='" + id + '\'' + "\n" + "parkingSpots=" + parkingSpots + "\n" + '}';
     }
 
-    private List<ParkingSpot> getParkingSpots(VehicleType vehicleType, ParkingSpotStatus parkingSpotStatus) {
-        return parkingSpots.values().stream().filter(
-                parkingSpot -> parkingSpot.getVehicleType() == vehicleType && parkingSpot.getParkingSpotStatus() == parkingSpotStatus).toList();
+    // concurrent transitions may apply their bit updates out of order, so the bit is re-derived
+    // from the spot until it agrees with a status that did not change underneath it
+    private void syncAvailability(ParkingSpot parkingSpot, ParkingSpotStatus parkingSpotStatus) {
+        ConcurrentBitSet available = availableParkingSpots.get(parkingSpot.getVehicleType());
+
+        while (true) {
+            if (parkingSpotStatus == ParkingSpotStatus.AVAILABLE) {
+                available.set(parkingSpot.getPosition());
+            } else {
+                available.clear(parkingSpot.getPosition());
+            }
+
+            ParkingSpotStatus currentParkingSpotStatus = parkingSpot.getParkingSpotStatus();
+
+            if (currentParkingSpotStatus == parkingSpotStatus) {
+                return;
+            }
+
+            parkingSpotStatus = currentParkingSpotStatus;
+        }
     }
 }
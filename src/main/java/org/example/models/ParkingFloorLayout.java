@@ -0,0 +1,51 @@
+package org.example.models;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Where spots and gate ramps sit on a floor, in metres. Aisles run on a grid, so the distance from a gate
+// to a spot is the walking distance along them, |dx| + |dy|.
+public class ParkingFloorLayout {
+    private final Map<String, double[]> parkingSpotLocations = new HashMap<>();
+    private final Map<String, double[]> gateLocations = new HashMap<>();
+
+    public ParkingFloorLayout addParkingSpotLocation(String parkingSpotId, double x, double y) {
+        parkingSpotLocations.put(parkingSpotId, new double[]{x, y});
+        return this;
+    }
+
+    // where the ramp from a lot gate arrives on this floor
+    public ParkingFloorLayout addGateLocation(String gateId, double x, double y) {
+        gateLocations.put(gateId, new double[]{x, y});
+        return this;
+    }
+
+    public Set<String> getGateIds() {
+        return Collections.unmodifiableSet(gateLocations.keySet());
+    }
+
+    public boolean hasParkingSpotLocation(String parkingSpotId) {
+        return parkingSpotLocations.containsKey(parkingSpotId);
+    }
+
+    public boolean isParkingSpotWithin(String parkingSpotId, double fromX, double fromY, double toX, double toY) {
+        double[] parkingSpotLocation = parkingSpotLocations.get(parkingSpotId);
+
+        return parkingSpotLocation != null
+                && parkingSpotLocation[0] >= fromX && parkingSpotLocation[0] <= toX
+                && parkingSpotLocation[1] >= fromY && parkingSpotLocation[1] <= toY;
+    }
+
+    public double getDistance(String gateId, String parkingSpotId) {
+        double[] gateLocation = gateLocations.get(gateId);
+        double[] parkingSpotLocation = parkingSpotLocations.get(parkingSpotId);
+
+        if (gateLocation == null || parkingSpotLocation == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return Math.abs(gateLocation[0] - parkingSpotLocation[0]) + Math.abs(gateLocation[1] - parkingSpotLocation[1]);
+    }
+}
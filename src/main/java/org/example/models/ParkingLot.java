@@ -4,22 +4,34 @@ import org.example.models.enums.ParkingSpotStatus;
 import org.example.models.enums.VehicleType;
 import org.example.strategy.ParkingFloor.ParkingFloorStrategy;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class ParkingLot {
     private final String id;
     private final Map<String, Gate> gates;
     private final Map<String, ParkingFloor> floors;
+    // floors in the order they were added, floor strategies rely on a stable numbering
+    private final List<ParkingFloor> orderedFloors;
     private final ParkingFloorStrategy parkingFloorStrategy;
+    private final List<Consumer<Gate>> gateListeners;
+    // attached to every floor, including floors added or replaced after the listener
+    private final List<ParkingSpotStatusListener> parkingSpotStatusListeners;
 
     public ParkingLot(String id, ParkingFloorStrategy parkingFloorStrategy) {
         this.id = id;
-        this.gates = new HashMap<>();
-        this.floors = new HashMap<>();
+        this.gates = new ConcurrentHashMap<>();
+        this.floors = new ConcurrentHashMap<>();
+        this.orderedFloors = new CopyOnWriteArrayList<>();
         this.parkingFloorStrategy = parkingFloorStrategy;
+        this.gateListeners = new CopyOnWriteArrayList<>();
+        this.parkingSpotStatusListeners = new CopyOnWriteArrayList<>();
     }
 
     public String getId() {
@@ -35,11 +47,39 @@ public class ParkingLot {
     }
 
     public List<ParkingFloor> getFloors() {
-        return floors.values().stream().toList();
+        return Collections.unmodifiableList(orderedFloors);
+    }
+
+    public ParkingFloor getFloor(String parkingFloorId) {
+        return floors.get(parkingFloorId);
+    }
+
+    public synchronized void addParkingSpotStatusListener(ParkingSpotStatusListener parkingSpotStatusListener) {
+        parkingSpotStatusListeners.add(parkingSpotStatusListener);
+
+        for (ParkingFloor floor : getFloors()) {
+            floor.addParkingSpotStatusListener(parkingSpotStatusListener);
+        }
+    }
+
+    public synchronized void removeParkingSpotStatusListener(ParkingSpotStatusListener parkingSpotStatusListener) {
+        parkingSpotStatusListeners.remove(parkingSpotStatusListener);
+
+        for (ParkingFloor floor : getFloors()) {
+            floor.removeParkingSpotStatusListener(parkingSpotStatusListener);
+        }
+    }
+
+    public void addGateListener(Consumer<Gate> gateListener) {
+        gateListeners.add(gateListener);
     }
 
     public void addGate(Gate gate) {
         gates.put(gate.id(), gate);
+
+        for (Consumer<Gate> gateListener : gateListeners) {
+            gateListener.accept(gate);
+        }
     }
 
     public void addGates(List<Gate> gates) {
@@ -48,8 +88,26 @@ public class ParkingLot {
         }
     }
 
-    public void addFloor(ParkingFloor parkingFloor) {
-        floors.put(parkingFloor.getId(), parkingFloor);
+    public synchronized void addFloor(ParkingFloor parkingFloor) {
+        parkingFloor.attach(id);
+
+        ParkingFloor previousParkingFloor = floors.put(parkingFloor.getId(), parkingFloor);
+
+        if (previousParkingFloor == null) {
+            orderedFloors.add(parkingFloor);
+        } else {
+            orderedFloors.set(orderedFloors.indexOf(previousParkingFloor), parkingFloor);
+        }
+
+        for (ParkingSpotStatusListener parkingSpotStatusListener : parkingSpotStatusListeners) {
+            if (previousParkingFloor != null && previousParkingFloor != parkingFloor) {
+                previousParkingFloor.removeParkingSpotStatusListener(parkingSpotStatusListener);
+            }
+
+            if (previousParkingFloor != parkingFloor) {
+                parkingFloor.addParkingSpotStatusListener(parkingSpotStatusListener);
+            }
+        }
     }
 
     public void addFloors(List<ParkingFloor> parkingFloors) {
@@ -62,6 +120,60 @@ public class ParkingLot {
         return parkingFloorStrategy.assignFloor(vehicleType, gate, getFloors());
     }
 
+    public Optional<ParkingFloor> divertParkingFloor(VehicleType vehicleType, Gate gate, Predicate<ParkingFloor> isAccepting) {
+        return parkingFloorStrategy.divertFloor(vehicleType, gate, getFloors(), isAccepting);
+    }
+
+    public ParkingMaintenance deactivateParkingLot() {
+        ParkingMaintenance parkingMaintenance = new ParkingMaintenance(0, 0);
+
+        for (ParkingFloor floor : getFloors()) {
+            parkingMaintenance = parkingMaintenance.plus(floor.deactivateParkingSpots());
+        }
+
+        return parkingMaintenance;
+    }
+
+    public ParkingMaintenance reactivateParkingLot() {
+        ParkingMaintenance parkingMaintenance = new ParkingMaintenance(0, 0);
+
+        for (ParkingFloor floor : getFloors()) {
+            parkingMaintenance = parkingMaintenance.plus(floor.reactivateParkingSpots());
+        }
+
+        return parkingMaintenance;
+    }
+
+    public ParkingMaintenance deactivateParkingFloor(String parkingFloorId) {
+        return getExistingFloor(parkingFloorId).deactivateParkingSpots();
+    }
+
+    public ParkingMaintenance reactivateParkingFloor(String parkingFloorId) {
+        return getExistingFloor(parkingFloorId).reactivateParkingSpots();
+    }
+
+    // positions fromPosition inclusive to toPosition exclusive
+    public ParkingMaintenance deactivateParkingSpots(String parkingFloorId, int fromPosition, int toPosition) {
+        return getExistingFloor(parkingFloorId).deactivateParkingSpots(fromPosition, toPosition);
+    }
+
+    public ParkingMaintenance reactivateParkingSpots(String parkingFloorId, int fromPosition, int toPosition) {
+        return getExistingFloor(parkingFloorId).reactivateParkingSpots(fromPosition, toPosition);
+    }
+
+    // the zone is the rectangle of the floor's layout between the two corners
+    public ParkingMaintenance deactivateParkingZone(String parkingFloorId, double fromX, double fromY, double toX, double toY) {
+        ParkingFloor floor = getExistingFloor(parkingFloorId);
+
+        return floor.deactivateParkingSpots(floor.getParkingSpotPositions(fromX, fromY, toX, toY));
+    }
+
+    public ParkingMaintenance reactivateParkingZone(String parkingFloorId, double fromX, double fromY, double toX, double toY) {
+        ParkingFloor floor = getExistingFloor(parkingFloorId);
+
+        return floor.reactivateParkingSpots(floor.getParkingSpotPositions(fromX, fromY, toX, toY));
+    }
+
     public void displayParkingLotStatus() {
         System.out.println("===== ParkingLotStatus =====\n");
 
@@ -84,6 +196,16 @@ public class ParkingLot {
         System.out.println("=======================\n");
     }
 
+    private ParkingFloor getExistingFloor(String parkingFloorId) {
+        ParkingFloor floor = floors.get(parkingFloorId);
+
+        if (floor == null) {
+            throw new IllegalArgumentException(parkingFloorId + " does not exist on " + id);
+        }
+
+        return floor;
+    }
+
     @Override
     public String toString() {
         return "ParkingLot{" + "\n" + "id='" + id + '\'' + "\n" + "gates=" + gates + "\n" + "floors=" + floors + "\n" + '}';
@@ -0,0 +1,10 @@
+package org.example.models;
+
+// What a bulk deactivation or reactivation did: spots whose status changed at once, and occupied or
+// reserved spots left to go inactive when their vehicle leaves.
+public record ParkingMaintenance(int changedParkingSpotsCount, int drainingParkingSpotsCount) {
+    public ParkingMaintenance plus(ParkingMaintenance parkingMaintenance) {
+        return new ParkingMaintenance(changedParkingSpotsCount + parkingMaintenance.changedParkingSpotsCount,
+                drainingParkingSpotsCount + parkingMaintenance.drainingParkingSpotsCount);
+    }
+}
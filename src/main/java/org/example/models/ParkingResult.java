@@ -0,0 +1,40 @@
+package org.example.models;
+
+import org.example.models.enums.ParkingRejection;
+
+// Outcome of a park or unpark request. A rejection is an ordinary answer rather than an exception, and every
+// rejection reason has one shared instance so turning a vehicle away allocates nothing. Only a rejection whose
+// message names the request's gate gets an instance of its own.
+public sealed interface ParkingResult<T> permits ParkingResult.Accepted, ParkingResult.Rejected {
+    static <T> ParkingResult<T> accepted(T value) {
+        return new Accepted<>(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ParkingResult<T> rejected(ParkingRejection parkingRejection) {
+        return (ParkingResult<T>) Rejected.REJECTIONS[parkingRejection.ordinal()];
+    }
+
+    static <T> ParkingResult<T> rejected(ParkingRejection parkingRejection, String gateId) {
+        String message = parkingRejection.getMessage(gateId);
+
+        return message.equals(parkingRejection.getMessage()) ? rejected(parkingRejection) : new Rejected<>(parkingRejection, message);
+    }
+
+    default boolean isAccepted() {
+        return this instanceof Accepted<T>;
+    }
+
+    record Accepted<T>(T value) implements ParkingResult<T> {
+    }
+
+    record Rejected<T>(ParkingRejection parkingRejection, String message) implements ParkingResult<T> {
+        private static final Rejected<?>[] REJECTIONS = new Rejected<?>[ParkingRejection.values().length];
+
+        static {
+            for (ParkingRejection parkingRejection : ParkingRejection.values()) {
+                REJECTIONS[parkingRejection.ordinal()] = new Rejected<>(parkingRejection, parkingRejection.getMessage());
+            }
+        }
+    }
+}
@@ -3,15 +3,27 @@ package org.example.models;
 import org.example.models.enums.ParkingSpotStatus;
 import org.example.models.enums.VehicleType;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class ParkingSpot {
     private final String id;
     private final VehicleType vehicleType;
-    private ParkingSpotStatus parkingSpotStatus;
+    private final AtomicReference<ParkingSpotStatus> parkingSpotStatus;
+
+    private ParkingFloor parkingFloor;
+    private int position = -1;
 
     public ParkingSpot(String id, VehicleType vehicleType, ParkingSpotStatus parkingSpotStatus) {
         this.id = id;
         this.vehicleType = vehicleType;
-        this.parkingSpotStatus = parkingSpotStatus;
+        this.parkingSpotStatus = new AtomicReference<>(parkingSpotStatus);
+    }
+
+    // for flyweight views that keep their state in the floor, see PackedParkingSpot
+    ParkingSpot() {
+        this.id = null;
+        this.vehicleType = null;
+        this.parkingSpotStatus = null;
     }
 
     public String getId() {
@@ -23,19 +35,83 @@ public class ParkingSpot {
     }
 
     public ParkingSpotStatus getParkingSpotStatus() {
-        return parkingSpotStatus;
+        return parkingSpotStatus.get();
     }
 
     public void setParkingSpotStatus(ParkingSpotStatus parkingSpotStatus) {
-        this.parkingSpotStatus = parkingSpotStatus;
+        ParkingSpotStatus previousParkingSpotStatus = this.parkingSpotStatus.getAndSet(parkingSpotStatus);
+
+        if (previousParkingSpotStatus != parkingSpotStatus) {
+            onParkingSpotStatusChanged(previousParkingSpotStatus, parkingSpotStatus);
+        }
+    }
+
+    public boolean compareAndSetParkingSpotStatus(ParkingSpotStatus expectedParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        if (!this.parkingSpotStatus.compareAndSet(expectedParkingSpotStatus, parkingSpotStatus)) {
+            return false;
+        }
+
+        if (expectedParkingSpotStatus != parkingSpotStatus) {
+            onParkingSpotStatusChanged(expectedParkingSpotStatus, parkingSpotStatus);
+        }
+
+        return true;
+    }
+
+    // changes only the stored status, the floor's counts and availability are left to the caller
+    boolean compareAndSetStoredParkingSpotStatus(ParkingSpotStatus expectedParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        return this.parkingSpotStatus.compareAndSet(expectedParkingSpotStatus, parkingSpotStatus);
+    }
+
+    public boolean occupy() {
+        return compareAndSetParkingSpotStatus(ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.OCCUPIED);
+    }
+
+    public boolean release() {
+        return compareAndSetParkingSpotStatus(ParkingSpotStatus.OCCUPIED, ParkingSpotStatus.AVAILABLE);
+    }
+
+    public boolean reserve() {
+        return compareAndSetParkingSpotStatus(ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.RESERVED);
+    }
+
+    public boolean occupyReserved() {
+        return compareAndSetParkingSpotStatus(ParkingSpotStatus.RESERVED, ParkingSpotStatus.OCCUPIED);
+    }
+
+    public boolean releaseReserved() {
+        return compareAndSetParkingSpotStatus(ParkingSpotStatus.RESERVED, ParkingSpotStatus.AVAILABLE);
     }
 
     public Boolean isAvailable() {
-        return parkingSpotStatus == ParkingSpotStatus.AVAILABLE;
+        return getParkingSpotStatus() == ParkingSpotStatus.AVAILABLE;
+    }
+
+    public ParkingFloor getParkingFloor() {
+        return parkingFloor;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    void attach(ParkingFloor parkingFloor, int position) {
+        if (this.parkingFloor != null) {
+            throw new IllegalStateException(id + " already belongs to " + this.parkingFloor.getId());
+        }
+
+        this.parkingFloor = parkingFloor;
+        this.position = position;
+    }
+
+    private void onParkingSpotStatusChanged(ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        if (parkingFloor != null) {
+            parkingFloor.onParkingSpotStatusChanged(this, previousParkingSpotStatus, parkingSpotStatus);
+        }
     }
 
     @Override
     public String toString() {
-        return "ParkingSpot{" + "id='" + id + '\'' + ", vehicleType=" + vehicleType + ", parkingSpotStatus=" + parkingSpotStatus + '}';
+        return "ParkingSpot{" + "id='" + getId() + '\'' + ", vehicleType=" + getVehicleType() + ", parkingSpotStatus=" + getParkingSpotStatus() + '}';
     }
 }
@@ -0,0 +1,59 @@
+package org.example.models;
+
+import org.example.models.enums.VehicleType;
+
+import java.util.*;
+
+// Per gate and vehicle type, the positions of a floor's spots sorted by distance from that gate, built once
+// for the spots the floor had when the layout was set. Spots without a location come last, by position.
+final class ParkingSpotOrders {
+    private final int parkingSpotsSize;
+    private final Map<String, Map<VehicleType, int[]>> parkingSpotOrders = new HashMap<>();
+
+    ParkingSpotOrders(ParkingFloor parkingFloor, ParkingFloorLayout parkingFloorLayout) {
+        this.parkingSpotsSize = parkingFloor.getParkingSpotsSize();
+
+        Map<VehicleType, List<Integer>> positionsByType = new EnumMap<>(VehicleType.class);
+        String[] parkingSpotIds = new String[parkingSpotsSize];
+
+        for (int position = 0; position < parkingSpotsSize; position++) {
+            ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+
+            parkingSpotIds[position] = parkingSpot.getId();
+            positionsByType.computeIfAbsent(parkingSpot.getVehicleType(), vehicleType -> new ArrayList<>()).add(position);
+        }
+
+        for (String gateId : parkingFloorLayout.getGateIds()) {
+            Map<VehicleType, int[]> orders = new EnumMap<>(VehicleType.class);
+
+            for (Map.Entry<VehicleType, List<Integer>> positions : positionsByType.entrySet()) {
+                double[] distances = new double[parkingSpotsSize];
+
+                for (int position : positions.getValue()) {
+                    distances[position] = parkingFloorLayout.getDistance(gateId, parkingSpotIds[position]);
+                }
+
+                orders.put(positions.getKey(), positions.getValue().stream()
+                        .sorted(Comparator.<Integer>comparingDouble(position -> distances[position]).thenComparingInt(position -> position))
+                        .mapToInt(Integer::intValue)
+                        .toArray());
+            }
+
+            parkingSpotOrders.put(gateId, orders);
+        }
+    }
+
+    int getParkingSpotsSize() {
+        return parkingSpotsSize;
+    }
+
+    int[] get(String gateId, VehicleType vehicleType) {
+        Map<VehicleType, int[]> orders = parkingSpotOrders.get(gateId);
+
+        if (orders == null) {
+            return null;
+        }
+
+        return orders.getOrDefault(vehicleType, new int[0]);
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.models;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.BitSet;
+
+public interface ParkingSpotStatusListener {
+    void onParkingSpotStatusChanged(ParkingSpot parkingSpot, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus);
+
+    // a bulk change on the floor moved count spots of the vehicle type at once, with no call per spot
+    default void onParkingSpotsStatusChanged(ParkingFloor parkingFloor, VehicleType vehicleType, ParkingSpotStatus previousParkingSpotStatus,
+                                             ParkingSpotStatus parkingSpotStatus, int count) {
+    }
+
+    // once per bulk deactivation (INACTIVE) or reactivation (AVAILABLE) with every position it was asked for,
+    // including occupied spots that were only marked to drain
+    default void onParkingSpotsStatusChanged(ParkingFloor parkingFloor, BitSet parkingSpotPositions, ParkingSpotStatus parkingSpotStatus) {
+    }
+}
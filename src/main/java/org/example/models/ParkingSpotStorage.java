@@ -0,0 +1,12 @@
+package org.example.models;
+
+// How a floor keeps its spots, indexed by position. Writers hold the floor lock, readers do not lock.
+interface ParkingSpotStorage {
+    int size();
+
+    ParkingSpot get(int position);
+
+    boolean contains(String parkingSpotId);
+
+    ParkingSpot add(ParkingSpot parkingSpot);
+}
@@ -2,5 +2,5 @@ package org.example.models;
 
 import java.util.Date;
 
-public record ParkingTicket(String id, Vehicle vehicle, ParkingSpot parkingSpot, Date inTime) {
+public record ParkingTicket(long id, Vehicle vehicle, ParkingSpot parkingSpot, Date inTime) {
 }
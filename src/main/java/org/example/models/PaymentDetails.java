@@ -2,5 +2,11 @@ package org.example.models;
 
 import org.example.strategy.Payment.PaymentStrategy;
 
-public record PaymentDetails(String id, double amount, PaymentStrategy paymentStrategy) {
+import java.math.BigDecimal;
+
+// amounts are kept in paise, whole rupees only when shown
+public record PaymentDetails(long id, long amountCents, PaymentStrategy paymentStrategy) {
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(amountCents, 2);
+    }
 }
@@ -0,0 +1,84 @@
+package org.example.models;
+
+import org.example.models.enums.ReservationStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.Date;
+
+// A booked time window for one vehicle type on one floor. From a little before the window starts a spot
+// is held for it as RESERVED, until the vehicle checks in or the hold expires.
+public class Reservation {
+    private final long id;
+    private final String parkingLotId;
+    private final String parkingFloorId;
+    private final VehicleType vehicleType;
+    private final String regNumber;
+    private final Date fromTime;
+    private final Date toTime;
+
+    private volatile ReservationStatus reservationStatus = ReservationStatus.BOOKED;
+    private volatile ParkingSpot parkingSpot;
+
+    public Reservation(long id, String parkingLotId, String parkingFloorId, VehicleType vehicleType, String regNumber,
+                       Date fromTime, Date toTime) {
+        this.id = id;
+        this.parkingLotId = parkingLotId;
+        this.parkingFloorId = parkingFloorId;
+        this.vehicleType = vehicleType;
+        this.regNumber = regNumber;
+        this.fromTime = fromTime;
+        this.toTime = toTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getParkingLotId() {
+        return parkingLotId;
+    }
+
+    public String getParkingFloorId() {
+        return parkingFloorId;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public String getRegNumber() {
+        return regNumber;
+    }
+
+    public Date getFromTime() {
+        return fromTime;
+    }
+
+    public Date getToTime() {
+        return toTime;
+    }
+
+    public ReservationStatus getReservationStatus() {
+        return reservationStatus;
+    }
+
+    public void setReservationStatus(ReservationStatus reservationStatus) {
+        this.reservationStatus = reservationStatus;
+    }
+
+    // the RESERVED spot while HELD, the occupied one once CHECKED_IN
+    public ParkingSpot getParkingSpot() {
+        return parkingSpot;
+    }
+
+    public void setParkingSpot(ParkingSpot parkingSpot) {
+        this.parkingSpot = parkingSpot;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" + "id=" + id + ", parkingFloorId='" + parkingFloorId + '\'' + ", vehicleType=" + vehicleType
+                + ", regNumber='" + regNumber + '\'' + ", fromTime=" + fromTime + ", toTime=" + toTime
+                + ", reservationStatus=" + reservationStatus + '}';
+    }
+}
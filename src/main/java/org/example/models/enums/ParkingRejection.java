@@ -0,0 +1,28 @@
+package org.example.models.enums;
+
+public enum ParkingRejection {
+    GATE_NOT_FOUND("No parking lot has this gate"),
+    NOT_AN_ENTRY_GATE("Please, go to " + GateType.ENTRY + ", you are on " + GateType.EXIT),
+    NOT_AN_EXIT_GATE("Please, go to " + GateType.EXIT + ", you are on " + GateType.ENTRY),
+    PARKING_LOT_FULL("Very sorry, parking lot is full"),
+    PARKING_FLOORS_BUSY("All parking floors are busy, please try again"),
+    PAYMENT_FAILED("Payment failed, please try again"),
+    PARKING_TICKET_NOT_FOUND("No such vehicle is parked"),
+    VEHICLE_ALREADY_PARKED("This vehicle is already parked"),
+    RESERVATION_NOT_FOUND("No such reservation is waiting to check in");
+
+    private final String message;
+
+    ParkingRejection(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // the message names the gate where the reason is about the gate itself
+    public String getMessage(String gateId) {
+        return this == GATE_NOT_FOUND ? "No parking lot has gate " + gateId : message;
+    }
+}
@@ -3,5 +3,6 @@ package org.example.models.enums;
 public enum ParkingSpotStatus {
     AVAILABLE,
     OCCUPIED,
-    INACTIVE
+    INACTIVE,
+    RESERVED
 }
@@ -0,0 +1,9 @@
+package org.example.models.enums;
+
+public enum ReservationStatus {
+    BOOKED,
+    HELD,
+    CHECKED_IN,
+    EXPIRED,
+    CANCELLED
+}
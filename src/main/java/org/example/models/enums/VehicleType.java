@@ -1,23 +1,24 @@
 package org.example.models.enums;
 
 public enum VehicleType {
-    TWO_WHEELER(20.0, 10.0),
-    LMV(35.0, 15.0),
-    HMV(50.0, 20.0);
+    TWO_WHEELER(2000, 1000),
+    LMV(3500, 1500),
+    HMV(5000, 2000);
 
-    private final double baseCharge;
-    private final double hourlyRate;
+    // in paise
+    private final long baseChargeCents;
+    private final long hourlyRateCents;
 
-    VehicleType(double baseCharge, double hourlyRate) {
-        this.baseCharge = baseCharge;
-        this.hourlyRate = hourlyRate;
+    VehicleType(long baseChargeCents, long hourlyRateCents) {
+        this.baseChargeCents = baseChargeCents;
+        this.hourlyRateCents = hourlyRateCents;
     }
 
-    public double getBaseCharge() {
-        return baseCharge;
+    public long getBaseChargeCents() {
+        return baseChargeCents;
     }
 
-    public double getHourlyRate() {
-        return hourlyRate;
+    public long getHourlyRateCents() {
+        return hourlyRateCents;
     }
 }
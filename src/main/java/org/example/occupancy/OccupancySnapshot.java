@@ -0,0 +1,91 @@
+package org.example.occupancy;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+// Immutable spot counts of one lot by floor, vehicle type and status. Every update pass publishes a new
+// snapshot with the next version, so a reader holding one always sees the same, untorn numbers.
+public final class OccupancySnapshot {
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+    private static final int PARKING_SPOT_STATUSES = ParkingSpotStatus.values().length;
+
+    private final String parkingLotId;
+    private final long version;
+    private final List<String> parkingFloorIds;
+    private final Map<String, Integer> parkingFloorIndexes;
+    private final int[] parkingSpotsCounts;
+    private final int[] totalParkingSpotsCounts;
+
+    OccupancySnapshot(String parkingLotId, long version, List<String> parkingFloorIds, Map<String, Integer> parkingFloorIndexes,
+                      int[] parkingSpotsCounts, int[] totalParkingSpotsCounts) {
+        this.parkingLotId = parkingLotId;
+        this.version = version;
+        this.parkingFloorIds = parkingFloorIds;
+        this.parkingFloorIndexes = parkingFloorIndexes;
+        this.parkingSpotsCounts = parkingSpotsCounts;
+        this.totalParkingSpotsCounts = totalParkingSpotsCounts;
+    }
+
+    static OccupancySnapshot of(String parkingLotId, long version, List<String> parkingFloorIds, Map<String, Integer> parkingFloorIndexes,
+                                int[] parkingSpotsCounts) {
+        int[] totalParkingSpotsCounts = new int[VEHICLE_TYPES * PARKING_SPOT_STATUSES];
+
+        for (int i = 0; i < parkingSpotsCounts.length; i++) {
+            totalParkingSpotsCounts[i % totalParkingSpotsCounts.length] += parkingSpotsCounts[i];
+        }
+
+        return new OccupancySnapshot(parkingLotId, version, parkingFloorIds, parkingFloorIndexes, parkingSpotsCounts, totalParkingSpotsCounts);
+    }
+
+    public String getParkingLotId() {
+        return parkingLotId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<String> getParkingFloorIds() {
+        return parkingFloorIds;
+    }
+
+    public int getParkingSpotsCount(VehicleType vehicleType, ParkingSpotStatus parkingSpotStatus) {
+        return totalParkingSpotsCounts[vehicleType.ordinal() * PARKING_SPOT_STATUSES + parkingSpotStatus.ordinal()];
+    }
+
+    public int getParkingSpotsCount(String parkingFloorId, VehicleType vehicleType, ParkingSpotStatus parkingSpotStatus) {
+        Integer parkingFloorIndex = parkingFloorIndexes.get(parkingFloorId);
+        return parkingFloorIndex == null ? 0 : parkingSpotsCounts[index(parkingFloorIndex, vehicleType) + parkingSpotStatus.ordinal()];
+    }
+
+    public void display(PrintStream printStream) {
+        printStream.println("===== ParkingLotStatus =====\n");
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            printStream.println(vehicleType + ":\n");
+
+            for (ParkingSpotStatus parkingSpotStatus : ParkingSpotStatus.values()) {
+                printStream.println(parkingSpotStatus + ":");
+
+                for (String parkingFloorId : parkingFloorIds) {
+                    printStream.println(parkingFloorId + " : " + getParkingSpotsCount(parkingFloorId, vehicleType, parkingSpotStatus));
+                }
+            }
+        }
+
+        printStream.println("=======================\n");
+    }
+
+    // the next version over a fresh copy of every floor's counts, the lot totals are summed from them
+    OccupancySnapshot withParkingSpotsCounts(int[] parkingSpotsCounts) {
+        return of(parkingLotId, version + 1, parkingFloorIds, parkingFloorIndexes, parkingSpotsCounts);
+    }
+
+    private static int index(int parkingFloorIndex, VehicleType vehicleType) {
+        return (parkingFloorIndex * VEHICLE_TYPES + vehicleType.ordinal()) * PARKING_SPOT_STATUSES;
+    }
+}
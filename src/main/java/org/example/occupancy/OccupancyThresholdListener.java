@@ -0,0 +1,10 @@
+package org.example.occupancy;
+
+import org.example.models.enums.VehicleType;
+
+public interface OccupancyThresholdListener {
+    // parkingFloorId is null for a lot wide threshold. Called on the view's dispatch thread, never on a gate,
+    // one crossing at a time in the order of occupancySnapshot.getVersion().
+    void onThresholdCrossed(OccupancySnapshot occupancySnapshot, String parkingFloorId, VehicleType vehicleType,
+                            int availableParkingSpots, boolean isBelowThreshold);
+}
@@ -0,0 +1,210 @@
+package org.example.occupancy;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.ParkingSpot;
+import org.example.models.ParkingSpotStatusListener;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Follows spot transitions of a lot and republishes its OccupancySnapshot from one updater thread.
+// A transition only flags its floor and vehicle type as dirty, the updater folds every flagged count
+// into the next snapshot in one pass, so gates share no lot-wide state and readers never touch a spot.
+// Threshold crossings are found by the updater and handed to their listeners on a dispatch thread.
+public class OccupancyView implements ParkingSpotStatusListener {
+    private static final System.Logger LOGGER = System.getLogger(OccupancyView.class.getName());
+    private static final VehicleType[] vehicleTypes = VehicleType.values();
+    private static final ParkingSpotStatus[] parkingSpotStatuses = ParkingSpotStatus.values();
+    private static final long IDLE_PARK_NANOS = 10_000_000;
+
+    private record Threshold(String parkingFloorId, VehicleType vehicleType, int availableParkingSpots,
+                             OccupancyThresholdListener occupancyThresholdListener) {
+        int getAvailableParkingSpots(OccupancySnapshot occupancySnapshot) {
+            return parkingFloorId == null
+                    ? occupancySnapshot.getParkingSpotsCount(vehicleType, ParkingSpotStatus.AVAILABLE)
+                    : occupancySnapshot.getParkingSpotsCount(parkingFloorId, vehicleType, ParkingSpotStatus.AVAILABLE);
+        }
+
+        boolean isBelow(OccupancySnapshot occupancySnapshot) {
+            return getAvailableParkingSpots(occupancySnapshot) < availableParkingSpots;
+        }
+    }
+
+    private final Map<ParkingFloor, Integer> parkingFloorIndexes = new IdentityHashMap<>();
+    private final ParkingFloor[] parkingFloors;
+    // one flag per floor and vehicle type, set by transitions and cleared by the updater before it reads the counts
+    private final AtomicIntegerArray dirtyParkingSpotsCounts;
+    // the counts the updater has folded in so far, indexed like the snapshot, touched under the update lock only
+    private final int[] parkingSpotsCounts;
+    private final List<Threshold> thresholds = new CopyOnWriteArrayList<>();
+    private final ExecutorService thresholdExecutor;
+    private final Thread updaterThread;
+    private volatile OccupancySnapshot occupancySnapshot;
+    private volatile boolean isUpdaterIdle;
+
+    // floors added to the lot later are not followed
+    public OccupancyView(ParkingLot parkingLot) {
+        List<ParkingFloor> floors = parkingLot.getFloors();
+        List<String> parkingFloorIds = new ArrayList<>();
+        Map<String, Integer> parkingFloorIdIndexes = new HashMap<>();
+
+        for (ParkingFloor parkingFloor : floors) {
+            parkingFloorIndexes.put(parkingFloor, parkingFloorIds.size());
+            parkingFloorIdIndexes.put(parkingFloor.getId(), parkingFloorIds.size());
+            parkingFloorIds.add(parkingFloor.getId());
+        }
+
+        parkingFloors = floors.toArray(ParkingFloor[]::new);
+        dirtyParkingSpotsCounts = new AtomicIntegerArray(parkingFloors.length * vehicleTypes.length);
+        parkingSpotsCounts = new int[parkingFloors.length * vehicleTypes.length * parkingSpotStatuses.length];
+        occupancySnapshot = OccupancySnapshot.of(parkingLot.getId(), 0, List.copyOf(parkingFloorIds),
+                                                 Map.copyOf(parkingFloorIdIndexes), parkingSpotsCounts.clone());
+
+        // listen first, then fill in every floor, a transition in between is only folded in twice
+        for (ParkingFloor parkingFloor : floors) {
+            parkingFloor.addParkingSpotStatusListener(this);
+        }
+
+        for (int i = 0; i < dirtyParkingSpotsCounts.length(); i++) {
+            dirtyParkingSpotsCounts.set(i, 1);
+        }
+
+        update();
+
+        thresholdExecutor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("occupancy-thresholds-" + parkingLot.getId()).factory());
+        updaterThread = Thread.ofVirtual().name("occupancy-updater-" + parkingLot.getId()).start(this::updateLoop);
+    }
+
+    // the latest published snapshot, it may trail the floors by the pass the updater is running
+    public OccupancySnapshot getOccupancySnapshot() {
+        return occupancySnapshot;
+    }
+
+    // folds in every transition that happened before the call, on the calling thread
+    public OccupancySnapshot refreshOccupancySnapshot() {
+        update();
+        return occupancySnapshot;
+    }
+
+    public void addThresholdListener(String parkingFloorId, VehicleType vehicleType, int availableParkingSpots,
+                                     OccupancyThresholdListener occupancyThresholdListener) {
+        thresholds.add(new Threshold(parkingFloorId, vehicleType, availableParkingSpots, occupancyThresholdListener));
+    }
+
+    public void removeThresholdListener(OccupancyThresholdListener occupancyThresholdListener) {
+        thresholds.removeIf(threshold -> threshold.occupancyThresholdListener() == occupancyThresholdListener);
+    }
+
+    @Override
+    public void onParkingSpotStatusChanged(ParkingSpot parkingSpot, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        markDirty(parkingSpot.getParkingFloor(), parkingSpot.getVehicleType());
+    }
+
+    @Override
+    public void onParkingSpotsStatusChanged(ParkingFloor parkingFloor, VehicleType vehicleType, ParkingSpotStatus previousParkingSpotStatus,
+                                            ParkingSpotStatus parkingSpotStatus, int count) {
+        markDirty(parkingFloor, vehicleType);
+    }
+
+    // the floor counts were changed before the listener ran, so the updater reads them after the flag is set
+    private void markDirty(ParkingFloor parkingFloor, VehicleType vehicleType) {
+        Integer parkingFloorIndex = parkingFloorIndexes.get(parkingFloor);
+
+        if (parkingFloorIndex == null) {
+            return;
+        }
+
+        int dirtyIndex = parkingFloorIndex * vehicleTypes.length + vehicleType.ordinal();
+
+        if (dirtyParkingSpotsCounts.get(dirtyIndex) == 0 && dirtyParkingSpotsCounts.getAndSet(dirtyIndex, 1) == 0 && isUpdaterIdle) {
+            LockSupport.unpark(updaterThread);
+        }
+    }
+
+    private void updateLoop() {
+        while (true) {
+            update();
+
+            isUpdaterIdle = true;
+
+            if (!isDirty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+
+            isUpdaterIdle = false;
+        }
+    }
+
+    private boolean isDirty() {
+        for (int i = 0; i < dirtyParkingSpotsCounts.length(); i++) {
+            if (dirtyParkingSpotsCounts.get(i) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private synchronized void update() {
+        boolean isChanged = false;
+
+        for (int dirtyIndex = 0; dirtyIndex < dirtyParkingSpotsCounts.length(); dirtyIndex++) {
+            if (dirtyParkingSpotsCounts.get(dirtyIndex) == 0) {
+                continue;
+            }
+
+            dirtyParkingSpotsCounts.set(dirtyIndex, 0);
+
+            ParkingFloor parkingFloor = parkingFloors[dirtyIndex / vehicleTypes.length];
+            VehicleType vehicleType = vehicleTypes[dirtyIndex % vehicleTypes.length];
+            int index = dirtyIndex * parkingSpotStatuses.length;
+
+            for (ParkingSpotStatus parkingSpotStatus : parkingSpotStatuses) {
+                int count = parkingFloor.getParkingSpotsCount(vehicleType, parkingSpotStatus);
+
+                if (parkingSpotsCounts[index + parkingSpotStatus.ordinal()] != count) {
+                    parkingSpotsCounts[index + parkingSpotStatus.ordinal()] = count;
+                    isChanged = true;
+                }
+            }
+        }
+
+        if (!isChanged) {
+            return;
+        }
+
+        OccupancySnapshot previousOccupancySnapshot = occupancySnapshot;
+        OccupancySnapshot nextOccupancySnapshot = previousOccupancySnapshot.withParkingSpotsCounts(parkingSpotsCounts.clone());
+
+        occupancySnapshot = nextOccupancySnapshot;
+        notifyThresholds(previousOccupancySnapshot, nextOccupancySnapshot);
+    }
+
+    private void notifyThresholds(OccupancySnapshot previousOccupancySnapshot, OccupancySnapshot nextOccupancySnapshot) {
+        for (Threshold threshold : thresholds) {
+            boolean isBelow = threshold.isBelow(nextOccupancySnapshot);
+
+            if (isBelow == threshold.isBelow(previousOccupancySnapshot)) {
+                continue;
+            }
+
+            int available = threshold.getAvailableParkingSpots(nextOccupancySnapshot);
+
+            thresholdExecutor.execute(() -> {
+                try {
+                    threshold.occupancyThresholdListener().onThresholdCrossed(
+                            nextOccupancySnapshot, threshold.parkingFloorId(), threshold.vehicleType(), available, isBelow);
+                } catch (RuntimeException exception) {
+                    LOGGER.log(System.Logger.Level.ERROR, "Occupancy threshold listener failed", exception);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.persistence;
+
+public enum FsyncPolicy {
+    // every group commit is forced to disk before its appenders are released
+    EVERY_COMMIT,
+    // the log is forced at most once per interval, a crash may lose the last interval
+    INTERVAL,
+    // the operating system decides when to flush
+    NEVER
+}
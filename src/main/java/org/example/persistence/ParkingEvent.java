@@ -0,0 +1,25 @@
+package org.example.persistence;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.BitSet;
+
+public sealed interface ParkingEvent {
+    record TicketIssued(long parkingTicketId, String regNumber, VehicleType vehicleType, String parkingFloorId,
+                        int parkingSpotPosition, long inTime) implements ParkingEvent {
+    }
+
+    record SpotStatusChanged(String parkingFloorId, int parkingSpotPosition,
+                             ParkingSpotStatus parkingSpotStatus) implements ParkingEvent {
+    }
+
+    // a bulk deactivation (INACTIVE) or reactivation (AVAILABLE), replayed through the floor like the original
+    record SpotsStatusChanged(String parkingFloorId, BitSet parkingSpotPositions,
+                              ParkingSpotStatus parkingSpotStatus) implements ParkingEvent {
+    }
+
+    record BillPaid(long parkingBillId, long parkingTicketId, long outTime, long amountCents,
+                    long paymentId) implements ParkingEvent {
+    }
+}
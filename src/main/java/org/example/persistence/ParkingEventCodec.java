@@ -0,0 +1,216 @@
+package org.example.persistence;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.zip.CRC32C;
+
+// Frame layout: int length | long lsn | byte type | payload | int crc32c(lsn..payload), on heap buffers
+final class ParkingEventCodec {
+    static final int FRAME_HEADER_BYTES = Integer.BYTES;
+    static final int MAX_FRAME_BYTES = 4096;
+    // a SpotsStatusChanged frame holds at most this many words of positions
+    static final int MAX_SPOT_POSITION_WORDS = 256;
+
+    private static final byte TICKET_ISSUED = 1;
+    private static final byte SPOT_STATUS_CHANGED = 2;
+    private static final byte BILL_PAID = 3;
+    private static final byte SPOTS_STATUS_CHANGED = 4;
+
+    private static final VehicleType[] vehicleTypes = VehicleType.values();
+    private static final ParkingSpotStatus[] parkingSpotStatuses = ParkingSpotStatus.values();
+
+    private ParkingEventCodec() {
+    }
+
+    static void encode(long lsn, ParkingEvent parkingEvent, ByteBuffer buffer) {
+        int frameStart = buffer.position();
+
+        buffer.putInt(0);
+        buffer.putLong(lsn);
+
+        switch (parkingEvent) {
+            case ParkingEvent.TicketIssued ticketIssued -> {
+                buffer.put(TICKET_ISSUED);
+                buffer.putLong(ticketIssued.parkingTicketId());
+                putString(buffer, ticketIssued.regNumber());
+                buffer.put((byte) ticketIssued.vehicleType().ordinal());
+                putString(buffer, ticketIssued.parkingFloorId());
+                buffer.putInt(ticketIssued.parkingSpotPosition());
+                buffer.putLong(ticketIssued.inTime());
+            }
+            case ParkingEvent.SpotStatusChanged spotStatusChanged -> {
+                buffer.put(SPOT_STATUS_CHANGED);
+                putString(buffer, spotStatusChanged.parkingFloorId());
+                buffer.putInt(spotStatusChanged.parkingSpotPosition());
+                buffer.put((byte) spotStatusChanged.parkingSpotStatus().ordinal());
+            }
+            case ParkingEvent.SpotsStatusChanged spotsStatusChanged -> {
+                buffer.put(SPOTS_STATUS_CHANGED);
+                putString(buffer, spotsStatusChanged.parkingFloorId());
+                buffer.put((byte) spotsStatusChanged.parkingSpotStatus().ordinal());
+                putPositions(buffer, spotsStatusChanged.parkingSpotPositions());
+            }
+            case ParkingEvent.BillPaid billPaid -> {
+                buffer.put(BILL_PAID);
+                buffer.putLong(billPaid.parkingBillId());
+                buffer.putLong(billPaid.parkingTicketId());
+                buffer.putLong(billPaid.outTime());
+                buffer.putLong(billPaid.amountCents());
+                buffer.putLong(billPaid.paymentId());
+            }
+        }
+
+        int bodyStart = frameStart + FRAME_HEADER_BYTES;
+        buffer.putInt(crc(buffer, bodyStart, buffer.position()));
+        buffer.putInt(frameStart, buffer.position() - bodyStart);
+    }
+
+    // the bytes encode writes for the event, header and checksum included, without encoding it
+    static int frameBytes(ParkingEvent parkingEvent) {
+        int payloadBytes = switch (parkingEvent) {
+            case ParkingEvent.TicketIssued ticketIssued -> Long.BYTES + stringBytes(ticketIssued.regNumber()) + 1
+                    + stringBytes(ticketIssued.parkingFloorId()) + Integer.BYTES + Long.BYTES;
+            case ParkingEvent.SpotStatusChanged spotStatusChanged -> stringBytes(spotStatusChanged.parkingFloorId()) + Integer.BYTES + 1;
+            case ParkingEvent.SpotsStatusChanged spotsStatusChanged -> {
+                BitSet positions = spotsStatusChanged.parkingSpotPositions();
+                int words = positions.isEmpty() ? 0 : ((positions.length() + 63) >>> 6) - (positions.nextSetBit(0) >>> 6);
+
+                yield stringBytes(spotsStatusChanged.parkingFloorId()) + 1 + Integer.BYTES + Short.BYTES + words * Long.BYTES;
+            }
+            case ParkingEvent.BillPaid billPaid -> 5 * Long.BYTES;
+        };
+
+        return FRAME_HEADER_BYTES + Long.BYTES + 1 + payloadBytes + Integer.BYTES;
+    }
+
+    // Returns the frame length of the next complete, intact frame, 0 if the buffer holds only part of it
+    // and -1 if the bytes are not a valid frame (a torn write at the tail of the log).
+    static int frameLength(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_HEADER_BYTES) {
+            return 0;
+        }
+
+        int length = buffer.getInt(buffer.position());
+
+        if (length <= Long.BYTES + 1 + Integer.BYTES || length > MAX_FRAME_BYTES) {
+            return -1;
+        }
+
+        if (buffer.remaining() < FRAME_HEADER_BYTES + length) {
+            return 0;
+        }
+
+        int bodyStart = buffer.position() + FRAME_HEADER_BYTES;
+        int crcPosition = bodyStart + length - Integer.BYTES;
+
+        return crc(buffer, bodyStart, crcPosition) == buffer.getInt(crcPosition) ? length : -1;
+    }
+
+    static long lsn(ByteBuffer buffer) {
+        return buffer.getLong(buffer.position() + FRAME_HEADER_BYTES);
+    }
+
+    // Reads the frame at the buffer position, which frameLength has already validated, and moves past it.
+    static ParkingEvent decode(ByteBuffer buffer) {
+        buffer.getInt();
+        buffer.getLong();
+
+        ParkingEvent parkingEvent = switch (buffer.get()) {
+            case TICKET_ISSUED -> new ParkingEvent.TicketIssued(
+                    buffer.getLong(), getString(buffer), vehicleTypes[buffer.get()], getString(buffer),
+                    buffer.getInt(), buffer.getLong());
+            case SPOT_STATUS_CHANGED -> new ParkingEvent.SpotStatusChanged(
+                    getString(buffer), buffer.getInt(), parkingSpotStatuses[buffer.get()]);
+            case SPOTS_STATUS_CHANGED -> {
+                String parkingFloorId = getString(buffer);
+                ParkingSpotStatus parkingSpotStatus = parkingSpotStatuses[buffer.get()];
+
+                yield new ParkingEvent.SpotsStatusChanged(parkingFloorId, getPositions(buffer), parkingSpotStatus);
+            }
+            case BILL_PAID -> new ParkingEvent.BillPaid(
+                    buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            default -> throw new IllegalStateException("Unknown parking event type");
+        };
+
+        buffer.getInt();
+
+        return parkingEvent;
+    }
+
+    static void skip(ByteBuffer buffer, int frameLength) {
+        buffer.position(buffer.position() + FRAME_HEADER_BYTES + frameLength);
+    }
+
+    // only the words from the first position on are written
+    private static void putPositions(ByteBuffer buffer, BitSet positions) {
+        long[] words = positions.toLongArray();
+        int firstWord = positions.isEmpty() ? 0 : positions.nextSetBit(0) >>> 6;
+
+        if (words.length - firstWord > MAX_SPOT_POSITION_WORDS) {
+            throw new IllegalArgumentException("Too many spot positions for one parking event");
+        }
+
+        buffer.putInt(firstWord);
+        buffer.putShort((short) (words.length - firstWord));
+
+        for (int word = firstWord; word < words.length; word++) {
+            buffer.putLong(words[word]);
+        }
+    }
+
+    private static BitSet getPositions(ByteBuffer buffer) {
+        int firstWord = buffer.getInt();
+        long[] words = new long[firstWord + Short.toUnsignedInt(buffer.getShort())];
+
+        for (int word = firstWord; word < words.length; word++) {
+            words[word] = buffer.getLong();
+        }
+
+        return BitSet.valueOf(words);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    // UTF-8 length prefixed by a short, counted without encoding the string
+    private static int stringBytes(String value) {
+        int bytes = Short.BYTES;
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(buffer.array(), buffer.arrayOffset() + from, to - from);
+        return (int) crc32c.getValue();
+    }
+}
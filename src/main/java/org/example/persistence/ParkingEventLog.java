@@ -0,0 +1,425 @@
+package org.example.persistence;
+
+import org.example.events.EventRingBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Appenders claim their lsn lock-free as the next position of a ring buffer, so the writer thread takes events
+// in lsn order without any lock between the gates. A full ring makes appenders wait for the writer, a failed
+// writer makes every later append and wait fail at once.
+public class ParkingEventLog implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(ParkingEventLog.class.getName());
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int READ_BUFFER_BYTES = 4 << 20;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final int MAX_BATCH_EVENTS = 8192;
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long segmentBytes;
+    private final EventRingBuffer<ParkingEvent> pendingEvents;
+    // lsn of the ring's position 0
+    private final long firstPendingLsn;
+    private final ByteBuffer writeBuffer;
+    private final Object durableMonitor = new Object();
+    private final Thread writerThread;
+
+    private FileChannel segment;
+    private volatile long writtenLsn;
+    private volatile long durableLsn;
+    private volatile boolean closed;
+    private volatile boolean isWriterIdle;
+    private volatile boolean isWriterStopped;
+    private volatile IOException failure;
+
+    private volatile Checkpointer checkpointer;
+
+    public ParkingEventLog(Path directory, FsyncPolicy fsyncPolicy, Duration fsyncInterval, long segmentBytes, int queueCapacity) throws IOException {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.segmentBytes = segmentBytes;
+        this.pendingEvents = new EventRingBuffer<>(Integer.highestOneBit(Math.max(1, queueCapacity - 1)) << 1);
+        this.writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+
+        Files.createDirectories(directory);
+
+        long lastLsn = openLastSegment();
+
+        this.firstPendingLsn = lastLsn + 1;
+        this.writtenLsn = lastLsn;
+        this.durableLsn = lastLsn;
+
+        this.writerThread = Thread.ofPlatform().daemon().name("parking-event-log-writer").start(this::writeLoop);
+    }
+
+    public long getLastLsn() {
+        return firstPendingLsn + pendingEvents.getEnqueuedCount() - 1;
+    }
+
+    // an event too large for one frame is refused here, the writer would otherwise fail on it for good
+    public long append(ParkingEvent parkingEvent) {
+        int frameBytes = ParkingEventCodec.frameBytes(parkingEvent);
+
+        if (frameBytes > ParkingEventCodec.MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException(parkingEvent.getClass().getSimpleName() + " takes " + frameBytes
+                    + " bytes, a parking event frame holds at most " + ParkingEventCodec.MAX_FRAME_BYTES);
+        }
+
+        while (true) {
+            checkWritable();
+
+            long position = pendingEvents.enqueue(parkingEvent);
+
+            if (position >= 0) {
+                if (isWriterIdle) {
+                    LockSupport.unpark(writerThread);
+                }
+
+                return firstPendingLsn + position;
+            }
+
+            // a full ring pushes back on the gates instead of dropping events
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+        }
+    }
+
+    // Blocks until the event is on disk when every commit is forced, otherwise returns at once.
+    public void sync(long lsn) {
+        if (fsyncPolicy == FsyncPolicy.EVERY_COMMIT) {
+            awaitDurable(lsn);
+        }
+    }
+
+    public void awaitDurable(long lsn) {
+        synchronized (durableMonitor) {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+
+                // appended after the writer took its last batch on close
+                if (isWriterStopped) {
+                    throw new IllegalStateException("Parking event log closed before lsn " + lsn + " was written");
+                }
+
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for lsn " + lsn, exception);
+                }
+            }
+        }
+    }
+
+    // Once every eventsCount events the writer hands checkpoint to a background thread, never two at a time.
+    public void setCheckpoint(long eventsCount, Runnable checkpoint) {
+        this.checkpointer = new Checkpointer(eventsCount, checkpoint, writtenLsn);
+    }
+
+    // Replays every event with lsn >= fromLsn in log order and returns the last lsn in the log.
+    public long replay(long fromLsn, Consumer<ParkingEvent> consumer) throws IOException {
+        List<Path> segments = listSegments();
+        long lastLsn = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            boolean isCovered = i + 1 < segments.size() && firstLsn(segments.get(i + 1)) <= fromLsn;
+
+            if (!isCovered) {
+                lastLsn = Math.max(lastLsn, scanSegment(segments.get(i), fromLsn, consumer).lastLsn());
+            }
+        }
+
+        return lastLsn;
+    }
+
+    // Drops whole segments whose events all come before lsn, typically after a snapshot at lsn.
+    public void truncateBefore(long lsn) throws IOException {
+        List<Path> segments = listSegments();
+
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstLsn(segments.get(i + 1)) <= lsn) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writerThread);
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        segment.close();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Parking event log writer failed", failure);
+        }
+
+        if (closed) {
+            throw new IllegalStateException("Parking event log is closed");
+        }
+    }
+
+    private void writeLoop() {
+        List<ParkingEvent> batch = new ArrayList<>(MAX_BATCH_EVENTS);
+        long lastFsyncNanos = System.nanoTime();
+        long pollNanos = fsyncPolicy == FsyncPolicy.INTERVAL ? Math.min(fsyncIntervalNanos, IDLE_POLL_NANOS) : IDLE_POLL_NANOS;
+
+        try {
+            while (true) {
+                // group commit, everything queued shares one write and one fsync
+                for (ParkingEvent parkingEvent; batch.size() < MAX_BATCH_EVENTS && (parkingEvent = pendingEvents.poll()) != null; ) {
+                    batch.add(parkingEvent);
+                }
+
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    writtenLsn += batch.size();
+                    batch.clear();
+                } else if (closed) {
+                    break;
+                } else {
+                    isWriterIdle = true;
+
+                    if (pendingEvents.isEmpty() && !closed) {
+                        LockSupport.parkNanos(pollNanos);
+                    }
+
+                    isWriterIdle = false;
+                }
+
+                boolean isFsyncDue = switch (fsyncPolicy) {
+                    case EVERY_COMMIT -> true;
+                    case INTERVAL -> System.nanoTime() - lastFsyncNanos >= fsyncIntervalNanos;
+                    case NEVER -> false;
+                };
+
+                if (durableLsn < writtenLsn && (isFsyncDue || fsyncPolicy == FsyncPolicy.NEVER)) {
+                    if (isFsyncDue) {
+                        segment.force(false);
+                        lastFsyncNanos = System.nanoTime();
+                    }
+
+                    publishDurable(writtenLsn);
+                }
+
+                if (segment.position() >= segmentBytes) {
+                    rollSegment();
+                }
+
+                Checkpointer currentCheckpointer = checkpointer;
+
+                if (currentCheckpointer != null) {
+                    currentCheckpointer.checkpointIfDue(writtenLsn);
+                }
+            }
+
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                segment.force(false);
+            }
+
+            publishDurable(writtenLsn);
+        } catch (IOException exception) {
+            failure = exception;
+        } catch (RuntimeException exception) {
+            failure = new IOException("Parking event log writer failed", exception);
+        } finally {
+            isWriterStopped = true;
+            publishDurable(durableLsn);
+        }
+    }
+
+    // the batch holds the events right after writtenLsn, in lsn order
+    private void write(List<ParkingEvent> batch) throws IOException {
+        long lsn = writtenLsn;
+
+        for (ParkingEvent parkingEvent : batch) {
+            if (writeBuffer.remaining() < ParkingEventCodec.MAX_FRAME_BYTES) {
+                flushWriteBuffer();
+            }
+
+            ParkingEventCodec.encode(++lsn, parkingEvent, writeBuffer);
+        }
+
+        flushWriteBuffer();
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        writeBuffer.flip();
+
+        while (writeBuffer.hasRemaining()) {
+            segment.write(writeBuffer);
+        }
+
+        writeBuffer.clear();
+    }
+
+    private void publishDurable(long lsn) {
+        synchronized (durableMonitor) {
+            durableLsn = lsn;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            segment.force(false);
+        }
+
+        segment.close();
+        segment = openSegment(segmentPath(writtenLsn + 1));
+    }
+
+    private long openLastSegment() throws IOException {
+        List<Path> segments = listSegments();
+
+        if (segments.isEmpty()) {
+            segment = openSegment(segmentPath(1));
+            return 0;
+        }
+
+        Path lastSegment = segments.getLast();
+        SegmentScan segmentScan = scanSegment(lastSegment, Long.MAX_VALUE, null);
+
+        segment = openSegment(lastSegment);
+        // a crash can leave half a frame at the tail, cut it off before appending
+        segment.truncate(segmentScan.validBytes());
+        segment.position(segmentScan.validBytes());
+
+        return segmentScan.lastLsn() > 0 ? segmentScan.lastLsn() : firstLsn(lastSegment) - 1;
+    }
+
+    private FileChannel openSegment(Path path) throws IOException {
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileChannel.position(fileChannel.size());
+        return fileChannel;
+    }
+
+    private SegmentScan scanSegment(Path path, long fromLsn, Consumer<ParkingEvent> consumer) throws IOException {
+        long validBytes = 0;
+        long lastLsn = 0;
+
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+
+            while (true) {
+                int read = fileChannel.read(readBuffer);
+                readBuffer.flip();
+
+                while (true) {
+                    int frameLength = ParkingEventCodec.frameLength(readBuffer);
+
+                    if (frameLength < 0) {
+                        return new SegmentScan(validBytes, lastLsn);
+                    }
+
+                    if (frameLength == 0) {
+                        break;
+                    }
+
+                    lastLsn = ParkingEventCodec.lsn(readBuffer);
+
+                    if (consumer != null && lastLsn >= fromLsn) {
+                        consumer.accept(ParkingEventCodec.decode(readBuffer));
+                    } else {
+                        ParkingEventCodec.skip(readBuffer, frameLength);
+                    }
+
+                    validBytes += ParkingEventCodec.FRAME_HEADER_BYTES + frameLength;
+                }
+
+                if (read < 0) {
+                    return new SegmentScan(validBytes, lastLsn);
+                }
+
+                readBuffer.compact();
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> {
+                String fileName = path.getFileName().toString();
+                return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private Path segmentPath(long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    private static long firstLsn(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record SegmentScan(long validBytes, long lastLsn) {
+    }
+
+    private static class Checkpointer {
+        private final long eventsCount;
+        private final Runnable checkpoint;
+        private final AtomicBoolean isRunning = new AtomicBoolean();
+        private long lastCheckpointLsn;
+
+        Checkpointer(long eventsCount, Runnable checkpoint, long lastCheckpointLsn) {
+            this.eventsCount = eventsCount;
+            this.checkpoint = checkpoint;
+            this.lastCheckpointLsn = lastCheckpointLsn;
+        }
+
+        // only ever called from the writer thread
+        void checkpointIfDue(long writtenLsn) {
+            if (writtenLsn - lastCheckpointLsn < eventsCount || !isRunning.compareAndSet(false, true)) {
+                return;
+            }
+
+            lastCheckpointLsn = writtenLsn;
+
+            Thread.ofVirtual().name("parking-event-log-checkpoint").start(() -> {
+                try {
+                    checkpoint.run();
+                } catch (RuntimeException exception) {
+                    LOGGER.log(System.Logger.Level.ERROR, "Checkpoint failed", exception);
+                } finally {
+                    isRunning.set(false);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.persistence;
+
+import org.example.events.ParkingLotEvent;
+import org.example.events.ParkingLotEventBus;
+import org.example.models.*;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.services.ParkingTicketService;
+
+import org.example.strategy.ParkingFloor.ParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.ParkingSpotStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.function.Supplier;
+
+public class ParkingLotRecovery {
+    // replay cost assumed before a recovery has measured one
+    private static final long DEFAULT_REPLAY_NANOS_PER_EVENT = 2_000;
+    private static final long MIN_MEASURED_EVENTS = 10_000;
+
+    private static volatile long replayNanosPerEvent = DEFAULT_REPLAY_NANOS_PER_EVENT;
+
+    private ParkingLotRecovery() {
+    }
+
+    // Loads the lot from its latest snapshot and rolls it forward with the log written after it.
+    public static ParkingLot recover(Path snapshotFile, ParkingFloorStrategy parkingFloorStrategy,
+                                     Supplier<ParkingSpotStrategy> parkingSpotStrategySupplier,
+                                     ParkingTicketService parkingTicketService, ParkingEventLog parkingEventLog) throws IOException {
+        long startNanos = System.nanoTime();
+
+        ParkingLotSnapshot parkingLotSnapshot = ParkingLotSnapshot.load(
+                snapshotFile, parkingFloorStrategy, parkingSpotStrategySupplier);
+
+        for (ParkingTicket parkingTicket : parkingLotSnapshot.openParkingTickets()) {
+            parkingTicketService.restoreParkingTicket(parkingTicket);
+        }
+
+        ParkingLotEventBus.getInstance().publish(new ParkingLotEvent.SnapshotLoaded(
+                parkingLotSnapshot.parkingLot().getId(), parkingLotSnapshot.lsn(), System.nanoTime() - startNanos));
+
+        recover(parkingLotSnapshot.parkingLot(), parkingTicketService, parkingEventLog, parkingLotSnapshot.lsn() + 1);
+
+        return parkingLotSnapshot.parkingLot();
+    }
+
+    // Snapshots a live lot and drops the log segments the snapshot makes redundant.
+    public static void checkpoint(ParkingLot parkingLot, ParkingTicketService parkingTicketService,
+                                  ParkingEventLog parkingEventLog, Path snapshotFile) throws IOException {
+        long lsn = parkingEventLog.getLastLsn();
+
+        ParkingLotSnapshot.write(parkingLot, parkingTicketService.getUnbilledParkingTickets(), lsn, snapshotFile);
+        parkingEventLog.truncateBefore(lsn + 1);
+    }
+
+    // Keeps a restart within recoveryBudget: once the log holds more events since the last snapshot than recovery
+    // replays in that time, at the rate the last recovery measured, a checkpoint runs in the background.
+    public static void checkpointWithin(Duration recoveryBudget, ParkingLot parkingLot, ParkingTicketService parkingTicketService,
+                                        ParkingEventLog parkingEventLog, Path snapshotFile) {
+        parkingEventLog.setCheckpoint(Math.max(1, recoveryBudget.toNanos() / replayNanosPerEvent), () -> {
+            try {
+                checkpoint(parkingLot, parkingTicketService, parkingEventLog, snapshotFile);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
+
+    // Replays the log from fromLsn onto a lot with the same layout it was written from, then journals
+    // every later ticket, bill and spot change to the same log. Returns the last lsn that was replayed.
+    public static long recover(ParkingLot parkingLot, ParkingTicketService parkingTicketService,
+                               ParkingEventLog parkingEventLog, long fromLsn) throws IOException {
+        long startNanos = System.nanoTime();
+        long[] eventsCount = {0};
+
+        long lastLsn = parkingEventLog.replay(fromLsn, parkingEvent -> {
+            apply(parkingLot, parkingTicketService, parkingEvent);
+            eventsCount[0]++;
+        });
+
+        if (eventsCount[0] >= MIN_MEASURED_EVENTS) {
+            replayNanosPerEvent = Math.max(1, (System.nanoTime() - startNanos) / eventsCount[0]);
+        }
+
+        // reservations live in memory only, spots still held for them go back to walk-ins
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            if (!hasReservedParkingSpots(parkingFloor)) {
+                continue;
+            }
+
+            for (ParkingSpot parkingSpot : parkingFloor.getParkingSpots()) {
+                parkingSpot.releaseReserved();
+            }
+        }
+
+        ParkingLotEventBus.getInstance().publish(new ParkingLotEvent.EventLogReplayed(
+                parkingLot.getId(), eventsCount[0], lastLsn, System.nanoTime() - startNanos));
+
+        // a new log starts with the statuses the lot was built with, a lot rebuilt from the log alone gets them back
+        if (fromLsn <= 1 && lastLsn == 0) {
+            appendBaseline(parkingLot, parkingEventLog);
+        }
+
+        parkingLot.addParkingSpotStatusListener(new ParkingSpotStatusListener() {
+            @Override
+            public void onParkingSpotStatusChanged(ParkingSpot parkingSpot, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+                parkingEventLog.append(new ParkingEvent.SpotStatusChanged(
+                        parkingSpot.getParkingFloor().getId(), parkingSpot.getPosition(), parkingSpotStatus));
+            }
+
+            @Override
+            public void onParkingSpotsStatusChanged(ParkingFloor parkingFloor, BitSet parkingSpotPositions, ParkingSpotStatus parkingSpotStatus) {
+                appendSpotsStatusChanged(parkingEventLog, parkingFloor, parkingSpotPositions, parkingSpotStatus);
+            }
+        });
+        parkingTicketService.setParkingEventLog(parkingEventLog);
+
+        return lastLsn;
+    }
+
+    private static void appendBaseline(ParkingLot parkingLot, ParkingEventLog parkingEventLog) {
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            BitSet availablePositions = new BitSet();
+            BitSet inactivePositions = new BitSet();
+
+            for (int position = 0, size = parkingFloor.getParkingSpotsSize(); position < size; position++) {
+                switch (parkingFloor.getParkingSpot(position).getParkingSpotStatus()) {
+                    case AVAILABLE -> availablePositions.set(position);
+                    case INACTIVE -> inactivePositions.set(position);
+                    default -> {
+                    }
+                }
+            }
+
+            appendSpotsStatusChanged(parkingEventLog, parkingFloor, availablePositions, ParkingSpotStatus.AVAILABLE);
+            appendSpotsStatusChanged(parkingEventLog, parkingFloor, inactivePositions, ParkingSpotStatus.INACTIVE);
+        }
+    }
+
+    // a large range goes to the log in pieces that each fit a frame
+    private static void appendSpotsStatusChanged(ParkingEventLog parkingEventLog, ParkingFloor parkingFloor,
+                                                 BitSet parkingSpotPositions, ParkingSpotStatus parkingSpotStatus) {
+        int chunkPositions = ParkingEventCodec.MAX_SPOT_POSITION_WORDS * Long.SIZE;
+
+        for (int from = parkingSpotPositions.nextSetBit(0); from >= 0; from = parkingSpotPositions.nextSetBit(from)) {
+            from &= -Long.SIZE;
+
+            BitSet chunk = parkingSpotPositions.get(0, from + chunkPositions);
+            chunk.clear(0, from);
+
+            parkingEventLog.append(new ParkingEvent.SpotsStatusChanged(parkingFloor.getId(), chunk, parkingSpotStatus));
+
+            from += chunkPositions;
+        }
+    }
+
+    private static void apply(ParkingLot parkingLot, ParkingTicketService parkingTicketService, ParkingEvent parkingEvent) {
+        switch (parkingEvent) {
+            case ParkingEvent.SpotStatusChanged spotStatusChanged -> getParkingSpot(
+                    parkingLot, spotStatusChanged.parkingFloorId(), spotStatusChanged.parkingSpotPosition())
+                    .setParkingSpotStatus(spotStatusChanged.parkingSpotStatus());
+            case ParkingEvent.SpotsStatusChanged spotsStatusChanged -> {
+                ParkingFloor parkingFloor = getParkingFloor(parkingLot, spotsStatusChanged.parkingFloorId());
+
+                if (spotsStatusChanged.parkingSpotStatus() == ParkingSpotStatus.INACTIVE) {
+                    parkingFloor.deactivateParkingSpots(spotsStatusChanged.parkingSpotPositions());
+                } else {
+                    parkingFloor.reactivateParkingSpots(spotsStatusChanged.parkingSpotPositions());
+                }
+            }
+            case ParkingEvent.TicketIssued ticketIssued -> parkingTicketService.restoreParkingTicket(new ParkingTicket(
+                    ticketIssued.parkingTicketId(), new Vehicle(ticketIssued.regNumber(), ticketIssued.vehicleType()),
+                    getParkingSpot(parkingLot, ticketIssued.parkingFloorId(), ticketIssued.parkingSpotPosition()),
+                    new Date(ticketIssued.inTime())));
+            case ParkingEvent.BillPaid billPaid -> {
+                ParkingTicket parkingTicket = parkingTicketService.restoreParkingBill(billPaid.parkingBillId(), billPaid.parkingTicketId());
+
+                // the spot release is logged after the bill and may not have made it
+                if (parkingTicket != null) {
+                    parkingTicket.parkingSpot().release();
+                }
+            }
+        }
+    }
+
+    private static ParkingSpot getParkingSpot(ParkingLot parkingLot, String parkingFloorId, int parkingSpotPosition) {
+        return getParkingFloor(parkingLot, parkingFloorId).getParkingSpot(parkingSpotPosition);
+    }
+
+    private static ParkingFloor getParkingFloor(ParkingLot parkingLot, String parkingFloorId) {
+        ParkingFloor parkingFloor = parkingLot.getFloor(parkingFloorId);
+
+        if (parkingFloor == null) {
+            throw new IllegalStateException("Parking event log refers to unknown floor " + parkingFloorId);
+        }
+
+        return parkingFloor;
+    }
+
+    // the counts tell which floors hold reserved spots, the others are not walked spot by spot
+    private static boolean hasReservedParkingSpots(ParkingFloor parkingFloor) {
+        for (VehicleType vehicleType : VehicleType.values()) {
+            if (parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.RESERVED) > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
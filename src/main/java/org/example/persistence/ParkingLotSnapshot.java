@@ -0,0 +1,310 @@
+package org.example.persistence;
+
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingFloor.ParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.ParkingSpotStrategy;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Supplier;
+
+// Fixed-width layout, little endian:
+//   header (64 bytes) | gates (12 each) | floors (24 each) | spots (8 each, floor by floor in position order)
+//   | open tickets (32 each) | string end offsets (4 each) | string bytes (UTF-8)
+// Strings are referenced by their index in the string table. Spots of packed floors have positional ids,
+// they store no id and load straight back into packed storage without a spot object each.
+public record ParkingLotSnapshot(ParkingLot parkingLot, List<ParkingTicket> openParkingTickets, long lsn) {
+    private static final int MAGIC = 0x504C534E;
+    private static final int VERSION = 4;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int GATE_BYTES = 12;
+    private static final int FLOOR_BYTES = 24;
+    private static final int SPOT_BYTES = 8;
+    private static final int TICKET_BYTES = 32;
+    // spot record flags
+    private static final byte DRAINING = 1;
+
+    private static final GateType[] gateTypes = GateType.values();
+    private static final VehicleType[] vehicleTypes = VehicleType.values();
+    private static final ParkingSpotStatus[] parkingSpotStatuses = ParkingSpotStatus.values();
+
+    // Spot statuses are read without stopping the gates. Writing lsn before reading any state keeps the
+    // snapshot safe to roll forward: every change it misses is in the log after lsn, and replaying a change
+    // it already holds is harmless.
+    public static void write(ParkingLot parkingLot, List<ParkingTicket> parkingTickets, long lsn, Path file) throws IOException {
+        List<ParkingTicket> openParkingTickets = parkingTickets.stream().filter(parkingTicket -> {
+            ParkingFloor parkingFloor = parkingTicket.parkingSpot().getParkingFloor();
+            return parkingFloor != null && parkingLot.getFloor(parkingFloor.getId()) == parkingFloor;
+        }).toList();
+
+        List<Gate> gates = parkingLot.getGates();
+        List<ParkingFloor> floors = parkingLot.getFloors();
+        List<List<ParkingSpot>> floorsParkingSpots = floors.stream().map(ParkingFloor::getParkingSpots).toList();
+        int spotsCount = floorsParkingSpots.stream().mapToInt(List::size).sum();
+
+        StringTable stringTable = new StringTable();
+        int lotIdRef = stringTable.ref(parkingLot.getId());
+
+        for (Gate gate : gates) {
+            stringTable.ref(gate.id());
+        }
+
+        for (int i = 0; i < floors.size(); i++) {
+            stringTable.ref(floors.get(i).getId());
+
+            if (floors.get(i).getParkingSpotIdPrefix() != null) {
+                stringTable.ref(floors.get(i).getParkingSpotIdPrefix());
+                continue;
+            }
+
+            for (ParkingSpot parkingSpot : floorsParkingSpots.get(i)) {
+                stringTable.ref(parkingSpot.getId());
+            }
+        }
+
+        for (ParkingTicket parkingTicket : openParkingTickets) {
+            stringTable.ref(parkingTicket.vehicle().regNumber());
+        }
+
+        long size = HEADER_BYTES + (long) gates.size() * GATE_BYTES + (long) floors.size() * FLOOR_BYTES
+                + (long) spotsCount * SPOT_BYTES + (long) openParkingTickets.size() * TICKET_BYTES
+                + (long) stringTable.size() * Integer.BYTES + stringTable.bytesSize();
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel fileChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(lsn).putInt(lotIdRef)
+                    .putInt(gates.size()).putInt(floors.size()).putInt(spotsCount)
+                    .putInt(openParkingTickets.size()).putInt(stringTable.size());
+            buffer.position(HEADER_BYTES);
+
+            for (Gate gate : gates) {
+                buffer.putInt(stringTable.ref(gate.id())).putInt(gate.number()).putInt(gate.type().ordinal());
+            }
+
+            Map<ParkingFloor, Integer> floorIndexes = new HashMap<>();
+            int firstSpot = 0;
+
+            for (int i = 0; i < floors.size(); i++) {
+                ParkingFloor parkingFloor = floors.get(i);
+                String parkingSpotIdPrefix = parkingFloor.getParkingSpotIdPrefix();
+
+                floorIndexes.put(parkingFloor, i);
+                buffer.putInt(stringTable.ref(parkingFloor.getId())).putInt(firstSpot).putInt(floorsParkingSpots.get(i).size())
+                        .putInt(parkingSpotIdPrefix == null ? -1 : stringTable.ref(parkingSpotIdPrefix))
+                        .putInt(parkingFloor.getFirstParkingSpotNumber()).putInt(parkingFloor.getParkingSpotsCapacity());
+                firstSpot += floorsParkingSpots.get(i).size();
+            }
+
+            for (int i = 0; i < floors.size(); i++) {
+                ParkingFloor parkingFloor = floors.get(i);
+                boolean isPacked = parkingFloor.getParkingSpotIdPrefix() != null;
+
+                for (ParkingSpot parkingSpot : floorsParkingSpots.get(i)) {
+                    buffer.putInt(isPacked ? -1 : stringTable.ref(parkingSpot.getId()))
+                            .put((byte) parkingSpot.getVehicleType().ordinal())
+                            .put((byte) parkingSpot.getParkingSpotStatus().ordinal())
+                            .put(parkingFloor.isParkingSpotDraining(parkingSpot.getPosition()) ? DRAINING : 0)
+                            .put((byte) 0);
+                }
+            }
+
+            for (ParkingTicket parkingTicket : openParkingTickets) {
+                buffer.putLong(parkingTicket.id())
+                        .putInt(stringTable.ref(parkingTicket.vehicle().regNumber()))
+                        .putInt(parkingTicket.vehicle().type().ordinal())
+                        .putInt(floorIndexes.get(parkingTicket.parkingSpot().getParkingFloor()))
+                        .putInt(parkingTicket.parkingSpot().getPosition())
+                        .putLong(parkingTicket.inTime().getTime());
+            }
+
+            stringTable.write(buffer);
+            buffer.force();
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ParkingLotSnapshot load(Path file, ParkingFloorStrategy parkingFloorStrategy,
+                                          Supplier<ParkingSpotStrategy> parkingSpotStrategySupplier) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+        }
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " is not a parking lot snapshot");
+        }
+
+        long lsn = buffer.getLong(8);
+        int lotIdRef = buffer.getInt(16);
+        int gatesCount = buffer.getInt(20);
+        int floorsCount = buffer.getInt(24);
+        int spotsCount = buffer.getInt(28);
+        int ticketsCount = buffer.getInt(32);
+        int stringsCount = buffer.getInt(36);
+
+        int gatesOffset = HEADER_BYTES;
+        int floorsOffset = gatesOffset + gatesCount * GATE_BYTES;
+        int spotsOffset = floorsOffset + floorsCount * FLOOR_BYTES;
+        int ticketsOffset = spotsOffset + spotsCount * SPOT_BYTES;
+        StringTableReader strings = new StringTableReader(buffer, ticketsOffset + ticketsCount * TICKET_BYTES, stringsCount);
+
+        ParkingLot parkingLot = new ParkingLot(strings.get(lotIdRef), parkingFloorStrategy);
+
+        for (int i = 0; i < gatesCount; i++) {
+            int offset = gatesOffset + i * GATE_BYTES;
+            parkingLot.addGate(new Gate(strings.get(buffer.getInt(offset)), buffer.getInt(offset + 4), gateTypes[buffer.getInt(offset + 8)]));
+        }
+
+        ParkingFloor[] floors = new ParkingFloor[floorsCount];
+
+        for (int i = 0; i < floorsCount; i++) {
+            int offset = floorsOffset + i * FLOOR_BYTES;
+            int firstSpot = buffer.getInt(offset + 4);
+            int floorSpotsCount = buffer.getInt(offset + 8);
+            int parkingSpotIdPrefixRef = buffer.getInt(offset + 12);
+
+            if (parkingSpotIdPrefixRef >= 0) {
+                floors[i] = new ParkingFloor(strings.get(buffer.getInt(offset)), parkingSpotStrategySupplier.get(),
+                                             strings.get(parkingSpotIdPrefixRef), buffer.getInt(offset + 16), buffer.getInt(offset + 20));
+                loadPackedParkingSpots(buffer, spotsOffset + firstSpot * SPOT_BYTES, floorSpotsCount, floors[i]);
+            } else {
+                floors[i] = new ParkingFloor(strings.get(buffer.getInt(offset)), parkingSpotStrategySupplier.get());
+                BitSet drainingPositions = new BitSet();
+
+                for (int spot = firstSpot; spot < firstSpot + floorSpotsCount; spot++) {
+                    int spotOffset = spotsOffset + spot * SPOT_BYTES;
+
+                    floors[i].addParkingSpot(new ParkingSpot(strings.get(buffer.getInt(spotOffset)),
+                                                             vehicleTypes[buffer.get(spotOffset + 4)],
+                                                             parkingSpotStatuses[buffer.get(spotOffset + 5)]));
+
+                    if ((buffer.get(spotOffset + 6) & DRAINING) != 0) {
+                        drainingPositions.set(spot - firstSpot);
+                    }
+                }
+
+                floors[i].loadDrainingParkingSpots(drainingPositions);
+            }
+
+            parkingLot.addFloor(floors[i]);
+        }
+
+        List<ParkingTicket> openParkingTickets = new ArrayList<>(ticketsCount);
+
+        for (int i = 0; i < ticketsCount; i++) {
+            int offset = ticketsOffset + i * TICKET_BYTES;
+            Vehicle vehicle = new Vehicle(strings.get(buffer.getInt(offset + 8)), vehicleTypes[buffer.getInt(offset + 12)]);
+            ParkingSpot parkingSpot = floors[buffer.getInt(offset + 16)].getParkingSpot(buffer.getInt(offset + 20));
+
+            openParkingTickets.add(new ParkingTicket(buffer.getLong(offset), vehicle, parkingSpot, new Date(buffer.getLong(offset + 24))));
+        }
+
+        return new ParkingLotSnapshot(parkingLot, openParkingTickets, lsn);
+    }
+
+    private static void loadPackedParkingSpots(MappedByteBuffer buffer, int spotsOffset, int spotsCount, ParkingFloor parkingFloor) {
+        byte[] vehicleTypeOrdinals = new byte[spotsCount];
+        byte[] parkingSpotStatusOrdinals = new byte[spotsCount];
+        BitSet drainingPositions = new BitSet();
+
+        for (int position = 0; position < spotsCount; position++) {
+            int spotOffset = spotsOffset + position * SPOT_BYTES;
+
+            vehicleTypeOrdinals[position] = buffer.get(spotOffset + 4);
+            parkingSpotStatusOrdinals[position] = buffer.get(spotOffset + 5);
+
+            if ((buffer.get(spotOffset + 6) & DRAINING) != 0) {
+                drainingPositions.set(position);
+            }
+        }
+
+        parkingFloor.loadParkingSpots(vehicleTypeOrdinals, parkingSpotStatusOrdinals, drainingPositions);
+    }
+
+    private static class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private int bytesSize;
+
+        int ref(String value) {
+            return refs.computeIfAbsent(value, key -> {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                values.add(bytes);
+                bytesSize += bytes.length;
+                return values.size() - 1;
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        int bytesSize() {
+            return bytesSize;
+        }
+
+        void write(MappedByteBuffer buffer) {
+            int endOffset = 0;
+
+            for (byte[] value : values) {
+                endOffset += value.length;
+                buffer.putInt(endOffset);
+            }
+
+            for (byte[] value : values) {
+                buffer.put(value);
+            }
+        }
+    }
+
+    private static class StringTableReader {
+        private final MappedByteBuffer buffer;
+        private final int offsetsStart;
+        private final int bytesStart;
+        private final String[] values;
+
+        StringTableReader(MappedByteBuffer buffer, int offsetsStart, int count) {
+            this.buffer = buffer;
+            this.offsetsStart = offsetsStart;
+            this.bytesStart = offsetsStart + count * Integer.BYTES;
+            this.values = new String[count];
+        }
+
+        String get(int ref) {
+            String value = values[ref];
+
+            if (value == null) {
+                int start = ref == 0 ? 0 : buffer.getInt(offsetsStart + (ref - 1) * Integer.BYTES);
+                int end = buffer.getInt(offsetsStart + ref * Integer.BYTES);
+                byte[] bytes = new byte[end - start];
+
+                buffer.get(bytesStart + start, bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                values[ref] = value;
+            }
+
+            return value;
+        }
+    }
+}
@@ -4,35 +4,88 @@ import org.example.models.*;
 import org.example.models.enums.GateType;
 import org.example.models.enums.ParkingSpotStatus;
 import org.example.models.enums.VehicleType;
-import org.example.strategy.ParkingFloor.NearestParkingFloorStrategy;
+import org.example.strategy.ParkingFloor.LoadAwareParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.FallbackParkingSpotStrategy;
+import org.example.strategy.ParkingSpot.GateProximityParkingSpotStrategy;
 import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.example.strategy.ParkingSpot.ParkingSpotFallbackPolicy;
+import org.example.strategy.ParkingSpot.ParkingSpotStrategy;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class ParkingLotScripts {
-    private static int parkingLotsCount = 0;
-    private static int vehiclesCount = 0;
-    private static int gatesCount = 0;
-    private static int parkingFloorsCount = 0;
-    private static int parkingSpotsCount = 0;
+    private static final AtomicInteger parkingLotsCount = new AtomicInteger();
+    private static final AtomicInteger vehiclesCount = new AtomicInteger();
+    private static final AtomicInteger gatesCount = new AtomicInteger();
+    private static final AtomicInteger parkingFloorsCount = new AtomicInteger();
+    private static final AtomicInteger parkingSpotsCount = new AtomicInteger();
+
+    // -DparkingLot.spotStrategy=nearest|gateProximity|fallback picks how generated floors place vehicles
+    private static final String PARKING_SPOT_STRATEGY = System.getProperty("parkingLot.spotStrategy", "nearest");
+    private static final int PARKING_SPOTS_PER_ROW = 20;
+    private static final double PARKING_SPOT_WIDTH = 2.5;
+    private static final double PARKING_SPOT_LENGTH = 5;
+
+    public static final Map<VehicleType, Double> DEFAULT_VEHICLE_MIX = Collections.unmodifiableMap(vehicleMix(0.3, 0.5, 0.2));
 
     public static ParkingLot generateParkingLot() {
+        return generateParkingLot(3, 50, 0.2, DEFAULT_VEHICLE_MIX);
+    }
+
+    public static ParkingLot generateParkingLot(int floorsCount, int parkingSpotsPerFloor, double occupiedRatio, Map<VehicleType, Double> vehicleMix) {
+        return generateParkingLot(floorsCount, parkingSpotsPerFloor, occupiedRatio, vehicleMix, false);
+    }
+
+    public static ParkingLot generatePackedParkingLot(int floorsCount, int parkingSpotsPerFloor, double occupiedRatio, Map<VehicleType, Double> vehicleMix) {
+        return generateParkingLot(floorsCount, parkingSpotsPerFloor, occupiedRatio, vehicleMix, true);
+    }
+
+    // the same seed gives the same layout, the first two gates are always one entry and one exit
+    public static ParkingLot generateParkingLot(Random random, int gatesCount, int floorsCount, int parkingSpotsPerFloor, double occupiedRatio, Map<VehicleType, Double> vehicleMix) {
+        ParkingLot parkingLot = new ParkingLot(getParkingLotId(), new LoadAwareParkingFloorStrategy());
+        List<Gate> gates = new ArrayList<>();
+
+        for (int i = 0; i < gatesCount; i++) {
+            gates.add(generateGate(i == 0 ? GateType.ENTRY : i == 1 ? GateType.EXIT : getGateType(random)));
+        }
+
+        parkingLot.addGates(gates);
+        parkingLot.addFloors(generateParkingFloors(random, floorsCount, parkingSpotsPerFloor, occupiedRatio, vehicleMix, false));
+        addParkingFloorLayouts(parkingLot);
+
+        return parkingLot;
+    }
+
+    private static ParkingLot generateParkingLot(int floorsCount, int parkingSpotsPerFloor, double occupiedRatio, Map<VehicleType, Double> vehicleMix, boolean isPacked) {
         String parkingLotId = getParkingLotId();
+        Random random = ThreadLocalRandom.current();
 
-        ParkingLot parkingLot = new ParkingLot(parkingLotId, new NearestParkingFloorStrategy());
-        parkingLot.addGates(generateGates());
-        parkingLot.addFloors(generateParkingFloors());
+        ParkingLot parkingLot = new ParkingLot(parkingLotId, new LoadAwareParkingFloorStrategy());
+        parkingLot.addGates(generateGates(random));
+        parkingLot.addFloors(generateParkingFloors(random, floorsCount, parkingSpotsPerFloor, occupiedRatio, vehicleMix, isPacked));
+        addParkingFloorLayouts(parkingLot);
 
         return parkingLot;
     }
 
     public static List<Vehicle> generateVehicles() {
+        return generateVehicles(10, vehicleMix(1, 1, 1));
+    }
+
+    public static List<Vehicle> generateVehicles(int vehiclesCount, Map<VehicleType, Double> vehicleMix) {
         List<Vehicle> vehicles = new ArrayList<>();
 
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < vehiclesCount; i++) {
             String vehicleNumber = getVehicleNumber();
-            VehicleType vehicleType = getVehicleType();
+            VehicleType vehicleType = getVehicleType(ThreadLocalRandom.current(), vehicleMix);
 
             vehicles.add(new Vehicle(vehicleNumber, vehicleType));
         }
@@ -41,95 +94,158 @@ public class ParkingLotScripts {
     }
 
     public static Gate getRandomGate(List<Gate> gates, GateType gateType) {
+        return getRandomGate(ThreadLocalRandom.current(), gates, gateType);
+    }
+
+    public static Gate getRandomGate(Random random, List<Gate> gates, GateType gateType) {
         List<Gate> filteredGates = gates.stream().filter(gate -> gate.type() == gateType).toList();
 
-        int randomIndex = (int) Math.floor(Math.random() * filteredGates.size());
+        int randomIndex = (int) Math.floor(random.nextDouble() * filteredGates.size());
 
         return filteredGates.get(randomIndex);
     }
 
     private static String getVehicleNumber() {
-        vehiclesCount++;
-        return "Vehicle-" + vehiclesCount;
+        return "Vehicle-" + vehiclesCount.incrementAndGet();
+    }
+
+    public static Map<VehicleType, Double> vehicleMix(double twoWheelerShare, double lmvShare, double hmvShare) {
+        Map<VehicleType, Double> vehicleMix = new EnumMap<>(VehicleType.class);
+
+        vehicleMix.put(VehicleType.TWO_WHEELER, twoWheelerShare);
+        vehicleMix.put(VehicleType.LMV, lmvShare);
+        vehicleMix.put(VehicleType.HMV, hmvShare);
+
+        return vehicleMix;
     }
 
-    private static VehicleType getVehicleType() {
-        VehicleType[] vehicleTypes = VehicleType.values();
+    public static VehicleType getVehicleType(Random random, Map<VehicleType, Double> vehicleMix) {
+        double totalShare = vehicleMix.values().stream().mapToDouble(Double::doubleValue).sum();
+        double randomNum = random.nextDouble() * totalShare;
 
-        int randomIndex = (int) Math.floor(Math.random() * (vehicleTypes.length));
+        VehicleType vehicleType = VehicleType.values()[0];
+
+        for (Map.Entry<VehicleType, Double> share : vehicleMix.entrySet()) {
+            vehicleType = share.getKey();
+            randomNum -= share.getValue();
+
+            if (randomNum < 0) {
+                break;
+            }
+        }
 
-        return vehicleTypes[randomIndex];
+        return vehicleType;
     }
 
     private static String getParkingLotId() {
-        parkingLotsCount++;
-        return "ParkingLot-" + parkingLotsCount;
+        return "ParkingLot-" + parkingLotsCount.incrementAndGet();
     }
 
-    private static List<Gate> generateGates() {
+    private static List<Gate> generateGates(Random random) {
         List<Gate> gates = new ArrayList<>();
 
         for (int i = 0; i < 5; i++) {
-            gates.add(generateGate());
+            gates.add(generateGate(getGateType(random)));
         }
 
         return gates;
     }
 
-    private static Gate generateGate() {
-        gatesCount++;
+    private static GateType getGateType(Random random) {
+        return random.nextDouble() < 0.5 ? GateType.ENTRY : GateType.EXIT;
+    }
+
+    private static Gate generateGate(GateType gateType) {
+        int gateNumber = gatesCount.incrementAndGet();
 
-        String gateId = "Gate-" + gatesCount;
-        GateType gateType = Math.random() < 0.5 ? GateType.ENTRY : GateType.EXIT;
+        String gateId = "Gate-" + gateNumber;
 
-        return new Gate(gateId, gatesCount, gateType);
+        return new Gate(gateId, gateNumber, gateType);
     }
 
-    private static List<ParkingFloor> generateParkingFloors() {
+    // the floors of a lot share one strategy instance when the strategy tracks the lot's spots
+    public static Supplier<ParkingSpotStrategy> getParkingSpotStrategySupplier() {
+        return switch (PARKING_SPOT_STRATEGY) {
+            case "nearest" -> NearestParkingSpotStrategy::new;
+            case "gateProximity" -> GateProximityParkingSpotStrategy::new;
+            case "fallback" -> {
+                FallbackParkingSpotStrategy fallbackParkingSpotStrategy = new FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy.upgrades());
+                yield () -> fallbackParkingSpotStrategy;
+            }
+            default -> throw new IllegalArgumentException("Unknown parking spot strategy " + PARKING_SPOT_STRATEGY);
+        };
+    }
+
+    private static List<ParkingFloor> generateParkingFloors(Random random, int floorsCount, int parkingSpotsPerFloor, double occupiedRatio, Map<VehicleType, Double> vehicleMix, boolean isPacked) {
         List<ParkingFloor> parkingFloors = new ArrayList<>();
+        Supplier<ParkingSpotStrategy> parkingSpotStrategySupplier = getParkingSpotStrategySupplier();
 
-        for (int i = 0; i < 3; i++) {
-            parkingFloors.add(generateParkingFloor());
+        for (int i = 0; i < floorsCount; i++) {
+            parkingFloors.add(generateParkingFloor(random, parkingSpotStrategySupplier.get(), parkingSpotsPerFloor, occupiedRatio, vehicleMix, isPacked));
         }
 
         return parkingFloors;
     }
 
-    private static ParkingFloor generateParkingFloor() {
-        parkingFloorsCount++;
+    // spots in rows along the floor and every gate ramp spread over its front edge, only the gate proximity strategy reads them
+    private static void addParkingFloorLayouts(ParkingLot parkingLot) {
+        if (!PARKING_SPOT_STRATEGY.equals("gateProximity")) {
+            return;
+        }
 
-        String parkingFloorId = "ParkingFloor-" + parkingFloorsCount;
+        List<Gate> gates = parkingLot.getGates();
+        double floorWidth = PARKING_SPOTS_PER_ROW * PARKING_SPOT_WIDTH;
 
-        ParkingFloor parkingFloor = new ParkingFloor(
-                parkingFloorId, new NearestParkingSpotStrategy());
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            ParkingFloorLayout parkingFloorLayout = new ParkingFloorLayout();
+            List<ParkingSpot> parkingSpots = parkingFloor.getParkingSpots();
 
-        parkingFloor.addParkingSpots(generateParkingSpots());
+            for (int i = 0; i < gates.size(); i++) {
+                parkingFloorLayout.addGateLocation(gates.get(i).id(), floorWidth * (i + 0.5) / gates.size(), 0);
+            }
+
+            for (int position = 0; position < parkingSpots.size(); position++) {
+                parkingFloorLayout.addParkingSpotLocation(parkingSpots.get(position).getId(),
+                        (position % PARKING_SPOTS_PER_ROW + 0.5) * PARKING_SPOT_WIDTH, (position / PARKING_SPOTS_PER_ROW + 1) * PARKING_SPOT_LENGTH);
+            }
+
+            parkingFloor.setParkingFloorLayout(parkingFloorLayout);
+        }
+    }
+
+    private static ParkingFloor generateParkingFloor(Random random, ParkingSpotStrategy parkingSpotStrategy, int parkingSpotsPerFloor, double occupiedRatio, Map<VehicleType, Double> vehicleMix, boolean isPacked) {
+        String parkingFloorId = "ParkingFloor-" + parkingFloorsCount.incrementAndGet();
+
+        // packed floors need their spot numbers in one unbroken run
+        int firstParkingSpotNumber = parkingSpotsCount.getAndAdd(parkingSpotsPerFloor) + 1;
+
+        ParkingFloor parkingFloor = isPacked ? new ParkingFloor(
+                parkingFloorId, parkingSpotStrategy, "ParkingSpot-", firstParkingSpotNumber, parkingSpotsPerFloor)
+                : new ParkingFloor(parkingFloorId, parkingSpotStrategy);
+
+        parkingFloor.addParkingSpots(generateParkingSpots(random, firstParkingSpotNumber, parkingSpotsPerFloor, occupiedRatio, vehicleMix));
 
         return parkingFloor;
     }
 
-    private static List<ParkingSpot> generateParkingSpots() {
+    private static List<ParkingSpot> generateParkingSpots(Random random, int firstParkingSpotNumber, int parkingSpotsCount, double occupiedRatio, Map<VehicleType, Double> vehicleMix) {
         List<ParkingSpot> parkingSpots = new ArrayList<>();
 
-        for (int i = 0; i < 50; i++) {
-            parkingSpots.add(generateParkingSpot());
+        for (int i = 0; i < parkingSpotsCount; i++) {
+            parkingSpots.add(generateParkingSpot(random, firstParkingSpotNumber + i, occupiedRatio, vehicleMix));
         }
 
         return parkingSpots;
     }
 
-    private static ParkingSpot generateParkingSpot() {
-        parkingSpotsCount++;
-
-        String parkingSpotId = "ParkingSpot-" + parkingSpotsCount;
-
-        double randomNum = Math.random();
+    private static ParkingSpot generateParkingSpot(Random random, int parkingSpotNumber, double occupiedRatio, Map<VehicleType, Double> vehicleMix) {
+        String parkingSpotId = "ParkingSpot-" + parkingSpotNumber;
 
-        VehicleType vehicleType = randomNum < 0.3 ? VehicleType.TWO_WHEELER : randomNum < 0.8 ? VehicleType.LMV : VehicleType.HMV;
+        VehicleType vehicleType = getVehicleType(random, vehicleMix);
 
-        randomNum = Math.random();
+        double randomNum = random.nextDouble();
 
-        ParkingSpotStatus parkingSpotStatus = randomNum < 0.1 ? ParkingSpotStatus.INACTIVE : randomNum < 0.3 ? ParkingSpotStatus.OCCUPIED : ParkingSpotStatus.AVAILABLE;
+        ParkingSpotStatus parkingSpotStatus = randomNum < 0.1 ? ParkingSpotStatus.INACTIVE : randomNum < 0.1 + occupiedRatio ? ParkingSpotStatus.OCCUPIED : ParkingSpotStatus.AVAILABLE;
 
         return new ParkingSpot(parkingSpotId, vehicleType, parkingSpotStatus);
     }
@@ -0,0 +1,45 @@
+package org.example.scripts;
+
+import org.example.models.ParkingLot;
+import org.example.services.ParkingLotService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+// -Dsimulation.seed, .arrivalsPerHour, .threads, .timeScale (0 runs flat out), .floors, .spotsPerFloor, .gates,
+// -Dsimulation.trace=<csv> replays a recorded trace instead of generating one, -Dsimulation.record=<csv> saves it
+public class ParkingLotSimulationScripts {
+    public static void main(String[] args) throws Exception {
+        // the per event log would drown the report
+        if (System.getProperty("parkingLot.logging") == null) {
+            System.setProperty("parkingLot.logging", "false");
+        }
+
+        long seed = Long.getLong("simulation.seed", 42);
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(
+                new Random(seed), Integer.getInteger("simulation.gates", 8), Integer.getInteger("simulation.floors", 4),
+                Integer.getInteger("simulation.spotsPerFloor", 250), 0, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+
+        ParkingLotService parkingLotService = ParkingLotService.getInstance();
+        parkingLotService.addParkingLot(parkingLot);
+
+        String tracePath = System.getProperty("simulation.trace");
+        ParkingTrace parkingTrace = tracePath != null
+                ? ParkingTrace.read(Path.of(tracePath))
+                : ParkingTrafficProfile.commuterDay(seed, Double.parseDouble(System.getProperty("simulation.arrivalsPerHour", "300")))
+                        .generate(parkingLot);
+
+        String recordPath = System.getProperty("simulation.record");
+
+        if (recordPath != null) {
+            parkingTrace.write(Path.of(recordPath));
+        }
+
+        ParkingLotSimulator parkingLotSimulator = new ParkingLotSimulator(
+                parkingLotService, parkingLot, Integer.getInteger("simulation.threads", 4),
+                Double.parseDouble(System.getProperty("simulation.timeScale", "0")), Duration.ofHours(1));
+
+        parkingLotSimulator.run(parkingTrace).display(System.out);
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.scripts;
+
+import org.example.metrics.LatencyHistogram;
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.occupancy.OccupancySnapshot;
+import org.example.services.ParkingLotService;
+
+import java.io.PrintStream;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Plays a trace against ParkingLotService from several threads. Entries of one vehicle always go to the same
+// thread, so its departure never overtakes its arrival, and all threads move through trace time together one
+// epoch at a time, so no thread runs hours ahead of the others. With a time scale above 0 the trace runs that
+// many times faster than real time, with 0 every entry is played as soon as the one before it is done.
+// Tickets and bills are stamped with trace time either way, so charges do not depend on the time scale.
+public class ParkingLotSimulator {
+    private static final long EPOCH_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    public record OccupancySample(long timeMillis, int occupiedParkingSpots, int availableParkingSpots) {
+        public double getOccupancy() {
+            int parkingSpots = occupiedParkingSpots + availableParkingSpots;
+            return parkingSpots == 0 ? 0 : (double) occupiedParkingSpots / parkingSpots;
+        }
+    }
+
+    public record SimulationReport(long arrivals, long parked, long rejected, long departures, long exited,
+                                   long missedDepartures, double elapsedSeconds, LatencyHistogram.Snapshot parkLatency,
+                                   LatencyHistogram.Snapshot unParkLatency, List<OccupancySample> occupancySamples) {
+        public double getThroughput() {
+            return elapsedSeconds == 0 ? 0 : (parked + rejected + exited) / elapsedSeconds;
+        }
+
+        public double getRejectionRate() {
+            return arrivals == 0 ? 0 : (double) rejected / arrivals;
+        }
+
+        public void display(PrintStream printStream) {
+            printStream.println("===== Simulation =====\n");
+            printStream.printf("arrivals: %d, parked: %d, rejected: %d (%.2f%%)%n", arrivals, parked, rejected, getRejectionRate() * 100);
+            printStream.printf("departures: %d, exited: %d, missed: %d%n", departures, exited, missedDepartures);
+            printStream.printf("elapsed: %.2f s, throughput: %.0f ops/s%n", elapsedSeconds, getThroughput());
+            printStream.println("park latency: " + format(parkLatency));
+            printStream.println("unPark latency: " + format(unParkLatency));
+            printStream.println("occupancy:");
+
+            for (OccupancySample occupancySample : occupancySamples) {
+                printStream.printf("%s : %5.1f%% (%d occupied)%n", Duration.ofMillis(occupancySample.timeMillis()).toString().substring(2),
+                                   occupancySample.getOccupancy() * 100, occupancySample.occupiedParkingSpots());
+            }
+
+            printStream.println("=======================\n");
+        }
+
+        private static String format(LatencyHistogram.Snapshot snapshot) {
+            return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                                 snapshot.count(), snapshot.meanNanos() / 1000, snapshot.p50Nanos() / 1000.0, snapshot.p90Nanos() / 1000.0,
+                                 snapshot.p99Nanos() / 1000.0, snapshot.p999Nanos() / 1000.0, snapshot.maxNanos() / 1000.0);
+        }
+    }
+
+    // Trace time since the start of the run, moved forward by every entry played. Threads stay within one
+    // epoch of each other, so a stamp is at most one epoch ahead of its own entry and never runs backwards.
+    private static final class SimulationClock extends Clock {
+        private final long startTime;
+        private final AtomicLong traceTime = new AtomicLong();
+
+        private SimulationClock(long startTime) {
+            this.startTime = startTime;
+        }
+
+        void advanceTo(long timeMillis) {
+            traceTime.accumulateAndGet(timeMillis, Math::max);
+        }
+
+        @Override
+        public long millis() {
+            return startTime + traceTime.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class SimulationCounters {
+        private final LongAdder arrivals = new LongAdder();
+        private final LongAdder parked = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder departures = new LongAdder();
+        private final LongAdder exited = new LongAdder();
+        private final LongAdder missedDepartures = new LongAdder();
+        private final LatencyHistogram parkLatency = new LatencyHistogram();
+        private final LatencyHistogram unParkLatency = new LatencyHistogram();
+    }
+
+    private final ParkingLotService parkingLotService;
+    private final ParkingLot parkingLot;
+    private final int threadsCount;
+    private final double timeScale;
+    private final Duration sampleInterval;
+
+    public ParkingLotSimulator(ParkingLotService parkingLotService, ParkingLot parkingLot, int threadsCount, double timeScale, Duration sampleInterval) {
+        this.parkingLotService = parkingLotService;
+        this.parkingLot = parkingLot;
+        this.threadsCount = threadsCount;
+        this.timeScale = timeScale;
+        this.sampleInterval = sampleInterval;
+    }
+
+    public SimulationReport run(ParkingTrace parkingTrace) throws InterruptedException, ExecutionException {
+        List<List<ParkingTrace.Entry>> partitions = new ArrayList<>();
+
+        for (int i = 0; i < threadsCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+
+        for (ParkingTrace.Entry entry : parkingTrace.entries()) {
+            partitions.get(Math.floorMod(entry.regNumber().hashCode(), threadsCount)).add(entry);
+        }
+
+        Map<String, String> gateIds = resolveGateIds(parkingTrace);
+        SimulationCounters simulationCounters = new SimulationCounters();
+        List<OccupancySample> occupancySamples = new ArrayList<>();
+        long epochsCount = parkingTrace.getDurationMillis() / EPOCH_MILLIS + 1;
+        long[] epoch = {0};
+
+        // the last thread to finish an epoch samples occupancy before any thread starts the next one
+        CyclicBarrier epochBarrier = new CyclicBarrier(threadsCount, () -> {
+            long epochEndTime = ++epoch[0] * EPOCH_MILLIS;
+
+            if (epochEndTime % sampleInterval.toMillis() < EPOCH_MILLIS) {
+                sampleOccupancy(epochEndTime - epochEndTime % sampleInterval.toMillis(), occupancySamples);
+            }
+        });
+
+        Clock clock = parkingLotService.getClock();
+        SimulationClock simulationClock = new SimulationClock(clock.millis());
+        parkingLotService.setClock(simulationClock);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadsCount);
+        List<Future<?>> futures = new ArrayList<>();
+        long startNanos = System.nanoTime();
+
+        for (List<ParkingTrace.Entry> partition : partitions) {
+            futures.add(executorService.submit(() -> {
+                Iterator<ParkingTrace.Entry> entries = partition.iterator();
+                ParkingTrace.Entry entry = entries.hasNext() ? entries.next() : null;
+
+                for (long epochIndex = 0; epochIndex < epochsCount; epochIndex++) {
+                    for (; entry != null && entry.timeMillis() < (epochIndex + 1) * EPOCH_MILLIS; entry = entries.hasNext() ? entries.next() : null) {
+                        play(entry, startNanos, gateIds, simulationClock, simulationCounters);
+                    }
+
+                    epochBarrier.await();
+                }
+
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+            parkingLotService.setClock(clock);
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        return new SimulationReport(simulationCounters.arrivals.sum(), simulationCounters.parked.sum(),
+                                    simulationCounters.rejected.sum(), simulationCounters.departures.sum(),
+                                    simulationCounters.exited.sum(), simulationCounters.missedDepartures.sum(), elapsedSeconds,
+                                    simulationCounters.parkLatency.snapshot(), simulationCounters.unParkLatency.snapshot(),
+                                    occupancySamples);
+    }
+
+    private void play(ParkingTrace.Entry entry, long startNanos, Map<String, String> gateIds, SimulationClock simulationClock,
+                      SimulationCounters simulationCounters) {
+        awaitTime(startNanos, entry.timeMillis());
+        simulationClock.advanceTo(entry.timeMillis());
+
+        String gateId = gateIds.get(entry.gateId());
+        long operationStartNanos = System.nanoTime();
+
+        if (entry.kind() == ParkingTrace.Kind.ARRIVAL) {
+            simulationCounters.arrivals.increment();
+            boolean isParked = parkingLotService.tryParkVehicle(new Vehicle(entry.regNumber(), entry.vehicleType()), gateId).isAccepted();
+            simulationCounters.parkLatency.record(System.nanoTime() - operationStartNanos);
+            (isParked ? simulationCounters.parked : simulationCounters.rejected).increment();
+            return;
+        }
+
+        simulationCounters.departures.increment();
+        Optional<ParkingTicket> parkingTicket = parkingLotService.getActiveParkingTicket(entry.regNumber());
+
+        // the vehicle was turned away when it arrived
+        if (parkingTicket.isEmpty()) {
+            simulationCounters.missedDepartures.increment();
+            return;
+        }
+
+        boolean isExited = parkingLotService.tryUnParkVehicle(parkingTicket.get(), gateId).isAccepted();
+        simulationCounters.unParkLatency.record(System.nanoTime() - operationStartNanos);
+
+        if (isExited) {
+            simulationCounters.exited.increment();
+        }
+    }
+
+    private void awaitTime(long startNanos, long timeMillis) {
+        if (timeScale <= 0) {
+            return;
+        }
+
+        long dueNanos = startNanos + (long) (timeMillis * 1_000_000 / timeScale);
+
+        for (long remainingNanos = dueNanos - System.nanoTime(); remainingNanos > 0; remainingNanos = dueNanos - System.nanoTime()) {
+            LockSupport.parkNanos(remainingNanos);
+        }
+    }
+
+    private void sampleOccupancy(long sampleTime, List<OccupancySample> occupancySamples) {
+        Optional<OccupancySnapshot> occupancySnapshot = parkingLotService.getOccupancySnapshot(parkingLot.getId());
+
+        if (occupancySnapshot.isEmpty()) {
+            return;
+        }
+
+        int occupied = 0, available = 0;
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            occupied += occupancySnapshot.get().getParkingSpotsCount(vehicleType, ParkingSpotStatus.OCCUPIED);
+            available += occupancySnapshot.get().getParkingSpotsCount(vehicleType, ParkingSpotStatus.AVAILABLE);
+        }
+
+        occupancySamples.add(new OccupancySample(sampleTime, occupied, available));
+    }
+
+    // a trace recorded on another lot is mapped onto this lot's gates of the same type, the same way every run
+    private Map<String, String> resolveGateIds(ParkingTrace parkingTrace) {
+        Map<String, String> gateIds = new HashMap<>();
+        List<Gate> entryGates = parkingLot.getGates().stream().filter(gate -> gate.type() == GateType.ENTRY).toList();
+        List<Gate> exitGates = parkingLot.getGates().stream().filter(gate -> gate.type() == GateType.EXIT).toList();
+
+        for (ParkingTrace.Entry entry : parkingTrace.entries()) {
+            GateType gateType = entry.kind() == ParkingTrace.Kind.ARRIVAL ? GateType.ENTRY : GateType.EXIT;
+            Gate gate = parkingLot.getGate(entry.gateId());
+
+            if (gate == null || gate.type() != gateType) {
+                List<Gate> gates = gateType == GateType.ENTRY ? entryGates : exitGates;
+                gate = gates.get(Math.floorMod(entry.gateId().hashCode(), gates.size()));
+            }
+
+            gateIds.put(entry.gateId(), gate.id());
+        }
+
+        return gateIds;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.scripts;
+
+import org.example.models.enums.VehicleType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Arrivals and departures in time order, with times in milliseconds from the start of the trace.
+// Stored as one csv line per entry so recorded traffic can be kept, edited and replayed.
+public record ParkingTrace(List<Entry> entries) {
+    private static final String HEADER = "timeMillis,kind,regNumber,vehicleType,gateId";
+
+    public enum Kind {
+        ARRIVAL,
+        DEPARTURE
+    }
+
+    public record Entry(long timeMillis, Kind kind, String regNumber, VehicleType vehicleType, String gateId) {
+    }
+
+    public ParkingTrace {
+        List<Entry> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.comparingLong(Entry::timeMillis));
+        entries = List.copyOf(sortedEntries);
+    }
+
+    public long getDurationMillis() {
+        return entries.isEmpty() ? 0 : entries.getLast().timeMillis();
+    }
+
+    public void write(Path path) throws IOException {
+        List<String> lines = new ArrayList<>(entries.size() + 1);
+        lines.add(HEADER);
+
+        for (Entry entry : entries) {
+            lines.add(entry.timeMillis() + "," + entry.kind() + "," + entry.regNumber() + "," + entry.vehicleType() + "," + entry.gateId());
+        }
+
+        Files.write(path, lines);
+    }
+
+    public static ParkingTrace read(Path path) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank() || line.equals(HEADER)) {
+                continue;
+            }
+
+            String[] fields = line.split(",");
+
+            entries.add(new Entry(Long.parseLong(fields[0]), Kind.valueOf(fields[1]), fields[2],
+                                  VehicleType.valueOf(fields[3]), fields[4]));
+        }
+
+        return new ParkingTrace(entries);
+    }
+}
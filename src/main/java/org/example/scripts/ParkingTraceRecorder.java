@@ -0,0 +1,40 @@
+package org.example.scripts;
+
+import org.example.events.ParkingLotEvent;
+import org.example.events.ParkingLotEventSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Records live traffic from the event bus as a trace, arrivals turned away by a full lot included.
+public class ParkingTraceRecorder implements ParkingLotEventSubscriber {
+    private final long startTime = System.currentTimeMillis();
+    private final List<ParkingTrace.Entry> entries = new ArrayList<>();
+
+    @Override
+    public synchronized void onEvent(ParkingLotEvent parkingLotEvent) {
+        switch (parkingLotEvent) {
+            case ParkingLotEvent.VehicleParked vehicleParked -> entries.add(new ParkingTrace.Entry(
+                    vehicleParked.parkingTicket().inTime().getTime() - startTime, ParkingTrace.Kind.ARRIVAL,
+                    vehicleParked.parkingTicket().vehicle().regNumber(), vehicleParked.parkingTicket().vehicle().type(),
+                    vehicleParked.gateId()));
+            case ParkingLotEvent.LotFull lotFull -> entries.add(new ParkingTrace.Entry(
+                    System.currentTimeMillis() - startTime, ParkingTrace.Kind.ARRIVAL, lotFull.vehicle().regNumber(),
+                    lotFull.vehicle().type(), lotFull.gateId()));
+            case ParkingLotEvent.VehicleExited vehicleExited -> entries.add(new ParkingTrace.Entry(
+                    vehicleExited.parkingBill().outTime().getTime() - startTime, ParkingTrace.Kind.DEPARTURE,
+                    vehicleExited.parkingBill().parkingTicket().vehicle().regNumber(),
+                    vehicleExited.parkingBill().parkingTicket().vehicle().type(), vehicleExited.gateId()));
+            case ParkingLotEvent.VehicleExitedUnpaid vehicleExitedUnpaid -> entries.add(new ParkingTrace.Entry(
+                    vehicleExitedUnpaid.outTime().getTime() - startTime, ParkingTrace.Kind.DEPARTURE,
+                    vehicleExitedUnpaid.parkingTicket().vehicle().regNumber(),
+                    vehicleExitedUnpaid.parkingTicket().vehicle().type(), vehicleExitedUnpaid.gateId()));
+            default -> {
+            }
+        }
+    }
+
+    public synchronized ParkingTrace getParkingTrace() {
+        return new ParkingTrace(entries);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.scripts;
+
+import org.example.models.Gate;
+import org.example.models.ParkingLot;
+import org.example.models.enums.GateType;
+import org.example.models.enums.VehicleType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Seeded traffic: arrivals follow a Poisson process whose rate is multiplied during peaks, and every
+// vehicle stays for a log-normal dwell time. The same seed and lot layout always give the same trace.
+public record ParkingTrafficProfile(long seed, Duration duration, double arrivalsPerHour, List<Peak> peaks,
+                                    Map<VehicleType, Double> vehicleMix, Duration medianDwell, double dwellSigma) {
+    public record Peak(Duration from, Duration to, double multiplier) {
+    }
+
+    // a day with morning and evening rush hours
+    public static ParkingTrafficProfile commuterDay(long seed, double arrivalsPerHour) {
+        return new ParkingTrafficProfile(seed, Duration.ofHours(24), arrivalsPerHour,
+                                         List.of(new Peak(Duration.ofHours(8), Duration.ofHours(10), 3),
+                                                 new Peak(Duration.ofHours(17), Duration.ofHours(19), 2.5)),
+                                         ParkingLotScripts.DEFAULT_VEHICLE_MIX, Duration.ofMinutes(90), 0.8);
+    }
+
+    public double getArrivalsPerHour(long timeMillis) {
+        double rate = arrivalsPerHour;
+
+        for (Peak peak : peaks) {
+            if (timeMillis >= peak.from().toMillis() && timeMillis < peak.to().toMillis()) {
+                rate *= peak.multiplier();
+            }
+        }
+
+        return rate;
+    }
+
+    public ParkingTrace generate(ParkingLot parkingLot) {
+        Random random = new Random(seed);
+        List<Gate> gates = parkingLot.getGates();
+        List<ParkingTrace.Entry> entries = new ArrayList<>();
+
+        double maxArrivalsPerHour = arrivalsPerHour;
+
+        for (Peak peak : peaks) {
+            maxArrivalsPerHour = Math.max(maxArrivalsPerHour, arrivalsPerHour * peak.multiplier());
+        }
+
+        double meanGapMillis = Duration.ofHours(1).toMillis() / maxArrivalsPerHour;
+        double mu = Math.log(medianDwell.toMillis());
+        long timeMillis = 0;
+        int vehiclesCount = 0;
+
+        while (true) {
+            // thinning: draw at the peak rate and keep each arrival with the current rate's share of it
+            timeMillis += (long) Math.ceil(-Math.log(1 - random.nextDouble()) * meanGapMillis);
+
+            if (timeMillis >= duration.toMillis()) {
+                break;
+            }
+
+            if (random.nextDouble() * maxArrivalsPerHour >= getArrivalsPerHour(timeMillis)) {
+                continue;
+            }
+
+            String regNumber = "SimVehicle-" + seed + "-" + ++vehiclesCount;
+            VehicleType vehicleType = ParkingLotScripts.getVehicleType(random, vehicleMix);
+            long dwellMillis = (long) Math.exp(mu + dwellSigma * random.nextGaussian());
+
+            entries.add(new ParkingTrace.Entry(timeMillis, ParkingTrace.Kind.ARRIVAL, regNumber, vehicleType,
+                                               ParkingLotScripts.getRandomGate(random, gates, GateType.ENTRY).id()));
+            entries.add(new ParkingTrace.Entry(timeMillis + Math.max(1, dwellMillis), ParkingTrace.Kind.DEPARTURE, regNumber,
+                                               vehicleType, ParkingLotScripts.getRandomGate(random, gates, GateType.EXIT).id()));
+        }
+
+        return new ParkingTrace(entries);
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+// Open addressing map from long keys to values without boxing, split into independently locked segments.
+// Writers lock their segment, a get reads it optimistically and only takes the read lock when a write
+// overlapped it. Key 0 marks an empty slot and cannot be stored.
+class ConcurrentLongMap<V> {
+    private static final int SEGMENTS_BITS = 6;
+
+    private final Segment<V>[] segments;
+
+    ConcurrentLongMap() {
+        segments = newSegments(1 << SEGMENTS_BITS);
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    V get(long key) {
+        long hash = hash(key);
+        return segments[segment(hash)].get(key, hash);
+    }
+
+    V put(long key, V value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+
+        long hash = hash(key);
+        return segments[segment(hash)].put(key, hash, value);
+    }
+
+    V remove(long key) {
+        long hash = hash(key);
+        return segments[segment(hash)].remove(key, hash);
+    }
+
+    int size() {
+        int size = 0;
+
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    List<V> values() {
+        List<V> values = new ArrayList<>();
+
+        for (Segment<V> segment : segments) {
+            segment.addValuesTo(values);
+        }
+
+        return values;
+    }
+
+    static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static int segment(long hash) {
+        return (int) (hash >>> (Long.SIZE - SEGMENTS_BITS));
+    }
+
+    // an array of a generic type can not be created, an array of wildcard segments only ever holds Segment<V>
+    @SuppressWarnings("unchecked")
+    private static <V> Segment<V>[] newSegments(int count) {
+        return (Segment<V>[]) new Segment<?>[count];
+    }
+
+    private static class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+
+            if (stamp != 0) {
+                V value = find(key, hash);
+
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+
+            stamp = lock.readLock();
+
+            try {
+                return find(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // may run against a write in progress, so it stays in bounds and stops whatever it reads,
+        // and its answer only counts once the stamp validates
+        @SuppressWarnings("unchecked")
+        private V find(long key, long hash) {
+            long[] keys = this.keys;
+            Object[] values = this.values;
+
+            if (keys.length != values.length) {
+                return null;
+            }
+
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+
+            for (int probes = 0; probes < keys.length && keys[slot] != 0; probes++, slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return (V) values[slot];
+                }
+            }
+
+            return null;
+        }
+
+        V put(long key, long hash, V value) {
+            long stamp = lock.writeLock();
+
+            try {
+                return putLocked(key, hash, value);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V remove(long key, long hash) {
+            long stamp = lock.writeLock();
+
+            try {
+                return removeLocked(key, hash);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void addValuesTo(List<V> values) {
+            long stamp = lock.readLock();
+
+            try {
+                for (int slot = 0; slot < keys.length; slot++) {
+                    if (keys[slot] != 0) {
+                        values.add((V) this.values[slot]);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V putLocked(long key, long hash, V value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+
+            for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    V previousValue = (V) values[slot];
+                    values[slot] = value;
+                    return previousValue;
+                }
+            }
+
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V removeLocked(long key, long hash) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+
+            while (keys[slot] != key) {
+                if (keys[slot] == 0) {
+                    return null;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            V previousValue = (V) values[slot];
+
+            // shift the rest of the probe run back instead of leaving a tombstone
+            for (int next = (slot + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = (int) hash(keys[next]) & mask;
+
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    keys[slot] = keys[next];
+                    values[slot] = values[next];
+                    slot = next;
+                }
+            }
+
+            keys[slot] = 0;
+            values[slot] = null;
+            size--;
+
+            return previousValue;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+
+            int mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = (int) hash(oldKeys[i]) & mask;
+
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.services;
+
+import org.example.models.ParkingTicket;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class HeapParkingTicketRepository implements ParkingTicketRepository {
+    private final ConcurrentLongMap<ParkingTicket> parkingTicketRepo = new ConcurrentLongMap<>();
+    private final Map<String, ParkingTicket> activeParkingTicketRepo = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean put(ParkingTicket parkingTicket) {
+        if (activeParkingTicketRepo.putIfAbsent(parkingTicket.vehicle().regNumber(), parkingTicket) != null) {
+            return false;
+        }
+
+        parkingTicketRepo.put(parkingTicket.id(), parkingTicket);
+
+        return true;
+    }
+
+    @Override
+    public ParkingTicket get(long parkingTicketId) {
+        return parkingTicketRepo.get(parkingTicketId);
+    }
+
+    @Override
+    public ParkingTicket getByRegNumber(String regNumber) {
+        return activeParkingTicketRepo.get(regNumber);
+    }
+
+    @Override
+    public boolean remove(long parkingTicketId) {
+        ParkingTicket parkingTicket = parkingTicketRepo.remove(parkingTicketId);
+
+        if (parkingTicket == null) {
+            return false;
+        }
+
+        activeParkingTicketRepo.remove(parkingTicket.vehicle().regNumber(), parkingTicket);
+
+        return true;
+    }
+
+    @Override
+    public List<ParkingTicket> values() {
+        return parkingTicketRepo.values();
+    }
+
+    @Override
+    public int size() {
+        return parkingTicketRepo.size();
+    }
+}
@@ -0,0 +1,608 @@
+package org.example.services;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.ParkingTicket;
+import org.example.models.Vehicle;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Open tickets kept outside the heap in fixed-width slots of one memory segment, optionally mapped from a file.
+// Ticket slots are an open-addressing table by ticket id and a second table maps registration hashes to ticket
+// ids, both split in lock striped segments. Tickets are materialized as records only when they are read, a
+// ticket whose registration or floor does not fit a slot, or whose table segment is full, spills to the heap.
+// A floor is matched to the tickets of a mapped file by its key and the hash of its spot layout, tickets of a
+// floor whose layout changed, or whose spot is no longer occupied, are dropped when the floor is added back.
+class OffHeapParkingTicketRepository implements ParkingTicketRepository {
+    private static final long MAGIC = 0x5041524B54494B31L;
+
+    private static final int SEGMENTS_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENTS_BITS;
+    private static final int MIN_SLOTS_PER_SEGMENT = 64;
+
+    private static final long HEADER_BYTES = 1 << 16;
+    private static final long PARKING_FLOOR_KEY_BYTES = 64;
+    private static final long PARKING_FLOOR_KEYS_OFFSET = 64;
+    // key length, key bytes and the layout hash of the floor
+    private static final long PARKING_FLOOR_LAYOUT_HASH_OFFSET = 56;
+    private static final int MAX_PARKING_FLOOR_KEY_BYTES = (int) PARKING_FLOOR_LAYOUT_HASH_OFFSET - 1;
+    private static final int MAX_PARKING_FLOORS = (int) ((HEADER_BYTES - PARKING_FLOOR_KEYS_OFFSET) / PARKING_FLOOR_KEY_BYTES);
+
+    // id, in time, floor index, position, vehicle type, registration length and registration bytes
+    private static final long SLOT_BYTES = 64;
+    private static final long ID_OFFSET = 0;
+    private static final long IN_TIME_OFFSET = 8;
+    private static final long PARKING_FLOOR_OFFSET = 16;
+    private static final long POSITION_OFFSET = 20;
+    private static final long VEHICLE_TYPE_OFFSET = 24;
+    private static final long REG_NUMBER_LENGTH_OFFSET = 25;
+    private static final long REG_NUMBER_OFFSET = 26;
+    private static final int MAX_REG_NUMBER_BYTES = (int) (SLOT_BYTES - REG_NUMBER_OFFSET);
+
+    // ticket id and registration hash
+    private static final long REG_NUMBER_ENTRY_BYTES = 16;
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private final Arena arena;
+    private final MemorySegment memory;
+    private final int slotsPerSegment;
+    private final long regNumbersOffset;
+    private final Segment[] segments;
+
+    private final Map<String, Integer> parkingFloorIndexes;
+    private final AtomicReferenceArray<ParkingFloor> parkingFloors;
+    private final Map<ParkingFloor, Integer> parkingFloorIndexesByParkingFloor;
+
+    private final HeapParkingTicketRepository spilledParkingTicketRepo;
+
+    OffHeapParkingTicketRepository(int capacity) {
+        this(capacity, null);
+    }
+
+    OffHeapParkingTicketRepository(int capacity, Path path) {
+        this.slotsPerSegment = Math.max(MIN_SLOTS_PER_SEGMENT, Integer.highestOneBit(Math.max(1, 2 * capacity / SEGMENTS - 1)) << 1);
+        this.regNumbersOffset = HEADER_BYTES + (long) SEGMENTS * slotsPerSegment * SLOT_BYTES;
+        this.arena = Arena.ofShared();
+        this.memory = path == null ? arena.allocate(byteSize(), SLOT_BYTES) : map(path);
+        this.segments = new Segment[SEGMENTS];
+        this.parkingFloorIndexes = new HashMap<>();
+        this.parkingFloors = new AtomicReferenceArray<>(MAX_PARKING_FLOORS);
+        this.parkingFloorIndexesByParkingFloor = new ConcurrentHashMap<>();
+        this.spilledParkingTicketRepo = new HeapParkingTicketRepository();
+
+        if (memory.get(ValueLayout.JAVA_LONG, 0) != MAGIC) {
+            memory.fill((byte) 0);
+            memory.set(ValueLayout.JAVA_LONG, 0, MAGIC);
+            memory.set(ValueLayout.JAVA_INT, 8, slotsPerSegment);
+        }
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(i);
+        }
+
+        loadParkingFloorKeys();
+    }
+
+    // The registration entry is claimed first and is what makes a second ticket for the same vehicle fail. A ticket
+    // whose slot segment is full spills to the heap but keeps its entry here, lookups by id fall through to the heap.
+    @Override
+    public boolean put(ParkingTicket parkingTicket) {
+        String regNumber = parkingTicket.vehicle().regNumber();
+        byte[] regNumberBytes = regNumber.getBytes(StandardCharsets.UTF_8);
+        int parkingFloorIndex = addParkingFloorIndex(parkingTicket.parkingSpot().getParkingFloor());
+
+        if (regNumberBytes.length > MAX_REG_NUMBER_BYTES || parkingFloorIndex < 0) {
+            return putSpilledParkingTicket(parkingTicket);
+        }
+
+        long regNumberHash = hash(regNumber);
+        long parkingTicketId = segments[segment(regNumberHash)].putRegNumberIfAbsent(regNumberHash, parkingTicket.id());
+
+        if (parkingTicketId == -1) {
+            return putSpilledParkingTicket(parkingTicket);
+        }
+
+        if (parkingTicketId != parkingTicket.id()) {
+            // another registration with the same hash leaves the ticket to the heap, a holder whose slot is not
+            // written yet is taken for the same vehicle, it is still being stored by a racing put
+            String heldRegNumber = getRegNumber(parkingTicketId);
+
+            return heldRegNumber != null && !heldRegNumber.equals(regNumber) && putSpilledParkingTicket(parkingTicket);
+        }
+
+        long hash = ConcurrentLongMap.hash(parkingTicket.id());
+
+        if (!segments[segment(hash)].putParkingTicket(parkingTicket, hash, parkingFloorIndex, regNumberBytes)) {
+            spilledParkingTicketRepo.put(parkingTicket);
+        }
+
+        return true;
+    }
+
+    @Override
+    public ParkingTicket get(long parkingTicketId) {
+        long hash = ConcurrentLongMap.hash(parkingTicketId);
+        ParkingTicket parkingTicket = segments[segment(hash)].getParkingTicket(parkingTicketId, hash);
+
+        return parkingTicket != null ? parkingTicket : spilledParkingTicketRepo.get(parkingTicketId);
+    }
+
+    @Override
+    public ParkingTicket getByRegNumber(String regNumber) {
+        long regNumberHash = hash(regNumber);
+        long parkingTicketId = segments[segment(regNumberHash)].getParkingTicketId(regNumberHash);
+
+        if (parkingTicketId != 0) {
+            ParkingTicket parkingTicket = get(parkingTicketId);
+
+            if (parkingTicket != null && parkingTicket.vehicle().regNumber().equals(regNumber)) {
+                return parkingTicket;
+            }
+        }
+
+        return spilledParkingTicketRepo.getByRegNumber(regNumber);
+    }
+
+    @Override
+    public boolean remove(long parkingTicketId) {
+        long hash = ConcurrentLongMap.hash(parkingTicketId);
+        String regNumber = segments[segment(hash)].removeParkingTicket(parkingTicketId, hash);
+
+        if (regNumber == null) {
+            ParkingTicket parkingTicket = spilledParkingTicketRepo.get(parkingTicketId);
+
+            if (parkingTicket == null || !spilledParkingTicketRepo.remove(parkingTicketId)) {
+                return false;
+            }
+
+            regNumber = parkingTicket.vehicle().regNumber();
+        }
+
+        long regNumberHash = hash(regNumber);
+        segments[segment(regNumberHash)].removeRegNumber(regNumberHash, parkingTicketId);
+
+        return true;
+    }
+
+    @Override
+    public List<ParkingTicket> values() {
+        List<ParkingTicket> values = new ArrayList<>(size());
+
+        for (Segment segment : segments) {
+            segment.addParkingTicketsTo(values);
+        }
+
+        values.addAll(spilledParkingTicketRepo.values());
+
+        return values;
+    }
+
+    @Override
+    public int size() {
+        int size = spilledParkingTicketRepo.size();
+
+        for (Segment segment : segments) {
+            size += segment.getParkingTicketsSize();
+        }
+
+        return size;
+    }
+
+    int getSpilledParkingTicketsSize() {
+        return spilledParkingTicketRepo.size();
+    }
+
+    @Override
+    public void addParkingFloor(ParkingFloor parkingFloor) {
+        addParkingFloorIndex(parkingFloor);
+    }
+
+    // writes the tickets of a mapped file through to disk
+    void force() {
+        if (memory.isMapped()) {
+            memory.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!arena.scope().isAlive()) {
+            return;
+        }
+
+        force();
+        arena.close();
+    }
+
+    // the registration may be held here by a vehicle of another plate, so the plate is compared as well
+    private boolean putSpilledParkingTicket(ParkingTicket parkingTicket) {
+        return getByRegNumber(parkingTicket.vehicle().regNumber()) == null && spilledParkingTicketRepo.put(parkingTicket);
+    }
+
+    private String getRegNumber(long parkingTicketId) {
+        long hash = ConcurrentLongMap.hash(parkingTicketId);
+        String regNumber = segments[segment(hash)].getRegNumber(parkingTicketId, hash);
+
+        if (regNumber != null) {
+            return regNumber;
+        }
+
+        ParkingTicket parkingTicket = spilledParkingTicketRepo.get(parkingTicketId);
+
+        return parkingTicket == null ? null : parkingTicket.vehicle().regNumber();
+    }
+
+    private long byteSize() {
+        return regNumbersOffset + (long) SEGMENTS * slotsPerSegment * REG_NUMBER_ENTRY_BYTES;
+    }
+
+    // a file written with another table size starts over, its tickets come back from the event log instead
+    private MemorySegment map(Path path) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        } catch (IOException exception) {
+            arena.close();
+            throw new UncheckedIOException(exception);
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (fileChannel.size() != byteSize()) {
+                fileChannel.truncate(0);
+            }
+
+            MemorySegment mappedMemory = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize(), arena);
+
+            if (mappedMemory.get(ValueLayout.JAVA_INT, 8) != slotsPerSegment) {
+                mappedMemory.set(ValueLayout.JAVA_LONG, 0, 0);
+            }
+
+            return mappedMemory;
+        } catch (IOException exception) {
+            arena.close();
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void loadParkingFloorKeys() {
+        int parkingFloorsCount = memory.get(ValueLayout.JAVA_INT, 12);
+
+        for (int i = 0; i < parkingFloorsCount; i++) {
+            long offset = PARKING_FLOOR_KEYS_OFFSET + i * PARKING_FLOOR_KEY_BYTES;
+            byte[] parkingFloorKey = new byte[memory.get(ValueLayout.JAVA_BYTE, offset)];
+
+            MemorySegment.copy(memory, ValueLayout.JAVA_BYTE, offset + 1, parkingFloorKey, 0, parkingFloorKey.length);
+            parkingFloorIndexes.put(new String(parkingFloorKey, StandardCharsets.UTF_8), i);
+        }
+    }
+
+    // floors are numbered in the header so a slot stays a few bytes and a mapped file can be read after a restart
+    private int addParkingFloorIndex(ParkingFloor parkingFloor) {
+        Integer parkingFloorIndex = parkingFloorIndexesByParkingFloor.get(parkingFloor);
+
+        if (parkingFloorIndex != null) {
+            return parkingFloorIndex;
+        }
+
+        synchronized (parkingFloorIndexes) {
+            String parkingFloorKey = parkingFloor.getParkingLotId() + "/" + parkingFloor.getId();
+            parkingFloorIndex = parkingFloorIndexes.get(parkingFloorKey);
+
+            if (parkingFloorIndex == null) {
+                byte[] parkingFloorKeyBytes = parkingFloorKey.getBytes(StandardCharsets.UTF_8);
+                parkingFloorIndex = parkingFloorIndexes.size();
+
+                if (parkingFloorIndex == MAX_PARKING_FLOORS || parkingFloorKeyBytes.length > MAX_PARKING_FLOOR_KEY_BYTES) {
+                    return -1;
+                }
+
+                long offset = PARKING_FLOOR_KEYS_OFFSET + parkingFloorIndex * PARKING_FLOOR_KEY_BYTES;
+
+                memory.set(ValueLayout.JAVA_BYTE, offset, (byte) parkingFloorKeyBytes.length);
+                MemorySegment.copy(parkingFloorKeyBytes, 0, memory, ValueLayout.JAVA_BYTE, offset + 1, parkingFloorKeyBytes.length);
+                memory.set(ValueLayout.JAVA_LONG, offset + PARKING_FLOOR_LAYOUT_HASH_OFFSET, getParkingFloorLayoutHash(parkingFloor));
+                memory.set(ValueLayout.JAVA_INT, 12, parkingFloorIndex + 1);
+                parkingFloorIndexes.put(parkingFloorKey, parkingFloorIndex);
+            } else if (parkingFloors.get(parkingFloorIndex) != parkingFloor) {
+                reattachParkingFloor(parkingFloorIndex, parkingFloor);
+            }
+
+            parkingFloors.set(parkingFloorIndex, parkingFloor);
+            parkingFloorIndexesByParkingFloor.put(parkingFloor, parkingFloorIndex);
+
+            return parkingFloorIndex;
+        }
+    }
+
+    // a floor taking over a key keeps the tickets of its index only for a spot it still has, and still occupied
+    private void reattachParkingFloor(int parkingFloorIndex, ParkingFloor parkingFloor) {
+        long layoutHashOffset = PARKING_FLOOR_KEYS_OFFSET + parkingFloorIndex * PARKING_FLOOR_KEY_BYTES + PARKING_FLOOR_LAYOUT_HASH_OFFSET;
+        long layoutHash = getParkingFloorLayoutHash(parkingFloor);
+        boolean isSameLayout = memory.get(ValueLayout.JAVA_LONG, layoutHashOffset) == layoutHash;
+        List<Long> staleParkingTicketIds = new ArrayList<>();
+
+        for (Segment segment : segments) {
+            segment.addStaleParkingTicketIdsTo(staleParkingTicketIds, parkingFloorIndex, isSameLayout ? parkingFloor : null);
+        }
+
+        for (long parkingTicketId : staleParkingTicketIds) {
+            remove(parkingTicketId);
+        }
+
+        memory.set(ValueLayout.JAVA_LONG, layoutHashOffset, layoutHash);
+    }
+
+    private static long getParkingFloorLayoutHash(ParkingFloor parkingFloor) {
+        long hash = parkingFloor.getParkingSpotsSize();
+
+        for (ParkingSpot parkingSpot : parkingFloor.getParkingSpots()) {
+            hash = (hash ^ parkingSpot.getVehicleType().ordinal()) * 0x100000001B3L;
+        }
+
+        return ConcurrentLongMap.hash(hash);
+    }
+
+    private static long hash(String regNumber) {
+        long hash = 0xCBF29CE484222325L;
+
+        for (int i = 0; i < regNumber.length(); i++) {
+            hash = (hash ^ regNumber.charAt(i)) * 0x100000001B3L;
+        }
+
+        return ConcurrentLongMap.hash(hash);
+    }
+
+    private static int segment(long hash) {
+        return (int) (hash >>> (Long.SIZE - SEGMENTS_BITS));
+    }
+
+    private class Segment {
+        private final long parkingTicketsOffset;
+        private final long regNumbersOffset;
+        private final int mask;
+        private final int maxSize;
+        private int parkingTicketsSize;
+        private int regNumbersSize;
+
+        Segment(int id) {
+            this.parkingTicketsOffset = HEADER_BYTES + (long) id * slotsPerSegment * SLOT_BYTES;
+            this.regNumbersOffset = OffHeapParkingTicketRepository.this.regNumbersOffset + (long) id * slotsPerSegment * REG_NUMBER_ENTRY_BYTES;
+            this.mask = slotsPerSegment - 1;
+            this.maxSize = slotsPerSegment / 4 * 3;
+
+            for (int slot = 0; slot < slotsPerSegment; slot++) {
+                if (memory.get(ValueLayout.JAVA_LONG, parkingTicketOffset(slot)) != 0) {
+                    parkingTicketsSize++;
+                }
+
+                if (memory.get(ValueLayout.JAVA_LONG, regNumberOffset(slot)) != 0) {
+                    regNumbersSize++;
+                }
+            }
+        }
+
+        synchronized boolean putParkingTicket(ParkingTicket parkingTicket, long hash, int parkingFloorIndex, byte[] regNumber) {
+            int slot = findParkingTicketSlot(parkingTicket.id(), hash);
+            long offset = parkingTicketOffset(slot);
+
+            if (memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET) == 0) {
+                if (parkingTicketsSize == maxSize) {
+                    return false;
+                }
+
+                parkingTicketsSize++;
+            }
+
+            memory.set(ValueLayout.JAVA_LONG, offset + ID_OFFSET, parkingTicket.id());
+            memory.set(ValueLayout.JAVA_LONG, offset + IN_TIME_OFFSET, parkingTicket.inTime().getTime());
+            memory.set(ValueLayout.JAVA_INT, offset + PARKING_FLOOR_OFFSET, parkingFloorIndex);
+            memory.set(ValueLayout.JAVA_INT, offset + POSITION_OFFSET, parkingTicket.parkingSpot().getPosition());
+            memory.set(ValueLayout.JAVA_BYTE, offset + VEHICLE_TYPE_OFFSET, (byte) parkingTicket.vehicle().type().ordinal());
+            memory.set(ValueLayout.JAVA_BYTE, offset + REG_NUMBER_LENGTH_OFFSET, (byte) regNumber.length);
+            MemorySegment.copy(regNumber, 0, memory, ValueLayout.JAVA_BYTE, offset + REG_NUMBER_OFFSET, regNumber.length);
+
+            return true;
+        }
+
+        synchronized String getRegNumber(long parkingTicketId, long hash) {
+            long offset = parkingTicketOffset(findParkingTicketSlot(parkingTicketId, hash));
+
+            return memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET) == 0 ? null : readRegNumber(offset);
+        }
+
+        synchronized ParkingTicket getParkingTicket(long parkingTicketId, long hash) {
+            long offset = parkingTicketOffset(findParkingTicketSlot(parkingTicketId, hash));
+
+            return memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET) == 0 ? null : readParkingTicket(offset);
+        }
+
+        // returns the registration of the removed ticket, null when the ticket is not held here
+        synchronized String removeParkingTicket(long parkingTicketId, long hash) {
+            int slot = findParkingTicketSlot(parkingTicketId, hash);
+            long offset = parkingTicketOffset(slot);
+
+            if (memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET) == 0) {
+                return null;
+            }
+
+            String regNumber = readRegNumber(offset);
+
+            // shift the rest of the probe run back so lookups never stop at the hole
+            int next = (slot + 1) & mask;
+
+            while (memory.get(ValueLayout.JAVA_LONG, parkingTicketOffset(next) + ID_OFFSET) != 0) {
+                long nextHash = ConcurrentLongMap.hash(memory.get(ValueLayout.JAVA_LONG, parkingTicketOffset(next) + ID_OFFSET));
+
+                if (((next - (int) nextHash) & mask) >= ((next - slot) & mask)) {
+                    MemorySegment.copy(memory, parkingTicketOffset(next), memory, parkingTicketOffset(slot), SLOT_BYTES);
+                    slot = next;
+                }
+
+                next = (next + 1) & mask;
+            }
+
+            memory.asSlice(parkingTicketOffset(slot), SLOT_BYTES).fill((byte) 0);
+            parkingTicketsSize--;
+
+            return regNumber;
+        }
+
+        // the ticket id already held for the registration hash, the given one once it is stored, -1 when full
+        synchronized long putRegNumberIfAbsent(long regNumberHash, long parkingTicketId) {
+            long offset = regNumberOffset(findRegNumberSlot(regNumberHash));
+            long entryParkingTicketId = memory.get(ValueLayout.JAVA_LONG, offset);
+
+            if (entryParkingTicketId != 0) {
+                return entryParkingTicketId;
+            }
+
+            if (regNumbersSize == maxSize) {
+                return -1;
+            }
+
+            regNumbersSize++;
+            memory.set(ValueLayout.JAVA_LONG, offset, parkingTicketId);
+            memory.set(ValueLayout.JAVA_LONG, offset + 8, regNumberHash);
+
+            return parkingTicketId;
+        }
+
+        synchronized long getParkingTicketId(long regNumberHash) {
+            return memory.get(ValueLayout.JAVA_LONG, regNumberOffset(findRegNumberSlot(regNumberHash)));
+        }
+
+        // the entry stays when it points to another ticket
+        synchronized void removeRegNumber(long regNumberHash, long parkingTicketId) {
+            int slot = findRegNumberSlot(regNumberHash);
+
+            if (memory.get(ValueLayout.JAVA_LONG, regNumberOffset(slot)) != parkingTicketId) {
+                return;
+            }
+
+            int next = (slot + 1) & mask;
+
+            while (memory.get(ValueLayout.JAVA_LONG, regNumberOffset(next)) != 0) {
+                long nextHash = memory.get(ValueLayout.JAVA_LONG, regNumberOffset(next) + 8);
+
+                if (((next - (int) nextHash) & mask) >= ((next - slot) & mask)) {
+                    MemorySegment.copy(memory, regNumberOffset(next), memory, regNumberOffset(slot), REG_NUMBER_ENTRY_BYTES);
+                    slot = next;
+                }
+
+                next = (next + 1) & mask;
+            }
+
+            memory.set(ValueLayout.JAVA_LONG, regNumberOffset(slot), 0);
+            memory.set(ValueLayout.JAVA_LONG, regNumberOffset(slot) + 8, 0);
+            regNumbersSize--;
+        }
+
+        synchronized void addParkingTicketsTo(List<ParkingTicket> values) {
+            for (int slot = 0; slot < slotsPerSegment; slot++) {
+                long offset = parkingTicketOffset(slot);
+
+                if (memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET) != 0) {
+                    ParkingTicket parkingTicket = readParkingTicket(offset);
+
+                    if (parkingTicket != null) {
+                        values.add(parkingTicket);
+                    }
+                }
+            }
+        }
+
+        // every ticket of the floor index when parkingFloor is null, otherwise those whose spot is not occupied
+        synchronized void addStaleParkingTicketIdsTo(List<Long> parkingTicketIds, int parkingFloorIndex, ParkingFloor parkingFloor) {
+            for (int slot = 0; slot < slotsPerSegment; slot++) {
+                long offset = parkingTicketOffset(slot);
+                long parkingTicketId = memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET);
+
+                if (parkingTicketId == 0 || memory.get(ValueLayout.JAVA_INT, offset + PARKING_FLOOR_OFFSET) != parkingFloorIndex) {
+                    continue;
+                }
+
+                int position = memory.get(ValueLayout.JAVA_INT, offset + POSITION_OFFSET);
+
+                if (parkingFloor == null || position >= parkingFloor.getParkingSpotsSize()
+                        || parkingFloor.getParkingSpot(position).getParkingSpotStatus() != ParkingSpotStatus.OCCUPIED) {
+                    parkingTicketIds.add(parkingTicketId);
+                }
+            }
+        }
+
+        synchronized int getParkingTicketsSize() {
+            return parkingTicketsSize;
+        }
+
+        private int findParkingTicketSlot(long parkingTicketId, long hash) {
+            int slot = (int) hash & mask;
+            long id;
+
+            while ((id = memory.get(ValueLayout.JAVA_LONG, parkingTicketOffset(slot) + ID_OFFSET)) != 0 && id != parkingTicketId) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        private int findRegNumberSlot(long regNumberHash) {
+            int slot = (int) regNumberHash & mask;
+
+            while (memory.get(ValueLayout.JAVA_LONG, regNumberOffset(slot)) != 0
+                    && memory.get(ValueLayout.JAVA_LONG, regNumberOffset(slot) + 8) != regNumberHash) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        // null while the floor of a ticket kept in a mapped file has not been added back yet
+        private ParkingTicket readParkingTicket(long offset) {
+            ParkingFloor parkingFloor = parkingFloors.get(memory.get(ValueLayout.JAVA_INT, offset + PARKING_FLOOR_OFFSET));
+
+            if (parkingFloor == null) {
+                return null;
+            }
+
+            ParkingSpot parkingSpot = parkingFloor.getParkingSpot(memory.get(ValueLayout.JAVA_INT, offset + POSITION_OFFSET));
+            Vehicle vehicle = new Vehicle(readRegNumber(offset), VEHICLE_TYPES[memory.get(ValueLayout.JAVA_BYTE, offset + VEHICLE_TYPE_OFFSET)]);
+
+            return new ParkingTicket(memory.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET), vehicle, parkingSpot,
+                    new Date(memory.get(ValueLayout.JAVA_LONG, offset + IN_TIME_OFFSET)));
+        }
+
+        private String readRegNumber(long offset) {
+            byte[] regNumber = new byte[memory.get(ValueLayout.JAVA_BYTE, offset + REG_NUMBER_LENGTH_OFFSET)];
+
+            MemorySegment.copy(memory, ValueLayout.JAVA_BYTE, offset + REG_NUMBER_OFFSET, regNumber, 0, regNumber.length);
+
+            return new String(regNumber, StandardCharsets.UTF_8);
+        }
+
+        private long parkingTicketOffset(int slot) {
+            return parkingTicketsOffset + slot * SLOT_BYTES;
+        }
+
+        private long regNumberOffset(int slot) {
+            return regNumbersOffset + slot * REG_NUMBER_ENTRY_BYTES;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.services;
+
+import org.example.metrics.ParkingLotMetrics;
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.strategy.Payment.PaymentStrategy;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.*;
+
+// Every exit pays on its own virtual thread. The payment deadline starts once the payment holds one of the
+// in-flight permits, and a payment still running at the deadline is interrupted. One that succeeds anyway is
+// billed all the same and the exit completes with its bill, the customer was charged. A failed payment reopens
+// the ticket while the spot is still held, once the vehicle has left it is recorded as an unpaid exit instead.
+public class ParkingExitPipeline implements AutoCloseable {
+    private final ParkingTicketService parkingTicketService;
+    private final Executor commitExecutor;
+    private final Duration spotHold;
+    private final Duration paymentTimeout;
+    private final int maxPaymentAttempts;
+    private final Semaphore inFlightPayments;
+    private final ExecutorService paymentExecutor;
+    private final ScheduledExecutorService scheduler;
+
+    public ParkingExitPipeline(Duration spotHold, int maxInFlightPayments, Duration paymentTimeout, int maxPaymentAttempts) {
+        this(ParkingTicketService.getInstance(), spotHold, maxInFlightPayments, paymentTimeout, maxPaymentAttempts);
+    }
+
+    public ParkingExitPipeline(ParkingTicketService parkingTicketService, Duration spotHold, int maxInFlightPayments,
+                               Duration paymentTimeout, int maxPaymentAttempts) {
+        this(parkingTicketService, Runnable::run, spotHold, maxInFlightPayments, paymentTimeout, maxPaymentAttempts);
+    }
+
+    // the bill and the spot release run on commitExecutor, the payment never does
+    public ParkingExitPipeline(ParkingTicketService parkingTicketService, Executor commitExecutor, Duration spotHold,
+                               int maxInFlightPayments, Duration paymentTimeout, int maxPaymentAttempts) {
+        this.parkingTicketService = parkingTicketService;
+        this.commitExecutor = commitExecutor;
+        this.spotHold = spotHold;
+        this.paymentTimeout = paymentTimeout;
+        this.maxPaymentAttempts = maxPaymentAttempts;
+        this.inFlightPayments = new Semaphore(maxInFlightPayments);
+        this.paymentExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("exit-pipeline-", 0).factory());
+    }
+
+    public CompletableFuture<ParkingBill> exit(ParkingTicket parkingTicket, Gate gate, PaymentStrategy paymentStrategy) {
+        if (gate.type() == GateType.ENTRY) {
+            ParkingLotMetrics.getInstance().recordWrongGate(gate.id());
+            return CompletableFuture.failedFuture(new Exceptions.WrongGateException(GateType.ENTRY, GateType.EXIT));
+        }
+
+        if (!parkingTicketService.closeParkingTicket(parkingTicket)) {
+            return CompletableFuture.failedFuture(new Exceptions.ParkingTicketNotFoundException(parkingTicket.vehicle().regNumber()));
+        }
+
+        if (!parkingTicketService.canReleaseParkingSpot(parkingTicket.parkingSpot())) {
+            parkingTicketService.reopenParkingTicket(parkingTicket);
+            return CompletableFuture.failedFuture(new Exceptions.ParkingFloorBusyException());
+        }
+
+        Date outTime = parkingTicketService.now();
+
+        long amountCents = parkingTicketService.calculateCharges(parkingTicket, outTime);
+
+        // the vehicle is already at the barrier, the spot does not wait for the payment provider
+        Future<?> spotRelease = releaseParkingSpot(parkingTicket.parkingSpot());
+
+        CompletableFuture<ParkingBill> parkingBill = new CompletableFuture<>();
+
+        paymentExecutor.execute(() -> pay(new Exit(parkingTicket, gate, outTime, amountCents, spotRelease, parkingBill), paymentStrategy));
+
+        return parkingBill;
+    }
+
+    @Override
+    public void close() {
+        scheduler.close();
+        paymentExecutor.close();
+    }
+
+    // null when the spot was released right away
+    private Future<?> releaseParkingSpot(ParkingSpot parkingSpot) {
+        if (spotHold.isZero()) {
+            commitExecutor.execute(() -> parkingTicketService.releaseParkingSpot(parkingSpot));
+            return null;
+        }
+
+        return scheduler.schedule(() -> commitExecutor.execute(() -> parkingTicketService.releaseParkingSpot(parkingSpot)),
+                spotHold.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void pay(Exit exit, PaymentStrategy paymentStrategy) {
+        try {
+            inFlightPayments.acquire();
+        } catch (InterruptedException exception) {
+            fail(exit, exception);
+            return;
+        }
+
+        Payment payment = new Payment(Thread.currentThread());
+        ScheduledFuture<?> deadline = scheduler.schedule(payment::timeOut, paymentTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        PaymentDetails paymentDetails = null;
+        Exceptions.PaymentFailedException paymentFailedException = null;
+
+        try {
+            for (int attempt = 0; attempt < maxPaymentAttempts && paymentDetails == null && !payment.isTimedOut(); attempt++) {
+                try {
+                    paymentDetails = parkingTicketService.pay(paymentStrategy, exit.amountCents());
+                } catch (Exceptions.PaymentFailedException exception) {
+                    paymentFailedException = exception;
+                }
+            }
+        } finally {
+            deadline.cancel(false);
+            payment.finish();
+            inFlightPayments.release();
+        }
+
+        if (paymentDetails == null) {
+            fail(exit, payment.isTimedOut() ? new TimeoutException("Payment took longer than " + paymentTimeout)
+                    : paymentFailedException != null ? paymentFailedException : new Exceptions.PaymentFailedException());
+            return;
+        }
+
+        try {
+            exit.parkingBill().complete(parkingTicketService.generateParkingBill(
+                    exit.parkingTicket(), exit.gate(), exit.outTime(), paymentDetails, commitExecutor));
+        } catch (RuntimeException exception) {
+            exit.parkingBill().completeExceptionally(exception);
+        }
+    }
+
+    // a vehicle whose spot is still held has not left, so its ticket opens again for another try at the barrier
+    private void fail(Exit exit, Exception exception) {
+        if (exit.spotRelease() != null && exit.spotRelease().cancel(false)) {
+            parkingTicketService.reopenParkingTicket(exit.parkingTicket());
+        } else {
+            parkingTicketService.recordUnpaidExit(exit.parkingTicket(), exit.gate(), exit.outTime(), exit.amountCents());
+        }
+
+        exit.parkingBill().completeExceptionally(exception);
+    }
+
+    private record Exit(ParkingTicket parkingTicket, Gate gate, Date outTime, long amountCents, Future<?> spotRelease,
+                        CompletableFuture<ParkingBill> parkingBill) {
+    }
+
+    // the deadline interrupts the paying thread only while the payment runs, never the bill that follows it
+    private static class Payment {
+        private final Thread payer;
+        private boolean isTimedOut;
+        private boolean isFinished;
+
+        Payment(Thread payer) {
+            this.payer = payer;
+        }
+
+        synchronized boolean timeOut() {
+            if (isFinished) {
+                return false;
+            }
+
+            isTimedOut = true;
+            payer.interrupt();
+
+            return true;
+        }
+
+        synchronized boolean isTimedOut() {
+            return isTimedOut;
+        }
+
+        synchronized void finish() {
+            isFinished = true;
+            Thread.interrupted();
+        }
+    }
+}
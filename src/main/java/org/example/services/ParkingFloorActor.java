@@ -0,0 +1,143 @@
+package org.example.services;
+
+import org.example.events.EventRingBuffer;
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.VehicleType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+// The only thread that claims or releases the spots of one floor. Gates queue commands on a bounded ring and
+// get a future back, so spot updates on a floor never race each other however many gates are surging.
+class ParkingFloorActor implements AutoCloseable {
+    private final ParkingFloor parkingFloor;
+    private final EventRingBuffer<Command> commands;
+    private final Thread owner;
+    private volatile boolean isIdle;
+    private volatile boolean isClosed;
+
+    ParkingFloorActor(ParkingFloor parkingFloor, int capacity) {
+        this.parkingFloor = parkingFloor;
+        this.commands = new EventRingBuffer<>(capacity);
+        this.owner = Thread.ofPlatform().name("parking-floor-" + parkingFloor.getParkingLotId() + "-" + parkingFloor.getId())
+                .daemon().start(this::run);
+    }
+
+    boolean hasCapacity() {
+        return commands.size() < commands.capacity();
+    }
+
+    boolean isRunning() {
+        return !isClosed && owner.isAlive();
+    }
+
+    // null when the queue is full
+    CompletableFuture<Optional<ParkingSpot>> claimParkingSpot(VehicleType vehicleType, Gate gate) {
+        Claim claim = new Claim(vehicleType, gate, new CompletableFuture<>());
+
+        return offer(claim) ? claim.parkingSpot() : null;
+    }
+
+    // null when the queue is full
+    CompletableFuture<List<ParkingSpot>> claimParkingSpots(VehicleType vehicleType, Gate gate, int count) {
+        ClaimAll claimAll = new ClaimAll(vehicleType, gate, count, new CompletableFuture<>());
+
+        return offer(claimAll) ? claimAll.parkingSpots() : null;
+    }
+
+    // null when the queue is full, the future fails with whatever the release threw
+    CompletableFuture<Void> releaseParkingSpot(ParkingSpot parkingSpot) {
+        Release release = new Release(parkingSpot, new CompletableFuture<>());
+
+        return offer(release) ? release.released() : null;
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(owner);
+    }
+
+    private boolean offer(Command command) {
+        if (isClosed || !commands.offer(command)) {
+            return false;
+        }
+
+        if (isIdle) {
+            LockSupport.unpark(owner);
+        }
+
+        return true;
+    }
+
+    private void run() {
+        while (!isClosed) {
+            Command command = commands.poll();
+
+            if (command == null) {
+                idle();
+                continue;
+            }
+
+            try {
+                execute(command);
+            } catch (RuntimeException exception) {
+                fail(command, exception);
+            }
+        }
+
+        // commands left behind by close would otherwise keep their gates waiting
+        for (Command command; (command = commands.poll()) != null; ) {
+            fail(command, new IllegalStateException(parkingFloor.getId() + " no longer takes commands"));
+        }
+    }
+
+    // a producer that offers after the idle flag is up sees it and unparks, one that offered before is seen here
+    private void idle() {
+        isIdle = true;
+
+        if (commands.isEmpty() && !isClosed) {
+            LockSupport.park(this);
+        } else {
+            Thread.yield();
+        }
+
+        isIdle = false;
+    }
+
+    private void execute(Command command) {
+        switch (command) {
+            case Claim claim -> claim.parkingSpot().complete(parkingFloor.claimParkingSpot(claim.vehicleType(), claim.gate()));
+            case ClaimAll claimAll -> claimAll.parkingSpots().complete(
+                    parkingFloor.claimParkingSpots(claimAll.vehicleType(), claimAll.gate(), claimAll.count()));
+            case Release release -> {
+                release.parkingSpot().release();
+                release.released().complete(null);
+            }
+        }
+    }
+
+    private void fail(Command command, RuntimeException exception) {
+        switch (command) {
+            case Claim claim -> claim.parkingSpot().completeExceptionally(exception);
+            case ClaimAll claimAll -> claimAll.parkingSpots().completeExceptionally(exception);
+            case Release release -> release.released().completeExceptionally(exception);
+        }
+    }
+
+    private sealed interface Command permits Claim, ClaimAll, Release {
+    }
+
+    private record Claim(VehicleType vehicleType, Gate gate, CompletableFuture<Optional<ParkingSpot>> parkingSpot) implements Command {
+    }
+
+    private record ClaimAll(VehicleType vehicleType, Gate gate, int count, CompletableFuture<List<ParkingSpot>> parkingSpots) implements Command {
+    }
+
+    private record Release(ParkingSpot parkingSpot, CompletableFuture<Void> released) implements Command {
+    }
+}
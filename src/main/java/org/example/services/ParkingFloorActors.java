@@ -0,0 +1,177 @@
+package org.example.services;
+
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.VehicleType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// With -DparkingLot.floorActors=true every floor is owned by a ParkingFloorActor. A claim that finds its floor's
+// queue full is diverted by the lot's floor strategy to a floor that can still take it, and with no such floor
+// the gate waits for a queue to drain up to -DparkingLot.floorQueueTimeoutMillis, parked between tries. A claim that
+// waited in vain gets no future at all, so turning it away costs no exception. An exit checks for room on its
+// floor's queue the same way before the vehicle pays, and is turned away as busy when there is none.
+class ParkingFloorActors {
+    private static final boolean ENABLED = Boolean.getBoolean("parkingLot.floorActors");
+    private static final int FLOOR_QUEUE_CAPACITY = Integer.getInteger("parkingLot.floorQueueCapacity", 1 << 10);
+    private static final long FLOOR_QUEUE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("parkingLot.floorQueueTimeoutMillis", 50));
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long RELEASE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Map<ParkingFloor, ParkingFloorActor> parkingFloorActors = new ConcurrentHashMap<>();
+    private final LongAdder divertedClaimsCount = new LongAdder();
+    private final LongAdder busyClaimsCount = new LongAdder();
+    private final LongAdder busyReleasesCount = new LongAdder();
+
+    private ParkingFloorActors() {
+    }
+
+    static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    static ParkingFloorActors getInstance() {
+        return ParkingFloorActorsHelper.INSTANCE;
+    }
+
+    long getDivertedClaimsCount() {
+        return divertedClaimsCount.sum();
+    }
+
+    long getBusyClaimsCount() {
+        return busyClaimsCount.sum();
+    }
+
+    long getBusyReleasesCount() {
+        return busyReleasesCount.sum();
+    }
+
+    // null when every floor that could take the claim stayed busy
+    CompletableFuture<Optional<ParkingSpot>> claimParkingSpot(ParkingLot parkingLot, ParkingFloor parkingFloor, VehicleType vehicleType, Gate gate) {
+        return submit(parkingLot, parkingFloor, vehicleType, gate,
+                parkingFloorActor -> parkingFloorActor.claimParkingSpot(vehicleType, gate));
+    }
+
+    // null when every floor that could take the claim stayed busy
+    CompletableFuture<List<ParkingSpot>> claimParkingSpots(ParkingLot parkingLot, ParkingFloor parkingFloor, VehicleType vehicleType, Gate gate, int count) {
+        return submit(parkingLot, parkingFloor, vehicleType, gate,
+                parkingFloorActor -> parkingFloorActor.claimParkingSpots(vehicleType, gate, count));
+    }
+
+    // false when the spot's floor stayed too busy to queue its release, or no longer runs
+    boolean awaitReleaseCapacity(ParkingSpot parkingSpot) {
+        ParkingFloorActor parkingFloorActor = getParkingFloorActor(parkingSpot.getParkingFloor());
+        long startNanos = System.nanoTime();
+
+        while (parkingFloorActor.isRunning()) {
+            if (parkingFloorActor.hasCapacity()) {
+                return true;
+            }
+
+            long remainingNanos = FLOOR_QUEUE_TIMEOUT_NANOS - (System.nanoTime() - startNanos);
+
+            if (remainingNanos <= 0) {
+                break;
+            }
+
+            LockSupport.parkNanos(Math.min(FULL_BACKOFF_NANOS, remainingNanos));
+        }
+
+        busyReleasesCount.increment();
+        return false;
+    }
+
+    // A release belongs to its own floor and is never dropped. The exit made sure there was room before the vehicle
+    // paid, so the gate only parks while the floor keeps working through its queue, and it returns once the floor
+    // released the spot. A failed release is thrown here, and so is a floor that stopped with the release unapplied.
+    void releaseParkingSpot(ParkingSpot parkingSpot) {
+        ParkingFloorActor parkingFloorActor = getParkingFloorActor(parkingSpot.getParkingFloor());
+        CompletableFuture<Void> released;
+
+        while ((released = parkingFloorActor.releaseParkingSpot(parkingSpot)) == null) {
+            checkRunning(parkingFloorActor, parkingSpot);
+            LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+        }
+
+        while (true) {
+            try {
+                released.get(RELEASE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                return;
+            } catch (TimeoutException exception) {
+                checkRunning(parkingFloorActor, parkingSpot);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while " + parkingSpot.getId() + " was being released", exception);
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+
+                throw new IllegalStateException(exception.getCause());
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(ParkingLot parkingLot, ParkingFloor parkingFloor, VehicleType vehicleType, Gate gate,
+                                            Function<ParkingFloorActor, CompletableFuture<T>> command) {
+        long startNanos = System.nanoTime();
+
+        while (true) {
+            CompletableFuture<T> result = command.apply(getParkingFloorActor(parkingFloor));
+
+            if (result != null) {
+                return result;
+            }
+
+            Optional<ParkingFloor> divertedParkingFloor = parkingLot.divertParkingFloor(vehicleType, gate,
+                    floor -> floor != parkingFloor && getParkingFloorActor(floor).hasCapacity());
+
+            if (divertedParkingFloor.isPresent()) {
+                result = command.apply(getParkingFloorActor(divertedParkingFloor.get()));
+
+                if (result != null) {
+                    divertedClaimsCount.increment();
+                    return result;
+                }
+            }
+
+            long remainingNanos = FLOOR_QUEUE_TIMEOUT_NANOS - (System.nanoTime() - startNanos);
+
+            if (remainingNanos <= 0) {
+                busyClaimsCount.increment();
+                return null;
+            }
+
+            LockSupport.parkNanos(Math.min(FULL_BACKOFF_NANOS, remainingNanos));
+        }
+    }
+
+    private static void checkRunning(ParkingFloorActor parkingFloorActor, ParkingSpot parkingSpot) {
+        if (!parkingFloorActor.isRunning()) {
+            throw new IllegalStateException(parkingSpot.getParkingFloor().getId() + " stopped before " + parkingSpot.getId() + " was released");
+        }
+    }
+
+    private ParkingFloorActor getParkingFloorActor(ParkingFloor parkingFloor) {
+        ParkingFloorActor parkingFloorActor = parkingFloorActors.get(parkingFloor);
+
+        return parkingFloorActor != null ? parkingFloorActor
+                : parkingFloorActors.computeIfAbsent(parkingFloor, floor -> new ParkingFloorActor(floor, FLOOR_QUEUE_CAPACITY));
+    }
+
+    private static class ParkingFloorActorsHelper {
+        private static final ParkingFloorActors INSTANCE = new ParkingFloorActors();
+    }
+}
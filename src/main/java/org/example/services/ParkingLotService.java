@@ -1,28 +1,70 @@
 package org.example.services;
 
+import org.example.events.JournalingParkingLotEventSubscriber;
+import org.example.events.LoggingParkingLotEventSubscriber;
+import org.example.events.ParkingLotEvent;
+import org.example.events.ParkingLotEventBus;
+import org.example.metrics.ParkingLotMetrics;
 import org.example.models.*;
+import org.example.models.enums.ParkingRejection;
+import org.example.occupancy.OccupancySnapshot;
+import org.example.occupancy.OccupancyView;
 import org.example.scripts.ParkingLotScripts;
 import org.example.strategy.Payment.PaymentStrategy;
 import org.example.strategy.Payment.UpiPaymentStrategy;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+// Lots are spread over shards by id and every park or unpark runs on the shard that owns the lot, so
+// lots on different shards never share a writer. Tickets carry their shard in their id.
 public class ParkingLotService {
-    private static final Map<String, ParkingLot> parkingLotRepo = new HashMap<>();
+    private static final Map<String, ParkingLot> parkingLotRepo = new ConcurrentHashMap<>();
+    private static final Map<String, ParkingLot> gateParkingLotRepo = new ConcurrentHashMap<>();
+    private static final Map<String, OccupancyView> occupancyViewRepo = new ConcurrentHashMap<>();
 
-    private final ParkingTicketService parkingTicketService;
+    private final ParkingLotShard[] parkingLotShards;
+    private final ExecutorService paymentExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ParkingLotEventBus parkingLotEventBus;
+    private final ParkingLot parkingLot;
 
     private ParkingLotService() {
-        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot();
+        parkingLotShards = new ParkingLotShard[Integer.getInteger("parkingLot.shards", Runtime.getRuntime().availableProcessors())];
 
-        System.out.println("Generated parkingLot:\n" + parkingLot);
+        for (int i = 0; i < parkingLotShards.length; i++) {
+            parkingLotShards[i] = new ParkingLotShard(i);
+        }
 
-        parkingLotRepo.put(parkingLot.getId(), parkingLot);
+        parkingLotEventBus = ParkingLotEventBus.getInstance();
+        if (Boolean.parseBoolean(System.getProperty("parkingLot.logging", "true"))) {
+            parkingLotEventBus.subscribe("logging", new LoggingParkingLotEventSubscriber(System.out));
+        }
+
+        // -DparkingLot.eventJournal=<file> keeps a record of the lot's activity on disk
+        String eventJournal = System.getProperty("parkingLot.eventJournal");
+
+        if (eventJournal != null) {
+            try {
+                parkingLotEventBus.subscribe("journal", new JournalingParkingLotEventSubscriber(Path.of(eventJournal)));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        parkingLot = ParkingLotScripts.generateParkingLot();
+
+        addParkingLot(parkingLot);
 
-        parkingTicketService = ParkingTicketService.getInstance();
+        // mapped ticket stores are written through when the JVM exits
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("parking-lot-shutdown").unstarted(this::shutdown));
     }
 
     public static ParkingLotService getInstance() {
@@ -30,51 +72,329 @@ public class ParkingLotService {
     }
 
     public ParkingLot getParkingLot() {
-        List<ParkingLot> parkingLots = parkingLotRepo.values().stream().toList();
-        return parkingLots.isEmpty() ? null : parkingLots.getFirst();
+        return parkingLot;
+    }
+
+    public Optional<ParkingLot> getParkingLot(String parkingLotId) {
+        return Optional.ofNullable(parkingLotRepo.get(parkingLotId));
+    }
+
+    public List<ParkingLot> getParkingLots() {
+        return parkingLotRepo.values().stream().toList();
+    }
+
+    // drains every shard and closes its ticket store, the service takes no requests afterwards
+    public void shutdown() {
+        for (ParkingLotShard parkingLotShard : parkingLotShards) {
+            parkingLotShard.close();
+        }
+
+        paymentExecutor.close();
+    }
+
+    public Clock getClock() {
+        return parkingLotShards[0].getParkingTicketService().getClock();
+    }
+
+    // every shard stamps its tickets and bills with the same clock
+    public void setClock(Clock clock) {
+        for (ParkingLotShard parkingLotShard : parkingLotShards) {
+            parkingLotShard.getParkingTicketService().setClock(clock);
+        }
+    }
+
+    public void addParkingLot(ParkingLot parkingLot) {
+        parkingLotRepo.put(parkingLot.getId(), parkingLot);
+
+        // gates added to the lot later are routed as well
+        parkingLot.addGateListener(gate -> gateParkingLotRepo.put(gate.id(), parkingLot));
+
+        for (Gate gate : parkingLot.getGates()) {
+            gateParkingLotRepo.put(gate.id(), parkingLot);
+        }
+
+        getParkingLotShard(parkingLot).addParkingLot(parkingLot);
+        occupancyViewRepo.computeIfAbsent(parkingLot.getId(), parkingLotId -> new OccupancyView(parkingLot));
+        ParkingLotMetrics.getInstance().addParkingLot(parkingLot);
+    }
+
+    public Optional<OccupancyView> getOccupancyView(String parkingLotId) {
+        return Optional.ofNullable(occupancyViewRepo.get(parkingLotId));
+    }
+
+    public Optional<OccupancySnapshot> getOccupancySnapshot(String parkingLotId) {
+        return getOccupancyView(parkingLotId).map(OccupancyView::refreshOccupancySnapshot);
+    }
+
+    public Optional<ParkingTicket> getParkingTicket(long parkingTicketId) {
+        return getParkingLotShard(parkingTicketId).getParkingTicketService().getParkingTicket(parkingTicketId);
+    }
+
+    // every shard keeps its own registration index, so this is one hash lookup per shard
+    public Optional<ParkingTicket> getActiveParkingTicket(String regNumber) {
+        for (ParkingLotShard parkingLotShard : parkingLotShards) {
+            Optional<ParkingTicket> parkingTicket = parkingLotShard.getParkingTicketService().getActiveParkingTicket(regNumber);
+
+            if (parkingTicket.isPresent()) {
+                return parkingTicket;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public List<ParkingTicket> getParkingTickets() {
+        return Arrays.stream(parkingLotShards)
+                .flatMap(parkingLotShard -> parkingLotShard.getParkingTicketService().getParkingTickets().stream())
+                .toList();
+    }
+
+    public List<ParkingTicket> getOpenParkingTickets() {
+        return Arrays.stream(parkingLotShards)
+                .flatMap(parkingLotShard -> parkingLotShard.getParkingTicketService().getOpenParkingTickets().stream())
+                .toList();
     }
 
     public void displayParkingLotStatus() {
-        getParkingLot().displayParkingLotStatus();
+        // let the activity logged so far print ahead of the status
+        parkingLotEventBus.flush();
+
+        for (OccupancyView occupancyView : occupancyViewRepo.values()) {
+            occupancyView.refreshOccupancySnapshot().display(System.out);
+        }
     }
 
     public Optional<ParkingTicket> parkVehicle(Vehicle vehicle, String gateId) {
-        System.out.println("Park " + vehicle + " at " + gateId);
+        return parkVehicleAsync(vehicle, gateId).join();
+    }
 
-        ParkingLot parkingLot = getParkingLot();
+    public CompletableFuture<Optional<ParkingTicket>> parkVehicleAsync(Vehicle vehicle, String gateId) {
+        return tryParkVehicleAsync(vehicle, gateId).thenApply(ParkingLotService::toOptional);
+    }
+
+    public ParkingResult<ParkingTicket> tryParkVehicle(Vehicle vehicle, String gateId) {
+        return tryParkVehicleAsync(vehicle, gateId).join();
+    }
+
+    // a rejection comes back as a shared ParkingResult and is reported without building an exception
+    public CompletableFuture<ParkingResult<ParkingTicket>> tryParkVehicleAsync(Vehicle vehicle, String gateId) {
+        ParkingLot parkingLot = gateParkingLotRepo.get(gateId);
+
+        if (parkingLot == null) {
+            return CompletableFuture.completedFuture(reportFailure(gateId, ParkingRejection.GATE_NOT_FOUND));
+        }
+
+        ParkingLotShard parkingLotShard = getParkingLotShard(parkingLot);
         Gate gate = parkingLot.getGate(gateId);
 
-        ParkingTicket parkingTicket = null;
+        return parkingLotShard.submit(() -> reportFailure(gateId,
+                parkingLotShard.getParkingTicketService().tryCreateParkingTicket(parkingLot, vehicle, gate)));
+    }
 
-        try {
-            parkingTicket = parkingTicketService.createParkingTicket(parkingLot, vehicle, gate);
-        } catch (Exceptions.WrongGateException | Exceptions.ParkingLotFullException exception) {
-            System.out.println(exception.getMessage());
+    public Optional<ParkingTicket> parkReservedVehicle(long reservationId, Vehicle vehicle, String gateId) {
+        return toOptional(tryParkReservedVehicle(reservationId, vehicle, gateId));
+    }
+
+    public ParkingResult<ParkingTicket> tryParkReservedVehicle(long reservationId, Vehicle vehicle, String gateId) {
+        ParkingLot parkingLot = gateParkingLotRepo.get(gateId);
+
+        if (parkingLot == null) {
+            return reportFailure(gateId, ParkingRejection.GATE_NOT_FOUND);
         }
 
-        return Optional.ofNullable(parkingTicket);
+        ParkingLotShard parkingLotShard = getParkingLotShard(parkingLot);
+        Gate gate = parkingLot.getGate(gateId);
+
+        return parkingLotShard.submit(() -> reportFailure(gateId,
+                parkingLotShard.getParkingTicketService().tryCreateParkingTicket(vehicle, gate, reservationId))).join();
     }
 
     public Optional<ParkingBill> unParkVehicle(ParkingTicket parkingTicket, String gateId) {
-        System.out.println("UnPark " + parkingTicket + " at " + gateId);
+        return toOptional(tryUnParkVehicle(parkingTicket, gateId));
+    }
+
+    public ParkingResult<ParkingBill> tryUnParkVehicle(ParkingTicket parkingTicket, String gateId) {
+        Optional<Gate> gate = getGate(gateId);
 
-        Gate gate = getParkingLot().getGate(gateId);
+        if (gate.isEmpty()) {
+            return ParkingResult.rejected(ParkingRejection.GATE_NOT_FOUND, gateId);
+        }
+
+        // the exit gate of another lot has no such vehicle parked
+        if (!isParkedAt(parkingTicket, gateId)) {
+            return reportFailure(gateId, ParkingRejection.PARKING_TICKET_NOT_FOUND);
+        }
+
+        ParkingLotShard parkingLotShard = getParkingLotShard(parkingTicket.id());
         PaymentStrategy paymentStrategy = new UpiPaymentStrategy("upi@ybl");
 
-        ParkingBill parkingBill = null;
+        // the payment runs on this thread, the shard only commits the bill and releases the spot
+        return reportFailure(gateId, parkingLotShard.getParkingTicketService().tryCreateParkingBill(
+                parkingTicket, gate.get(), paymentStrategy, parkingLotShard::execute));
+    }
+
+    public Optional<ParkingBill> unParkVehicle(String regNumber, String gateId) {
+        return toOptional(tryUnParkVehicle(regNumber, gateId));
+    }
+
+    public ParkingResult<ParkingBill> tryUnParkVehicle(String regNumber, String gateId) {
+        Optional<ParkingTicket> parkingTicket = getActiveParkingTicket(regNumber);
+
+        if (parkingTicket.isEmpty()) {
+            return reportFailure(gateId, ParkingRejection.PARKING_TICKET_NOT_FOUND);
+        }
+
+        return tryUnParkVehicle(parkingTicket.get(), gateId);
+    }
+
+    public CompletableFuture<ParkingBill> unParkVehicleAsync(ParkingTicket parkingTicket, String gateId) {
+        Optional<Gate> gate = getGate(gateId);
 
-        try {
-            parkingBill = parkingTicketService.createParkingBill(
-                    parkingTicket, gate, paymentStrategy);
-        } catch (Exceptions.WrongGateException | Exceptions.PaymentFailedException exception) {
-            System.out.println(exception.getMessage());
+        if (gate.isEmpty()) {
+            return CompletableFuture.failedFuture(new Exceptions.GateNotFoundException(gateId));
         }
 
-        return Optional.ofNullable(parkingBill);
+        if (!isParkedAt(parkingTicket, gateId)) {
+            reportFailure(gateId, ParkingRejection.PARKING_TICKET_NOT_FOUND);
+            return CompletableFuture.failedFuture(new Exceptions.ParkingTicketNotFoundException(parkingTicket.vehicle().regNumber()));
+        }
+
+        ParkingLotShard parkingLotShard = getParkingLotShard(parkingTicket.id());
+        PaymentStrategy paymentStrategy = new UpiPaymentStrategy("upi@ybl");
+
+        return parkingLotShard.getParkingExitPipeline().exit(parkingTicket, gate.get(), paymentStrategy)
+                .whenComplete((parkingBill, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        parkingLotEventBus.publish(new ParkingLotEvent.ParkingRequestFailed(gateId, cause.getMessage()));
+                    }
+                });
+    }
+
+    public List<Optional<ParkingTicket>> parkVehicles(List<Vehicle> vehicles, String gateId) {
+        List<Optional<ParkingTicket>> noParkingTickets = vehicles.stream().map(vehicle -> Optional.<ParkingTicket>empty()).toList();
+        ParkingLot parkingLot = gateParkingLotRepo.get(gateId);
+
+        if (parkingLot == null) {
+            reportFailure(gateId, ParkingRejection.GATE_NOT_FOUND);
+            return noParkingTickets;
+        }
+
+        ParkingLotShard parkingLotShard = getParkingLotShard(parkingLot);
+        Gate gate = parkingLot.getGate(gateId);
+
+        return parkingLotShard.submit(() -> {
+            try {
+                return parkingLotShard.getParkingTicketService().createParkingTickets(parkingLot, vehicles, gate);
+            } catch (Exceptions.WrongGateException exception) {
+                reportFailure(gateId, exception);
+                return noParkingTickets;
+            }
+        }).join();
+    }
+
+    // one result per ticket, in the order of the tickets
+    public List<ParkingResult<ParkingBill>> unParkVehicles(List<ParkingTicket> parkingTickets, String gateId) {
+        List<ParkingResult<ParkingBill>> parkingBills = new ArrayList<>(
+                Collections.nCopies(parkingTickets.size(), ParkingResult.rejected(ParkingRejection.GATE_NOT_FOUND, gateId)));
+        Optional<Gate> gate = getGate(gateId);
+
+        if (gate.isEmpty()) {
+            return parkingBills;
+        }
+
+        // every shard bills its own tickets in one batch
+        Map<ParkingLotShard, List<Integer>> parkingTicketIndexes = new LinkedHashMap<>();
+
+        for (int i = 0; i < parkingTickets.size(); i++) {
+            if (!isParkedAt(parkingTickets.get(i), gateId)) {
+                parkingBills.set(i, reportFailure(gateId, ParkingRejection.PARKING_TICKET_NOT_FOUND));
+                continue;
+            }
+
+            parkingTicketIndexes.computeIfAbsent(getParkingLotShard(parkingTickets.get(i).id()), parkingLotShard -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<Void>> shardBills = new ArrayList<>();
+
+        for (Map.Entry<ParkingLotShard, List<Integer>> entry : parkingTicketIndexes.entrySet()) {
+            ParkingLotShard parkingLotShard = entry.getKey();
+            List<Integer> indexes = entry.getValue();
+            List<ParkingTicket> shardParkingTickets = indexes.stream().map(parkingTickets::get).toList();
+            PaymentStrategy paymentStrategy = new UpiPaymentStrategy("upi@ybl");
+
+            // the batches pay side by side off the shards, each shard only commits its own bills
+            shardBills.add(CompletableFuture.runAsync(() -> {
+                try {
+                    List<ParkingResult<ParkingBill>> bills = parkingLotShard.getParkingTicketService().createParkingBills(
+                            shardParkingTickets, gate.get(), paymentStrategy, parkingLotShard::execute);
+
+                    for (int i = 0; i < indexes.size(); i++) {
+                        parkingBills.set(indexes.get(i), reportFailure(gateId, bills.get(i)));
+                    }
+                } catch (Exceptions.WrongGateException exception) {
+                    reportFailure(gateId, exception);
+
+                    for (int index : indexes) {
+                        parkingBills.set(index, ParkingResult.rejected(ParkingRejection.NOT_AN_EXIT_GATE));
+                    }
+                }
+            }, paymentExecutor));
+        }
+
+        CompletableFuture.allOf(shardBills.toArray(CompletableFuture[]::new)).join();
+
+        return parkingBills;
+    }
+
+    private Optional<Gate> getGate(String gateId) {
+        ParkingLot parkingLot = gateParkingLotRepo.get(gateId);
+
+        if (parkingLot == null) {
+            reportFailure(gateId, ParkingRejection.GATE_NOT_FOUND);
+            return Optional.empty();
+        }
+
+        return Optional.of(parkingLot.getGate(gateId));
+    }
+
+    private boolean isParkedAt(ParkingTicket parkingTicket, String gateId) {
+        ParkingLot parkingLot = gateParkingLotRepo.get(gateId);
+        return parkingLot != null && parkingLot.getId().equals(parkingTicket.parkingSpot().getParkingFloor().getParkingLotId());
+    }
+
+    private void reportFailure(String gateId, Exception exception) {
+        parkingLotEventBus.publish(new ParkingLotEvent.ParkingRequestFailed(gateId, exception.getMessage()));
+    }
+
+    private <T> ParkingResult<T> reportFailure(String gateId, ParkingRejection parkingRejection) {
+        parkingLotEventBus.publish(new ParkingLotEvent.ParkingRequestFailed(gateId, parkingRejection.getMessage(gateId)));
+        return ParkingResult.rejected(parkingRejection, gateId);
+    }
+
+    // a full lot is already published as LotFull by the ticket service
+    private <T> ParkingResult<T> reportFailure(String gateId, ParkingResult<T> parkingResult) {
+        if (parkingResult instanceof ParkingResult.Rejected<T>(ParkingRejection parkingRejection, String message)
+                && parkingRejection != ParkingRejection.PARKING_LOT_FULL) {
+            parkingLotEventBus.publish(new ParkingLotEvent.ParkingRequestFailed(gateId, message));
+        }
+
+        return parkingResult;
+    }
+
+    private static <T> Optional<T> toOptional(ParkingResult<T> parkingResult) {
+        return parkingResult instanceof ParkingResult.Accepted<T>(T value) ? Optional.of(value) : Optional.empty();
+    }
+
+    private ParkingLotShard getParkingLotShard(ParkingLot parkingLot) {
+        return parkingLotShards[Math.floorMod(parkingLot.getId().hashCode(), parkingLotShards.length)];
+    }
+
+    private ParkingLotShard getParkingLotShard(long parkingTicketId) {
+        return parkingLotShards[ParkingTicketService.getShardId(parkingTicketId) % parkingLotShards.length];
     }
 
     private static class ParkingLotServiceHelper {
         private static final ParkingLotService INSTANCE = new ParkingLotService();
     }
 }
-
@@ -0,0 +1,67 @@
+package org.example.services;
+
+import org.example.models.ParkingLot;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// A partition of parking lots served by one writer thread, with its own ticket sequence and exit pipeline.
+class ParkingLotShard implements AutoCloseable {
+    private final int id;
+    private final Map<String, ParkingLot> parkingLots;
+    private final ParkingTicketService parkingTicketService;
+    private final ParkingExitPipeline parkingExitPipeline;
+    private final ExecutorService executor;
+
+    ParkingLotShard(int id) {
+        this.id = id;
+        this.parkingLots = new ConcurrentHashMap<>();
+        this.parkingTicketService = ParkingTicketService.forShard(id);
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("parking-lot-shard-" + id).daemon().factory());
+        this.parkingExitPipeline = new ParkingExitPipeline(parkingTicketService, this::execute, Duration.ZERO, 64, Duration.ofSeconds(30), 3);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    List<ParkingLot> getParkingLots() {
+        return parkingLots.values().stream().toList();
+    }
+
+    void addParkingLot(ParkingLot parkingLot) {
+        parkingLots.put(parkingLot.getId(), parkingLot);
+        parkingTicketService.addParkingLot(parkingLot);
+    }
+
+    ParkingTicketService getParkingTicketService() {
+        return parkingTicketService;
+    }
+
+    ParkingExitPipeline getParkingExitPipeline() {
+        return parkingExitPipeline;
+    }
+
+    // tickets and the ticket store are only ever written on the shard's thread, with floor actors as well:
+    // there the shard thread hands the spot claims and releases to the floor's actor and waits for them
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+        parkingExitPipeline.close();
+        parkingTicketService.close();
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.services;
+
+import org.example.models.ParkingBill;
+
+import java.util.List;
+import java.util.Optional;
+
+// Keeps the bills of the most recently closed tickets, looked up by ticket id. Once full every new bill
+// pushes out the oldest one, older bills are only kept by the event log when one is attached.
+class ParkingTicketArchive {
+    private final ConcurrentLongMap<ParkingBill> parkingBillRepo = new ConcurrentLongMap<>();
+    private final long[] parkingTicketIds;
+    private int nextIndex;
+
+    ParkingTicketArchive(int capacity) {
+        parkingTicketIds = new long[Math.max(1, capacity)];
+    }
+
+    synchronized void archive(ParkingBill parkingBill) {
+        long evictedParkingTicketId = parkingTicketIds[nextIndex];
+
+        if (evictedParkingTicketId != 0) {
+            parkingBillRepo.remove(evictedParkingTicketId);
+        }
+
+        parkingTicketIds[nextIndex] = parkingBill.parkingTicket().id();
+        parkingBillRepo.put(parkingBill.parkingTicket().id(), parkingBill);
+        nextIndex = (nextIndex + 1) % parkingTicketIds.length;
+    }
+
+    Optional<ParkingBill> get(long parkingTicketId) {
+        return Optional.ofNullable(parkingBillRepo.get(parkingTicketId));
+    }
+
+    List<ParkingBill> values() {
+        return parkingBillRepo.values();
+    }
+
+    int size() {
+        return parkingBillRepo.size();
+    }
+}
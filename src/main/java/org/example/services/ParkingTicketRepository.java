@@ -0,0 +1,32 @@
+package org.example.services;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingTicket;
+
+import java.util.List;
+
+// Open tickets by id and by the registration of the vehicle holding them.
+interface ParkingTicketRepository extends AutoCloseable {
+    // false when the vehicle already holds an open ticket, the new ticket is not stored then
+    boolean put(ParkingTicket parkingTicket);
+
+    ParkingTicket get(long parkingTicketId);
+
+    ParkingTicket getByRegNumber(String regNumber);
+
+    // drops the ticket from both indexes, true only for the one caller that found it open
+    boolean remove(long parkingTicketId);
+
+    List<ParkingTicket> values();
+
+    int size();
+
+    // lets a repository resolve the spots of tickets it kept across a restart
+    default void addParkingFloor(ParkingFloor parkingFloor) {
+    }
+
+    // releases what the repository holds outside the heap, writing a mapped file through first
+    @Override
+    default void close() {
+    }
+}
@@ -1,112 +1,686 @@
 package org.example.services;
 
+import org.example.events.ParkingLotEvent;
+import org.example.events.ParkingLotEventBus;
+import org.example.metrics.ParkingLotMetrics;
 import org.example.models.*;
 import org.example.models.enums.GateType;
-import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.ParkingRejection;
 import org.example.models.enums.VehicleType;
+import org.example.persistence.ParkingEvent;
+import org.example.persistence.ParkingEventLog;
 import org.example.strategy.Payment.PaymentStrategy;
+import org.example.strategy.Tariff.TariffEngine;
+import org.example.strategy.Tariff.TariffRules;
 
+import java.nio.file.Path;
+import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+// Only open tickets are held by id and by vehicle registration, a billed ticket moves to a bounded archive
+// so memory follows the number of parked vehicles instead of every ticket ever issued.
+// With -DparkingLot.ticketStore=offHeap the open tickets live outside the heap, mapped from a file per shard
+// when -DparkingLot.ticketStoreDirectory is set.
 public class ParkingTicketService {
-    private final Map<String, ParkingTicket> parkingTicketRepo;
-
-    private int parkingTicketsCount = 0;
-    private int parkingBillsCount = 0;
+    private static final int PARKING_TICKET_ARCHIVE_CAPACITY = Integer.getInteger("parkingLot.ticketArchiveCapacity", 1 << 14);
+    private static final String PARKING_TICKET_STORE = System.getProperty("parkingLot.ticketStore", "heap");
+    private static final int PARKING_TICKET_STORE_CAPACITY = Integer.getInteger("parkingLot.ticketStoreCapacity", 1 << 16);
+    private static final String PARKING_TICKET_STORE_DIRECTORY = System.getProperty("parkingLot.ticketStoreDirectory");
+
+    private final int shardId;
+    private final ParkingTicketRepository openParkingTicketRepo;
+    private final ParkingTicketArchive parkingTicketArchive;
+    // tickets an exit has taken out of the open ones and not yet billed, a checkpoint still has to keep them
+    private final ConcurrentLongMap<ParkingTicket> closingParkingTickets = new ConcurrentLongMap<>();
+    // tickets of vehicles that left without a successful payment, kept until they are settled
+    private final ConcurrentLongMap<ParkingTicket> unpaidParkingTickets = new ConcurrentLongMap<>();
+
+    private final IdGenerator idGenerator;
+
+    private final TariffEngine tariffEngine;
+    private final ParkingFloorActors parkingFloorActors;
+    private final ParkingLotEventBus parkingLotEventBus = ParkingLotEventBus.getInstance();
+    private final ParkingLotMetrics parkingLotMetrics = ParkingLotMetrics.getInstance();
+
+    private volatile ParkingEventLog parkingEventLog;
+    // stamps ticket in times and bill out times, a simulation swaps in its own trace time
+    private volatile Clock clock = Clock.systemUTC();
+
+    private ParkingTicketService(int shardId, TariffEngine tariffEngine) {
+        if (shardId > IdGenerator.MAX_SHARD_GENERATOR_ID) {
+            throw new IllegalArgumentException("Shard id must be at most " + IdGenerator.MAX_SHARD_GENERATOR_ID + ", was " + shardId);
+        }
 
-    private ParkingTicketService() {
-        parkingTicketRepo = new HashMap<>();
+        this.shardId = shardId;
+        this.tariffEngine = tariffEngine;
+        this.idGenerator = new IdGenerator(shardId);
+        openParkingTicketRepo = createParkingTicketRepository(shardId);
+        parkingFloorActors = ParkingFloorActors.isEnabled() ? ParkingFloorActors.getInstance() : null;
+        parkingTicketArchive = new ParkingTicketArchive(PARKING_TICKET_ARCHIVE_CAPACITY);
     }
 
     public static ParkingTicketService getInstance() {
         return ParkingTicketServiceHelper.INSTANCE;
     }
 
+    // shard 0 is the shared instance, every other shard numbers its tickets and bills on its own
+    static ParkingTicketService forShard(int shardId) {
+        return shardId == 0 ? getInstance() : new ParkingTicketService(shardId, getInstance().tariffEngine);
+    }
+
+    public static int getShardId(long id) {
+        return IdGenerator.getGeneratorId(id);
+    }
+
+    public int getShardId() {
+        return shardId;
+    }
+
+    public Optional<ParkingTicket> getParkingTicket(long parkingTicketId) {
+        ParkingTicket parkingTicket = openParkingTicketRepo.get(parkingTicketId);
+
+        return parkingTicket != null
+                ? Optional.of(parkingTicket)
+                : parkingTicketArchive.get(parkingTicketId).map(ParkingBill::parkingTicket);
+    }
+
+    public Optional<ParkingTicket> getActiveParkingTicket(String regNumber) {
+        return Optional.ofNullable(openParkingTicketRepo.getByRegNumber(regNumber));
+    }
+
+    public Optional<ParkingBill> getArchivedParkingBill(long parkingTicketId) {
+        return parkingTicketArchive.get(parkingTicketId);
+    }
+
+    // open tickets followed by the archived ones still held in memory
     public List<ParkingTicket> getParkingTickets() {
-        return parkingTicketRepo.values().stream().toList();
+        List<ParkingTicket> parkingTickets = new ArrayList<>(openParkingTicketRepo.values());
+
+        for (ParkingBill parkingBill : parkingTicketArchive.values()) {
+            parkingTickets.add(parkingBill.parkingTicket());
+        }
+
+        return parkingTickets;
+    }
+
+    public List<ParkingTicket> getOpenParkingTickets() {
+        return openParkingTicketRepo.values();
+    }
+
+    // open tickets and the ones an exit is still billing, what a snapshot has to restore
+    public List<ParkingTicket> getUnbilledParkingTickets() {
+        Map<Long, ParkingTicket> parkingTickets = new LinkedHashMap<>();
+
+        // a ticket moves to the closing ones before it leaves the open ones, read in this order neither copy is missed
+        for (ParkingTicket parkingTicket : openParkingTicketRepo.values()) {
+            parkingTickets.put(parkingTicket.id(), parkingTicket);
+        }
+
+        for (ParkingTicket parkingTicket : closingParkingTickets.values()) {
+            parkingTickets.putIfAbsent(parkingTicket.id(), parkingTicket);
+        }
+
+        return new ArrayList<>(parkingTickets.values());
+    }
+
+    public List<ParkingTicket> getUnpaidParkingTickets() {
+        return unpaidParkingTickets.values();
+    }
+
+    public TariffEngine getTariffEngine() {
+        return tariffEngine;
+    }
+
+    public void setParkingEventLog(ParkingEventLog parkingEventLog) {
+        this.parkingEventLog = parkingEventLog;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    Date now() {
+        return new Date(clock.millis());
+    }
+
+    public void restoreParkingTicket(ParkingTicket parkingTicket) {
+        openParkingTicketRepo.put(parkingTicket);
+        idGenerator.advancePast(parkingTicket.id());
+    }
+
+    // the billed ticket, null when it was not open, so a replay can free a spot whose release never reached the log
+    public ParkingTicket restoreParkingBill(long parkingBillId, long parkingTicketId) {
+        ParkingTicket parkingTicket = openParkingTicketRepo.get(parkingTicketId);
+
+        openParkingTicketRepo.remove(parkingTicketId);
+        idGenerator.advancePast(parkingBillId);
+
+        return parkingTicket;
+    }
+
+    // flushes and releases the open ticket store once the shard has stopped issuing tickets
+    void close() {
+        openParkingTicketRepo.close();
+    }
+
+    void addParkingLot(ParkingLot parkingLot) {
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            openParkingTicketRepo.addParkingFloor(parkingFloor);
+        }
+    }
+
+    public ParkingTicket createParkingTicket(ParkingLot parkingLot, Vehicle vehicle, Gate gate) throws Exceptions.WrongGateException, Exceptions.ParkingLotFullException, Exceptions.VehicleAlreadyParkedException {
+        return switch (tryCreateParkingTicket(parkingLot, vehicle, gate)) {
+            case ParkingResult.Accepted<ParkingTicket>(ParkingTicket parkingTicket) -> parkingTicket;
+            case ParkingResult.Rejected<ParkingTicket>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.NOT_AN_ENTRY_GATE ->
+                    throw new Exceptions.WrongGateException(GateType.EXIT, GateType.ENTRY);
+            case ParkingResult.Rejected<ParkingTicket>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.VEHICLE_ALREADY_PARKED ->
+                    throw new Exceptions.VehicleAlreadyParkedException(vehicle.regNumber());
+            case ParkingResult.Rejected<ParkingTicket>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.PARKING_FLOORS_BUSY ->
+                    throw new Exceptions.ParkingFloorBusyException();
+            case ParkingResult.Rejected<ParkingTicket> rejected -> throw new Exceptions.ParkingLotFullException();
+        };
     }
 
-    public ParkingTicket createParkingTicket(ParkingLot parkingLot, Vehicle vehicle, Gate gate) throws Exceptions.WrongGateException, Exceptions.ParkingLotFullException {
+    public ParkingResult<ParkingTicket> tryCreateParkingTicket(ParkingLot parkingLot, Vehicle vehicle, Gate gate) {
+        long startNanos = parkingLotMetrics.startNanos();
+
         if (gate.type() == GateType.EXIT) {
-            throw new Exceptions.WrongGateException(GateType.EXIT, GateType.ENTRY);
+            parkingLotMetrics.recordWrongGate(gate.id());
+            return ParkingResult.rejected(ParkingRejection.NOT_AN_ENTRY_GATE);
         }
 
+        if (openParkingTicketRepo.getByRegNumber(vehicle.regNumber()) != null) {
+            return ParkingResult.rejected(ParkingRejection.VEHICLE_ALREADY_PARKED);
+        }
+
+        long findParkingFloorStartNanos = parkingLotMetrics.startNanos();
+
         Optional<ParkingFloor> optionalParkingFloor = parkingLot.findParkingFloor(
                 vehicle.type(), gate);
 
-        if (optionalParkingFloor.isEmpty()) {
-            throw new Exceptions.ParkingLotFullException();
+        parkingLotMetrics.recordLatency(ParkingLotMetrics.Latency.FIND_PARKING_FLOOR, findParkingFloorStartNanos);
+
+        long claimParkingSpotStartNanos = parkingLotMetrics.startNanos();
+
+        // with no floor left for its own spot type the vehicle may still fit a fallback spot type
+        Optional<ParkingSpot> optionalParkingSpot = claimParkingSpot(parkingLot, optionalParkingFloor.orElse(null), vehicle.type(), gate);
+
+        parkingLotMetrics.recordLatency(ParkingLotMetrics.Latency.CLAIM_PARKING_SPOT, claimParkingSpotStartNanos);
+
+        if (optionalParkingSpot == null) {
+            return ParkingResult.rejected(ParkingRejection.PARKING_FLOORS_BUSY);
         }
 
-        ParkingFloor parkingFloor = optionalParkingFloor.get();
+        if (optionalParkingSpot.isEmpty()) {
+            parkingLotMetrics.recordLotFull(gate.id(), vehicle.type());
+            parkingLotEventBus.publish(new ParkingLotEvent.LotFull(parkingLot.getId(), gate.id(), vehicle));
+            return ParkingResult.rejected(ParkingRejection.PARKING_LOT_FULL);
+        }
+
+        ParkingTicket parkingTicket = generateParkingTicket(vehicle, optionalParkingSpot.get());
+
+        if (parkingTicket == null) {
+            return ParkingResult.rejected(ParkingRejection.VEHICLE_ALREADY_PARKED);
+        }
+
+        parkingLotEventBus.publish(new ParkingLotEvent.VehicleParked(gate.id(), parkingTicket));
+        parkingLotMetrics.recordParked(gate.id(), vehicle.type());
+        parkingLotMetrics.recordLatency(ParkingLotMetrics.Latency.CREATE_PARKING_TICKET, startNanos);
 
-        Optional<ParkingSpot> optionalParkingSpot = parkingFloor.findParkingSpot(vehicle.type());
+        return ParkingResult.accepted(parkingTicket);
+    }
+
+    // parks a vehicle on the spot its reservation holds
+    public ParkingTicket createParkingTicket(Vehicle vehicle, Gate gate, long reservationId) throws Exceptions.WrongGateException, Exceptions.ReservationNotFoundException, Exceptions.VehicleAlreadyParkedException {
+        return switch (tryCreateParkingTicket(vehicle, gate, reservationId)) {
+            case ParkingResult.Accepted<ParkingTicket>(ParkingTicket parkingTicket) -> parkingTicket;
+            case ParkingResult.Rejected<ParkingTicket>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.NOT_AN_ENTRY_GATE ->
+                    throw new Exceptions.WrongGateException(GateType.EXIT, GateType.ENTRY);
+            case ParkingResult.Rejected<ParkingTicket>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.VEHICLE_ALREADY_PARKED ->
+                    throw new Exceptions.VehicleAlreadyParkedException(vehicle.regNumber());
+            case ParkingResult.Rejected<ParkingTicket> rejected -> throw new Exceptions.ReservationNotFoundException(reservationId);
+        };
+    }
+
+    public ParkingResult<ParkingTicket> tryCreateParkingTicket(Vehicle vehicle, Gate gate, long reservationId) {
+        if (gate.type() == GateType.EXIT) {
+            parkingLotMetrics.recordWrongGate(gate.id());
+            return ParkingResult.rejected(ParkingRejection.NOT_AN_ENTRY_GATE);
+        }
+
+        // the reservation is left waiting for the vehicle's next visit
+        if (openParkingTicketRepo.getByRegNumber(vehicle.regNumber()) != null) {
+            return ParkingResult.rejected(ParkingRejection.VEHICLE_ALREADY_PARKED);
+        }
+
+        Optional<ParkingSpot> optionalParkingSpot = ReservationService.getInstance().checkIn(reservationId, vehicle);
 
         if (optionalParkingSpot.isEmpty()) {
-            throw new Exceptions.ParkingLotFullException();
+            return ParkingResult.rejected(ParkingRejection.RESERVATION_NOT_FOUND);
+        }
+
+        ParkingTicket parkingTicket = generateParkingTicket(vehicle, optionalParkingSpot.get());
+
+        if (parkingTicket == null) {
+            return ParkingResult.rejected(ParkingRejection.VEHICLE_ALREADY_PARKED);
+        }
+
+        parkingLotEventBus.publish(new ParkingLotEvent.VehicleParked(gate.id(), parkingTicket));
+        parkingLotMetrics.recordParked(gate.id(), vehicle.type());
+
+        return ParkingResult.accepted(parkingTicket);
+    }
+
+    public List<Optional<ParkingTicket>> createParkingTickets(ParkingLot parkingLot, List<Vehicle> vehicles, Gate gate) throws Exceptions.WrongGateException {
+        if (gate.type() == GateType.EXIT) {
+            parkingLotMetrics.recordWrongGate(gate.id());
+            throw new Exceptions.WrongGateException(GateType.EXIT, GateType.ENTRY);
+        }
+
+        List<Optional<ParkingTicket>> parkingTickets = new ArrayList<>(Collections.nCopies(vehicles.size(), Optional.empty()));
+        Map<VehicleType, List<Integer>> vehicleIndexesByType = new EnumMap<>(VehicleType.class);
+        // vehicles already parked, or queued twice, get no spot and are not counted as turned away by a full lot
+        boolean[] alreadyParked = new boolean[vehicles.size()];
+        Set<String> regNumbers = new HashSet<>();
+
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+
+            if (!regNumbers.add(vehicle.regNumber()) || openParkingTicketRepo.getByRegNumber(vehicle.regNumber()) != null) {
+                alreadyParked[i] = true;
+                continue;
+            }
+
+            vehicleIndexesByType.computeIfAbsent(vehicle.type(), vehicleType -> new ArrayList<>()).add(i);
         }
 
-        ParkingSpot parkingSpot = optionalParkingSpot.get();
+        for (Map.Entry<VehicleType, List<Integer>> vehicleIndexes : vehicleIndexesByType.entrySet()) {
+            Optional<ParkingFloor> optionalParkingFloor = parkingLot.findParkingFloor(vehicleIndexes.getKey(), gate);
 
-        parkingSpot.setParkingSpotStatus(ParkingSpotStatus.OCCUPIED);
+            List<ParkingSpot> parkingSpots = claimParkingSpots(
+                    parkingLot, optionalParkingFloor.orElse(null), vehicleIndexes.getKey(), gate, vehicleIndexes.getValue().size());
 
-        System.out.println(
-                vehicle.regNumber() + " is parked at floor " + parkingFloor.getId() + ", and " + parkingSpot);
+            for (int i = 0; i < parkingSpots.size(); i++) {
+                int vehicleIndex = vehicleIndexes.getValue().get(i);
+                Vehicle vehicle = vehicles.get(vehicleIndex);
+                ParkingTicket parkingTicket = generateParkingTicket(vehicle, parkingSpots.get(i));
 
-        return generateParkingTicket(vehicle, parkingSpot);
+                if (parkingTicket == null) {
+                    alreadyParked[vehicleIndex] = true;
+                    continue;
+                }
+
+                parkingLotEventBus.publish(new ParkingLotEvent.VehicleParked(gate.id(), parkingTicket));
+                parkingLotMetrics.recordParked(gate.id(), vehicle.type());
+                parkingTickets.set(vehicleIndex, Optional.of(parkingTicket));
+            }
+        }
+
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (parkingTickets.get(i).isEmpty() && !alreadyParked[i]) {
+                parkingLotMetrics.recordLotFull(gate.id(), vehicles.get(i).type());
+                parkingLotEventBus.publish(new ParkingLotEvent.LotFull(parkingLot.getId(), gate.id(), vehicles.get(i)));
+            }
+        }
+
+        return parkingTickets;
     }
 
-    public ParkingBill createParkingBill(ParkingTicket parkingTicket, Gate gate, PaymentStrategy paymentStrategy) throws Exceptions.WrongGateException, Exceptions.PaymentFailedException {
+    public ParkingBill createParkingBill(ParkingTicket parkingTicket, Gate gate, PaymentStrategy paymentStrategy) throws Exceptions.WrongGateException, Exceptions.PaymentFailedException, Exceptions.ParkingTicketNotFoundException {
+        return switch (tryCreateParkingBill(parkingTicket, gate, paymentStrategy)) {
+            case ParkingResult.Accepted<ParkingBill>(ParkingBill parkingBill) -> parkingBill;
+            case ParkingResult.Rejected<ParkingBill>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.NOT_AN_EXIT_GATE ->
+                    throw new Exceptions.WrongGateException(GateType.ENTRY, GateType.EXIT);
+            case ParkingResult.Rejected<ParkingBill>(ParkingRejection parkingRejection, String message) when parkingRejection == ParkingRejection.PARKING_TICKET_NOT_FOUND ->
+                    throw new Exceptions.ParkingTicketNotFoundException(parkingTicket.vehicle().regNumber());
+            case ParkingResult.Rejected<ParkingBill> rejected -> throw new Exceptions.PaymentFailedException();
+        };
+    }
+
+    public ParkingResult<ParkingBill> tryCreateParkingBill(ParkingTicket parkingTicket, Gate gate, PaymentStrategy paymentStrategy) {
+        return tryCreateParkingBill(parkingTicket, gate, paymentStrategy, Runnable::run);
+    }
+
+    // The payment runs on the calling thread and only the bill and the spot release go to commitExecutor, so a
+    // slow payment provider or a forced log write never holds up the other lots served by that executor.
+    ParkingResult<ParkingBill> tryCreateParkingBill(ParkingTicket parkingTicket, Gate gate, PaymentStrategy paymentStrategy, Executor commitExecutor) {
         if (gate.type() == GateType.ENTRY) {
+            parkingLotMetrics.recordWrongGate(gate.id());
+            return ParkingResult.rejected(ParkingRejection.NOT_AN_EXIT_GATE);
+        }
+
+        // closing the ticket first makes a billed or archived ticket, or a second exit racing this one, pay nothing
+        if (!closeParkingTicket(parkingTicket)) {
+            return ParkingResult.rejected(ParkingRejection.PARKING_TICKET_NOT_FOUND);
+        }
+
+        if (!canReleaseParkingSpot(parkingTicket.parkingSpot())) {
+            reopenParkingTicket(parkingTicket);
+            return ParkingResult.rejected(ParkingRejection.PARKING_FLOORS_BUSY);
+        }
+
+        Date outTime = now();
+
+        long amountCents = calculateCharges(parkingTicket, outTime);
+
+        PaymentDetails paymentDetails;
+
+        try {
+            paymentDetails = pay(paymentStrategy, amountCents);
+        } catch (Exceptions.PaymentFailedException exception) {
+            reopenParkingTicket(parkingTicket);
+            return ParkingResult.rejected(ParkingRejection.PAYMENT_FAILED);
+        }
+
+        // the bill goes to the log ahead of the spot release, a replay never finds the spot free under an open ticket
+        CommittedParkingBill committedParkingBill = CompletableFuture.supplyAsync(() -> {
+            CommittedParkingBill committed = commitParkingBill(parkingTicket, outTime, paymentDetails);
+            releaseParkingSpot(parkingTicket.parkingSpot());
+            return committed;
+        }, commitExecutor).join();
+
+        return ParkingResult.accepted(announceParkingBill(committedParkingBill, gate));
+    }
+
+    public List<ParkingResult<ParkingBill>> createParkingBills(List<ParkingTicket> parkingTickets, Gate gate, PaymentStrategy paymentStrategy) throws Exceptions.WrongGateException {
+        return createParkingBills(parkingTickets, gate, paymentStrategy, Runnable::run);
+    }
+
+    // every ticket gets its own outcome, a vehicle whose payment failed keeps its spot while the others leave
+    List<ParkingResult<ParkingBill>> createParkingBills(List<ParkingTicket> parkingTickets, Gate gate, PaymentStrategy paymentStrategy, Executor commitExecutor) throws Exceptions.WrongGateException {
+        if (gate.type() == GateType.ENTRY) {
+            parkingLotMetrics.recordWrongGate(gate.id());
             throw new Exceptions.WrongGateException(GateType.ENTRY, GateType.EXIT);
         }
 
-        Date outTime = new Date();
+        Date outTime = now();
+        List<ParkingResult<ParkingBill>> parkingBills = new ArrayList<>(
+                Collections.nCopies(parkingTickets.size(), ParkingResult.rejected(ParkingRejection.PARKING_TICKET_NOT_FOUND)));
+        List<Integer> openParkingTicketIndexes = new ArrayList<>(parkingTickets.size());
+        List<Long> amountsCents = new ArrayList<>(parkingTickets.size());
+
+        for (int i = 0; i < parkingTickets.size(); i++) {
+            if (!closeParkingTicket(parkingTickets.get(i))) {
+                continue;
+            }
+
+            if (!canReleaseParkingSpot(parkingTickets.get(i).parkingSpot())) {
+                reopenParkingTicket(parkingTickets.get(i));
+                parkingBills.set(i, ParkingResult.rejected(ParkingRejection.PARKING_FLOORS_BUSY));
+                continue;
+            }
+
+            openParkingTicketIndexes.add(i);
+            amountsCents.add(calculateCharges(parkingTickets.get(i), outTime));
+        }
+
+        List<Optional<PaymentDetails>> paymentDetails = payAll(paymentStrategy, amountsCents);
+        List<Integer> paidParkingTicketIndexes = new ArrayList<>(openParkingTicketIndexes.size());
+
+        for (int i = 0; i < openParkingTicketIndexes.size(); i++) {
+            int parkingTicketIndex = openParkingTicketIndexes.get(i);
+
+            if (paymentDetails.get(i).isEmpty()) {
+                reopenParkingTicket(parkingTickets.get(parkingTicketIndex));
+                parkingBills.set(parkingTicketIndex, ParkingResult.rejected(ParkingRejection.PAYMENT_FAILED));
+            } else {
+                paidParkingTicketIndexes.add(i);
+            }
+        }
 
-        double amount = calculateCharges(
-                parkingTicket.vehicle().type(), parkingTicket.inTime(), outTime);
+        List<CommittedParkingBill> committedParkingBills = CompletableFuture.supplyAsync(() -> {
+            List<CommittedParkingBill> committed = new ArrayList<>(paidParkingTicketIndexes.size());
 
-        PaymentDetails paymentDetails = paymentStrategy.pay(amount);
+            for (int i : paidParkingTicketIndexes) {
+                ParkingTicket parkingTicket = parkingTickets.get(openParkingTicketIndexes.get(i));
 
-        parkingTicket.parkingSpot().setParkingSpotStatus(ParkingSpotStatus.AVAILABLE);
+                committed.add(commitParkingBill(parkingTicket, outTime, paymentDetails.get(i).get()));
+                releaseParkingSpot(parkingTicket.parkingSpot());
+            }
 
-        return generateParkingBill(parkingTicket, outTime, paymentDetails);
+            return committed;
+        }, commitExecutor).join();
+
+        for (int i = 0; i < committedParkingBills.size(); i++) {
+            parkingBills.set(openParkingTicketIndexes.get(paidParkingTicketIndexes.get(i)),
+                    ParkingResult.accepted(announceParkingBill(committedParkingBills.get(i), gate)));
+        }
+
+        return parkingBills;
     }
 
-    private ParkingBill generateParkingBill(ParkingTicket parkingTicket, Date outTime, PaymentDetails paymentDetails) {
-        parkingBillsCount++;
+    // null when the floors that could take the vehicle stayed too busy to answer
+    private Optional<ParkingSpot> claimParkingSpot(ParkingLot parkingLot, ParkingFloor assignedParkingFloor, VehicleType vehicleType, Gate gate) {
+        Optional<ParkingSpot> optionalParkingSpot = assignedParkingFloor == null
+                ? Optional.empty() : claimFloorParkingSpot(parkingLot, assignedParkingFloor, vehicleType, gate);
+
+        if (optionalParkingSpot == null || optionalParkingSpot.isPresent()) {
+            return optionalParkingSpot;
+        }
+
+        // other gates filled the assigned floor after it was picked, try the floors that still have room
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            if (parkingFloor == assignedParkingFloor || !parkingFloor.hasAvailableParkingSpot(vehicleType)) {
+                continue;
+            }
 
-        String parkingBillId = "ParkingBill-" + parkingBillsCount;
+            optionalParkingSpot = claimFloorParkingSpot(parkingLot, parkingFloor, vehicleType, gate);
 
-        return new ParkingBill(parkingBillId, parkingTicket, outTime, paymentDetails);
+            if (optionalParkingSpot == null || optionalParkingSpot.isPresent()) {
+                return optionalParkingSpot;
+            }
+        }
+
+        return Optional.empty();
     }
 
-    private double calculateCharges(VehicleType vehicleType, Date inTime, Date outTime) {
-        double baseCharge = vehicleType.getBaseCharge();
-        double hourlyRate = vehicleType.getHourlyRate();
+    private List<ParkingSpot> claimParkingSpots(ParkingLot parkingLot, ParkingFloor assignedParkingFloor, VehicleType vehicleType, Gate gate, int count) {
+        List<ParkingSpot> parkingSpots = assignedParkingFloor == null
+                ? new ArrayList<>() : new ArrayList<>(claimFloorParkingSpots(parkingLot, assignedParkingFloor, vehicleType, gate, count));
+
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            if (parkingSpots.size() == count) {
+                break;
+            }
 
-        long milliSeconds = outTime.getTime() - inTime.getTime();
-        int hours = (int) Math.ceil((double) milliSeconds / (1000 * 60 * 60));
+            if (parkingFloor == assignedParkingFloor || !parkingFloor.hasAvailableParkingSpot(vehicleType)) {
+                continue;
+            }
 
-        double hourlyCharge = hourlyRate * hours;
+            parkingSpots.addAll(claimFloorParkingSpots(parkingLot, parkingFloor, vehicleType, gate, count - parkingSpots.size()));
+        }
 
-        return baseCharge + hourlyCharge;
+        return parkingSpots;
     }
 
-    private ParkingTicket generateParkingTicket(Vehicle vehicle, ParkingSpot parkingSpot) {
-        parkingTicketsCount++;
+    // with floor actors the floor's owner thread claims the spot, a claim diverted to another floor counts as well
+    private Optional<ParkingSpot> claimFloorParkingSpot(ParkingLot parkingLot, ParkingFloor parkingFloor, VehicleType vehicleType, Gate gate) {
+        if (parkingFloorActors == null) {
+            return parkingFloor.claimParkingSpot(vehicleType, gate);
+        }
 
-        String parkingTicketId = "ParkingTicket-" + parkingTicketsCount;
+        CompletableFuture<Optional<ParkingSpot>> parkingSpot = parkingFloorActors.claimParkingSpot(parkingLot, parkingFloor, vehicleType, gate);
+
+        return parkingSpot == null ? null : parkingSpot.join();
+    }
+
+    // a batch only takes what the floors could claim in time, the rest of the vehicles are reported as not parked
+    private List<ParkingSpot> claimFloorParkingSpots(ParkingLot parkingLot, ParkingFloor parkingFloor, VehicleType vehicleType, Gate gate, int count) {
+        if (parkingFloorActors == null) {
+            return parkingFloor.claimParkingSpots(vehicleType, gate, count);
+        }
+
+        CompletableFuture<List<ParkingSpot>> parkingSpots = parkingFloorActors.claimParkingSpots(parkingLot, parkingFloor, vehicleType, gate, count);
+
+        return parkingSpots == null ? List.of() : parkingSpots.join();
+    }
+
+    // true for the one caller that found the ticket open, a closed ticket can not be billed again
+    boolean closeParkingTicket(ParkingTicket parkingTicket) {
+        if (closingParkingTickets.put(parkingTicket.id(), parkingTicket) != null) {
+            return false;
+        }
+
+        if (openParkingTicketRepo.remove(parkingTicket.id())) {
+            return true;
+        }
+
+        closingParkingTickets.remove(parkingTicket.id());
+        return false;
+    }
+
+    void reopenParkingTicket(ParkingTicket parkingTicket) {
+        openParkingTicketRepo.put(parkingTicket);
+        closingParkingTickets.remove(parkingTicket.id());
+    }
+
+    // with floor actors the release must find room on its floor's queue, checked before the vehicle pays
+    boolean canReleaseParkingSpot(ParkingSpot parkingSpot) {
+        return parkingFloorActors == null || parkingFloorActors.awaitReleaseCapacity(parkingSpot);
+    }
+
+    void releaseParkingSpot(ParkingSpot parkingSpot) {
+        if (parkingFloorActors == null) {
+            parkingSpot.release();
+        } else {
+            parkingFloorActors.releaseParkingSpot(parkingSpot);
+        }
+    }
+
+    void recordUnpaidExit(ParkingTicket parkingTicket, Gate gate, Date outTime, long amountCents) {
+        unpaidParkingTickets.put(parkingTicket.id(), parkingTicket);
+        closingParkingTickets.remove(parkingTicket.id());
+        parkingLotEventBus.publish(new ParkingLotEvent.VehicleExitedUnpaid(gate.id(), parkingTicket, outTime, amountCents));
+    }
+
+    ParkingBill generateParkingBill(ParkingTicket parkingTicket, Gate gate, Date outTime, PaymentDetails paymentDetails, Executor commitExecutor) {
+        return announceParkingBill(CompletableFuture.supplyAsync(
+                () -> commitParkingBill(parkingTicket, outTime, paymentDetails), commitExecutor).join(), gate);
+    }
+
+    private CommittedParkingBill commitParkingBill(ParkingTicket parkingTicket, Date outTime, PaymentDetails paymentDetails) {
+        long parkingBillId = idGenerator.nextId();
+
+        ParkingEventLog eventLog = parkingEventLog;
+        long lsn = eventLog == null ? 0 : eventLog.append(new ParkingEvent.BillPaid(
+                parkingBillId, parkingTicket.id(), outTime.getTime(), paymentDetails.amountCents(), paymentDetails.id()));
+
+        ParkingBill parkingBill = new ParkingBill(parkingBillId, parkingTicket, outTime, paymentDetails);
+
+        parkingTicketArchive.archive(parkingBill);
+        closingParkingTickets.remove(parkingTicket.id());
+
+        return new CommittedParkingBill(parkingBill, eventLog, lsn);
+    }
+
+    // the log is written in order, so anything logged after the bill on the commit thread waits for it as well
+    private ParkingBill announceParkingBill(CommittedParkingBill committedParkingBill, Gate gate) {
+        ParkingBill parkingBill = committedParkingBill.parkingBill();
+
+        if (committedParkingBill.eventLog() != null) {
+            committedParkingBill.eventLog().sync(committedParkingBill.lsn());
+        }
+
+        // a payment is announced only once its bill exists, never for one the exit gave up on
+        parkingLotEventBus.publish(new ParkingLotEvent.PaymentCompleted(parkingBill.paymentDetails()));
+        parkingLotEventBus.publish(new ParkingLotEvent.VehicleExited(gate.id(), parkingBill));
+        parkingLotMetrics.recordExited(gate.id(), parkingBill.parkingTicket().vehicle().type());
+
+        return parkingBill;
+    }
+
+    PaymentDetails pay(PaymentStrategy paymentStrategy, long amountCents) throws Exceptions.PaymentFailedException {
+        long startNanos = parkingLotMetrics.startNanos();
+
+        try {
+            PaymentDetails paymentDetails = paymentStrategy.pay(amountCents);
+            parkingLotMetrics.recordPayments(1, true);
+            return paymentDetails;
+        } catch (Exceptions.PaymentFailedException exception) {
+            parkingLotMetrics.recordPayments(1, false);
+            throw exception;
+        } finally {
+            parkingLotMetrics.recordLatency(ParkingLotMetrics.Latency.PAYMENT, startNanos);
+        }
+    }
+
+    private List<Optional<PaymentDetails>> payAll(PaymentStrategy paymentStrategy, List<Long> amountsCents) {
+        long startNanos = parkingLotMetrics.startNanos();
+
+        List<Optional<PaymentDetails>> paymentDetails = paymentStrategy.payAll(amountsCents);
+        int paidCount = (int) paymentDetails.stream().filter(Optional::isPresent).count();
+
+        parkingLotMetrics.recordPayments(paidCount, true);
+        parkingLotMetrics.recordPayments(amountsCents.size() - paidCount, false);
+        parkingLotMetrics.recordLatency(ParkingLotMetrics.Latency.PAYMENT, startNanos);
+
+        return paymentDetails;
+    }
+
+    // in paise, money never goes through a double
+    long calculateCharges(ParkingTicket parkingTicket, Date outTime) {
+        return tariffEngine.calculateCharges(
+                parkingTicket.parkingSpot().getParkingFloor().getParkingLotId(), parkingTicket.vehicle().type(),
+                parkingTicket.inTime().getTime(), outTime.getTime());
+    }
+
+    // null when the vehicle already holds an open ticket, the spot is given back then
+    private ParkingTicket generateParkingTicket(Vehicle vehicle, ParkingSpot parkingSpot) {
+        long parkingTicketId = idGenerator.nextId();
 
         ParkingTicket parkingTicket = new ParkingTicket(
-                parkingTicketId, vehicle, parkingSpot, new Date());
+                parkingTicketId, vehicle, parkingSpot, now());
 
-        parkingTicketRepo.put(parkingTicketId, parkingTicket);
+        if (!openParkingTicketRepo.put(parkingTicket)) {
+            // another gate opened a ticket for the vehicle after it was checked
+            releaseParkingSpot(parkingSpot);
+            return null;
+        }
+
+        ParkingEventLog eventLog = parkingEventLog;
+
+        if (eventLog != null) {
+            long lsn;
+
+            try {
+                lsn = eventLog.append(new ParkingEvent.TicketIssued(
+                        parkingTicketId, vehicle.regNumber(), vehicle.type(), parkingSpot.getParkingFloor().getId(),
+                        parkingSpot.getPosition(), parkingTicket.inTime().getTime()));
+            } catch (IllegalArgumentException exception) {
+                // a ticket too large to log is never issued
+                openParkingTicketRepo.remove(parkingTicketId);
+                releaseParkingSpot(parkingSpot);
+                throw exception;
+            }
+
+            eventLog.sync(lsn);
+        }
 
         return parkingTicket;
     }
 
+    private static ParkingTicketRepository createParkingTicketRepository(int shardId) {
+        if (!PARKING_TICKET_STORE.equals("offHeap")) {
+            return new HeapParkingTicketRepository();
+        }
+
+        return PARKING_TICKET_STORE_DIRECTORY == null
+                ? new OffHeapParkingTicketRepository(PARKING_TICKET_STORE_CAPACITY)
+                : new OffHeapParkingTicketRepository(PARKING_TICKET_STORE_CAPACITY,
+                        Path.of(PARKING_TICKET_STORE_DIRECTORY, "parking-tickets-" + shardId + ".bin"));
+    }
+
     private static class ParkingTicketServiceHelper {
-        private static final ParkingTicketService INSTANCE = new ParkingTicketService();
+        private static final ParkingTicketService INSTANCE = new ParkingTicketService(0, new TariffEngine(TariffRules.flat()));
+    }
+
+    private record CommittedParkingBill(ParkingBill parkingBill, ParkingEventLog eventLog, long lsn) {
     }
 }
@@ -0,0 +1,113 @@
+package org.example.services;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reservations booked per floor, vehicle type and time bucket over a rolling horizon. Slots are reused as
+// time moves on, each remembers which bucket it currently counts and is cleared when a later one claims it.
+// A window query reads one count per bucket it covers, a two hour window with 15 minute buckets reads 8.
+class ReservationCapacityIndex {
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+
+    private final long bucketMillis;
+    private final List<ParkingFloor> parkingFloors;
+    private final Map<ParkingFloor, Integer> parkingFloorIndexes = new IdentityHashMap<>();
+    // [floor * VEHICLE_TYPES + vehicle type][slot]
+    private final int[][] reservedCounts;
+    private final long[] slotBuckets;
+
+    ReservationCapacityIndex(ParkingLot parkingLot, long bucketMillis, int bucketsCount) {
+        this.bucketMillis = bucketMillis;
+        this.parkingFloors = parkingLot.getFloors();
+        this.reservedCounts = new int[parkingFloors.size() * VEHICLE_TYPES][bucketsCount];
+        this.slotBuckets = new long[bucketsCount];
+
+        for (int i = 0; i < parkingFloors.size(); i++) {
+            parkingFloorIndexes.put(parkingFloors.get(i), i);
+        }
+    }
+
+    List<ParkingFloor> getParkingFloors() {
+        return parkingFloors;
+    }
+
+    boolean contains(ParkingFloor parkingFloor) {
+        return parkingFloorIndexes.containsKey(parkingFloor);
+    }
+
+    // bookings may reach at most one horizon ahead of now
+    boolean isWithinHorizon(long now, long toTime) {
+        return (toTime - 1) / bucketMillis - now / bucketMillis < slotBuckets.length;
+    }
+
+    // spots of the type that are not INACTIVE, minus the most reservations in any bucket of the window
+    synchronized int getReservableParkingSpotsCount(ParkingFloor parkingFloor, VehicleType vehicleType, long fromTime, long toTime) {
+        int capacity = parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.AVAILABLE)
+                + parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.OCCUPIED)
+                + parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.RESERVED);
+        int[] counts = reservedCounts[row(parkingFloor, vehicleType)];
+        int maxReservedCount = 0;
+
+        for (long bucket = firstBucket(fromTime, toTime); bucket <= (toTime - 1) / bucketMillis; bucket++) {
+            maxReservedCount = Math.max(maxReservedCount, counts[slot(bucket)]);
+        }
+
+        return Math.max(0, capacity - maxReservedCount);
+    }
+
+    synchronized boolean tryReserve(ParkingFloor parkingFloor, VehicleType vehicleType, long fromTime, long toTime) {
+        if (getReservableParkingSpotsCount(parkingFloor, vehicleType, fromTime, toTime) == 0) {
+            return false;
+        }
+
+        add(parkingFloor, vehicleType, fromTime, toTime, 1);
+        return true;
+    }
+
+    synchronized void release(ParkingFloor parkingFloor, VehicleType vehicleType, long fromTime, long toTime) {
+        add(parkingFloor, vehicleType, fromTime, toTime, -1);
+    }
+
+    private void add(ParkingFloor parkingFloor, VehicleType vehicleType, long fromTime, long toTime, int delta) {
+        int[] counts = reservedCounts[row(parkingFloor, vehicleType)];
+
+        for (long bucket = firstBucket(fromTime, toTime); bucket <= (toTime - 1) / bucketMillis; bucket++) {
+            int slot = slot(bucket);
+
+            // a slot already reused by a later bucket no longer holds this one
+            if (slotBuckets[slot] == bucket) {
+                counts[slot] = Math.max(0, counts[slot] + delta);
+            }
+        }
+    }
+
+    // a window never covers more buckets than there are slots, older ones would alias later ones
+    private long firstBucket(long fromTime, long toTime) {
+        return Math.max(fromTime / bucketMillis, (toTime - 1) / bucketMillis - slotBuckets.length + 1);
+    }
+
+    private int row(ParkingFloor parkingFloor, VehicleType vehicleType) {
+        return parkingFloorIndexes.get(parkingFloor) * VEHICLE_TYPES + vehicleType.ordinal();
+    }
+
+    // maps a bucket to its slot, clearing the slot first when it still counts an older bucket
+    private int slot(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) slotBuckets.length);
+
+        if (slotBuckets[slot] < bucket) {
+            slotBuckets[slot] = bucket;
+
+            for (int[] counts : reservedCounts) {
+                counts[slot] = 0;
+            }
+        }
+
+        return slot;
+    }
+}
@@ -0,0 +1,321 @@
+package org.example.services;
+
+import org.example.models.*;
+import org.example.models.enums.ReservationStatus;
+import org.example.models.enums.VehicleType;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Books time windows against ReservationCapacityIndex and turns a booking into a RESERVED spot shortly before
+// its window starts, so walk-ins never get it. One hold period before that the booking turns pending on its
+// floor and walk-ins may only take the available spots pending bookings leave, so the hold finds one.
+// Pending marks, holds, retries and no-show expiry run off one timer wheel.
+public class ReservationService {
+    private static final class Booking {
+        private final Reservation reservation;
+        private final ParkingFloor parkingFloor;
+        private final ReservationCapacityIndex reservationCapacityIndex;
+        private final long expiryTime;
+        private TimerWheel.Timeout pendingTimeout;
+        private TimerWheel.Timeout holdTimeout;
+        private TimerWheel.Timeout expiryTimeout;
+        private boolean isPending;
+
+        private Booking(Reservation reservation, ParkingFloor parkingFloor, ReservationCapacityIndex reservationCapacityIndex, long expiryTime) {
+            this.reservation = reservation;
+            this.parkingFloor = parkingFloor;
+            this.reservationCapacityIndex = reservationCapacityIndex;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+    private final long bucketMillis;
+    private final int bucketsCount;
+    private final long holdMillis;
+    private final long noShowMillis;
+    private final long retryMillis;
+
+    private final Map<String, ReservationCapacityIndex> reservationCapacityIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentLongMap<Booking> bookingRepo = new ConcurrentLongMap<>();
+    private final IdGenerator idGenerator = new IdGenerator(IdGenerator.RESERVATION_GENERATOR_ID);
+    private final TimerWheel timerWheel;
+
+    ReservationService(Duration bucket, Duration horizon, Duration hold, Duration noShow, Duration tick) {
+        this.bucketMillis = bucket.toMillis();
+        this.bucketsCount = (int) (horizon.toMillis() / bucketMillis);
+        this.holdMillis = hold.toMillis();
+        this.noShowMillis = noShow.toMillis();
+        this.retryMillis = Math.max(tick.toMillis(), bucketMillis / 15);
+        this.timerWheel = new TimerWheel("parking-lot-reservations", tick.toMillis(), 512);
+    }
+
+    public static ReservationService getInstance() {
+        return ReservationServiceHelper.INSTANCE;
+    }
+
+    public Optional<Reservation> getReservation(long reservationId) {
+        Booking booking = bookingRepo.get(reservationId);
+        return booking == null ? Optional.empty() : Optional.of(booking.reservation);
+    }
+
+    public int getReservableParkingSpotsCount(ParkingLot parkingLot, VehicleType vehicleType, Date fromTime, Date toTime) {
+        if (!isValidWindow(parkingLot, fromTime, toTime)) {
+            return 0;
+        }
+
+        ReservationCapacityIndex reservationCapacityIndex = getReservationCapacityIndex(parkingLot);
+        long windowFromTime = getWindowFromTime(fromTime);
+        int reservableParkingSpotsCount = 0;
+
+        for (ParkingFloor parkingFloor : reservationCapacityIndex.getParkingFloors()) {
+            reservableParkingSpotsCount += reservationCapacityIndex.getReservableParkingSpotsCount(
+                    parkingFloor, vehicleType, windowFromTime, toTime.getTime());
+        }
+
+        return reservableParkingSpotsCount;
+    }
+
+    public boolean hasCapacity(ParkingLot parkingLot, VehicleType vehicleType, Date fromTime, Date toTime) {
+        return getReservableParkingSpotsCount(parkingLot, vehicleType, fromTime, toTime) > 0;
+    }
+
+    // books the floor with the most room left in the window
+    public Reservation reserve(ParkingLot parkingLot, Vehicle vehicle, Date fromTime, Date toTime) throws Exceptions.ReservationUnavailableException {
+        ParkingFloor reservedParkingFloor = null;
+
+        if (isValidWindow(parkingLot, fromTime, toTime)) {
+            ReservationCapacityIndex reservationCapacityIndex = getReservationCapacityIndex(parkingLot);
+            long windowFromTime = getWindowFromTime(fromTime);
+            int maxReservableParkingSpotsCount = 0;
+
+            for (ParkingFloor parkingFloor : reservationCapacityIndex.getParkingFloors()) {
+                int reservableParkingSpotsCount = reservationCapacityIndex.getReservableParkingSpotsCount(
+                        parkingFloor, vehicle.type(), windowFromTime, toTime.getTime());
+
+                if (reservableParkingSpotsCount > maxReservableParkingSpotsCount) {
+                    maxReservableParkingSpotsCount = reservableParkingSpotsCount;
+                    reservedParkingFloor = parkingFloor;
+                }
+            }
+        }
+
+        if (reservedParkingFloor == null) {
+            throw new Exceptions.ReservationUnavailableException(vehicle.type(), fromTime, toTime);
+        }
+
+        return reserve(parkingLot, reservedParkingFloor, vehicle, fromTime, toTime);
+    }
+
+    public Reservation reserve(ParkingLot parkingLot, ParkingFloor parkingFloor, Vehicle vehicle, Date fromTime, Date toTime) throws Exceptions.ReservationUnavailableException {
+        ReservationCapacityIndex reservationCapacityIndex = getReservationCapacityIndex(parkingLot);
+
+        if (!isValidWindow(parkingLot, fromTime, toTime) || !reservationCapacityIndex.contains(parkingFloor)
+                || !reservationCapacityIndex.tryReserve(parkingFloor, vehicle.type(), getWindowFromTime(fromTime), toTime.getTime())) {
+            throw new Exceptions.ReservationUnavailableException(vehicle.type(), fromTime, toTime);
+        }
+
+        Reservation reservation = new Reservation(idGenerator.nextId(), parkingLot.getId(), parkingFloor.getId(),
+                                                  vehicle.type(), vehicle.regNumber(), fromTime, toTime);
+        Booking booking = new Booking(reservation, parkingFloor, reservationCapacityIndex,
+                                      Math.min(toTime.getTime(), fromTime.getTime() + noShowMillis));
+        long holdTime = fromTime.getTime() - holdMillis;
+        long pendingTime = holdTime - holdMillis;
+        long now = System.currentTimeMillis();
+
+        synchronized (reservation) {
+            bookingRepo.put(reservation.getId(), booking);
+
+            // a window about to start needs its spot now, it is refused rather than overbooked
+            if (holdTime <= now && !hold(booking)) {
+                close(booking, ReservationStatus.CANCELLED);
+                throw new Exceptions.ReservationUnavailableException(vehicle.type(), fromTime, toTime);
+            }
+
+            if (reservation.getReservationStatus() == ReservationStatus.BOOKED) {
+                if (pendingTime <= now) {
+                    markPending(booking);
+                } else {
+                    booking.pendingTimeout = timerWheel.schedule(() -> markPending(booking), pendingTime);
+                }
+
+                booking.holdTimeout = timerWheel.schedule(() -> holdOrRetry(booking), holdTime);
+            }
+
+            booking.expiryTimeout = timerWheel.schedule(() -> expire(booking), booking.expiryTime);
+        }
+
+        return reservation;
+    }
+
+    // turns the held spot into an occupied one for the vehicle the reservation was made for
+    public Optional<ParkingSpot> checkIn(long reservationId, Vehicle vehicle) {
+        Booking booking = bookingRepo.get(reservationId);
+
+        if (booking == null || !booking.reservation.getRegNumber().equals(vehicle.regNumber())
+                || booking.reservation.getVehicleType() != vehicle.type()) {
+            return Optional.empty();
+        }
+
+        synchronized (booking.reservation) {
+            if (booking.reservation.getReservationStatus() == ReservationStatus.BOOKED) {
+                hold(booking);
+            }
+
+            if (booking.reservation.getReservationStatus() != ReservationStatus.HELD
+                    || !booking.reservation.getParkingSpot().occupyReserved()) {
+                return Optional.empty();
+            }
+
+            // the window stays booked, the vehicle now parks in it
+            booking.reservation.setReservationStatus(ReservationStatus.CHECKED_IN);
+            unmarkPending(booking);
+            cancelTimeouts(booking);
+            bookingRepo.remove(reservationId);
+
+            return Optional.of(booking.reservation.getParkingSpot());
+        }
+    }
+
+    public boolean cancel(long reservationId) {
+        Booking booking = bookingRepo.get(reservationId);
+
+        if (booking == null) {
+            return false;
+        }
+
+        synchronized (booking.reservation) {
+            return close(booking, ReservationStatus.CANCELLED);
+        }
+    }
+
+    private boolean hold(Booking booking) {
+        Optional<ParkingSpot> parkingSpot = booking.parkingFloor.reserveParkingSpot(booking.reservation.getVehicleType());
+
+        if (parkingSpot.isEmpty()) {
+            return false;
+        }
+
+        booking.reservation.setParkingSpot(parkingSpot.get());
+        booking.reservation.setReservationStatus(ReservationStatus.HELD);
+        unmarkPending(booking);
+        return true;
+    }
+
+    private void markPending(Booking booking) {
+        synchronized (booking.reservation) {
+            if (booking.reservation.getReservationStatus() == ReservationStatus.BOOKED && !booking.isPending) {
+                booking.isPending = true;
+                booking.parkingFloor.addPendingReservations(booking.reservation.getVehicleType(), 1);
+            }
+        }
+    }
+
+    private void unmarkPending(Booking booking) {
+        if (booking.isPending) {
+            booking.isPending = false;
+            booking.parkingFloor.addPendingReservations(booking.reservation.getVehicleType(), -1);
+        }
+    }
+
+    // vehicles parked before the booking turned pending may still fill the floor, try again until the booking
+    // expires, a hold that failed with an exception is retried the same way
+    private void holdOrRetry(Booking booking) {
+        synchronized (booking.reservation) {
+            if (booking.reservation.getReservationStatus() != ReservationStatus.BOOKED) {
+                return;
+            }
+
+            markPending(booking);
+
+            boolean isHeld = false;
+
+            try {
+                isHeld = hold(booking);
+            } finally {
+                long retryTime = System.currentTimeMillis() + retryMillis;
+
+                if (!isHeld && retryTime < booking.expiryTime) {
+                    booking.holdTimeout = timerWheel.schedule(() -> holdOrRetry(booking), retryTime);
+                }
+            }
+        }
+    }
+
+    private void expire(Booking booking) {
+        synchronized (booking.reservation) {
+            close(booking, ReservationStatus.EXPIRED);
+        }
+    }
+
+    // frees the held spot and the rest of the window, the caller holds the reservation lock
+    private boolean close(Booking booking, ReservationStatus reservationStatus) {
+        Reservation reservation = booking.reservation;
+
+        if (reservation.getReservationStatus() != ReservationStatus.BOOKED
+                && reservation.getReservationStatus() != ReservationStatus.HELD) {
+            return false;
+        }
+
+        // the booking is closed even when the spot could not be handed back
+        try {
+            if (reservation.getReservationStatus() == ReservationStatus.HELD) {
+                reservation.getParkingSpot().releaseReserved();
+            }
+        } finally {
+            reservation.setReservationStatus(reservationStatus);
+            unmarkPending(booking);
+            booking.reservationCapacityIndex.release(
+                    booking.parkingFloor, reservation.getVehicleType(),
+                    getWindowFromTime(reservation.getFromTime()), reservation.getToTime().getTime());
+            cancelTimeouts(booking);
+            bookingRepo.remove(reservation.getId());
+        }
+
+        return true;
+    }
+
+    private void cancelTimeouts(Booking booking) {
+        if (booking.pendingTimeout != null) {
+            booking.pendingTimeout.cancel();
+        }
+
+        if (booking.holdTimeout != null) {
+            booking.holdTimeout.cancel();
+        }
+
+        if (booking.expiryTimeout != null) {
+            booking.expiryTimeout.cancel();
+        }
+    }
+
+    private boolean isValidWindow(ParkingLot parkingLot, Date fromTime, Date toTime) {
+        long now = System.currentTimeMillis();
+
+        return fromTime.before(toTime) && toTime.getTime() > now
+                && getReservationCapacityIndex(parkingLot).isWithinHorizon(now, toTime.getTime());
+    }
+
+    // the part of a window already past is neither counted nor booked
+    private static long getWindowFromTime(Date fromTime) {
+        return Math.max(System.currentTimeMillis(), fromTime.getTime());
+    }
+
+    // floors added to the lot after its first reservation cannot be booked
+    private ReservationCapacityIndex getReservationCapacityIndex(ParkingLot parkingLot) {
+        return reservationCapacityIndexes.computeIfAbsent(parkingLot.getId(),
+                parkingLotId -> new ReservationCapacityIndex(parkingLot, bucketMillis, bucketsCount));
+    }
+
+    private static class ReservationServiceHelper {
+        private static final ReservationService INSTANCE = new ReservationService(
+                Duration.ofMinutes(Integer.getInteger("parkingLot.reservationBucketMinutes", 15)),
+                Duration.ofDays(Integer.getInteger("parkingLot.reservationHorizonDays", 7)),
+                Duration.ofMinutes(Integer.getInteger("parkingLot.reservationHoldMinutes", 15)),
+                Duration.ofMinutes(Integer.getInteger("parkingLot.reservationNoShowMinutes", 30)),
+                Duration.ofSeconds(1));
+    }
+}
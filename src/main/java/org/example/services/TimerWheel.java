@@ -0,0 +1,131 @@
+package org.example.services;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Hashed timer wheel: a timeout lands in the slot of its tick and carries the number of full turns left,
+// so scheduling and cancelling are O(1) and every tick only visits the timeouts of one slot. Timeouts are
+// handed to the wheel thread through a queue and run on it, at most one tick late.
+class TimerWheel implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(TimerWheel.class.getName());
+
+    static final class Timeout {
+        private final long deadline;
+        private final Runnable task;
+        private long remainingRounds;
+        private volatile boolean isCancelled;
+        private Timeout next;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        void cancel() {
+            isCancelled = true;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout[] slots;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final long startTime;
+    private final Thread worker;
+    private final LongAdder failedTasksCount = new LongAdder();
+    private volatile boolean isClosed;
+    private long tick;
+
+    TimerWheel(String name, long tickMillis, int slotsCount) {
+        this.tickMillis = tickMillis;
+        this.slots = new Timeout[Integer.highestOneBit(Math.max(1, slotsCount - 1)) << 1];
+        this.mask = slots.length - 1;
+        this.startTime = System.currentTimeMillis();
+        this.worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    Timeout schedule(Runnable task, long deadline) {
+        Timeout timeout = new Timeout(deadline, task);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    long getFailedTasksCount() {
+        return failedTasksCount.sum();
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (!isClosed) {
+            long tickTime = startTime + (tick + 1) * tickMillis;
+            long now = System.currentTimeMillis();
+
+            if (now < tickTime) {
+                LockSupport.parkNanos((tickTime - now) * 1_000_000);
+                continue;
+            }
+
+            transferPendingTimeouts();
+            expireTimeouts(slots[(int) tick & mask], now);
+            tick++;
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.isCancelled) {
+                continue;
+            }
+
+            // overdue timeouts go to the current slot and run on this tick
+            long ticks = Math.max(tick, (timeout.deadline - startTime) / tickMillis);
+            int slot = (int) ticks & mask;
+
+            timeout.remainingRounds = (ticks - tick) / slots.length;
+            timeout.next = slots[slot];
+            slots[slot] = timeout;
+        }
+    }
+
+    private void expireTimeouts(Timeout head, long now) {
+        int slot = (int) tick & mask;
+        Timeout previous = null;
+
+        for (Timeout timeout = head; timeout != null; timeout = timeout.next) {
+            boolean isDue = !timeout.isCancelled && timeout.remainingRounds == 0 && timeout.deadline <= now;
+
+            if (!timeout.isCancelled && !isDue) {
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+
+                previous = timeout;
+                continue;
+            }
+
+            if (previous == null) {
+                slots[slot] = timeout.next;
+            } else {
+                previous.next = timeout.next;
+            }
+
+            if (isDue) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException exception) {
+                    // one failing task must not stop the wheel
+                    failedTasksCount.increment();
+                    LOGGER.log(System.Logger.Level.ERROR, "Timeout task failed on " + worker.getName(), exception);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.strategy.ParkingFloor;
+
+import org.example.models.ParkingFloor;
+import org.example.models.enums.VehicleType;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Max segment tree over the spots walk-ins may take on every floor, one per vehicle type, in floor order.
+class FloorCapacityIndex {
+    private final List<ParkingFloor> floors;
+    private final Map<ParkingFloor, Integer> floorPositions;
+    private final int leaves;
+    private final Map<VehicleType, AtomicIntegerArray> availableParkingSpots;
+
+    FloorCapacityIndex(List<ParkingFloor> floors) {
+        this.floors = List.copyOf(floors);
+        this.floorPositions = new IdentityHashMap<>();
+        this.leaves = Math.max(1, Integer.highestOneBit(Math.max(1, floors.size() - 1)) << 1);
+        this.availableParkingSpots = new EnumMap<>(VehicleType.class);
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            availableParkingSpots.put(vehicleType, new AtomicIntegerArray(2 * leaves));
+        }
+
+        for (int position = 0; position < this.floors.size(); position++) {
+            floorPositions.put(this.floors.get(position), position);
+        }
+
+        refreshAll();
+    }
+
+    int size() {
+        return floors.size();
+    }
+
+    ParkingFloor getFloor(int position) {
+        return floors.get(position);
+    }
+
+    void refreshAll() {
+        for (ParkingFloor floor : floors) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                refresh(floor, vehicleType);
+            }
+        }
+    }
+
+    // Writers may race, so every value is re-derived from what it summarises until they agree: the last
+    // write to any node is always followed by a read of its inputs that came after it.
+    void refresh(ParkingFloor floor, VehicleType vehicleType) {
+        Integer position = floorPositions.get(floor);
+
+        if (position == null) {
+            return;
+        }
+
+        AtomicIntegerArray tree = availableParkingSpots.get(vehicleType);
+        int node = leaves + position;
+        int available;
+
+        do {
+            available = floor.getWalkInParkingSpotsCount(vehicleType);
+            tree.set(node, available);
+        } while (available != floor.getWalkInParkingSpotsCount(vehicleType));
+
+        for (node >>= 1; node >= 1; node >>= 1) {
+            int max;
+
+            do {
+                max = Math.max(tree.get(2 * node), tree.get(2 * node + 1));
+                tree.set(node, max);
+            } while (max != Math.max(tree.get(2 * node), tree.get(2 * node + 1)));
+        }
+    }
+
+    // position of the floor in [from, to] with the most available spots, -1 if none has any
+    int findMostAvailable(VehicleType vehicleType, int from, int to) {
+        AtomicIntegerArray tree = availableParkingSpots.get(vehicleType);
+        int max = 0;
+
+        for (int low = from + leaves, high = to + leaves + 1; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                max = Math.max(max, tree.get(low++));
+            }
+
+            if ((high & 1) == 1) {
+                max = Math.max(max, tree.get(--high));
+            }
+        }
+
+        return max == 0 ? -1 : findFirst(tree, 1, 0, leaves - 1, from, to, max);
+    }
+
+    // position of the first floor in [from, to] with any available spot, -1 if none
+    int findFirstAvailable(VehicleType vehicleType, int from, int to) {
+        return from > to ? -1 : findFirst(availableParkingSpots.get(vehicleType), 1, 0, leaves - 1, from, to, 1);
+    }
+
+    // position of the last floor in [from, to] with any available spot, -1 if none
+    int findLastAvailable(VehicleType vehicleType, int from, int to) {
+        return from > to ? -1 : findLast(availableParkingSpots.get(vehicleType), 1, 0, leaves - 1, from, to, 1);
+    }
+
+    private int findFirst(AtomicIntegerArray tree, int node, int low, int high, int from, int to, int atLeast) {
+        if (high < from || low > to || tree.get(node) < atLeast) {
+            return -1;
+        }
+
+        if (low == high) {
+            return low;
+        }
+
+        int middle = (low + high) >>> 1;
+        int position = findFirst(tree, 2 * node, low, middle, from, to, atLeast);
+
+        return position >= 0 ? position : findFirst(tree, 2 * node + 1, middle + 1, high, from, to, atLeast);
+    }
+
+    private int findLast(AtomicIntegerArray tree, int node, int low, int high, int from, int to, int atLeast) {
+        if (high < from || low > to || tree.get(node) < atLeast) {
+            return -1;
+        }
+
+        if (low == high) {
+            return low;
+        }
+
+        int middle = (low + high) >>> 1;
+        int position = findLast(tree, 2 * node + 1, middle + 1, high, from, to, atLeast);
+
+        return position >= 0 ? position : findLast(tree, 2 * node, low, middle, from, to, atLeast);
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.strategy.ParkingFloor;
+
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.ParkingSpotStatusListener;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Sends a vehicle to the least loaded floor within proximity floors of its gate's ramp, and otherwise to
+// the nearest floor that still has room. Free capacity is kept in a FloorCapacityIndex that follows spot
+// status changes, so a decision costs O(log floors). Use one instance per parking lot.
+public class LoadAwareParkingFloorStrategy implements ParkingFloorStrategy, ParkingSpotStatusListener {
+    private final int proximity;
+    private final Set<ParkingFloor> listenedParkingFloors = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile FloorCapacityIndex floorCapacityIndex;
+
+    public LoadAwareParkingFloorStrategy() {
+        this(1);
+    }
+
+    public LoadAwareParkingFloorStrategy(int proximity) {
+        this.proximity = proximity;
+    }
+
+    @Override
+    public Optional<ParkingFloor> assignFloor(VehicleType vehicleType, Gate gate, List<ParkingFloor> floors) {
+        if (floors.isEmpty()) {
+            return Optional.empty();
+        }
+
+        FloorCapacityIndex index = floorCapacityIndex;
+
+        if (index == null || index.size() != floors.size()) {
+            index = rebuildFloorCapacityIndex(floors);
+        }
+
+        int position = findFloorPosition(index, vehicleType, gate);
+
+        if (position >= 0 && index.getFloor(position) != floors.get(position)) {
+            // a floor was replaced since the index was built
+            index = rebuildFloorCapacityIndex(floors);
+            position = findFloorPosition(index, vehicleType, gate);
+        }
+
+        if (position < 0) {
+            // spots added to a floor do not pass through a status change, re-read before reporting a full lot
+            index.refreshAll();
+            position = findFloorPosition(index, vehicleType, gate);
+        }
+
+        return position < 0 ? Optional.empty() : Optional.of(index.getFloor(position));
+    }
+
+    @Override
+    public void onParkingSpotStatusChanged(ParkingSpot parkingSpot, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        FloorCapacityIndex index = floorCapacityIndex;
+
+        if (index != null && (previousParkingSpotStatus == ParkingSpotStatus.AVAILABLE || parkingSpotStatus == ParkingSpotStatus.AVAILABLE)) {
+            index.refresh(parkingSpot.getParkingFloor(), parkingSpot.getVehicleType());
+        }
+    }
+
+    @Override
+    public void onParkingSpotsStatusChanged(ParkingFloor parkingFloor, VehicleType vehicleType, ParkingSpotStatus previousParkingSpotStatus,
+                                            ParkingSpotStatus parkingSpotStatus, int count) {
+        FloorCapacityIndex index = floorCapacityIndex;
+
+        if (index != null && (previousParkingSpotStatus == ParkingSpotStatus.AVAILABLE || parkingSpotStatus == ParkingSpotStatus.AVAILABLE)) {
+            index.refresh(parkingFloor, vehicleType);
+        }
+    }
+
+    private int findFloorPosition(FloorCapacityIndex index, VehicleType vehicleType, Gate gate) {
+        int floorsCount = index.size();
+        int floorPosition = gate.number() % floorsCount;
+        int from = Math.max(0, floorPosition - proximity);
+        int to = Math.min(floorsCount - 1, floorPosition + proximity);
+
+        int position = index.findMostAvailable(vehicleType, from, to);
+
+        if (position >= 0) {
+            return position;
+        }
+
+        int below = index.findLastAvailable(vehicleType, 0, from - 1);
+        int above = index.findFirstAvailable(vehicleType, to + 1, floorsCount - 1);
+
+        if (below < 0 || above < 0) {
+            return Math.max(below, above);
+        }
+
+        return floorPosition - below <= above - floorPosition ? below : above;
+    }
+
+    private synchronized FloorCapacityIndex rebuildFloorCapacityIndex(List<ParkingFloor> floors) {
+        // listen before counting so that no change between the two is lost
+        for (ParkingFloor floor : floors) {
+            if (listenedParkingFloors.add(floor)) {
+                floor.addParkingSpotStatusListener(this);
+            }
+        }
+
+        FloorCapacityIndex index = new FloorCapacityIndex(floors);
+        floorCapacityIndex = index;
+        index.refreshAll();
+
+        return index;
+    }
+}
@@ -2,7 +2,6 @@ package org.example.strategy.ParkingFloor;
 
 import org.example.models.Gate;
 import org.example.models.ParkingFloor;
-import org.example.models.enums.ParkingSpotStatus;
 import org.example.models.enums.VehicleType;
 
 import java.util.List;
@@ -11,17 +10,28 @@ import java.util.Optional;
 public class NearestParkingFloorStrategy implements ParkingFloorStrategy {
     @Override
     public Optional<ParkingFloor> assignFloor(VehicleType vehicleType, Gate gate, List<ParkingFloor> floors) {
-        List<ParkingFloor> availableFloors = floors.stream().filter(
-                floor -> floor.getParkingSpotsCount(vehicleType,
-                                                    ParkingSpotStatus.AVAILABLE
-                ) != 0).toList();
-
-        if (availableFloors.isEmpty()) {
+        if (floors.isEmpty()) {
             return Optional.empty();
         }
 
         int floorIndex = gate.number() % floors.size();
 
-        return Optional.ofNullable(floors.get(floorIndex));
+        // walk outwards from the gate's floor until a floor with room is found
+        for (int distance = 0; distance < floors.size(); distance++) {
+            if (hasAvailableParkingSpot(floors, floorIndex - distance, vehicleType)) {
+                return Optional.of(floors.get(floorIndex - distance));
+            }
+
+            if (hasAvailableParkingSpot(floors, floorIndex + distance, vehicleType)) {
+                return Optional.of(floors.get(floorIndex + distance));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean hasAvailableParkingSpot(List<ParkingFloor> floors, int floorIndex, VehicleType vehicleType) {
+        return floorIndex >= 0 && floorIndex < floors.size()
+                && floors.get(floorIndex).getWalkInParkingSpotsCount(vehicleType) != 0;
     }
 }
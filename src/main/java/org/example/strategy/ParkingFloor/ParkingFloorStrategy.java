@@ -6,7 +6,35 @@ import org.example.models.enums.VehicleType;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface ParkingFloorStrategy {
     Optional<ParkingFloor> assignFloor(VehicleType vehicleType, Gate gate, List<ParkingFloor> floors);
+
+    // the floor to send a vehicle to when the assigned one cannot take it right now, nearest to the gate's floor first
+    default Optional<ParkingFloor> divertFloor(VehicleType vehicleType, Gate gate, List<ParkingFloor> floors, Predicate<ParkingFloor> isAccepting) {
+        if (floors.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int floorIndex = gate.number() % floors.size();
+
+        for (int distance = 0; distance < floors.size(); distance++) {
+            if (isAccepting(floors, floorIndex - distance, vehicleType, isAccepting)) {
+                return Optional.of(floors.get(floorIndex - distance));
+            }
+
+            if (isAccepting(floors, floorIndex + distance, vehicleType, isAccepting)) {
+                return Optional.of(floors.get(floorIndex + distance));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static boolean isAccepting(List<ParkingFloor> floors, int floorIndex, VehicleType vehicleType, Predicate<ParkingFloor> isAccepting) {
+        return floorIndex >= 0 && floorIndex < floors.size()
+                && floors.get(floorIndex).getWalkInParkingSpotsCount(vehicleType) != 0
+                && isAccepting.test(floors.get(floorIndex));
+    }
 }
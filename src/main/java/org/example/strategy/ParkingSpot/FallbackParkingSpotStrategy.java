@@ -0,0 +1,178 @@
+package org.example.strategy.ParkingSpot;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.ParkingSpotStatusListener;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Nearest spot of the best fitting type the policy allows. Each ranked type is looked up in the floor's free
+// index for that type, so a fallback costs one more index lookup and never a walk over the floor's spots.
+// A right sized spot is always taken first, and when one frees up next to a vehicle that was given a
+// larger spot the rebalance listeners are told. Share one instance between the floors of a parking lot.
+public class FallbackParkingSpotStrategy implements ParkingSpotStrategy, ParkingSpotStatusListener {
+    private final ParkingSpotFallbackPolicy parkingSpotFallbackPolicy;
+    private final Set<ParkingFloor> listenedParkingFloors = Collections.newSetFromMap(new IdentityHashMap<>());
+    // per floor and vehicle type, positions of the larger spots such vehicles were given
+    private final Map<ParkingFloor, Map<VehicleType, Set<Integer>>> upgradedParkingSpotPositions = new ConcurrentHashMap<>();
+    private final List<ParkingSpotRebalanceListener> parkingSpotRebalanceListeners = new CopyOnWriteArrayList<>();
+
+    public FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy parkingSpotFallbackPolicy) {
+        this.parkingSpotFallbackPolicy = parkingSpotFallbackPolicy;
+    }
+
+    public void addParkingSpotRebalanceListener(ParkingSpotRebalanceListener parkingSpotRebalanceListener) {
+        parkingSpotRebalanceListeners.add(parkingSpotRebalanceListener);
+    }
+
+    public void removeParkingSpotRebalanceListener(ParkingSpotRebalanceListener parkingSpotRebalanceListener) {
+        parkingSpotRebalanceListeners.remove(parkingSpotRebalanceListener);
+    }
+
+    public int getUpgradedParkingSpotsCount(ParkingFloor parkingFloor, VehicleType vehicleType) {
+        return getUpgradedParkingSpotPositions(parkingFloor, vehicleType).size();
+    }
+
+    @Override
+    public List<VehicleType> getParkingSpotTypes(VehicleType vehicleType) {
+        return parkingSpotFallbackPolicy.getParkingSpotTypes(vehicleType);
+    }
+
+    @Override
+    public Optional<ParkingSpot> findSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        for (VehicleType parkingSpotType : getParkingSpotTypes(vehicleType)) {
+            int position = parkingFloor.nextAvailableParkingSpotPosition(parkingSpotType, 0);
+
+            if (position >= 0) {
+                return Optional.of(parkingFloor.getParkingSpot(position));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<ParkingSpot> claimSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        for (VehicleType parkingSpotType : getParkingSpotTypes(vehicleType)) {
+            int position = parkingFloor.nextAvailableParkingSpotPosition(parkingSpotType, 0);
+
+            while (position >= 0) {
+                ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+
+                if (parkingSpot.occupy()) {
+                    onClaimed(vehicleType, parkingFloor, parkingSpot);
+                    return Optional.of(parkingSpot);
+                }
+
+                position = parkingFloor.nextAvailableParkingSpotPosition(parkingSpotType, position + 1);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public List<ParkingSpot> claimSpots(VehicleType vehicleType, ParkingFloor parkingFloor, int count) {
+        List<ParkingSpot> parkingSpots = new ArrayList<>(count);
+
+        for (VehicleType parkingSpotType : getParkingSpotTypes(vehicleType)) {
+            int position = parkingFloor.nextAvailableParkingSpotPosition(parkingSpotType, 0);
+
+            while (position >= 0 && parkingSpots.size() < count) {
+                ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+
+                if (parkingSpot.occupy()) {
+                    onClaimed(vehicleType, parkingFloor, parkingSpot);
+                    parkingSpots.add(parkingSpot);
+                }
+
+                position = parkingFloor.nextAvailableParkingSpotPosition(parkingSpotType, position + 1);
+            }
+        }
+
+        return parkingSpots;
+    }
+
+    // reservations are counted per spot type, so they only ever hold a spot of their own type
+    @Override
+    public Optional<ParkingSpot> reserveSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        int position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, 0);
+
+        while (position >= 0) {
+            ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+
+            if (parkingSpot.reserve()) {
+                return Optional.of(parkingSpot);
+            }
+
+            position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, position + 1);
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public void onParkingSpotStatusChanged(ParkingSpot parkingSpot, ParkingSpotStatus previousParkingSpotStatus, ParkingSpotStatus parkingSpotStatus) {
+        // an INACTIVE spot here is a drained one whose vehicle has left
+        if (parkingSpotStatus != ParkingSpotStatus.AVAILABLE && parkingSpotStatus != ParkingSpotStatus.INACTIVE) {
+            return;
+        }
+
+        ParkingFloor parkingFloor = parkingSpot.getParkingFloor();
+        Map<VehicleType, Set<Integer>> upgradedPositions = upgradedParkingSpotPositions.get(parkingFloor);
+
+        if (upgradedPositions == null) {
+            return;
+        }
+
+        // the vehicle in an upgraded spot has left
+        for (Set<Integer> positions : upgradedPositions.values()) {
+            positions.remove(parkingSpot.getPosition());
+        }
+
+        if (parkingSpotStatus != ParkingSpotStatus.AVAILABLE) {
+            return;
+        }
+
+        Set<Integer> positions = upgradedPositions.get(parkingSpot.getVehicleType());
+
+        if (positions == null || positions.isEmpty() || parkingSpotRebalanceListeners.isEmpty()) {
+            return;
+        }
+
+        Iterator<Integer> iterator = positions.iterator();
+
+        if (iterator.hasNext()) {
+            ParkingSpot upgradedParkingSpot = parkingFloor.getParkingSpot(iterator.next());
+
+            for (ParkingSpotRebalanceListener parkingSpotRebalanceListener : parkingSpotRebalanceListeners) {
+                parkingSpotRebalanceListener.onRightSizedParkingSpotAvailable(upgradedParkingSpot, parkingSpot);
+            }
+        }
+    }
+
+    private void onClaimed(VehicleType vehicleType, ParkingFloor parkingFloor, ParkingSpot parkingSpot) {
+        if (parkingSpot.getVehicleType() == vehicleType) {
+            return;
+        }
+
+        listen(parkingFloor);
+        getUpgradedParkingSpotPositions(parkingFloor, vehicleType).add(parkingSpot.getPosition());
+    }
+
+    private Set<Integer> getUpgradedParkingSpotPositions(ParkingFloor parkingFloor, VehicleType vehicleType) {
+        return upgradedParkingSpotPositions
+                .computeIfAbsent(parkingFloor, floor -> new ConcurrentHashMap<>())
+                .computeIfAbsent(vehicleType, type -> ConcurrentHashMap.newKeySet());
+    }
+
+    private synchronized void listen(ParkingFloor parkingFloor) {
+        if (listenedParkingFloors.add(parkingFloor)) {
+            parkingFloor.addParkingSpotStatusListener(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.strategy.ParkingSpot;
+
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.VehicleType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Nearest free spot to the gate the vehicle came in through. The floor keeps each gate's spots in distance
+// order, built when its ParkingFloorLayout is set, so a claim walks that order and checks the free bitset
+// instead of sorting. Without a gate or a layout that knows it, falls back to the lowest free position.
+public class GateProximityParkingSpotStrategy implements ParkingSpotStrategy {
+    private final NearestParkingSpotStrategy nearestParkingSpotStrategy = new NearestParkingSpotStrategy();
+
+    @Override
+    public Optional<ParkingSpot> findSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        return nearestParkingSpotStrategy.findSpot(vehicleType, parkingFloor);
+    }
+
+    @Override
+    public Optional<ParkingSpot> claimSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        return nearestParkingSpotStrategy.claimSpot(vehicleType, parkingFloor);
+    }
+
+    @Override
+    public Optional<ParkingSpot> claimSpot(VehicleType vehicleType, ParkingFloor parkingFloor, Gate gate) {
+        int[] parkingSpotOrder = gate == null ? null : parkingFloor.getParkingSpotOrder(gate.id(), vehicleType);
+
+        if (parkingSpotOrder == null) {
+            return claimSpot(vehicleType, parkingFloor);
+        }
+
+        for (int position : parkingSpotOrder) {
+            if (parkingFloor.isParkingSpotAvailable(vehicleType, position) && parkingFloor.getParkingSpot(position).occupy()) {
+                return Optional.of(parkingFloor.getParkingSpot(position));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public List<ParkingSpot> claimSpots(VehicleType vehicleType, ParkingFloor parkingFloor, Gate gate, int count) {
+        int[] parkingSpotOrder = gate == null ? null : parkingFloor.getParkingSpotOrder(gate.id(), vehicleType);
+
+        if (parkingSpotOrder == null) {
+            return claimSpots(vehicleType, parkingFloor, count);
+        }
+
+        List<ParkingSpot> parkingSpots = new ArrayList<>(count);
+
+        // one pass over the order, positions behind the cursor are never revisited
+        for (int i = 0; i < parkingSpotOrder.length && parkingSpots.size() < count; i++) {
+            int position = parkingSpotOrder[i];
+
+            if (parkingFloor.isParkingSpotAvailable(vehicleType, position) && parkingFloor.getParkingSpot(position).occupy()) {
+                parkingSpots.add(parkingFloor.getParkingSpot(position));
+            }
+        }
+
+        return parkingSpots;
+    }
+
+    @Override
+    public List<ParkingSpot> claimSpots(VehicleType vehicleType, ParkingFloor parkingFloor, int count) {
+        return nearestParkingSpotStrategy.claimSpots(vehicleType, parkingFloor, count);
+    }
+
+    @Override
+    public Optional<ParkingSpot> reserveSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        return nearestParkingSpotStrategy.reserveSpot(vehicleType, parkingFloor);
+    }
+}
@@ -1,27 +1,78 @@
 package org.example.strategy.ParkingSpot;
 
+import org.example.models.ParkingFloor;
 import org.example.models.ParkingSpot;
 import org.example.models.enums.VehicleType;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 public class NearestParkingSpotStrategy implements ParkingSpotStrategy {
     @Override
-    public Optional<ParkingSpot> findSpot(VehicleType vehicleType, List<ParkingSpot> parkingSpots) {
-        List<ParkingSpot> availableParkingSpots = new ArrayList<>(parkingSpots.stream().filter(
-                parkingSpot -> parkingSpot.isAvailable() && parkingSpot.getVehicleType() == vehicleType).toList());
+    public Optional<ParkingSpot> findSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        // spots are positioned in the order they were added to the floor, lowest position is nearest
+        int position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, 0);
 
-        ParkingSpot parkingSpot = null;
+        if (position < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(parkingFloor.getParkingSpot(position));
+    }
+
+    @Override
+    public Optional<ParkingSpot> claimSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        int position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, 0);
+
+        while (position >= 0) {
+            ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+
+            if (parkingSpot.occupy()) {
+                return Optional.of(parkingSpot);
+            }
+
+            // another gate won this spot, move on to the next candidate
+            position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, position + 1);
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<ParkingSpot> reserveSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        int position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, 0);
+
+        while (position >= 0) {
+            ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+
+            if (parkingSpot.reserve()) {
+                return Optional.of(parkingSpot);
+            }
+
+            position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, position + 1);
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public List<ParkingSpot> claimSpots(VehicleType vehicleType, ParkingFloor parkingFloor, int count) {
+        List<ParkingSpot> parkingSpots = new ArrayList<>(count);
+
+        // one forward sweep over the free bits, positions behind the cursor are never revisited
+        int position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, 0);
+
+        while (position >= 0 && parkingSpots.size() < count) {
+            ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
 
-        availableParkingSpots.sort(Comparator.comparing(ParkingSpot::getId));
+            if (parkingSpot.occupy()) {
+                parkingSpots.add(parkingSpot);
+            }
 
-        if (!availableParkingSpots.isEmpty()) {
-            parkingSpot = availableParkingSpots.getFirst();
+            position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, position + 1);
         }
 
-        return Optional.ofNullable(parkingSpot);
+        return parkingSpots;
     }
 }
@@ -0,0 +1,55 @@
+package org.example.strategy.ParkingSpot;
+
+import org.example.models.enums.VehicleType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// The spot types each vehicle type may be given, best fit first. The first entry is always its own type.
+public record ParkingSpotFallbackPolicy(Map<VehicleType, List<VehicleType>> parkingSpotTypes) {
+    public ParkingSpotFallbackPolicy {
+        Map<VehicleType, List<VehicleType>> rankedParkingSpotTypes = new EnumMap<>(VehicleType.class);
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            List<VehicleType> ranked = new ArrayList<>(List.of(vehicleType));
+
+            for (VehicleType parkingSpotType : parkingSpotTypes.getOrDefault(vehicleType, List.of())) {
+                if (!ranked.contains(parkingSpotType)) {
+                    ranked.add(parkingSpotType);
+                }
+            }
+
+            rankedParkingSpotTypes.put(vehicleType, List.copyOf(ranked));
+        }
+
+        parkingSpotTypes = Collections.unmodifiableMap(rankedParkingSpotTypes);
+    }
+
+    public static ParkingSpotFallbackPolicy exact() {
+        return new ParkingSpotFallbackPolicy(Map.of());
+    }
+
+    // a two wheeler may take an LMV spot and an LMV may take an HMV spot
+    public static ParkingSpotFallbackPolicy upgrades() {
+        return exact()
+                .withFallback(VehicleType.TWO_WHEELER, VehicleType.LMV)
+                .withFallback(VehicleType.LMV, VehicleType.HMV);
+    }
+
+    public ParkingSpotFallbackPolicy withFallback(VehicleType vehicleType, VehicleType parkingSpotType) {
+        Map<VehicleType, List<VehicleType>> nextParkingSpotTypes = new EnumMap<>(parkingSpotTypes);
+        List<VehicleType> ranked = new ArrayList<>(parkingSpotTypes.get(vehicleType));
+
+        ranked.add(parkingSpotType);
+        nextParkingSpotTypes.put(vehicleType, ranked);
+
+        return new ParkingSpotFallbackPolicy(nextParkingSpotTypes);
+    }
+
+    public List<VehicleType> getParkingSpotTypes(VehicleType vehicleType) {
+        return parkingSpotTypes.get(vehicleType);
+    }
+}
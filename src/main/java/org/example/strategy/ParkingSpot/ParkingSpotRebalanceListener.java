@@ -0,0 +1,8 @@
+package org.example.strategy.ParkingSpot;
+
+import org.example.models.ParkingSpot;
+
+public interface ParkingSpotRebalanceListener {
+    // a spot of the right size freed up on the floor where a vehicle sits in the larger upgradedParkingSpot
+    void onRightSizedParkingSpotAvailable(ParkingSpot upgradedParkingSpot, ParkingSpot rightSizedParkingSpot);
+}
@@ -1,11 +1,59 @@
 package org.example.strategy.ParkingSpot;
 
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
 import org.example.models.ParkingSpot;
 import org.example.models.enums.VehicleType;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public interface ParkingSpotStrategy {
-    Optional<ParkingSpot> findSpot(VehicleType vehicleType, List<ParkingSpot> parkingSpots);
+    // spot types a vehicle may be given, best fit first
+    default List<VehicleType> getParkingSpotTypes(VehicleType vehicleType) {
+        return List.of(vehicleType);
+    }
+
+    Optional<ParkingSpot> findSpot(VehicleType vehicleType, ParkingFloor parkingFloor);
+
+    Optional<ParkingSpot> claimSpot(VehicleType vehicleType, ParkingFloor parkingFloor);
+
+    // holds a spot for a reservation, a RESERVED spot is no longer available so walk-ins pass it by
+    default Optional<ParkingSpot> reserveSpot(VehicleType vehicleType, ParkingFloor parkingFloor) {
+        while (true) {
+            Optional<ParkingSpot> optionalParkingSpot = findSpot(vehicleType, parkingFloor);
+
+            if (optionalParkingSpot.isEmpty() || optionalParkingSpot.get().reserve()) {
+                return optionalParkingSpot;
+            }
+
+            Thread.yield();
+        }
+    }
+
+    // strategies that place vehicles relative to the gate they came in through override these
+    default Optional<ParkingSpot> claimSpot(VehicleType vehicleType, ParkingFloor parkingFloor, Gate gate) {
+        return claimSpot(vehicleType, parkingFloor);
+    }
+
+    default List<ParkingSpot> claimSpots(VehicleType vehicleType, ParkingFloor parkingFloor, Gate gate, int count) {
+        return claimSpots(vehicleType, parkingFloor, count);
+    }
+
+    default List<ParkingSpot> claimSpots(VehicleType vehicleType, ParkingFloor parkingFloor, int count) {
+        List<ParkingSpot> parkingSpots = new ArrayList<>(count);
+
+        while (parkingSpots.size() < count) {
+            Optional<ParkingSpot> optionalParkingSpot = claimSpot(vehicleType, parkingFloor);
+
+            if (optionalParkingSpot.isEmpty()) {
+                break;
+            }
+
+            parkingSpots.add(optionalParkingSpot.get());
+        }
+
+        return parkingSpots;
+    }
 }
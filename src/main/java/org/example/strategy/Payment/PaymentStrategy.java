@@ -3,6 +3,25 @@ package org.example.strategy.Payment;
 import org.example.models.Exceptions;
 import org.example.models.PaymentDetails;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 public interface PaymentStrategy {
-    PaymentDetails pay(double amount) throws Exceptions.PaymentFailedException;
+    PaymentDetails pay(long amountCents) throws Exceptions.PaymentFailedException;
+
+    // one outcome per amount, empty where that payment failed, so one declined payment does not fail the rest
+    default List<Optional<PaymentDetails>> payAll(List<Long> amountsCents) {
+        List<Optional<PaymentDetails>> paymentDetails = new ArrayList<>(amountsCents.size());
+
+        for (long amountCents : amountsCents) {
+            try {
+                paymentDetails.add(Optional.of(pay(amountCents)));
+            } catch (Exceptions.PaymentFailedException exception) {
+                paymentDetails.add(Optional.empty());
+            }
+        }
+
+        return paymentDetails;
+    }
 }
@@ -0,0 +1,36 @@
+package org.example.strategy.Payment;
+
+import org.example.models.Exceptions;
+import org.example.models.IdGenerator;
+import org.example.models.PaymentDetails;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SimulatedLatencyPaymentStrategy implements PaymentStrategy {
+    private static final IdGenerator simulatedPaymentIdGenerator = new IdGenerator(IdGenerator.SIMULATED_PAYMENT_GENERATOR_ID);
+
+    private final Duration latency;
+    private final double failureRate;
+
+    public SimulatedLatencyPaymentStrategy(Duration latency, double failureRate) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public PaymentDetails pay(long amountCents) throws Exceptions.PaymentFailedException {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new Exceptions.PaymentFailedException();
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new Exceptions.PaymentFailedException();
+        }
+
+        return new PaymentDetails(simulatedPaymentIdGenerator.nextId(), amountCents, this);
+    }
+}
@@ -1,23 +1,40 @@
 package org.example.strategy.Payment;
 
 import org.example.models.Exceptions;
+import org.example.models.IdGenerator;
 import org.example.models.PaymentDetails;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 public class UpiPaymentStrategy implements PaymentStrategy {
+    private static final IdGenerator upiPaymentIdGenerator = new IdGenerator(IdGenerator.UPI_PAYMENT_GENERATOR_ID);
+
     private final String upiId;
-    private int upiPaymentsCount = 0;
 
     public UpiPaymentStrategy(String upiId) {
         this.upiId = upiId;
     }
 
+    public String getUpiId() {
+        return upiId;
+    }
+
     @Override
-    public PaymentDetails pay(double amount) throws Exceptions.PaymentFailedException {
-        System.out.println("Payment request sent to upiId: " + upiId);
-        System.out.println("Payment of amount " + amount + " done successfully");
+    public PaymentDetails pay(long amountCents) throws Exceptions.PaymentFailedException {
+        long paymentId = upiPaymentIdGenerator.nextId();
+        return new PaymentDetails(paymentId, amountCents, this);
+    }
+
+    @Override
+    public List<Optional<PaymentDetails>> payAll(List<Long> amountsCents) {
+        List<Optional<PaymentDetails>> paymentDetails = new ArrayList<>(amountsCents.size());
+
+        for (long amountCents : amountsCents) {
+            paymentDetails.add(Optional.of(new PaymentDetails(upiPaymentIdGenerator.nextId(), amountCents, this)));
+        }
 
-        String paymentId = "UpiPayment-" + ++upiPaymentsCount;
-        
-        return new PaymentDetails(paymentId, amount, this);
+        return paymentDetails;
     }
 }
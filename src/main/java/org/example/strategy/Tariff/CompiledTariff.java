@@ -0,0 +1,147 @@
+package org.example.strategy.Tariff;
+
+import org.example.models.enums.VehicleType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Rules are flattened once into an hour-of-week rate table per vehicle type, with prefix sums over two
+// weeks so the charge for any run of hours is two lookups. An exit walks no rules, only the tables.
+// A stay that spans a change of the zone's offset is priced in runs split at the change, every billed
+// hour at the local hour it started in.
+public class CompiledTariff implements TariffStrategy {
+    private static final int HOURS_PER_DAY = 24;
+    private static final int HOURS_PER_WEEK = 7 * HOURS_PER_DAY;
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    // 1970-01-01 was a Thursday, the table starts on Monday
+    private static final int EPOCH_DAY_OF_WEEK = DayOfWeek.THURSDAY.ordinal();
+
+    private final ZoneRules zoneRules;
+    private final long gracePeriodMillis;
+    private final Map<VehicleType, RateTable> rateTables;
+
+    private CompiledTariff(TariffRules tariffRules) {
+        this.zoneRules = tariffRules.zoneId().getRules();
+        this.gracePeriodMillis = tariffRules.gracePeriod().toMillis();
+        this.rateTables = new EnumMap<>(VehicleType.class);
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            TariffRules.VehicleTariff vehicleTariff = tariffRules.vehicleTariffs().get(vehicleType);
+
+            if (vehicleTariff == null) {
+                throw new IllegalArgumentException("Tariff rules have no rates for " + vehicleType);
+            }
+
+            rateTables.put(vehicleType, new RateTable(vehicleTariff, tariffRules));
+        }
+    }
+
+    public static CompiledTariff compile(TariffRules tariffRules) {
+        return new CompiledTariff(tariffRules);
+    }
+
+    @Override
+    public long calculateCharges(VehicleType vehicleType, long inTime, long outTime) {
+        long duration = Math.max(outTime - inTime, 0);
+
+        if (gracePeriodMillis > 0 && duration <= gracePeriodMillis) {
+            return 0;
+        }
+
+        RateTable rateTable = rateTables.get(vehicleType);
+        long hours = (duration + MILLIS_PER_HOUR - 1) / MILLIS_PER_HOUR;
+
+        return rateTable.baseCharge + hourlyCharges(rateTable, inTime, hours);
+    }
+
+    private long hourlyCharges(RateTable rateTable, long inTime, long hours) {
+        if (rateTable.dailyCap <= 0) {
+            return charges(rateTable, inTime, 0, hours);
+        }
+
+        long charges = 0;
+
+        for (long dayStartHour = 0; dayStartHour < hours; dayStartHour += HOURS_PER_DAY) {
+            charges += Math.min(rateTable.dailyCap, charges(rateTable, inTime, dayStartHour, Math.min(hours, dayStartHour + HOURS_PER_DAY)));
+        }
+
+        return charges;
+    }
+
+    // billed hours [fromHour, toHour) of a stay that started at inTime, in runs that share one offset
+    private long charges(RateTable rateTable, long inTime, long fromHour, long toHour) {
+        long charges = 0;
+
+        for (long hour = fromHour; hour < toHour; ) {
+            long runStart = inTime + hour * MILLIS_PER_HOUR;
+            ZoneOffsetTransition zoneOffsetTransition = zoneRules.nextTransition(Instant.ofEpochMilli(runStart));
+            long runEndHour = toHour;
+
+            if (zoneOffsetTransition != null) {
+                long hoursBeforeTransition = Math.ceilDiv(zoneOffsetTransition.toEpochSecond() * 1000 - runStart, MILLIS_PER_HOUR);
+                runEndHour = Math.min(toHour, hour + Math.max(1, hoursBeforeTransition));
+            }
+
+            charges += rateTable.charges(hourOfWeek(runStart), runEndHour - hour);
+            hour = runEndHour;
+        }
+
+        return charges;
+    }
+
+    private int hourOfWeek(long epochMillis) {
+        long localSeconds = Math.floorDiv(epochMillis, 1000) + zoneRules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        long epochDay = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+        int dayOfWeek = Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, 7);
+        int hour = (int) (Math.floorMod(localSeconds, SECONDS_PER_DAY) / 3600);
+
+        return dayOfWeek * HOURS_PER_DAY + hour;
+    }
+
+    private static class RateTable {
+        private final long baseCharge;
+        private final long dailyCap;
+        // cumulativeRates[i] is the charge of hours [0, i) of a week that repeats twice
+        private final long[] cumulativeRates = new long[2 * HOURS_PER_WEEK + 1];
+        private final long weekCharge;
+
+        RateTable(TariffRules.VehicleTariff vehicleTariff, TariffRules tariffRules) {
+            this.baseCharge = vehicleTariff.baseCharge();
+            this.dailyCap = vehicleTariff.dailyCap();
+
+            for (int hourOfWeek = 0; hourOfWeek < 2 * HOURS_PER_WEEK; hourOfWeek++) {
+                cumulativeRates[hourOfWeek + 1] = cumulativeRates[hourOfWeek] + rate(vehicleTariff, tariffRules, hourOfWeek % HOURS_PER_WEEK);
+            }
+
+            this.weekCharge = cumulativeRates[HOURS_PER_WEEK];
+        }
+
+        long charges(int fromHourOfWeek, long hours) {
+            int remainingHours = (int) (hours % HOURS_PER_WEEK);
+            return (hours / HOURS_PER_WEEK) * weekCharge + cumulativeRates[fromHourOfWeek + remainingHours] - cumulativeRates[fromHourOfWeek];
+        }
+
+        private static long rate(TariffRules.VehicleTariff vehicleTariff, TariffRules tariffRules, int hourOfWeek) {
+            DayOfWeek dayOfWeek = DayOfWeek.of(hourOfWeek / HOURS_PER_DAY + 1);
+            int hour = hourOfWeek % HOURS_PER_DAY;
+
+            for (TariffRules.TimeBand timeBand : tariffRules.timeBands()) {
+                if (timeBand.covers(dayOfWeek, hour)) {
+                    return BigDecimal.valueOf(vehicleTariff.hourlyRate())
+                            .multiply(BigDecimal.valueOf(timeBand.multiplier()))
+                            .setScale(0, RoundingMode.HALF_UP)
+                            .longValueExact();
+                }
+            }
+
+            return vehicleTariff.hourlyRate();
+        }
+    }
+}
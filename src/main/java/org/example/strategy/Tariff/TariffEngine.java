@@ -0,0 +1,39 @@
+package org.example.strategy.Tariff;
+
+import org.example.models.enums.VehicleType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Holds the compiled tariff of every lot. Swapping a tariff compiles it off the exit path and publishes
+// it with a single write, exits in flight keep the table they already read.
+public class TariffEngine {
+    private final Map<String, TariffStrategy> parkingLotTariffs = new ConcurrentHashMap<>();
+    private volatile TariffStrategy defaultTariff;
+
+    public TariffEngine(TariffRules defaultTariffRules) {
+        this.defaultTariff = CompiledTariff.compile(defaultTariffRules);
+    }
+
+    public void setDefaultTariff(TariffRules tariffRules) {
+        defaultTariff = CompiledTariff.compile(tariffRules);
+    }
+
+    public void setParkingLotTariff(String parkingLotId, TariffRules tariffRules) {
+        parkingLotTariffs.put(parkingLotId, CompiledTariff.compile(tariffRules));
+    }
+
+    public void removeParkingLotTariff(String parkingLotId) {
+        parkingLotTariffs.remove(parkingLotId);
+    }
+
+    public long calculateCharges(String parkingLotId, VehicleType vehicleType, long inTime, long outTime) {
+        TariffStrategy tariffStrategy = parkingLotId == null ? null : parkingLotTariffs.get(parkingLotId);
+
+        if (tariffStrategy == null) {
+            tariffStrategy = defaultTariff;
+        }
+
+        return tariffStrategy.calculateCharges(vehicleType, inTime, outTime);
+    }
+}
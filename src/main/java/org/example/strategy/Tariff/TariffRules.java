@@ -0,0 +1,56 @@
+package org.example.strategy.Tariff;
+
+import org.example.models.enums.VehicleType;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.*;
+
+// Amounts are in minor currency units (paise). Time bands scale the hourly rate of the hours they
+// cover, the first matching band wins; a daily cap of 0 means uncapped.
+public record TariffRules(ZoneId zoneId, Duration gracePeriod, Map<VehicleType, VehicleTariff> vehicleTariffs,
+                          List<TimeBand> timeBands) {
+    public record VehicleTariff(long baseCharge, long hourlyRate, long dailyCap) {
+    }
+
+    public record TimeBand(Set<DayOfWeek> days, LocalTime from, LocalTime to, double multiplier) {
+        public boolean covers(DayOfWeek dayOfWeek, int hour) {
+            LocalTime time = LocalTime.of(hour, 0);
+            return days.contains(dayOfWeek) && !time.isBefore(from) && (time.isBefore(to) || to.equals(LocalTime.MIDNIGHT));
+        }
+    }
+
+    // the charges baked into VehicleType: base charge plus hourly rate per started hour
+    public static TariffRules flat() {
+        Map<VehicleType, VehicleTariff> vehicleTariffs = new EnumMap<>(VehicleType.class);
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            vehicleTariffs.put(vehicleType, new VehicleTariff(
+                    vehicleType.getBaseChargeCents(), vehicleType.getHourlyRateCents(), 0));
+        }
+
+        return new TariffRules(ZoneId.systemDefault(), Duration.ZERO, vehicleTariffs, List.of());
+    }
+
+    public TariffRules withGracePeriod(Duration gracePeriod) {
+        return new TariffRules(zoneId, gracePeriod, vehicleTariffs, timeBands);
+    }
+
+    public TariffRules withDailyCap(VehicleType vehicleType, long dailyCap) {
+        Map<VehicleType, VehicleTariff> capped = new EnumMap<>(vehicleTariffs);
+        VehicleTariff vehicleTariff = capped.get(vehicleType);
+
+        capped.put(vehicleType, new VehicleTariff(vehicleTariff.baseCharge(), vehicleTariff.hourlyRate(), dailyCap));
+
+        return new TariffRules(zoneId, gracePeriod, capped, timeBands);
+    }
+
+    public TariffRules withTimeBand(TimeBand timeBand) {
+        List<TimeBand> bands = new ArrayList<>(timeBands);
+        bands.add(timeBand);
+
+        return new TariffRules(zoneId, gracePeriod, vehicleTariffs, bands);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.strategy.Tariff;
+
+import org.example.models.enums.VehicleType;
+
+public interface TariffStrategy {
+    // charge in minor currency units (paise) for a stay between two epoch millis
+    long calculateCharges(VehicleType vehicleType, long inTime, long outTime);
+}
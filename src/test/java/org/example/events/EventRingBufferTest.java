@@ -0,0 +1,87 @@
+package org.example.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingBufferTest {
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer<>(12));
+    }
+
+    @Test
+    void pollsInEnqueueOrderAndRejectsWhenFull() {
+        EventRingBuffer<String> eventRingBuffer = new EventRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, eventRingBuffer.enqueue("event-" + i));
+        }
+
+        assertFalse(eventRingBuffer.offer("event-4"));
+        assertEquals(-1, eventRingBuffer.enqueue("event-4"));
+        assertEquals(4, eventRingBuffer.size());
+
+        assertEquals("event-0", eventRingBuffer.poll());
+        assertEquals("event-1", eventRingBuffer.poll());
+        assertTrue(eventRingBuffer.offer("event-4"));
+        assertTrue(eventRingBuffer.offer("event-5"));
+
+        for (int i = 2; i < 6; i++) {
+            assertEquals("event-" + i, eventRingBuffer.poll());
+        }
+
+        assertNull(eventRingBuffer.poll());
+        assertTrue(eventRingBuffer.isEmpty());
+        assertEquals(6, eventRingBuffer.getEnqueuedCount());
+    }
+
+    // many producers and one consumer over a small ring that wraps many times: nothing lost, nothing
+    // duplicated, and each producer's elements come out in the order it offered them
+    @Test
+    void manyProducersOneConsumerLoseNothingAndKeepProducerOrder() throws Exception {
+        int producersCount = 4;
+        int elementsPerProducer = 50_000;
+        EventRingBuffer<long[]> eventRingBuffer = new EventRingBuffer<>(64);
+        List<Thread> producers = new ArrayList<>();
+
+        for (int p = 0; p < producersCount; p++) {
+            int producer = p;
+
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (long i = 0; i < elementsPerProducer; i++) {
+                    long[] element = {producer, i};
+
+                    while (!eventRingBuffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        long[] nextSequences = new long[producersCount];
+        long polledCount = 0;
+
+        while (polledCount < (long) producersCount * elementsPerProducer) {
+            long[] element = eventRingBuffer.poll();
+
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+
+            assertEquals(nextSequences[(int) element[0]]++, element[1], "producer " + element[0]);
+            polledCount++;
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertNull(eventRingBuffer.poll());
+        assertEquals((long) producersCount * elementsPerProducer, eventRingBuffer.getEnqueuedCount());
+    }
+}
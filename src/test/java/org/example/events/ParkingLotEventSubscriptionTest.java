@@ -0,0 +1,86 @@
+package org.example.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingLotEventSubscriptionTest {
+    private final ParkingLotEventBus parkingLotEventBus = ParkingLotEventBus.getInstance();
+
+    @Test
+    void flushWaitsForSlowSubscriber() throws InterruptedException {
+        AtomicInteger deliveredEventsCount = new AtomicInteger();
+        AtomicInteger drainedCount = new AtomicInteger();
+        ParkingLotEventSubscription parkingLotEventSubscription = parkingLotEventBus.subscribe("flush-test", new ParkingLotEventSubscriber() {
+            @Override
+            public void onEvent(ParkingLotEvent parkingLotEvent) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+
+                deliveredEventsCount.incrementAndGet();
+            }
+
+            @Override
+            public void onEventsDelivered() {
+                drainedCount.incrementAndGet();
+            }
+        }, 64);
+
+        try {
+            for (int i = 0; i < 50; i++) {
+                parkingLotEventSubscription.publish(new ParkingLotEvent.ParkingRequestFailed("Gate-" + i, "flush-test"));
+            }
+
+            parkingLotEventSubscription.flush();
+
+            assertEquals(50, deliveredEventsCount.get());
+            assertTrue(drainedCount.get() >= 1);
+        } finally {
+            parkingLotEventBus.unsubscribe(parkingLotEventSubscription);
+        }
+    }
+
+    // an idle delivery thread waits for the next publish instead of waking on a timer
+    @Test
+    void idleDeliveryThreadParksUntilPublished() throws InterruptedException {
+        AtomicInteger deliveredEventsCount = new AtomicInteger();
+        ParkingLotEventSubscription parkingLotEventSubscription = parkingLotEventBus.subscribe(
+                "idle-test", parkingLotEvent -> deliveredEventsCount.incrementAndGet(), 64);
+
+        try {
+            Thread deliveryThread = findThread("parking-lot-events-idle-test");
+
+            for (int i = 0; i < 3; i++) {
+                awaitState(deliveryThread, Thread.State.WAITING);
+
+                parkingLotEventSubscription.publish(new ParkingLotEvent.ParkingRequestFailed("Gate-" + i, "idle-test"));
+                parkingLotEventSubscription.flush();
+
+                assertEquals(i + 1, deliveredEventsCount.get());
+            }
+        } finally {
+            parkingLotEventBus.unsubscribe(parkingLotEventSubscription);
+        }
+    }
+
+    private static Thread findThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + 5_000_000_000L;
+
+        while (thread.getState() != state) {
+            assertTrue(System.nanoTime() < deadlineNanos, thread.getName() + " stayed " + thread.getState());
+            Thread.sleep(1);
+        }
+    }
+}
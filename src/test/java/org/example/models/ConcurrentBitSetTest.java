@@ -0,0 +1,104 @@
+package org.example.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentBitSetTest {
+    @Test
+    void setClearAndNextSetBitMatchBitSet() {
+        ConcurrentBitSet concurrentBitSet = new ConcurrentBitSet();
+        BitSet bitSet = new BitSet();
+        Random random = new Random(7);
+
+        concurrentBitSet.ensureCapacity(10_000);
+
+        for (int i = 0; i < 50_000; i++) {
+            int bit = random.nextInt(10_000);
+
+            if (random.nextBoolean()) {
+                concurrentBitSet.set(bit);
+                bitSet.set(bit);
+            } else {
+                concurrentBitSet.clear(bit);
+                bitSet.clear(bit);
+            }
+        }
+
+        for (int bit = 0; bit < 10_000; bit++) {
+            assertEquals(bitSet.get(bit), concurrentBitSet.get(bit), "bit " + bit);
+            assertEquals(bitSet.nextSetBit(bit), concurrentBitSet.nextSetBit(bit), "next set bit from " + bit);
+        }
+    }
+
+    @Test
+    void bitsBeyondCapacityReadAsClear() {
+        ConcurrentBitSet concurrentBitSet = new ConcurrentBitSet();
+
+        assertFalse(concurrentBitSet.get(1 << 20));
+        assertEquals(-1, concurrentBitSet.nextSetBit(0));
+        assertEquals(-1, concurrentBitSet.nextSetBit(-1));
+        assertEquals(0, concurrentBitSet.clearBits(1 << 14, -1L));
+    }
+
+    @Test
+    void clearBitsReturnsOnlyTheBitsThatWereSet() {
+        ConcurrentBitSet concurrentBitSet = new ConcurrentBitSet();
+
+        concurrentBitSet.ensureCapacity(256);
+        concurrentBitSet.setBits(2, 0b1011L);
+
+        assertEquals(0b0011L, concurrentBitSet.clearBits(2, 0b0111L));
+        assertFalse(concurrentBitSet.get(128));
+        assertTrue(concurrentBitSet.get(131));
+        assertEquals(131, concurrentBitSet.nextSetBit(0));
+    }
+
+    // threads flip their own bits of shared words while others grow the set, no update may be lost
+    @Test
+    void concurrentUpdatesOfSharedWordsAreNotLostWhileGrowing() throws Exception {
+        int threadsCount = 4;
+        int bitsPerThread = 20_000;
+        ConcurrentBitSet concurrentBitSet = new ConcurrentBitSet();
+        CyclicBarrier barrier = new CyclicBarrier(threadsCount);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadsCount; t++) {
+            int offset = t;
+
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                }
+
+                for (int i = 0; i < bitsPerThread; i++) {
+                    int bit = i * threadsCount + offset;
+
+                    concurrentBitSet.ensureCapacity(bit + 1);
+                    concurrentBitSet.set(bit);
+
+                    // every other bit is cleared again, so clears race with sets of the neighbours
+                    if (i % 2 == 1) {
+                        concurrentBitSet.clear(bit);
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int bit = 0; bit < threadsCount * bitsPerThread; bit++) {
+            assertEquals((bit / threadsCount) % 2 == 0, concurrentBitSet.get(bit), "bit " + bit);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.models;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingFloorTest {
+    @Test
+    void walkInsLeaveSpotsForPendingReservations() {
+        ParkingFloor parkingFloor = generateParkingFloor("ParkingFloorTest-Pending", 3);
+        parkingFloor.addPendingReservations(VehicleType.LMV, 2);
+
+        assertTrue(parkingFloor.claimParkingSpot(VehicleType.LMV).isPresent());
+        assertTrue(parkingFloor.claimParkingSpot(VehicleType.LMV).isEmpty());
+        assertTrue(parkingFloor.claimParkingSpots(VehicleType.LMV, 5).isEmpty());
+        assertEquals(2, parkingFloor.getParkingSpotsCount(VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+
+        parkingFloor.addPendingReservations(VehicleType.LMV, -2);
+
+        assertEquals(2, parkingFloor.claimParkingSpots(VehicleType.LMV, 5).size());
+    }
+
+    // gates racing for the one spot left to walk-ins never take the ones held for reservations
+    @Test
+    void racingWalkInsTakeOnlyTheirRoom() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            ParkingFloor parkingFloor = generateParkingFloor("ParkingFloorTest-Race-" + round, 4);
+            parkingFloor.addPendingReservations(VehicleType.LMV, 3);
+
+            AtomicInteger claimedCount = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> gates = new ArrayList<>();
+
+            for (int i = 0; i < 4; i++) {
+                gates.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException exception) {
+                        return;
+                    }
+
+                    if (parkingFloor.claimParkingSpot(VehicleType.LMV).isPresent()) {
+                        claimedCount.incrementAndGet();
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            for (Thread gate : gates) {
+                gate.join();
+            }
+
+            assertEquals(1, claimedCount.get());
+            assertEquals(3, parkingFloor.getParkingSpotsCount(VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+        }
+    }
+
+    private static ParkingFloor generateParkingFloor(String id, int parkingSpotsCount) {
+        ParkingFloor parkingFloor = new ParkingFloor(id, new NearestParkingSpotStrategy());
+
+        for (int i = 0; i < parkingSpotsCount; i++) {
+            parkingFloor.addParkingSpot(new ParkingSpot(id + "-" + i, VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+        }
+
+        return parkingFloor;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.models;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingFloor.NearestParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingLotTest {
+    @Test
+    void parkingSpotStatusListenerFollowsAddedAndReplacedFloors() {
+        ParkingLot parkingLot = new ParkingLot("ParkingLotTest", new NearestParkingFloorStrategy());
+        ParkingFloor firstParkingFloor = generateParkingFloor("Floor-1");
+        parkingLot.addFloor(firstParkingFloor);
+
+        List<String> changedParkingSpotIds = new ArrayList<>();
+        parkingLot.addParkingSpotStatusListener((parkingSpot, previousParkingSpotStatus, parkingSpotStatus) ->
+                changedParkingSpotIds.add(parkingSpot.getId()));
+
+        ParkingFloor secondParkingFloor = generateParkingFloor("Floor-2");
+        parkingLot.addFloor(secondParkingFloor);
+        ParkingSpot secondFloorParkingSpot = secondParkingFloor.claimParkingSpot(VehicleType.LMV).orElseThrow();
+
+        assertEquals(List.of(secondFloorParkingSpot.getId()), changedParkingSpotIds);
+
+        ParkingFloor replacementParkingFloor = generateParkingFloor("Floor-1");
+        parkingLot.addFloor(replacementParkingFloor);
+        changedParkingSpotIds.clear();
+
+        firstParkingFloor.claimParkingSpot(VehicleType.LMV).orElseThrow();
+        ParkingSpot replacementParkingSpot = replacementParkingFloor.claimParkingSpot(VehicleType.LMV).orElseThrow();
+
+        assertEquals(List.of(replacementParkingSpot.getId()), changedParkingSpotIds);
+    }
+
+    private static ParkingFloor generateParkingFloor(String id) {
+        ParkingFloor parkingFloor = new ParkingFloor(id, new NearestParkingSpotStrategy());
+
+        for (int i = 0; i < 4; i++) {
+            parkingFloor.addParkingSpot(new ParkingSpot(id + "-" + i, VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+        }
+
+        return parkingFloor;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.occupancy;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.scripts.ParkingLotScripts;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyViewTest {
+    @Test
+    void refreshedSnapshotMatchesTheFloors() {
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(3, 40, 0.25, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        OccupancyView occupancyView = new OccupancyView(parkingLot);
+
+        assertSameCounts(parkingLot, occupancyView.refreshOccupancySnapshot());
+
+        ParkingFloor parkingFloor = parkingLot.getFloors().get(1);
+        long version = occupancyView.refreshOccupancySnapshot().getVersion();
+        List<ParkingSpot> parkingSpots = parkingFloor.claimParkingSpots(VehicleType.LMV, 5);
+
+        parkingFloor.deactivateParkingSpots(0, 10);
+        parkingSpots.get(0).release();
+
+        OccupancySnapshot occupancySnapshot = occupancyView.refreshOccupancySnapshot();
+
+        assertTrue(occupancySnapshot.getVersion() > version);
+        assertSameCounts(parkingLot, occupancySnapshot);
+    }
+
+    @Test
+    void thresholdListenerHearsEachCrossingOnce() throws InterruptedException {
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(1, 20, 0.0, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        ParkingFloor parkingFloor = parkingLot.getFloors().get(0);
+        int availableCount = parkingFloor.getParkingSpotsCount(VehicleType.LMV, ParkingSpotStatus.AVAILABLE);
+        OccupancyView occupancyView = new OccupancyView(parkingLot);
+        BlockingQueue<Boolean> crossings = new LinkedBlockingQueue<>();
+
+        occupancyView.addThresholdListener(parkingFloor.getId(), VehicleType.LMV, 2,
+                (occupancySnapshot, parkingFloorId, vehicleType, availableParkingSpots, isBelow) -> crossings.add(isBelow));
+
+        List<ParkingSpot> parkingSpots = new ArrayList<>(parkingFloor.claimParkingSpots(VehicleType.LMV, availableCount));
+        occupancyView.refreshOccupancySnapshot();
+
+        assertEquals(Boolean.TRUE, crossings.poll(5, TimeUnit.SECONDS));
+
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            parkingSpot.release();
+        }
+
+        occupancyView.refreshOccupancySnapshot();
+
+        assertEquals(Boolean.FALSE, crossings.poll(5, TimeUnit.SECONDS));
+        assertNull(crossings.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static void assertSameCounts(ParkingLot parkingLot, OccupancySnapshot occupancySnapshot) {
+        for (VehicleType vehicleType : VehicleType.values()) {
+            for (ParkingSpotStatus parkingSpotStatus : ParkingSpotStatus.values()) {
+                int lotCount = 0;
+
+                for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+                    int count = parkingFloor.getParkingSpotsCount(vehicleType, parkingSpotStatus);
+
+                    assertEquals(count, occupancySnapshot.getParkingSpotsCount(parkingFloor.getId(), vehicleType, parkingSpotStatus));
+                    lotCount += count;
+                }
+
+                assertEquals(lotCount, occupancySnapshot.getParkingSpotsCount(vehicleType, parkingSpotStatus));
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.persistence;
+
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingEventLogTest {
+    // small segments so a few thousand events span many of them
+    private static final long SEGMENT_BYTES = 16 << 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsReplayInOrderAfterReopen() throws IOException {
+        List<ParkingEvent> parkingEvents = createParkingEvents(3000);
+
+        try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+            for (ParkingEvent parkingEvent : parkingEvents) {
+                parkingEventLog.append(parkingEvent);
+            }
+
+            parkingEventLog.awaitDurable(parkingEventLog.getLastLsn());
+        }
+
+        assertTrue(countSegments() > 1);
+
+        try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+            assertEquals(parkingEvents.size(), parkingEventLog.getLastLsn());
+            assertEquals(parkingEvents, replay(parkingEventLog, 1));
+            assertEquals(parkingEvents.subList(1999, parkingEvents.size()), replay(parkingEventLog, 2000));
+
+            // numbering carries on where the previous run stopped
+            assertEquals(parkingEvents.size() + 1, parkingEventLog.append(parkingEvents.get(0)));
+        }
+    }
+
+    @Test
+    void truncateBeforeDropsOnlySegmentsThatEndBeforeTheLsn() throws IOException {
+        List<ParkingEvent> parkingEvents = createParkingEvents(3000);
+
+        try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+            for (ParkingEvent parkingEvent : parkingEvents) {
+                parkingEventLog.append(parkingEvent);
+            }
+
+            parkingEventLog.awaitDurable(parkingEventLog.getLastLsn());
+
+            long segmentsCount = countSegments();
+
+            parkingEventLog.truncateBefore(2500);
+
+            assertTrue(countSegments() < segmentsCount);
+            assertEquals(parkingEvents.subList(2499, parkingEvents.size()), replay(parkingEventLog, 2500));
+        }
+    }
+
+    @Test
+    void concurrentAppendersGetDistinctLsnsAndEveryEventIsReplayed() throws Exception {
+        int threadsCount = 4;
+        int eventsPerThread = 5000;
+        List<Thread> threads = new ArrayList<>();
+        Set<Long> lsns = ConcurrentHashMap.newKeySet();
+
+        try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+            for (int t = 0; t < threadsCount; t++) {
+                int thread = t;
+
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        long lsn = parkingEventLog.append(new ParkingEvent.BillPaid((long) thread * eventsPerThread + i, i, i, i, thread));
+
+                        assertTrue(lsns.add(lsn), "lsn handed out twice " + lsn);
+                    }
+                }));
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            parkingEventLog.awaitDurable(parkingEventLog.getLastLsn());
+
+            Set<Long> parkingBillIds = new HashSet<>();
+            long lastLsn = parkingEventLog.replay(1, parkingEvent -> parkingBillIds.add(((ParkingEvent.BillPaid) parkingEvent).parkingBillId()));
+
+            assertEquals((long) threadsCount * eventsPerThread, lastLsn);
+            assertEquals(threadsCount * eventsPerThread, parkingBillIds.size());
+        }
+    }
+
+    @Test
+    void oversizedEventIsRejectedAndTheLogStaysWritable() throws IOException {
+        List<ParkingEvent> parkingEvents = createParkingEvents(8);
+        ParkingEvent oversizedParkingEvent = new ParkingEvent.TicketIssued(1, "KA-05-".repeat(1000), VehicleType.LMV, "ParkingFloor-0", 0, 1_700_000_000_000L);
+
+        try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+            parkingEventLog.append(parkingEvents.get(0));
+
+            assertThrows(IllegalArgumentException.class, () -> parkingEventLog.append(oversizedParkingEvent));
+
+            for (ParkingEvent parkingEvent : parkingEvents.subList(1, parkingEvents.size())) {
+                parkingEventLog.append(parkingEvent);
+            }
+
+            parkingEventLog.awaitDurable(parkingEventLog.getLastLsn());
+
+            assertEquals(parkingEvents, replay(parkingEventLog, 1));
+        }
+    }
+
+    @Test
+    void frameBytesMatchesTheEncodedFrame() {
+        ByteBuffer buffer = ByteBuffer.allocate(ParkingEventCodec.MAX_FRAME_BYTES);
+        List<ParkingEvent> parkingEvents = new ArrayList<>(createParkingEvents(8));
+
+        parkingEvents.add(new ParkingEvent.TicketIssued(1, "\u0915\u093e-05-\ud83d\ude97", VehicleType.TWO_WHEELER, "ParkingFloor-\u00e9", 0, 0));
+
+        for (ParkingEvent parkingEvent : parkingEvents) {
+            buffer.clear();
+            ParkingEventCodec.encode(1, parkingEvent, buffer);
+
+            assertEquals(buffer.position(), ParkingEventCodec.frameBytes(parkingEvent), parkingEvent.toString());
+        }
+    }
+
+    private ParkingEventLog openParkingEventLog() throws IOException {
+        return new ParkingEventLog(directory, FsyncPolicy.EVERY_COMMIT, Duration.ZERO, SEGMENT_BYTES, 256);
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> segments = Files.list(directory)) {
+            return segments.count();
+        }
+    }
+
+    private static List<ParkingEvent> replay(ParkingEventLog parkingEventLog, long fromLsn) throws IOException {
+        List<ParkingEvent> parkingEvents = new ArrayList<>();
+
+        parkingEventLog.replay(fromLsn, parkingEvents::add);
+
+        return parkingEvents;
+    }
+
+    private static List<ParkingEvent> createParkingEvents(int count) {
+        List<ParkingEvent> parkingEvents = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            parkingEvents.add(switch (i % 4) {
+                case 0 -> new ParkingEvent.TicketIssued(i, "KA-05-" + i, VehicleType.values()[i % 3], "ParkingFloor-" + i % 7, i, 1_700_000_000_000L + i);
+                case 1 -> new ParkingEvent.SpotStatusChanged("ParkingFloor-" + i % 7, i, ParkingSpotStatus.OCCUPIED);
+                case 2 -> {
+                    BitSet parkingSpotPositions = new BitSet();
+                    parkingSpotPositions.set(i % 100, i % 100 + 70);
+                    yield new ParkingEvent.SpotsStatusChanged("ParkingFloor-" + i % 7, parkingSpotPositions, ParkingSpotStatus.INACTIVE);
+                }
+                default -> new ParkingEvent.BillPaid(i, i - 3, 1_700_000_360_000L + i, 2050L + i, i * 31L);
+            });
+        }
+
+        return parkingEvents;
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.persistence;
+
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.models.enums.VehicleType;
+import org.example.scripts.ParkingLotScripts;
+import org.example.services.ParkingExitPipeline;
+import org.example.services.ParkingTicketService;
+import org.example.strategy.ParkingFloor.NearestParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.example.strategy.Payment.SimulatedLatencyPaymentStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingLotRecoveryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRoundTripRestoresSpotsAndOpenTickets() throws IOException {
+        assertSnapshotRoundTrip(ParkingLotScripts.generateParkingLot(3, 500, 0.3, ParkingLotScripts.DEFAULT_VEHICLE_MIX));
+    }
+
+    @Test
+    void snapshotRoundTripRestoresPackedFloors() throws IOException {
+        assertSnapshotRoundTrip(ParkingLotScripts.generatePackedParkingLot(3, 500, 0.3, ParkingLotScripts.DEFAULT_VEHICLE_MIX));
+    }
+
+    // tickets and a bill before and after a checkpoint: the snapshot plus the rest of the log rebuild the same lot
+    @Test
+    void recoveryRollsTheSnapshotForwardWithTheLog() throws Exception {
+        ParkingTicketService parkingTicketService = ParkingTicketService.getInstance();
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(2, 300, 0.2, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        Path snapshotFile = directory.resolve("parking-lot.snap");
+        Gate entryGate = new Gate("ParkingLotRecoveryTest-Entry", 1, GateType.ENTRY);
+        Gate exitGate = new Gate("ParkingLotRecoveryTest-Exit", 2, GateType.EXIT);
+        List<String> regNumbersAfterCheckpoint = new ArrayList<>();
+        ParkingTicket billedParkingTicket;
+        long checkpointLsn;
+
+        try {
+            try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+                ParkingLotRecovery.recover(parkingLot, parkingTicketService, parkingEventLog, 1);
+
+                billedParkingTicket = parkingTicketService.createParkingTicket(
+                        parkingLot, new Vehicle("ParkingLotRecoveryTest-0", VehicleType.LMV), entryGate);
+
+                for (int i = 1; i < 20; i++) {
+                    parkingTicketService.createParkingTicket(parkingLot, new Vehicle("ParkingLotRecoveryTest-" + i, VehicleType.LMV), entryGate);
+                }
+
+                checkpointLsn = parkingEventLog.getLastLsn();
+                ParkingLotRecovery.checkpoint(parkingLot, parkingTicketService, parkingEventLog, snapshotFile);
+
+                for (int i = 20; i < 30; i++) {
+                    String regNumber = "ParkingLotRecoveryTest-" + i;
+
+                    parkingTicketService.createParkingTicket(parkingLot, new Vehicle(regNumber, VehicleType.TWO_WHEELER), entryGate);
+                    regNumbersAfterCheckpoint.add(regNumber);
+                }
+
+                parkingTicketService.createParkingBill(billedParkingTicket, exitGate, new SimulatedLatencyPaymentStrategy(Duration.ZERO, 0));
+                parkingEventLog.awaitDurable(parkingEventLog.getLastLsn());
+            }
+
+            try (ParkingEventLog parkingEventLog = openParkingEventLog()) {
+                ParkingLotSnapshot parkingLotSnapshot = ParkingLotSnapshot.load(
+                        snapshotFile, new NearestParkingFloorStrategy(), NearestParkingSpotStrategy::new);
+                List<String> regNumbersIssuedAfterCheckpoint = new ArrayList<>();
+                Set<Long> billedParkingTicketIds = new HashSet<>();
+
+                assertEquals(checkpointLsn, parkingLotSnapshot.lsn());
+                assertTrue(parkingLotSnapshot.openParkingTickets().stream()
+                        .anyMatch(parkingTicket -> parkingTicket.id() == billedParkingTicket.id()));
+
+                parkingEventLog.replay(parkingLotSnapshot.lsn() + 1, parkingEvent -> {
+                    if (parkingEvent instanceof ParkingEvent.TicketIssued ticketIssued) {
+                        regNumbersIssuedAfterCheckpoint.add(ticketIssued.regNumber());
+                    } else if (parkingEvent instanceof ParkingEvent.BillPaid billPaid) {
+                        billedParkingTicketIds.add(billPaid.parkingTicketId());
+                    }
+                });
+
+                assertEquals(regNumbersAfterCheckpoint, regNumbersIssuedAfterCheckpoint);
+                assertEquals(Set.of(billedParkingTicket.id()), billedParkingTicketIds);
+
+                ParkingLot recoveredParkingLot = ParkingLotRecovery.recover(snapshotFile, new NearestParkingFloorStrategy(),
+                        NearestParkingSpotStrategy::new, parkingTicketService, parkingEventLog);
+
+                assertSameParkingSpots(parkingLot, recoveredParkingLot);
+            }
+        } finally {
+            parkingTicketService.setParkingEventLog(null);
+        }
+    }
+
+    @Test
+    void checkpointDuringAnExitKeepsTheTicketBeingBilled() throws Exception {
+        ParkingTicketService parkingTicketService = ParkingTicketService.getInstance();
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(1, 50, 0.0, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        Path snapshotFile = directory.resolve("parking-lot.snap");
+        Gate entryGate = new Gate("ParkingLotRecoveryTest-Exiting-Entry", 1, GateType.ENTRY);
+        Gate exitGate = new Gate("ParkingLotRecoveryTest-Exiting-Exit", 2, GateType.EXIT);
+        CountDownLatch paymentStarted = new CountDownLatch(1);
+        CountDownLatch paymentAllowed = new CountDownLatch(1);
+
+        try (ParkingEventLog parkingEventLog = openParkingEventLog();
+             ParkingExitPipeline parkingExitPipeline = new ParkingExitPipeline(parkingTicketService, Duration.ZERO, 1, Duration.ofMinutes(1), 1)) {
+            ParkingLotRecovery.recover(parkingLot, parkingTicketService, parkingEventLog, 1);
+
+            ParkingTicket parkingTicket = parkingTicketService.createParkingTicket(
+                    parkingLot, new Vehicle("ParkingLotRecoveryTest-Exiting", VehicleType.LMV), entryGate);
+            CompletableFuture<ParkingBill> parkingBill = parkingExitPipeline.exit(parkingTicket, exitGate, amountCents -> {
+                paymentStarted.countDown();
+
+                try {
+                    paymentAllowed.await();
+                } catch (InterruptedException exception) {
+                    throw new Exceptions.PaymentFailedException();
+                }
+
+                return new PaymentDetails(1, amountCents, null);
+            });
+
+            paymentStarted.await();
+            ParkingLotRecovery.checkpoint(parkingLot, parkingTicketService, parkingEventLog, snapshotFile);
+            paymentAllowed.countDown();
+            parkingBill.join();
+
+            assertTrue(ParkingLotSnapshot.load(snapshotFile, new NearestParkingFloorStrategy(), NearestParkingSpotStrategy::new)
+                    .openParkingTickets().stream().anyMatch(snapshotParkingTicket -> snapshotParkingTicket.id() == parkingTicket.id()));
+        } finally {
+            parkingTicketService.setParkingEventLog(null);
+        }
+    }
+
+    private void assertSnapshotRoundTrip(ParkingLot parkingLot) throws IOException {
+        Path snapshotFile = directory.resolve("parking-lot.snap");
+        List<ParkingTicket> parkingTickets = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            ParkingFloor parkingFloor = parkingLot.getFloors().get(i % parkingLot.getFloors().size());
+            Optional<ParkingSpot> parkingSpot = parkingFloor.claimParkingSpot(VehicleType.LMV);
+
+            parkingSpot.ifPresent(spot -> parkingTickets.add(new ParkingTicket(parkingTickets.size() + 1,
+                    new Vehicle("ParkingLotRecoveryTest-Snapshot-" + parkingTickets.size(), VehicleType.LMV), spot,
+                    new Date(1_700_000_000_000L + parkingTickets.size()))));
+        }
+
+        // occupied spots in the range are left draining, a mark the snapshot has to keep
+        ParkingFloor drainedParkingFloor = parkingLot.getFloors().get(0);
+        assertTrue(drainedParkingFloor.deactivateParkingSpots(0, drainedParkingFloor.getParkingSpotsSize() / 2).drainingParkingSpotsCount() > 0);
+
+        ParkingLotSnapshot.write(parkingLot, parkingTickets, 42, snapshotFile);
+
+        ParkingLotSnapshot parkingLotSnapshot = ParkingLotSnapshot.load(
+                snapshotFile, new NearestParkingFloorStrategy(), NearestParkingSpotStrategy::new);
+        ParkingLot loadedParkingLot = parkingLotSnapshot.parkingLot();
+
+        assertEquals(42, parkingLotSnapshot.lsn());
+        assertEquals(parkingLot.getId(), loadedParkingLot.getId());
+        assertEquals(parkingLot.getGates(), loadedParkingLot.getGates());
+        assertSameParkingSpots(parkingLot, loadedParkingLot);
+        assertEquals(parkingTickets.size(), parkingLotSnapshot.openParkingTickets().size());
+
+        for (int i = 0; i < parkingTickets.size(); i++) {
+            ParkingTicket parkingTicket = parkingTickets.get(i);
+            ParkingTicket loadedParkingTicket = parkingLotSnapshot.openParkingTickets().get(i);
+
+            assertEquals(parkingTicket.id(), loadedParkingTicket.id());
+            assertEquals(parkingTicket.vehicle(), loadedParkingTicket.vehicle());
+            assertEquals(parkingTicket.inTime(), loadedParkingTicket.inTime());
+            assertEquals(parkingTicket.parkingSpot().getId(), loadedParkingTicket.parkingSpot().getId());
+            assertSame(loadedParkingLot.getFloor(parkingTicket.parkingSpot().getParkingFloor().getId()),
+                    loadedParkingTicket.parkingSpot().getParkingFloor());
+        }
+    }
+
+    private ParkingEventLog openParkingEventLog() throws IOException {
+        return new ParkingEventLog(directory.resolve("log"), FsyncPolicy.EVERY_COMMIT, Duration.ZERO, 1 << 20, 1024);
+    }
+
+    private static void assertSameParkingSpots(ParkingLot parkingLot, ParkingLot recoveredParkingLot) {
+        assertEquals(parkingLot.getFloors().size(), recoveredParkingLot.getFloors().size());
+
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            ParkingFloor recoveredParkingFloor = recoveredParkingLot.getFloor(parkingFloor.getId());
+
+            assertNotNull(recoveredParkingFloor, parkingFloor.getId());
+            assertEquals(parkingFloor.getParkingSpotsSize(), recoveredParkingFloor.getParkingSpotsSize());
+
+            for (int position = 0; position < parkingFloor.getParkingSpotsSize(); position++) {
+                ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+                ParkingSpot recoveredParkingSpot = recoveredParkingFloor.getParkingSpot(position);
+
+                assertEquals(parkingSpot.getId(), recoveredParkingSpot.getId());
+                assertEquals(parkingSpot.getVehicleType(), recoveredParkingSpot.getVehicleType());
+                assertEquals(parkingSpot.getParkingSpotStatus(), recoveredParkingSpot.getParkingSpotStatus(), parkingSpot.getId());
+                assertEquals(parkingFloor.isParkingSpotDraining(position), recoveredParkingFloor.isParkingSpotDraining(position), parkingSpot.getId());
+            }
+        }
+    }
+}
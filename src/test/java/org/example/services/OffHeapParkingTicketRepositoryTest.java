@@ -0,0 +1,217 @@
+package org.example.services;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.ParkingSpot;
+import org.example.models.ParkingTicket;
+import org.example.models.Vehicle;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingFloor.NearestParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapParkingTicketRepositoryTest {
+    private static final int PARKING_SPOTS_PER_FLOOR = 200;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void putGetAndRemoveByIdAndRegistration() {
+        ParkingLot parkingLot = createParkingLot("put", 1, PARKING_SPOTS_PER_FLOOR);
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(1000)) {
+            ParkingTicket parkingTicket = createParkingTicket(parkingLot.getFloors().get(0), 1, "KA-01-1");
+
+            assertTrue(parkingTicketRepo.put(parkingTicket));
+            assertFalse(parkingTicketRepo.put(createParkingTicket(parkingLot.getFloors().get(0), 2, "KA-01-1")));
+            assertEquals(parkingTicket, parkingTicketRepo.get(1));
+            assertEquals(parkingTicket, parkingTicketRepo.getByRegNumber("KA-01-1"));
+            assertEquals(1, parkingTicketRepo.size());
+
+            assertTrue(parkingTicketRepo.remove(1));
+            assertFalse(parkingTicketRepo.remove(1));
+            assertNull(parkingTicketRepo.get(1));
+            assertNull(parkingTicketRepo.getByRegNumber("KA-01-1"));
+            assertEquals(0, parkingTicketRepo.size());
+        }
+    }
+
+    @Test
+    void registrationTooLongForASlotSpillsToTheHeap() {
+        ParkingLot parkingLot = createParkingLot("spill", 1, PARKING_SPOTS_PER_FLOOR);
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(1000)) {
+            String regNumber = "KA-01-" + "9".repeat(64);
+            ParkingTicket parkingTicket = createParkingTicket(parkingLot.getFloors().get(0), 1, regNumber);
+
+            assertTrue(parkingTicketRepo.put(parkingTicket));
+            assertFalse(parkingTicketRepo.put(createParkingTicket(parkingLot.getFloors().get(0), 2, regNumber)));
+            assertEquals(1, parkingTicketRepo.getSpilledParkingTicketsSize());
+            assertEquals(parkingTicket, parkingTicketRepo.getByRegNumber(regNumber));
+            assertTrue(parkingTicketRepo.remove(1));
+            assertEquals(0, parkingTicketRepo.size());
+        }
+    }
+
+    // one ticket per vehicle even when gates race to issue it
+    @Test
+    void concurrentPutsOfTheSameVehicleStoreOneTicket() throws Exception {
+        int threadsCount = 4;
+        int vehiclesCount = 2000;
+        ParkingLot parkingLot = createParkingLot("race", 1, vehiclesCount * threadsCount);
+        ParkingFloor parkingFloor = parkingLot.getFloors().get(0);
+        CyclicBarrier barrier = new CyclicBarrier(threadsCount);
+        Set<String> storedRegNumbers = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(vehiclesCount)) {
+            for (int t = 0; t < threadsCount; t++) {
+                int thread = t;
+
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        barrier.await();
+                    } catch (Exception exception) {
+                        throw new IllegalStateException(exception);
+                    }
+
+                    for (int i = 0; i < vehiclesCount; i++) {
+                        ParkingTicket parkingTicket = new ParkingTicket(1 + (long) i * threadsCount + thread,
+                                new Vehicle("KA-02-" + i, VehicleType.LMV), parkingFloor.getParkingSpot(i * threadsCount + thread), new Date());
+
+                        if (parkingTicketRepo.put(parkingTicket)) {
+                            assertTrue(storedRegNumbers.add(parkingTicket.vehicle().regNumber()), "stored twice " + parkingTicket);
+                        }
+                    }
+                }));
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(vehiclesCount, storedRegNumbers.size());
+            assertEquals(vehiclesCount, parkingTicketRepo.size());
+            assertEquals(vehiclesCount, new HashSet<>(parkingTicketRepo.values()).size());
+        }
+    }
+
+    @Test
+    void mappedFileKeepsTicketsOfOccupiedSpotsAcrossARestart() {
+        Path file = directory.resolve("parking-tickets.bin");
+        ParkingLot parkingLot = createParkingLot("restart", 2, PARKING_SPOTS_PER_FLOOR);
+        List<ParkingTicket> parkingTickets = new ArrayList<>();
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(1000, file)) {
+            for (int i = 0; i < 20; i++) {
+                ParkingTicket parkingTicket = createParkingTicket(parkingLot.getFloors().get(i % 2), i + 1, "KA-03-" + i);
+
+                assertTrue(parkingTicketRepo.put(parkingTicket));
+                parkingTickets.add(parkingTicket);
+            }
+
+            assertEquals(0, parkingTicketRepo.getSpilledParkingTicketsSize());
+        }
+
+        // released while the store was down, its ticket must not come back
+        parkingTickets.get(0).parkingSpot().release();
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(1000, file)) {
+            for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+                parkingTicketRepo.addParkingFloor(parkingFloor);
+            }
+
+            assertEquals(19, parkingTicketRepo.size());
+            assertNull(parkingTicketRepo.get(1));
+            assertNull(parkingTicketRepo.getByRegNumber("KA-03-0"));
+
+            for (ParkingTicket parkingTicket : parkingTickets.subList(1, parkingTickets.size())) {
+                assertEquals(parkingTicket, parkingTicketRepo.get(parkingTicket.id()));
+                assertEquals(parkingTicket, parkingTicketRepo.getByRegNumber(parkingTicket.vehicle().regNumber()));
+            }
+
+            parkingTickets.get(0).parkingSpot().occupy();
+            assertTrue(parkingTicketRepo.put(createParkingTicket(parkingTickets.get(0).parkingSpot(), 100, "KA-03-0")));
+        }
+    }
+
+    @Test
+    void mappedFileDropsTicketsOfAFloorWhoseLayoutChanged() {
+        Path file = directory.resolve("parking-tickets.bin");
+        ParkingLot parkingLot = createParkingLot("layout", 2, PARKING_SPOTS_PER_FLOOR);
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(1000, file)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(parkingTicketRepo.put(createParkingTicket(parkingLot.getFloors().get(i % 2), i + 1, "KA-04-" + i)));
+            }
+        }
+
+        // the same lot and floor ids, the second floor lost a spot
+        ParkingLot rebuiltParkingLot = new ParkingLot(parkingLot.getId(), new NearestParkingFloorStrategy());
+
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            ParkingFloor rebuiltParkingFloor = new ParkingFloor(parkingFloor.getId(), new NearestParkingSpotStrategy());
+            int parkingSpotsSize = rebuiltParkingLot.getFloors().isEmpty() ? PARKING_SPOTS_PER_FLOOR : PARKING_SPOTS_PER_FLOOR - 1;
+
+            for (int position = 0; position < parkingSpotsSize; position++) {
+                ParkingSpot parkingSpot = parkingFloor.getParkingSpot(position);
+                rebuiltParkingFloor.addParkingSpot(new ParkingSpot(parkingSpot.getId(), parkingSpot.getVehicleType(), parkingSpot.getParkingSpotStatus()));
+            }
+
+            rebuiltParkingLot.addFloor(rebuiltParkingFloor);
+        }
+
+        try (OffHeapParkingTicketRepository parkingTicketRepo = new OffHeapParkingTicketRepository(1000, file)) {
+            for (ParkingFloor parkingFloor : rebuiltParkingLot.getFloors()) {
+                parkingTicketRepo.addParkingFloor(parkingFloor);
+            }
+
+            assertEquals(5, parkingTicketRepo.size());
+
+            for (ParkingTicket parkingTicket : parkingTicketRepo.values()) {
+                assertSame(rebuiltParkingLot.getFloors().get(0), parkingTicket.parkingSpot().getParkingFloor());
+            }
+
+            assertNull(parkingTicketRepo.getByRegNumber("KA-04-1"));
+        }
+    }
+
+    // lot and floor ids short enough for a floor key of the file header
+    private static ParkingLot createParkingLot(String name, int floorsCount, int parkingSpotsPerFloor) {
+        ParkingLot parkingLot = new ParkingLot("OffHeap-" + name, new NearestParkingFloorStrategy());
+
+        for (int f = 0; f < floorsCount; f++) {
+            ParkingFloor parkingFloor = new ParkingFloor(parkingLot.getId() + "-Floor-" + f, new NearestParkingSpotStrategy());
+
+            for (int i = 0; i < parkingSpotsPerFloor; i++) {
+                parkingFloor.addParkingSpot(new ParkingSpot(parkingFloor.getId() + "-Spot-" + i, VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+            }
+
+            parkingLot.addFloor(parkingFloor);
+        }
+
+        return parkingLot;
+    }
+
+    private static ParkingTicket createParkingTicket(ParkingFloor parkingFloor, long parkingTicketId, String regNumber) {
+        return createParkingTicket(parkingFloor.claimParkingSpot(VehicleType.LMV).orElseThrow(), parkingTicketId, regNumber);
+    }
+
+    private static ParkingTicket createParkingTicket(ParkingSpot parkingSpot, long parkingTicketId, String regNumber) {
+        return new ParkingTicket(parkingTicketId, new Vehicle(regNumber, VehicleType.LMV), parkingSpot, new Date(1_700_000_000_000L + parkingTicketId));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.services;
+
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.scripts.ParkingLotScripts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingExitPipelineTest {
+    private static final Gate ENTRY_GATE = new Gate("ParkingExitPipelineTest-Entry", 1, GateType.ENTRY);
+    private static final Gate EXIT_GATE = new Gate("ParkingExitPipelineTest-Exit", 2, GateType.EXIT);
+
+    private final ParkingTicketService parkingTicketService = ParkingTicketService.forShard(5);
+
+    @Test
+    void failedPaymentAfterTheSpotIsFreedIsRecordedAsUnpaid() throws Exception {
+        ParkingTicket parkingTicket = parkVehicle("ParkingExitPipelineTest-Unpaid");
+
+        try (ParkingExitPipeline parkingExitPipeline = new ParkingExitPipeline(parkingTicketService, Duration.ZERO, 4, Duration.ofSeconds(5), 2)) {
+            CompletionException exception = assertThrows(CompletionException.class, () -> parkingExitPipeline.exit(parkingTicket, EXIT_GATE, amountCents -> {
+                throw new Exceptions.PaymentFailedException();
+            }).join());
+
+            assertInstanceOf(Exceptions.PaymentFailedException.class, exception.getCause());
+        }
+
+        assertEquals(ParkingSpotStatus.AVAILABLE, parkingTicket.parkingSpot().getParkingSpotStatus());
+        assertTrue(parkingTicketService.getActiveParkingTicket(parkingTicket.vehicle().regNumber()).isEmpty());
+        assertTrue(parkingTicketService.getUnpaidParkingTickets().contains(parkingTicket));
+    }
+
+    @Test
+    void failedPaymentWhileTheSpotIsHeldReopensTheTicket() throws Exception {
+        ParkingTicket parkingTicket = parkVehicle("ParkingExitPipelineTest-Held");
+
+        try (ParkingExitPipeline parkingExitPipeline = new ParkingExitPipeline(parkingTicketService, Duration.ofMinutes(1), 4, Duration.ofSeconds(5), 1)) {
+            assertThrows(CompletionException.class, () -> parkingExitPipeline.exit(parkingTicket, EXIT_GATE, amountCents -> {
+                throw new Exceptions.PaymentFailedException();
+            }).join());
+        }
+
+        assertEquals(ParkingSpotStatus.OCCUPIED, parkingTicket.parkingSpot().getParkingSpotStatus());
+        assertTrue(parkingTicketService.getActiveParkingTicket(parkingTicket.vehicle().regNumber()).isPresent());
+        assertFalse(parkingTicketService.getUnpaidParkingTickets().contains(parkingTicket));
+    }
+
+    @Test
+    void paymentThatSucceedsAfterTheDeadlineCompletesTheExit() throws Exception {
+        ParkingTicket parkingTicket = parkVehicle("ParkingExitPipelineTest-Late");
+
+        try (ParkingExitPipeline parkingExitPipeline = new ParkingExitPipeline(parkingTicketService, Duration.ZERO, 4, Duration.ofMillis(10), 1)) {
+            ParkingBill parkingBill = parkingExitPipeline.exit(parkingTicket, EXIT_GATE, amountCents -> {
+                // a provider that does not stop when interrupted
+                long deadline = System.nanoTime() + Duration.ofMillis(100).toNanos();
+
+                while (System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+
+                return new PaymentDetails(1, amountCents, null);
+            }).join();
+
+            assertSame(parkingTicket, parkingBill.parkingTicket());
+        }
+
+        assertFalse(parkingTicketService.getUnpaidParkingTickets().contains(parkingTicket));
+        assertTrue(parkingTicketService.getArchivedParkingBill(parkingTicket.id()).isPresent());
+    }
+
+    @Test
+    void paymentThatNeverSucceedsFailsWithTimeout() throws Exception {
+        ParkingTicket parkingTicket = parkVehicle("ParkingExitPipelineTest-Timeout");
+
+        try (ParkingExitPipeline parkingExitPipeline = new ParkingExitPipeline(parkingTicketService, Duration.ZERO, 4, Duration.ofMillis(10), 1)) {
+            CompletionException exception = assertThrows(CompletionException.class, () -> parkingExitPipeline.exit(parkingTicket, EXIT_GATE, amountCents -> {
+                try {
+                    Thread.sleep(Duration.ofSeconds(5));
+                } catch (InterruptedException interruptedException) {
+                    throw new Exceptions.PaymentFailedException();
+                }
+
+                return new PaymentDetails(1, amountCents, null);
+            }).join());
+
+            assertInstanceOf(TimeoutException.class, exception.getCause());
+        }
+
+        assertTrue(parkingTicketService.getUnpaidParkingTickets().contains(parkingTicket));
+    }
+
+    private ParkingTicket parkVehicle(String regNumber) throws Exceptions.ParkingLotException {
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(1, 20, 0.0, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        parkingLot.addGates(List.of(ENTRY_GATE, EXIT_GATE));
+
+        return parkingTicketService.createParkingTicket(parkingLot, new Vehicle(regNumber, VehicleType.LMV), ENTRY_GATE);
+    }
+}
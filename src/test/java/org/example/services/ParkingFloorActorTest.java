@@ -0,0 +1,72 @@
+package org.example.services;
+
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingFloor.NearestParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingFloorActorTest {
+    private static final Gate ENTRY_GATE = new Gate("ParkingFloorActorTest-Entry", 1, GateType.ENTRY);
+
+    // between commands the owner thread waits for the next offer instead of waking on a timer
+    @Test
+    void idleOwnerParksUntilCommandArrives() throws Exception {
+        ParkingFloor parkingFloor = generateParkingFloor("Floor-1", 8);
+        new ParkingLot("ParkingFloorActorTest", new NearestParkingFloorStrategy()).addFloor(parkingFloor);
+
+        try (ParkingFloorActor parkingFloorActor = new ParkingFloorActor(parkingFloor, 16)) {
+            Thread owner = findThread("parking-floor-ParkingFloorActorTest-Floor-1");
+            Set<ParkingSpot> parkingSpots = new HashSet<>();
+
+            for (int i = 0; i < 8; i++) {
+                awaitState(owner, Thread.State.WAITING);
+                parkingSpots.add(parkingFloorActor.claimParkingSpot(VehicleType.LMV, ENTRY_GATE).get().orElseThrow());
+            }
+
+            assertEquals(8, parkingSpots.size());
+            assertTrue(parkingFloorActor.claimParkingSpot(VehicleType.LMV, ENTRY_GATE).get().isEmpty());
+
+            ParkingSpot parkingSpot = parkingSpots.iterator().next();
+            parkingFloorActor.releaseParkingSpot(parkingSpot).get();
+
+            assertEquals(ParkingSpotStatus.AVAILABLE, parkingSpot.getParkingSpotStatus());
+        }
+    }
+
+    private static ParkingFloor generateParkingFloor(String id, int parkingSpotsCount) {
+        ParkingFloor parkingFloor = new ParkingFloor(id, new NearestParkingSpotStrategy());
+
+        for (int i = 0; i < parkingSpotsCount; i++) {
+            parkingFloor.addParkingSpot(new ParkingSpot(id + "-" + i, VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+        }
+
+        return parkingFloor;
+    }
+
+    private static Thread findThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + 5_000_000_000L;
+
+        while (thread.getState() != state) {
+            assertTrue(System.nanoTime() < deadlineNanos, thread.getName() + " stayed " + thread.getState());
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.services;
+
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingRejection;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.scripts.ParkingLotScripts;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingLotServiceTest {
+    private final ParkingLotService parkingLotService = ParkingLotService.getInstance();
+
+    @Test
+    void exitGateOfAnotherLotIsRejected() {
+        ParkingLot parkingLot = addParkingLot("ParkingLotServiceTest-Own");
+        addParkingLot("ParkingLotServiceTest-Other");
+
+        ParkingTicket parkingTicket = parkingLotService.parkVehicle(
+                new Vehicle("ParkingLotServiceTest-Wrong", VehicleType.LMV), "ParkingLotServiceTest-Own-Entry").orElseThrow();
+
+        ParkingResult<ParkingBill> parkingBill = parkingLotService.tryUnParkVehicle(parkingTicket, "ParkingLotServiceTest-Other-Exit");
+
+        assertInstanceOf(ParkingResult.Rejected.class, parkingBill);
+        assertEquals(ParkingRejection.PARKING_TICKET_NOT_FOUND, ((ParkingResult.Rejected<ParkingBill>) parkingBill).parkingRejection());
+        assertEquals(ParkingSpotStatus.OCCUPIED, parkingTicket.parkingSpot().getParkingSpotStatus());
+        assertTrue(parkingLotService.getActiveParkingTicket("ParkingLotServiceTest-Wrong").isPresent());
+        assertTrue(parkingLotService.getParkingLot(parkingLot.getId()).isPresent());
+
+        assertTrue(parkingLotService.unParkVehicle(parkingTicket, "ParkingLotServiceTest-Own-Exit").isPresent());
+    }
+
+    private ParkingLot addParkingLot(String gatePrefix) {
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(2, 50, 0.0, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        parkingLot.addGates(List.of(new Gate(gatePrefix + "-Entry", 1, GateType.ENTRY), new Gate(gatePrefix + "-Exit", 2, GateType.EXIT)));
+        parkingLotService.addParkingLot(parkingLot);
+        return parkingLot;
+    }
+}
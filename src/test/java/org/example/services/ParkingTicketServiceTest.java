@@ -0,0 +1,146 @@
+package org.example.services;
+
+import org.example.models.*;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.scripts.ParkingLotScripts;
+import org.example.strategy.Payment.UpiPaymentStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingTicketServiceTest {
+    private static final Gate ENTRY_GATE = new Gate("ParkingTicketServiceTest-Entry", 1, GateType.ENTRY);
+    private static final Gate EXIT_GATE = new Gate("ParkingTicketServiceTest-Exit", 2, GateType.EXIT);
+
+    private final ParkingTicketService parkingTicketService = ParkingTicketService.forShard(6);
+
+    @Test
+    void parkAndUnParkTakeAndFreeTheSpot() throws Exception {
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(2, 30, 0.0, ParkingLotScripts.DEFAULT_VEHICLE_MIX);
+        Vehicle vehicle = new Vehicle("ParkingTicketServiceTest-Park", VehicleType.LMV);
+
+        ParkingTicket parkingTicket = parkingTicketService.createParkingTicket(parkingLot, vehicle, ENTRY_GATE);
+        ParkingFloor parkingFloor = parkingTicket.parkingSpot().getParkingFloor();
+        int availableCount = parkingFloor.getParkingSpotsCount(VehicleType.LMV, ParkingSpotStatus.AVAILABLE);
+
+        assertEquals(VehicleType.LMV, parkingTicket.parkingSpot().getVehicleType());
+        assertEquals(ParkingSpotStatus.OCCUPIED, parkingTicket.parkingSpot().getParkingSpotStatus());
+        assertEquals(parkingTicket, parkingTicketService.getActiveParkingTicket(vehicle.regNumber()).orElseThrow());
+        assertThrows(Exceptions.VehicleAlreadyParkedException.class, () -> parkingTicketService.createParkingTicket(parkingLot, vehicle, ENTRY_GATE));
+        assertThrows(Exceptions.WrongGateException.class, () -> parkingTicketService.createParkingBill(parkingTicket, ENTRY_GATE, new UpiPaymentStrategy("upi@ybl")));
+
+        ParkingBill parkingBill = parkingTicketService.createParkingBill(parkingTicket, EXIT_GATE, new UpiPaymentStrategy("upi@ybl"));
+
+        assertSame(parkingTicket, parkingBill.parkingTicket());
+        assertEquals(parkingTicketService.calculateCharges(parkingTicket, parkingBill.outTime()), parkingBill.paymentDetails().amountCents());
+        assertEquals(ParkingSpotStatus.AVAILABLE, parkingTicket.parkingSpot().getParkingSpotStatus());
+        assertEquals(availableCount + 1, parkingFloor.getParkingSpotsCount(VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+        assertTrue(parkingTicketService.getActiveParkingTicket(vehicle.regNumber()).isEmpty());
+        assertThrows(Exceptions.ParkingTicketNotFoundException.class,
+                () -> parkingTicketService.createParkingBill(parkingTicket, EXIT_GATE, new UpiPaymentStrategy("upi@ybl")));
+    }
+
+    @Test
+    void fullLotRejectsTheNextVehicle() throws Exception {
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot(1, 6, 0.0, Map.of(VehicleType.TWO_WHEELER, 1.0));
+        int capacity = parkingLot.getFloors().get(0).getParkingSpotsCount(VehicleType.TWO_WHEELER, ParkingSpotStatus.AVAILABLE);
+
+        for (int i = 0; i < capacity; i++) {
+            parkingTicketService.createParkingTicket(parkingLot, new Vehicle("ParkingTicketServiceTest-Full-" + i, VehicleType.TWO_WHEELER), ENTRY_GATE);
+        }
+
+        assertThrows(Exceptions.ParkingLotFullException.class, () -> parkingTicketService.createParkingTicket(
+                parkingLot, new Vehicle("ParkingTicketServiceTest-Full-" + capacity, VehicleType.TWO_WHEELER), ENTRY_GATE));
+    }
+
+    // gates park and unpark against each other, a spot is never handed to two vehicles and the counts stay exact
+    @Test
+    void concurrentGatesNeverShareASpot() throws Exception {
+        int gatesCount = 8;
+        int cyclesPerGate = 500;
+        ParkingLot parkingLot = ParkingLotScripts.generateParkingLot();
+        Map<ParkingSpot, Vehicle> parkedVehicles = new ConcurrentHashMap<>();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(gatesCount)) {
+            for (int i = 0; i < gatesCount; i++) {
+                Gate entryGate = new Gate("ParkingTicketServiceTest-Entry-" + i, i, GateType.ENTRY);
+                Gate exitGate = new Gate("ParkingTicketServiceTest-Exit-" + i, i, GateType.EXIT);
+
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+
+                    int parkedCount = 0;
+
+                    for (int cycle = 0; cycle < cyclesPerGate; cycle++) {
+                        Vehicle vehicle = new Vehicle(entryGate.id() + "-Vehicle-" + cycle, VehicleType.values()[cycle % VehicleType.values().length]);
+                        ParkingTicket parkingTicket;
+
+                        try {
+                            parkingTicket = parkingTicketService.createParkingTicket(parkingLot, vehicle, entryGate);
+                        } catch (Exceptions.ParkingLotFullException exception) {
+                            continue;
+                        }
+
+                        Vehicle previousVehicle = parkedVehicles.putIfAbsent(parkingTicket.parkingSpot(), vehicle);
+
+                        assertNull(previousVehicle, parkingTicket.parkingSpot() + " assigned to " + previousVehicle + " and " + vehicle);
+                        parkedCount++;
+
+                        // keep roughly half of the vehicles parked so gates keep racing for the remaining spots
+                        if (cycle % 2 == 0) {
+                            parkedVehicles.remove(parkingTicket.parkingSpot());
+                            parkingTicketService.createParkingBill(parkingTicket, exitGate, new UpiPaymentStrategy("upi@ybl"));
+                        }
+                    }
+
+                    return parkedCount;
+                }));
+            }
+
+            startLatch.countDown();
+
+            int parkedCount = 0;
+
+            for (Future<Integer> future : futures) {
+                parkedCount += future.get();
+            }
+
+            assertTrue(parkedCount > 0);
+        }
+
+        assertParkingSpotsCounts(parkingLot);
+    }
+
+    private static void assertParkingSpotsCounts(ParkingLot parkingLot) {
+        for (ParkingFloor parkingFloor : parkingLot.getFloors()) {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                for (ParkingSpotStatus parkingSpotStatus : ParkingSpotStatus.values()) {
+                    long actualCount = parkingFloor.getParkingSpots().stream().filter(
+                            parkingSpot -> parkingSpot.getVehicleType() == vehicleType && parkingSpot.getParkingSpotStatus() == parkingSpotStatus).count();
+
+                    assertEquals(actualCount, parkingFloor.getParkingSpotsCount(vehicleType, parkingSpotStatus),
+                            parkingFloor.getId() + " " + vehicleType + " " + parkingSpotStatus);
+                }
+
+                int availableCount = 0;
+
+                for (int position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, 0); position >= 0;
+                     position = parkingFloor.nextAvailableParkingSpotPosition(vehicleType, position + 1)) {
+                    availableCount++;
+                }
+
+                assertEquals(parkingFloor.getParkingSpotsCount(vehicleType, ParkingSpotStatus.AVAILABLE), availableCount,
+                        parkingFloor.getId() + " free spot index for " + vehicleType);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.services;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingLot;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingFloor.NearestParkingFloorStrategy;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationCapacityIndexTest {
+    private static final long BUCKET_MILLIS = 15 * 60_000;
+    private static final int BUCKETS_COUNT = 8;
+
+    private final ParkingFloor parkingFloor = new ParkingFloor("ReservationCapacityIndexTest-Floor", new NearestParkingSpotStrategy());
+    private final ParkingLot parkingLot = new ParkingLot("ReservationCapacityIndexTest-Lot", new NearestParkingFloorStrategy());
+
+    ReservationCapacityIndexTest() {
+        // three LMV spots count as capacity, the inactive one does not
+        parkingFloor.addParkingSpots(List.of(
+                new ParkingSpot("ReservationCapacityIndexTest-1", VehicleType.LMV, ParkingSpotStatus.AVAILABLE),
+                new ParkingSpot("ReservationCapacityIndexTest-2", VehicleType.LMV, ParkingSpotStatus.OCCUPIED),
+                new ParkingSpot("ReservationCapacityIndexTest-3", VehicleType.LMV, ParkingSpotStatus.AVAILABLE),
+                new ParkingSpot("ReservationCapacityIndexTest-4", VehicleType.LMV, ParkingSpotStatus.INACTIVE),
+                new ParkingSpot("ReservationCapacityIndexTest-5", VehicleType.HMV, ParkingSpotStatus.AVAILABLE)));
+        parkingLot.addFloor(parkingFloor);
+    }
+
+    @Test
+    void reservesUpToTheActiveSpotsOfTheType() {
+        ReservationCapacityIndex reservationCapacityIndex = new ReservationCapacityIndex(parkingLot, BUCKET_MILLIS, BUCKETS_COUNT);
+
+        assertEquals(3, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, 0, BUCKET_MILLIS));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, 0, 2 * BUCKET_MILLIS));
+        }
+
+        assertFalse(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, BUCKET_MILLIS, 3 * BUCKET_MILLIS));
+        assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, 2 * BUCKET_MILLIS, 3 * BUCKET_MILLIS));
+        assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.HMV, 0, 2 * BUCKET_MILLIS));
+        assertFalse(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.HMV, 0, BUCKET_MILLIS));
+
+        reservationCapacityIndex.release(parkingFloor, VehicleType.LMV, 0, 2 * BUCKET_MILLIS);
+
+        assertEquals(1, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, BUCKET_MILLIS, 3 * BUCKET_MILLIS));
+    }
+
+    @Test
+    void windowsCountTheBusiestBucketTheyCover() {
+        ReservationCapacityIndex reservationCapacityIndex = new ReservationCapacityIndex(parkingLot, BUCKET_MILLIS, BUCKETS_COUNT);
+
+        assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, 0, BUCKET_MILLIS));
+        assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, 3 * BUCKET_MILLIS, 4 * BUCKET_MILLIS));
+        assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, 3 * BUCKET_MILLIS, 5 * BUCKET_MILLIS));
+
+        assertEquals(2, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, 0, 3 * BUCKET_MILLIS));
+        assertEquals(1, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, 0, 5 * BUCKET_MILLIS));
+        assertEquals(2, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, 4 * BUCKET_MILLIS, 5 * BUCKET_MILLIS));
+    }
+
+    // a slot reused by a bucket one horizon later starts from zero, and a release of the old bucket leaves it alone
+    @Test
+    void reusedSlotsForgetTheBucketTheyCountedBefore() {
+        ReservationCapacityIndex reservationCapacityIndex = new ReservationCapacityIndex(parkingLot, BUCKET_MILLIS, BUCKETS_COUNT);
+        long nextHorizon = BUCKETS_COUNT * BUCKET_MILLIS;
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, 0, BUCKET_MILLIS));
+        }
+
+        assertTrue(reservationCapacityIndex.isWithinHorizon(BUCKET_MILLIS, nextHorizon + BUCKET_MILLIS));
+        assertFalse(reservationCapacityIndex.isWithinHorizon(0, nextHorizon + BUCKET_MILLIS));
+        assertEquals(3, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, nextHorizon, nextHorizon + BUCKET_MILLIS));
+        assertTrue(reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, nextHorizon, nextHorizon + BUCKET_MILLIS));
+
+        reservationCapacityIndex.release(parkingFloor, VehicleType.LMV, 0, BUCKET_MILLIS);
+
+        assertEquals(2, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, nextHorizon, nextHorizon + BUCKET_MILLIS));
+    }
+
+    @Test
+    void concurrentReservationsNeverOverbook() throws Exception {
+        int threadsCount = 8;
+        ReservationCapacityIndex reservationCapacityIndex = new ReservationCapacityIndex(parkingLot, BUCKET_MILLIS, BUCKETS_COUNT);
+        CyclicBarrier barrier = new CyclicBarrier(threadsCount);
+        AtomicInteger reservedCount = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadsCount; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                }
+
+                for (int i = 0; i < 100; i++) {
+                    if (reservationCapacityIndex.tryReserve(parkingFloor, VehicleType.LMV, BUCKET_MILLIS, 3 * BUCKET_MILLIS)) {
+                        reservedCount.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(3, reservedCount.get());
+        assertEquals(0, reservationCapacityIndex.getReservableParkingSpotsCount(parkingFloor, VehicleType.LMV, 2 * BUCKET_MILLIS, 3 * BUCKET_MILLIS));
+    }
+}
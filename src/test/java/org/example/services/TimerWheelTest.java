@@ -0,0 +1,74 @@
+package org.example.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+    private static final long TICK_MILLIS = 5;
+
+    @Test
+    void runsTimeoutsNoEarlierThanTheirDeadline() throws Exception {
+        try (TimerWheel timerWheel = new TimerWheel("timer-wheel-test", TICK_MILLIS, 8)) {
+            int timeoutsCount = 50;
+            CountDownLatch latch = new CountDownLatch(timeoutsCount);
+            List<Long> lateness = Collections.synchronizedList(new ArrayList<>());
+            long now = System.currentTimeMillis();
+
+            // deadlines up to several turns of the 8 slot wheel ahead
+            for (int i = 0; i < timeoutsCount; i++) {
+                long deadline = now + i * 3L;
+
+                timerWheel.schedule(() -> {
+                    lateness.add(System.currentTimeMillis() - deadline);
+                    latch.countDown();
+                }, deadline);
+            }
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+            for (long late : lateness) {
+                assertTrue(late >= 0, "ran " + -late + " ms early");
+            }
+        }
+    }
+
+    @Test
+    void cancelledTimeoutsDoNotRun() throws Exception {
+        try (TimerWheel timerWheel = new TimerWheel("timer-wheel-test", TICK_MILLIS, 8)) {
+            AtomicBoolean isCancelledRun = new AtomicBoolean();
+            CountDownLatch latch = new CountDownLatch(1);
+            long now = System.currentTimeMillis();
+
+            timerWheel.schedule(() -> isCancelledRun.set(true), now + 20).cancel();
+            timerWheel.schedule(() -> isCancelledRun.set(true), now + 60).cancel();
+            timerWheel.schedule(latch::countDown, now + 100);
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertFalse(isCancelledRun.get());
+        }
+    }
+
+    @Test
+    void failingTaskIsCountedAndTheWheelKeepsRunning() throws Exception {
+        try (TimerWheel timerWheel = new TimerWheel("timer-wheel-test", TICK_MILLIS, 8)) {
+            CountDownLatch latch = new CountDownLatch(1);
+            long now = System.currentTimeMillis();
+
+            timerWheel.schedule(() -> {
+                throw new IllegalStateException("expected by the test");
+            }, now);
+            timerWheel.schedule(latch::countDown, now + 30);
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(1, timerWheel.getFailedTasksCount());
+        }
+    }
+}
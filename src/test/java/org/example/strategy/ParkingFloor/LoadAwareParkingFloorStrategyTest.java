@@ -0,0 +1,99 @@
+package org.example.strategy.ParkingFloor;
+
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.example.strategy.ParkingSpot.NearestParkingSpotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadAwareParkingFloorStrategyTest {
+    private static final int PARKING_SPOTS_PER_FLOOR = 10;
+    // ramps onto the middle of five floors
+    private static final Gate GATE = new Gate("LoadAwareParkingFloorStrategyTest-Entry", 2, GateType.ENTRY);
+
+    @Test
+    void leastLoadedFloorNearTheGateIsAssigned() {
+        LoadAwareParkingFloorStrategy loadAwareParkingFloorStrategy = new LoadAwareParkingFloorStrategy(1);
+        List<ParkingFloor> floors = createParkingFloors(5);
+
+        assertSame(floors.get(1), assignFloor(loadAwareParkingFloorStrategy, floors));
+
+        floors.get(1).claimParkingSpots(VehicleType.LMV, 3);
+        floors.get(2).claimParkingSpots(VehicleType.LMV, 2);
+        floors.get(3).claimParkingSpots(VehicleType.LMV, 1);
+
+        // floor 0 is emptier but outside the gate's proximity
+        assertSame(floors.get(3), assignFloor(loadAwareParkingFloorStrategy, floors));
+    }
+
+    @Test
+    void nearestFloorWithRoomIsAssignedOnceTheGateFloorsAreFull() {
+        LoadAwareParkingFloorStrategy loadAwareParkingFloorStrategy = new LoadAwareParkingFloorStrategy(1);
+        List<ParkingFloor> floors = createParkingFloors(6);
+
+        for (int i = 1; i <= 3; i++) {
+            floors.get(i).claimParkingSpots(VehicleType.LMV, PARKING_SPOTS_PER_FLOOR);
+        }
+
+        // floors 0 and 4 are as near, the lower one wins the tie
+        assertSame(floors.get(0), assignFloor(loadAwareParkingFloorStrategy, floors));
+
+        floors.get(0).claimParkingSpots(VehicleType.LMV, PARKING_SPOTS_PER_FLOOR);
+
+        assertSame(floors.get(4), assignFloor(loadAwareParkingFloorStrategy, floors));
+
+        floors.get(4).claimParkingSpots(VehicleType.LMV, PARKING_SPOTS_PER_FLOOR);
+        List<ParkingSpot> parkingSpots = new ArrayList<>(floors.get(5).claimParkingSpots(VehicleType.LMV, PARKING_SPOTS_PER_FLOOR));
+
+        assertTrue(loadAwareParkingFloorStrategy.assignFloor(VehicleType.LMV, GATE, floors).isEmpty());
+
+        // a release anywhere makes its floor assignable again
+        parkingSpots.get(0).release();
+
+        assertSame(floors.get(5), assignFloor(loadAwareParkingFloorStrategy, floors));
+    }
+
+    @Test
+    void floorWithoutTheVehicleTypeIsSkipped() {
+        LoadAwareParkingFloorStrategy loadAwareParkingFloorStrategy = new LoadAwareParkingFloorStrategy(1);
+        List<ParkingFloor> floors = createParkingFloors(3);
+
+        assertTrue(loadAwareParkingFloorStrategy.assignFloor(VehicleType.HMV, GATE, floors).isEmpty());
+
+        floors.get(0).addParkingSpot(new ParkingSpot("LoadAwareParkingFloorStrategyTest-HMV", VehicleType.HMV, ParkingSpotStatus.AVAILABLE));
+
+        // spots added to a floor are picked up before a full lot is reported
+        assertSame(floors.get(0), loadAwareParkingFloorStrategy.assignFloor(VehicleType.HMV, GATE, floors).orElseThrow());
+    }
+
+    private static ParkingFloor assignFloor(LoadAwareParkingFloorStrategy loadAwareParkingFloorStrategy, List<ParkingFloor> floors) {
+        Optional<ParkingFloor> parkingFloor = loadAwareParkingFloorStrategy.assignFloor(VehicleType.LMV, GATE, floors);
+
+        return parkingFloor.orElseThrow();
+    }
+
+    private static List<ParkingFloor> createParkingFloors(int floorsCount) {
+        List<ParkingFloor> floors = new ArrayList<>();
+
+        for (int i = 0; i < floorsCount; i++) {
+            ParkingFloor parkingFloor = new ParkingFloor("LoadAwareParkingFloorStrategyTest-Floor-" + i, new NearestParkingSpotStrategy());
+
+            for (int spot = 0; spot < PARKING_SPOTS_PER_FLOOR; spot++) {
+                parkingFloor.addParkingSpot(new ParkingSpot(parkingFloor.getId() + "-Spot-" + spot, VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+            }
+
+            floors.add(parkingFloor);
+        }
+
+        return floors;
+    }
+}
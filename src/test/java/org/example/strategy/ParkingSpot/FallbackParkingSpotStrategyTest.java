@@ -0,0 +1,96 @@
+package org.example.strategy.ParkingSpot;
+
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FallbackParkingSpotStrategyTest {
+    @Test
+    void rightSizedSpotIsTakenBeforeAnUpgrade() {
+        FallbackParkingSpotStrategy fallbackParkingSpotStrategy = new FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy.upgrades());
+        ParkingFloor parkingFloor = createParkingFloor(fallbackParkingSpotStrategy, VehicleType.LMV, VehicleType.TWO_WHEELER);
+
+        ParkingSpot parkingSpot = parkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER).orElseThrow();
+        ParkingSpot upgradedParkingSpot = parkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER).orElseThrow();
+
+        assertEquals(VehicleType.TWO_WHEELER, parkingSpot.getVehicleType());
+        assertEquals(VehicleType.LMV, upgradedParkingSpot.getVehicleType());
+        assertEquals(1, fallbackParkingSpotStrategy.getUpgradedParkingSpotsCount(parkingFloor, VehicleType.TWO_WHEELER));
+        assertEquals(0, parkingFloor.getParkingSpotsCount(VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+    }
+
+    @Test
+    void upgradesFollowThePolicyOnly() {
+        ParkingFloor exactParkingFloor = createParkingFloor(
+                new FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy.exact()), VehicleType.LMV, VehicleType.HMV);
+        ParkingFloor upgradesParkingFloor = createParkingFloor(
+                new FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy.upgrades()), VehicleType.HMV);
+
+        assertTrue(exactParkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER).isEmpty());
+        assertEquals(VehicleType.LMV, exactParkingFloor.claimParkingSpot(VehicleType.LMV).orElseThrow().getVehicleType());
+        assertTrue(exactParkingFloor.claimParkingSpot(VehicleType.LMV).isEmpty());
+
+        // a two wheeler may go one size up, never two
+        assertTrue(upgradesParkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER).isEmpty());
+        assertEquals(List.of(VehicleType.TWO_WHEELER, VehicleType.LMV), ParkingSpotFallbackPolicy.upgrades().getParkingSpotTypes(VehicleType.TWO_WHEELER));
+    }
+
+    @Test
+    void batchClaimFillsRightSizedSpotsBeforeUpgrading() {
+        FallbackParkingSpotStrategy fallbackParkingSpotStrategy = new FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy.upgrades());
+        ParkingFloor parkingFloor = createParkingFloor(fallbackParkingSpotStrategy,
+                VehicleType.LMV, VehicleType.TWO_WHEELER, VehicleType.LMV, VehicleType.TWO_WHEELER);
+
+        List<ParkingSpot> parkingSpots = parkingFloor.claimParkingSpots(VehicleType.TWO_WHEELER, 3);
+
+        assertEquals(List.of(VehicleType.TWO_WHEELER, VehicleType.TWO_WHEELER, VehicleType.LMV),
+                parkingSpots.stream().map(ParkingSpot::getVehicleType).toList());
+        assertEquals(1, fallbackParkingSpotStrategy.getUpgradedParkingSpotsCount(parkingFloor, VehicleType.TWO_WHEELER));
+    }
+
+    @Test
+    void freedRightSizedSpotIsReportedForTheUpgradedVehicle() {
+        FallbackParkingSpotStrategy fallbackParkingSpotStrategy = new FallbackParkingSpotStrategy(ParkingSpotFallbackPolicy.upgrades());
+        ParkingFloor parkingFloor = createParkingFloor(fallbackParkingSpotStrategy, VehicleType.TWO_WHEELER, VehicleType.LMV);
+        List<ParkingSpot[]> rebalances = new ArrayList<>();
+
+        fallbackParkingSpotStrategy.addParkingSpotRebalanceListener(
+                (upgradedParkingSpot, rightSizedParkingSpot) -> rebalances.add(new ParkingSpot[]{upgradedParkingSpot, rightSizedParkingSpot}));
+
+        ParkingSpot parkingSpot = parkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER).orElseThrow();
+        ParkingSpot upgradedParkingSpot = parkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER).orElseThrow();
+
+        assertTrue(parkingSpot.release());
+
+        assertEquals(1, rebalances.size());
+        assertSame(upgradedParkingSpot, rebalances.get(0)[0]);
+        assertSame(parkingSpot, rebalances.get(0)[1]);
+
+        // once the upgraded vehicle leaves there is nothing left to move
+        assertTrue(upgradedParkingSpot.release());
+        assertEquals(0, fallbackParkingSpotStrategy.getUpgradedParkingSpotsCount(parkingFloor, VehicleType.TWO_WHEELER));
+
+        Optional<ParkingSpot> rightSizedParkingSpot = parkingFloor.claimParkingSpot(VehicleType.TWO_WHEELER);
+
+        assertSame(parkingSpot, rightSizedParkingSpot.orElseThrow());
+        assertEquals(1, rebalances.size());
+    }
+
+    private static ParkingFloor createParkingFloor(ParkingSpotStrategy parkingSpotStrategy, VehicleType... parkingSpotTypes) {
+        ParkingFloor parkingFloor = new ParkingFloor("FallbackParkingSpotStrategyTest-Floor", parkingSpotStrategy);
+
+        for (int i = 0; i < parkingSpotTypes.length; i++) {
+            parkingFloor.addParkingSpot(new ParkingSpot("FallbackParkingSpotStrategyTest-Spot-" + i, parkingSpotTypes[i], ParkingSpotStatus.AVAILABLE));
+        }
+
+        return parkingFloor;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.strategy.ParkingSpot;
+
+import org.example.models.Gate;
+import org.example.models.ParkingFloor;
+import org.example.models.ParkingFloorLayout;
+import org.example.models.ParkingSpot;
+import org.example.models.enums.GateType;
+import org.example.models.enums.ParkingSpotStatus;
+import org.example.models.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GateProximityParkingSpotStrategyTest {
+    private static final Gate WEST_GATE = new Gate("GateProximityParkingSpotStrategyTest-West", 1, GateType.ENTRY);
+    private static final Gate EAST_GATE = new Gate("GateProximityParkingSpotStrategyTest-East", 2, GateType.ENTRY);
+    private static final Gate UNKNOWN_GATE = new Gate("GateProximityParkingSpotStrategyTest-Unknown", 3, GateType.ENTRY);
+
+    @Test
+    void spotNearestToTheEntryGateIsClaimed() {
+        ParkingFloor parkingFloor = createParkingFloor(6);
+
+        assertEquals(0, parkingFloor.claimParkingSpot(VehicleType.LMV, WEST_GATE).orElseThrow().getPosition());
+        assertEquals(5, parkingFloor.claimParkingSpot(VehicleType.LMV, EAST_GATE).orElseThrow().getPosition());
+        assertEquals(4, parkingFloor.claimParkingSpot(VehicleType.LMV, EAST_GATE).orElseThrow().getPosition());
+        assertEquals(1, parkingFloor.claimParkingSpot(VehicleType.LMV, WEST_GATE).orElseThrow().getPosition());
+    }
+
+    @Test
+    void gateTheLayoutDoesNotKnowTakesTheLowestFreePosition() {
+        ParkingFloor parkingFloor = createParkingFloor(4);
+
+        parkingFloor.claimParkingSpot(VehicleType.LMV, WEST_GATE);
+
+        assertEquals(1, parkingFloor.claimParkingSpot(VehicleType.LMV, UNKNOWN_GATE).orElseThrow().getPosition());
+        assertEquals(2, parkingFloor.claimParkingSpot(VehicleType.LMV).orElseThrow().getPosition());
+    }
+
+    @Test
+    void batchClaimWalksTheGateOrderPastOccupiedSpots() {
+        ParkingFloor parkingFloor = createParkingFloor(6);
+
+        parkingFloor.claimParkingSpot(VehicleType.LMV, EAST_GATE);
+
+        List<ParkingSpot> parkingSpots = parkingFloor.claimParkingSpots(VehicleType.LMV, EAST_GATE, 3);
+
+        assertEquals(List.of(4, 3, 2), parkingSpots.stream().map(ParkingSpot::getPosition).toList());
+        assertTrue(parkingFloor.claimParkingSpots(VehicleType.LMV, EAST_GATE, 5).stream()
+                .map(ParkingSpot::getPosition).toList().containsAll(List.of(0, 1)));
+        assertTrue(parkingFloor.claimParkingSpot(VehicleType.LMV, EAST_GATE).isEmpty());
+    }
+
+    @Test
+    void spotAddedAfterTheLayoutJoinsTheGateOrder() {
+        ParkingFloor parkingFloor = createParkingFloor(3);
+
+        assertEquals(3, parkingFloor.claimParkingSpots(VehicleType.LMV, EAST_GATE, 3).size());
+
+        parkingFloor.getParkingFloorLayout().addParkingSpotLocation("GateProximityParkingSpotStrategyTest-Spot-3", 20, 0);
+        parkingFloor.addParkingSpot(new ParkingSpot("GateProximityParkingSpotStrategyTest-Spot-3", VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+
+        assertEquals(3, parkingFloor.claimParkingSpot(VehicleType.LMV, EAST_GATE).orElseThrow().getPosition());
+    }
+
+    // spots in a row one metre apart, the west gate at the first and the east gate at the last
+    private static ParkingFloor createParkingFloor(int parkingSpotsCount) {
+        ParkingFloor parkingFloor = new ParkingFloor("GateProximityParkingSpotStrategyTest-Floor", new GateProximityParkingSpotStrategy());
+        ParkingFloorLayout parkingFloorLayout = new ParkingFloorLayout()
+                .addGateLocation(WEST_GATE.id(), 0, 0)
+                .addGateLocation(EAST_GATE.id(), parkingSpotsCount - 1, 0);
+
+        for (int i = 0; i < parkingSpotsCount; i++) {
+            String parkingSpotId = "GateProximityParkingSpotStrategyTest-Spot-" + i;
+
+            parkingFloor.addParkingSpot(new ParkingSpot(parkingSpotId, VehicleType.LMV, ParkingSpotStatus.AVAILABLE));
+            parkingFloorLayout.addParkingSpotLocation(parkingSpotId, i, 0);
+        }
+
+        parkingFloor.setParkingFloorLayout(parkingFloorLayout);
+
+        return parkingFloor;
+    }
+}
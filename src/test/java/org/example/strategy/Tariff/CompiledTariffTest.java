@@ -0,0 +1,76 @@
+package org.example.strategy.Tariff;
+
+import org.example.models.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledTariffTest {
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    // a Monday
+    private static final long MONDAY_MIDNIGHT = LocalDate.of(2024, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    private static final TariffRules FLAT = new TariffRules(ZoneOffset.UTC, Duration.ZERO, flatVehicleTariffs(), List.of());
+
+    @Test
+    void flatTariffChargesBaseAndEveryStartedHourInPaise() {
+        CompiledTariff compiledTariff = CompiledTariff.compile(FLAT);
+
+        assertEquals(3500 + 2 * 1500, compiledTariff.calculateCharges(VehicleType.LMV, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT + 90 * MINUTE));
+        assertEquals(2000 + 1000, compiledTariff.calculateCharges(VehicleType.TWO_WHEELER, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT + HOUR));
+        assertEquals(5000, compiledTariff.calculateCharges(VehicleType.HMV, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT));
+    }
+
+    @Test
+    void gracePeriodIsFree() {
+        CompiledTariff compiledTariff = CompiledTariff.compile(FLAT.withGracePeriod(Duration.ofMinutes(15)));
+
+        assertEquals(0, compiledTariff.calculateCharges(VehicleType.LMV, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT + 15 * MINUTE));
+        assertEquals(3500 + 1500, compiledTariff.calculateCharges(VehicleType.LMV, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT + 16 * MINUTE));
+    }
+
+    @Test
+    void dailyCapLimitsEveryDayOfTheStay() {
+        CompiledTariff compiledTariff = CompiledTariff.compile(FLAT.withDailyCap(VehicleType.LMV, 10_000));
+
+        assertEquals(3500 + 2 * 10_000, compiledTariff.calculateCharges(VehicleType.LMV, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT + 48 * HOUR));
+        assertEquals(3500 + 10_000 + 1500, compiledTariff.calculateCharges(VehicleType.LMV, MONDAY_MIDNIGHT, MONDAY_MIDNIGHT + 25 * HOUR));
+    }
+
+    // the band scales the hours it covers and rounds each to whole paise
+    @Test
+    void timeBandScalesTheHoursItCovers() {
+        CompiledTariff compiledTariff = CompiledTariff.compile(FLAT.withTimeBand(
+                new TariffRules.TimeBand(Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(10, 0), 1.333)));
+        long inTime = MONDAY_MIDNIGHT + 8 * HOUR;
+
+        assertEquals(3500 + 2 * 2000 + 1500, compiledTariff.calculateCharges(VehicleType.LMV, inTime, inTime + 3 * HOUR));
+        assertEquals(3500 + 1500, compiledTariff.calculateCharges(VehicleType.LMV, inTime + 7 * 24 * HOUR - 2 * HOUR, inTime + 7 * 24 * HOUR - HOUR));
+    }
+
+    @Test
+    void rulesMissingAVehicleTypeAreRejected() {
+        Map<VehicleType, TariffRules.VehicleTariff> vehicleTariffs = flatVehicleTariffs();
+        vehicleTariffs.remove(VehicleType.HMV);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CompiledTariff.compile(new TariffRules(ZoneOffset.UTC, Duration.ZERO, vehicleTariffs, List.of())));
+    }
+
+    private static Map<VehicleType, TariffRules.VehicleTariff> flatVehicleTariffs() {
+        Map<VehicleType, TariffRules.VehicleTariff> vehicleTariffs = new EnumMap<>(VehicleType.class);
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            vehicleTariffs.put(vehicleType, new TariffRules.VehicleTariff(vehicleType.getBaseChargeCents(), vehicleType.getHourlyRateCents(), 0));
+        }
+
+        return vehicleTariffs;
+    }
+}